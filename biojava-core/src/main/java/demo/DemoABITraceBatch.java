@@ -0,0 +1,95 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package demo;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
+import org.biojava.nbio.core.sequence.io.ABITrace;
+import org.biojava.nbio.core.sequence.io.ABITraceBatchReader;
+import org.biojava.nbio.core.sequence.template.AbstractSequence;
+import org.biojava.nbio.core.util.ConcurrencyTools;
+
+/**
+ * Measures reading a directory of ABI traces: decoding every tag of each
+ * trace as a viewer would, decoding just the sequence and quality calls on
+ * the calling thread, and {@link ABITraceBatchReader#readDirectory(File)}
+ * on the pool of {@link ConcurrencyTools}. Takes a directory of traces;
+ * without one, copies of the given trace (by default
+ * <code>src/test/resources/3730.ab1</code>) are written to the temporary
+ * directory first.
+ */
+public class DemoABITraceBatch {
+
+	public static void main(String[] args) throws Exception {
+		File directory;
+		if (args.length > 0 && new File(args[0]).isDirectory()) {
+			directory = new File(args[0]);
+		} else {
+			File trace = new File(args.length > 0 ? args[0] : "src/test/resources/3730.ab1");
+			Path temp = Files.createTempDirectory("demo");
+			for (int i = 0; i < 2000; i++) {
+				Path copy = temp.resolve("trace" + i + ".ab1");
+				Files.copy(trace.toPath(), copy);
+				copy.toFile().deleteOnExit();
+			}
+			temp.toFile().deleteOnExit();
+			directory = temp.toFile();
+		}
+		List<File> files = ABITraceBatchReader.listTraces(directory);
+
+		for (int round = 0; round < 3; round++) {
+			long bases = 0;
+			long timeS = System.nanoTime();
+			for (File file : files) {
+				ABITrace trace = new ABITrace(file);
+				bases += trace.getSequence().getLength() + trace.getQcalls().length + trace.getBasecalls().length;
+				for (String base : new String[] { "A", "C", "G", "T" }) {
+					bases += trace.getTrace(base).length;
+				}
+			}
+			report("every tag", files.size(), timeS);
+
+			timeS = System.nanoTime();
+			for (File file : files) {
+				bases += ABITraceBatchReader.read(file).getLength();
+			}
+			report("sequence and qualities", files.size(), timeS);
+
+			timeS = System.nanoTime();
+			List<AbstractSequence<NucleotideCompound>> sequences = ABITraceBatchReader.readDirectory(directory);
+			report("batch on " + ConcurrencyTools.getThreadPool().getMaximumPoolSize() + " threads", sequences.size(),
+					timeS);
+			if (bases == 0) {
+				System.out.println("no bases read");
+			}
+		}
+		ConcurrencyTools.shutdown();
+	}
+
+	private static void report(String what, int traces, long timeS) {
+		double seconds = (System.nanoTime() - timeS) / 1e9;
+		System.out.println(what + ": " + String.format("%.0f", traces / seconds) + " traces/s");
+	}
+}
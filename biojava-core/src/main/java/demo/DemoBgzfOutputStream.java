@@ -0,0 +1,95 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package demo;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import org.biojava.nbio.core.util.BgzfOutputStream;
+
+/**
+ * Measures the throughput of {@link BgzfOutputStream} for increasing
+ * numbers of threads against a single threaded {@link GZIPOutputStream}.
+ * Takes an optional number of megabytes of FASTA-like text to compress
+ * (defaults to 200) and the largest number of threads to try (defaults to
+ * the number of available processors); the thread count is doubled from 1
+ * up to it.
+ */
+public class DemoBgzfOutputStream {
+
+	public static void main(String[] args) throws Exception {
+		int megabytes = (args.length > 0) ? Integer.parseInt(args[0]) : 200;
+		int maxThreads = (args.length > 1) ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		Random random = new Random(42);
+		byte[] data = new byte[megabytes * 1000000];
+		for (int i = 0; i < data.length; i++) {
+			data[i] = ((i + 1) % 61 == 0) ? (byte) '\n' : (byte) "ACGT".charAt(random.nextInt(4));
+		}
+		File file = File.createTempFile("demo", ".gz");
+		file.deleteOnExit();
+
+		long timeS = System.nanoTime();
+		try (OutputStream out = new GZIPOutputStream(new BufferedOutputStream(new FileOutputStream(file)), 1 << 16)) {
+			out.write(data);
+		}
+		long gzipTime = System.nanoTime() - timeS;
+		System.out.println("GZIPOutputStream: " + rate(data.length, gzipTime) + " MB/s");
+
+		timeS = System.nanoTime();
+		try (OutputStream out = new BgzfOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+			out.write(data);
+		}
+		report("BgzfOutputStream, calling thread", data.length, System.nanoTime() - timeS, gzipTime);
+
+		for (int threads = 1;; threads = Math.min(threads * 2, maxThreads)) {
+			ExecutorService executor = Executors.newFixedThreadPool(threads);
+			try {
+				timeS = System.nanoTime();
+				try (OutputStream out = new BgzfOutputStream(new BufferedOutputStream(new FileOutputStream(file)), executor,
+						threads * 4, Deflater.DEFAULT_COMPRESSION)) {
+					out.write(data);
+				}
+				report("BgzfOutputStream, " + threads + " threads", data.length, System.nanoTime() - timeS, gzipTime);
+			} finally {
+				executor.shutdown();
+			}
+			if (threads >= maxThreads) {
+				break;
+			}
+		}
+	}
+
+	private static void report(String name, long bytes, long nanos, long gzipNanos) {
+		System.out.println(name + ": " + rate(bytes, nanos) + " MB/s ("
+				+ String.format("%.1f", (double) gzipNanos / nanos) + "x)");
+	}
+
+	private static String rate(long bytes, long nanos) {
+		return String.format("%.0f", bytes / 1e6 / (nanos / 1e9));
+	}
+}
@@ -0,0 +1,73 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package demo;
+
+import java.util.Random;
+
+import org.biojava.nbio.core.sequence.compound.DNACompoundSet;
+import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
+import org.biojava.nbio.core.sequence.storage.BitSequenceReader;
+import org.biojava.nbio.core.sequence.storage.FourBitSequenceReader;
+import org.biojava.nbio.core.sequence.storage.TwoBitSequenceReader;
+import org.biojava.nbio.core.sequence.template.SequenceMixin;
+
+/**
+ * Compares decoding a bit encoded sequence one compound at a time (the
+ * {@link SequenceMixin#toString(org.biojava.nbio.core.sequence.template.Sequence)}
+ * path) with the table driven bulk decoding of
+ * {@link BitSequenceReader#getSequenceAsString()}. Takes an optional length
+ * in megabases (defaults to 10).
+ */
+public class DemoBitDecoding {
+
+	public static void main(String[] args) {
+		int length = ((args.length > 0) ? Integer.parseInt(args[0]) : 10) * 1000000;
+		Random random = new Random(42);
+		StringBuilder sb = new StringBuilder(length);
+		for (int i = 0; i < length; i++) {
+			sb.append("ACGT".charAt(random.nextInt(4)));
+		}
+		String sequence = sb.toString();
+		DNACompoundSet set = DNACompoundSet.getDNACompoundSet();
+
+		benchmark("TwoBit", new TwoBitSequenceReader<NucleotideCompound>(sequence, set), sequence);
+		benchmark("FourBit", new FourBitSequenceReader<NucleotideCompound>(sequence, set), sequence);
+	}
+
+	private static void benchmark(String name, BitSequenceReader<NucleotideCompound> reader, String expected) {
+		for (int run = 0; run < 5; run++) {
+			long timeS = System.nanoTime();
+			String perCompound = SequenceMixin.toString(reader);
+			long perCompoundTime = System.nanoTime() - timeS;
+
+			timeS = System.nanoTime();
+			String bulk = reader.getSequenceAsString();
+			long bulkTime = System.nanoTime() - timeS;
+
+			if (!perCompound.equals(expected) || !bulk.equals(expected)) {
+				throw new IllegalStateException("Decoded sequence does not match");
+			}
+			System.out.println(name + " run " + (run + 1) + ": per compound " + (perCompoundTime / 1000000)
+					+ "ms, bulk " + (bulkTime / 1000000) + "ms ("
+					+ String.format("%.1f", (double) perCompoundTime / bulkTime) + "x)");
+		}
+	}
+}
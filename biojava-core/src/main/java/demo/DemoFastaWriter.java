@@ -0,0 +1,95 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package demo;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.PrintWriter;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.biojava.nbio.core.sequence.DNASequence;
+import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
+import org.biojava.nbio.core.sequence.io.FastaWriter;
+import org.biojava.nbio.core.sequence.io.GenericFastaHeaderFormat;
+
+/**
+ * Compares the throughput of {@link FastaWriter} with a naive writer which
+ * wraps lines by taking substrings of
+ * {@link DNASequence#getSequenceAsString()} and prints them through a
+ * {@link PrintWriter}. Takes an optional number of megabases to write
+ * (defaults to 100).
+ */
+public class DemoFastaWriter {
+
+	public static void main(String[] args) throws Exception {
+		int megabases = (args.length > 0) ? Integer.parseInt(args[0]) : 100;
+		Random random = new Random(42);
+		List<DNASequence> sequences = new ArrayList<DNASequence>();
+		long total = 0;
+		while (total < megabases * 1000000L) {
+			int length = 1000 + random.nextInt(1000000);
+			StringBuilder sb = new StringBuilder(length);
+			for (int i = 0; i < length; i++) {
+				sb.append("ACGT".charAt(random.nextInt(4)));
+			}
+			DNASequence sequence = new DNASequence(sb.toString());
+			sequence.setOriginalHeader("seq" + sequences.size());
+			sequences.add(sequence);
+			total += length;
+		}
+		File file = File.createTempFile("demo", ".fasta");
+		file.deleteOnExit();
+
+		for (int run = 0; run < 5; run++) {
+			long timeS = System.nanoTime();
+			try (PrintWriter writer = new PrintWriter(new BufferedOutputStream(new FileOutputStream(file)))) {
+				for (DNASequence sequence : sequences) {
+					writer.println(">" + sequence.getOriginalHeader());
+					String residues = sequence.getSequenceAsString();
+					for (int i = 0; i < residues.length(); i += 60) {
+						writer.println(residues.substring(i, Math.min(residues.length(), i + 60)));
+					}
+				}
+			}
+			long naiveTime = System.nanoTime() - timeS;
+
+			timeS = System.nanoTime();
+			try (FastaWriter<DNASequence, NucleotideCompound> writer = new FastaWriter<DNASequence, NucleotideCompound>(
+					FileChannel.open(file.toPath(), StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING),
+					new GenericFastaHeaderFormat<DNASequence, NucleotideCompound>())) {
+				writer.write(sequences);
+			}
+			long writerTime = System.nanoTime() - timeS;
+
+			System.out.println("Run " + (run + 1) + ": naive " + rate(total, naiveTime) + " MB/s, FastaWriter "
+					+ rate(total, writerTime) + " MB/s (" + String.format("%.1f", (double) naiveTime / writerTime) + "x)");
+		}
+	}
+
+	private static String rate(long bases, long nanos) {
+		return String.format("%.0f", bases / 1e6 / (nanos / 1e9));
+	}
+}
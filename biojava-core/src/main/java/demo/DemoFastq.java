@@ -0,0 +1,118 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package demo;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.biojava.nbio.core.sequence.DNASequence;
+import org.biojava.nbio.core.sequence.compound.DNACompoundSet;
+import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
+import org.biojava.nbio.core.sequence.io.DNASequenceCreator;
+import org.biojava.nbio.core.sequence.io.FastqReader;
+import org.biojava.nbio.core.sequence.io.FastqWriter;
+import org.biojava.nbio.core.sequence.io.GenericFastaHeaderFormat;
+import org.biojava.nbio.core.sequence.io.QualityEncoding;
+
+/**
+ * Measures the throughput of {@link FastqReader} and {@link FastqWriter} on
+ * a single thread. Takes a Phred+33 FASTQ file; without one, a file of
+ * random 150 base reads is written to the temporary directory first.
+ */
+public class DemoFastq {
+
+	public static void main(String[] args) throws Exception {
+		File file;
+		if (args.length > 0) {
+			file = new File(args[0]);
+		} else {
+			file = File.createTempFile("demo", ".fastq");
+			file.deleteOnExit();
+			writeRandomReads(file, 500000, 150);
+		}
+		DNASequenceCreator creator = new DNASequenceCreator(DNACompoundSet.getDNACompoundSet());
+		double megabytes = file.length() / 1e6;
+
+		List<DNASequence> reads = new ArrayList<DNASequence>();
+		try (FastqReader<DNASequence, NucleotideCompound> reader = new FastqReader<DNASequence, NucleotideCompound>(
+				file, creator, QualityEncoding.PHRED_33)) {
+			reader.stream().forEach(reads::add);
+		}
+
+		for (int round = 0; round < 3; round++) {
+			// reads are dropped as they are read, as when filtering a file
+			long bases = 0;
+			long timeS = System.nanoTime();
+			try (FastqReader<DNASequence, NucleotideCompound> reader = new FastqReader<DNASequence, NucleotideCompound>(
+					file, creator, QualityEncoding.PHRED_33)) {
+				for (DNASequence read; (read = reader.read()) != null;) {
+					bases += read.getLength();
+				}
+			}
+			double seconds = (System.nanoTime() - timeS) / 1e9;
+			System.out.println("read " + bases + " bases: " + String.format("%.0f", megabytes / seconds) + " MB/s");
+
+			timeS = System.nanoTime();
+			try (FastqWriter<DNASequence, NucleotideCompound> writer = new FastqWriter<DNASequence, NucleotideCompound>(
+					new NullOutputStream(), new GenericFastaHeaderFormat<DNASequence, NucleotideCompound>(),
+					QualityEncoding.PHRED_33)) {
+				writer.write(reads);
+			}
+			seconds = (System.nanoTime() - timeS) / 1e9;
+			System.out.println("wrote " + reads.size() + " reads: " + String.format("%.0f", megabytes / seconds) + " MB/s");
+		}
+	}
+
+	private static void writeRandomReads(File file, int count, int length) throws Exception {
+		Random random = new Random(1);
+		byte[] bases = new byte[length];
+		byte[] qualities = new byte[length];
+		try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+			for (int r = 0; r < count; r++) {
+				for (int i = 0; i < length; i++) {
+					bases[i] = (byte) "ACGT".charAt(random.nextInt(4));
+					qualities[i] = (byte) (33 + random.nextInt(42));
+				}
+				out.write(("@read" + r + "\n").getBytes());
+				out.write(bases);
+				out.write("\n+\n".getBytes());
+				out.write(qualities);
+				out.write('\n');
+			}
+		}
+	}
+
+	private static class NullOutputStream extends OutputStream {
+
+		@Override
+		public void write(int b) {
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+		}
+	}
+}
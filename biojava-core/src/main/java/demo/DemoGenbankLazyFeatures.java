@@ -0,0 +1,82 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package demo;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+
+import org.biojava.nbio.core.sequence.DNASequence;
+import org.biojava.nbio.core.sequence.compound.DNACompoundSet;
+import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
+import org.biojava.nbio.core.sequence.io.DNASequenceCreator;
+import org.biojava.nbio.core.sequence.io.GenbankReader;
+import org.biojava.nbio.core.sequence.io.GenericGenbankHeaderParser;
+
+/**
+ * Compares a sequence only scan of a nucleotide GenBank file by a
+ * {@link GenbankReader} parsing every feature with one in lazy feature
+ * mode, then the cost of reading the features of every record afterwards.
+ * Takes the GenBank file and optionally the number of rounds (defaults to
+ * 3).
+ */
+public class DemoGenbankLazyFeatures {
+
+	public static void main(String[] args) throws Exception {
+		if (args.length < 1) {
+			System.err.println("Usage: DemoGenbankLazyFeatures <nucleotide genbank> [rounds]");
+			System.exit(1);
+		}
+		File file = new File(args[0]);
+		int rounds = (args.length > 1) ? Integer.parseInt(args[1]) : 3;
+		for (int round = 0; round < rounds; round++) {
+			long eager = scan(file, false);
+			long lazy = scan(file, true);
+			System.out.println("eager: " + (eager / 1000000) + "ms, lazy: " + (lazy / 1000000) + "ms ("
+					+ String.format("%.1f", (double) eager / lazy) + "x)");
+		}
+	}
+
+	private static long scan(File file, boolean lazyFeatures) throws Exception {
+		GenbankReader<DNASequence, NucleotideCompound> reader = new GenbankReader<DNASequence, NucleotideCompound>(file,
+				new GenericGenbankHeaderParser<DNASequence, NucleotideCompound>(),
+				new DNASequenceCreator(DNACompoundSet.getDNACompoundSet()));
+		reader.setLazyFeatures(lazyFeatures);
+		long timeS = System.nanoTime();
+		LinkedHashMap<String, DNASequence> sequences = reader.process();
+		long bases = 0;
+		for (DNASequence sequence : sequences.values()) {
+			bases += sequence.getLength();
+		}
+		long time = System.nanoTime() - timeS;
+		if (lazyFeatures) {
+			timeS = System.nanoTime();
+			int features = 0;
+			for (DNASequence sequence : sequences.values()) {
+				features += sequence.getFeatures().size();
+			}
+			System.out.println("  lazy: " + features + " features loaded afterwards in "
+					+ ((System.nanoTime() - timeS) / 1000000) + "ms");
+		}
+		System.out.println("  " + (lazyFeatures ? "lazy" : "eager") + ": " + sequences.size() + " records, " + bases
+				+ " bases");
+		return time;
+	}
+}
@@ -0,0 +1,138 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package demo;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.biojava.nbio.core.sequence.DNASequence;
+import org.biojava.nbio.core.sequence.DataSource;
+import org.biojava.nbio.core.sequence.compound.DNACompoundSet;
+import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
+import org.biojava.nbio.core.sequence.io.DNASequenceCreator;
+import org.biojava.nbio.core.sequence.io.GenbankReader;
+import org.biojava.nbio.core.sequence.io.GenericGenbankHeaderParser;
+import org.biojava.nbio.core.sequence.location.InsdcParser;
+
+/**
+ * Measures the time {@link InsdcParser} takes per feature location, with
+ * and without its location cache, then {@link GenbankReader} reading the
+ * whole file with and without {@link GenbankReader#setLocationCacheSize(int)}.
+ * Takes a GenBank file such as a bacterial genome (e.g. NC_018080) and
+ * optionally the number of rounds (defaults to 5). For the first part the
+ * locations are taken from the feature tables beforehand so only parsing is
+ * timed.
+ */
+public class DemoInsdcParser {
+
+	public static void main(String[] args) throws Exception {
+		if (args.length < 1) {
+			System.err.println("Usage: DemoInsdcParser <genbank> [rounds]");
+			System.exit(1);
+		}
+		int rounds = (args.length > 1) ? Integer.parseInt(args[1]) : 5;
+		List<String> locations = readLocations(new File(args[0]));
+		int simple = 0;
+		int parts = 0;
+		for (String location : locations) {
+			if (location.matches("(complement\\()?<?\\d+(\\.\\.>?\\d+)?\\)?")) {
+				simple++;
+			} else if (location.contains(",")) {
+				parts++;
+			}
+		}
+		System.out.println(locations.size() + " locations, " + simple + " of the simple forms, " + parts
+				+ " of several parts");
+
+		for (int round = 0; round < rounds; round++) {
+			long uncached = time(locations, 0);
+			long cached = time(locations, 4096);
+			System.out.println("uncached: " + (uncached / locations.size()) + "ns per feature, cached: "
+					+ (cached / locations.size()) + "ns per feature");
+		}
+		for (int round = 0; round < rounds; round++) {
+			System.out.println("GenbankReader uncached: " + (read(new File(args[0]), 0) / 1000000)
+					+ "ms, cached: " + (read(new File(args[0]), 4096) / 1000000) + "ms");
+		}
+	}
+
+	private static long read(File file, int cacheSize) throws Exception {
+		long timeS = System.nanoTime();
+		GenbankReader<DNASequence, NucleotideCompound> reader = new GenbankReader<DNASequence, NucleotideCompound>(
+				file, new GenericGenbankHeaderParser<DNASequence, NucleotideCompound>(),
+				new DNASequenceCreator(DNACompoundSet.getDNACompoundSet()));
+		reader.setLocationCacheSize(cacheSize);
+		reader.process();
+		return System.nanoTime() - timeS;
+	}
+
+	private static long time(List<String> locations, int cacheSize) {
+		InsdcParser parser = new InsdcParser(DataSource.GENBANK);
+		parser.setCacheSize(cacheSize);
+		long timeS = System.nanoTime();
+		// twice so that the cache sees locations repeated
+		for (int i = 0; i < 2; i++) {
+			for (String location : locations) {
+				parser.parse(location);
+			}
+		}
+		return (System.nanoTime() - timeS) / 2;
+	}
+
+	/**
+	 * Collects the locations of the feature tables, joining locations split
+	 * over several lines
+	 */
+	private static List<String> readLocations(File file) throws Exception {
+		List<String> locations = new ArrayList<String>();
+		try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+			boolean inFeatures = false;
+			StringBuilder location = null;
+			for (String line; (line = reader.readLine()) != null;) {
+				if (!line.startsWith(" ")) {
+					inFeatures = line.startsWith("FEATURES");
+					continue;
+				}
+				if (!inFeatures || line.length() <= 21) {
+					continue;
+				}
+				if (line.charAt(5) != ' ') {
+					if (location != null) {
+						locations.add(location.toString());
+					}
+					location = new StringBuilder(line.substring(21).trim());
+				} else if (location != null && line.charAt(21) != '/') {
+					location.append(line.substring(21).trim());
+				} else if (location != null) {
+					locations.add(location.toString());
+					location = null;
+				}
+			}
+			if (location != null) {
+				locations.add(location.toString());
+			}
+		}
+		return locations;
+	}
+}
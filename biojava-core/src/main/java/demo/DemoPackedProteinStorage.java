@@ -0,0 +1,148 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package demo;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Random;
+
+import org.biojava.nbio.core.sequence.ProteinSequence;
+import org.biojava.nbio.core.sequence.compound.AminoAcidCompound;
+import org.biojava.nbio.core.sequence.compound.AminoAcidCompoundSet;
+import org.biojava.nbio.core.sequence.io.FastaReader;
+import org.biojava.nbio.core.sequence.io.GenericFastaHeaderParser;
+import org.biojava.nbio.core.sequence.io.ProteinSequenceCreator;
+import org.biojava.nbio.core.sequence.storage.ArrayListSequenceReader;
+import org.biojava.nbio.core.sequence.storage.FiveBitSequenceReader;
+import org.biojava.nbio.core.sequence.template.SequenceReader;
+import org.biojava.nbio.core.util.InputStreamProvider;
+
+/**
+ * Compares {@link FiveBitSequenceReader} against {@link ArrayListSequenceReader}
+ * for load time, retained heap and random access. Pass a protein FASTA file
+ * (optionally gzipped) or nothing to use random sequences; run with a fixed
+ * heap e.g. <code>-Xmx4g</code> for comparable memory figures.
+ */
+public class DemoPackedProteinStorage {
+
+	private static final String RESIDUES = "ACDEFGHIKLMNPQRSTVWY";
+	private static final int LOOKUPS = 10000000;
+
+	public static void main(String[] args) throws Exception {
+		List<String> sequences = (args.length > 0) ? readFasta(new File(args[0])) : randomSequences(20000, 400);
+		long residues = 0;
+		for (String s : sequences) {
+			residues += s.length();
+		}
+		System.out.println("Loaded " + sequences.size() + " sequences holding " + residues + " residues");
+
+		AminoAcidCompoundSet set = AminoAcidCompoundSet.getAminoAcidCompoundSet();
+		for (int run = 0; run < 3; run++) {
+			System.out.println("##### Run " + (run + 1) + " #####");
+			benchmark("ArrayListSequenceReader", sequences, residues, new Loader() {
+				@Override
+				public SequenceReader<AminoAcidCompound> load(String sequence) throws Exception {
+					ArrayListSequenceReader<AminoAcidCompound> reader = new ArrayListSequenceReader<AminoAcidCompound>();
+					reader.setCompoundSet(set);
+					reader.setContents(sequence);
+					return reader;
+				}
+			});
+			benchmark("FiveBitSequenceReader", sequences, residues, new Loader() {
+				@Override
+				public SequenceReader<AminoAcidCompound> load(String sequence) {
+					return new FiveBitSequenceReader<AminoAcidCompound>(sequence, set);
+				}
+			});
+		}
+	}
+
+	private interface Loader {
+		SequenceReader<AminoAcidCompound> load(String sequence) throws Exception;
+	}
+
+	private static void benchmark(String name, List<String> sequences, long residues, Loader loader) throws Exception {
+		long before = usedMemory();
+		long timeS = System.nanoTime();
+		List<SequenceReader<AminoAcidCompound>> readers = new ArrayList<SequenceReader<AminoAcidCompound>>(sequences.size());
+		for (String s : sequences) {
+			readers.add(loader.load(s));
+		}
+		long loadTime = System.nanoTime() - timeS;
+		long retained = usedMemory() - before;
+
+		Random random = new Random(1);
+		int checksum = 0;
+		timeS = System.nanoTime();
+		for (int i = 0; i < LOOKUPS; i++) {
+			SequenceReader<AminoAcidCompound> reader = readers.get(random.nextInt(readers.size()));
+			checksum += reader.getCompoundAt(random.nextInt(reader.getLength()) + 1).hashCode();
+		}
+		long accessTime = System.nanoTime() - timeS;
+
+		System.out.println(name + ": load " + (loadTime / 1000000) + "ms, retained "
+				+ (retained / (1024 * 1024)) + "MB (" + String.format("%.2f", (double) retained / residues)
+				+ " bytes/residue), " + LOOKUPS + " random reads " + (accessTime / 1000000) + "ms [" + checksum + "]");
+		readers.clear();
+	}
+
+	private static long usedMemory() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	private static List<String> randomSequences(int count, int meanLength) {
+		Random random = new Random(42);
+		List<String> sequences = new ArrayList<String>(count);
+		for (int i = 0; i < count; i++) {
+			int length = meanLength / 2 + random.nextInt(meanLength);
+			StringBuilder sb = new StringBuilder(length);
+			for (int j = 0; j < length; j++) {
+				sb.append(RESIDUES.charAt(random.nextInt(RESIDUES.length())));
+			}
+			sequences.add(sb.toString());
+		}
+		return sequences;
+	}
+
+	private static List<String> readFasta(File file) throws Exception {
+		InputStream inStream = new InputStreamProvider().getInputStream(file);
+		FastaReader<ProteinSequence, AminoAcidCompound> fastaReader = new FastaReader<ProteinSequence, AminoAcidCompound>(
+				inStream,
+				new GenericFastaHeaderParser<ProteinSequence, AminoAcidCompound>(),
+				new ProteinSequenceCreator(AminoAcidCompoundSet.getAminoAcidCompoundSet()));
+		List<String> sequences = new ArrayList<String>();
+		LinkedHashMap<String, ProteinSequence> b;
+		while ((b = fastaReader.process(1000)) != null) {
+			for (ProteinSequence s : b.values()) {
+				sequences.add(s.getSequenceAsString());
+			}
+		}
+		fastaReader.close();
+		return sequences;
+	}
+}
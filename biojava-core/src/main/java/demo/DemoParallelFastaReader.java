@@ -0,0 +1,89 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package demo;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import org.biojava.nbio.core.sequence.ProteinSequence;
+import org.biojava.nbio.core.sequence.compound.AminoAcidCompound;
+import org.biojava.nbio.core.sequence.compound.AminoAcidCompoundSet;
+import org.biojava.nbio.core.sequence.io.FastaReader;
+import org.biojava.nbio.core.sequence.io.GenericFastaHeaderParser;
+import org.biojava.nbio.core.sequence.io.ParallelFastaReader;
+import org.biojava.nbio.core.sequence.io.ProteinSequenceCreator;
+
+/**
+ * Measures how {@link ParallelFastaReader} scales with the number of threads
+ * against a single threaded {@link FastaReader}. Takes a protein FASTA file
+ * and optionally the largest number of threads to try (defaults to the
+ * number of available processors); the thread count is doubled from 1 up
+ * to it.
+ */
+public class DemoParallelFastaReader {
+
+	public static void main(String[] args) throws Exception {
+		if (args.length < 1) {
+			System.err.println("Usage: DemoParallelFastaReader <protein fasta> [max threads]");
+			System.exit(1);
+		}
+		File file = new File(args[0]);
+		int maxThreads = (args.length > 1) ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		AminoAcidCompoundSet set = AminoAcidCompoundSet.getAminoAcidCompoundSet();
+
+		long timeS = System.nanoTime();
+		LinkedHashMap<String, ProteinSequence> sequences = new FastaReader<ProteinSequence, AminoAcidCompound>(file,
+				new GenericFastaHeaderParser<ProteinSequence, AminoAcidCompound>(), new ProteinSequenceCreator(set))
+				.process();
+		long baseline = System.nanoTime() - timeS;
+		System.out.println("FastaReader: " + sequences.size() + " records in " + (baseline / 1000000) + "ms");
+
+		ParallelFastaReader<ProteinSequence, AminoAcidCompound> reader = new ParallelFastaReader<ProteinSequence, AminoAcidCompound>(
+				file, new GenericFastaHeaderParser<ProteinSequence, AminoAcidCompound>(), new ProteinSequenceCreator(set));
+		for (int threads = 1;; threads = Math.min(threads * 2, maxThreads)) {
+			benchmark(reader, threads, sequences.size(), baseline);
+			if (threads >= maxThreads) {
+				break;
+			}
+		}
+	}
+
+	private static void benchmark(ParallelFastaReader<ProteinSequence, AminoAcidCompound> reader, int threads,
+			int expected, long baseline) throws Exception {
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			for (boolean ordered : new boolean[] { true, false }) {
+				long timeS = System.nanoTime();
+				Map<String, ProteinSequence> parsed = reader.process(pool, ordered);
+				long time = System.nanoTime() - timeS;
+				if (parsed.size() != expected) {
+					throw new IllegalStateException("Parsed " + parsed.size() + " records, expected " + expected);
+				}
+				System.out.println(threads + " threads" + (ordered ? ", ordered: " : ", unordered: ") + (time / 1000000)
+						+ "ms (" + String.format("%.1f", (double) baseline / time) + "x)");
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
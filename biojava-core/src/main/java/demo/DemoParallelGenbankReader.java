@@ -0,0 +1,84 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package demo;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.biojava.nbio.core.sequence.DNASequence;
+import org.biojava.nbio.core.sequence.compound.DNACompoundSet;
+import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
+import org.biojava.nbio.core.sequence.io.DNASequenceCreator;
+import org.biojava.nbio.core.sequence.io.GenbankReader;
+import org.biojava.nbio.core.sequence.io.GenericGenbankHeaderParser;
+import org.biojava.nbio.core.sequence.io.ParallelGenbankReader;
+
+/**
+ * Measures how {@link ParallelGenbankReader} scales with the number of
+ * threads against a single threaded {@link GenbankReader}. Takes a
+ * nucleotide GenBank file and optionally the largest number of threads to
+ * try (defaults to the number of available processors); the thread count is
+ * doubled from 1 up to it.
+ */
+public class DemoParallelGenbankReader {
+
+	public static void main(String[] args) throws Exception {
+		if (args.length < 1) {
+			System.err.println("Usage: DemoParallelGenbankReader <nucleotide genbank> [max threads]");
+			System.exit(1);
+		}
+		File file = new File(args[0]);
+		int maxThreads = (args.length > 1) ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		DNACompoundSet set = DNACompoundSet.getDNACompoundSet();
+
+		long timeS = System.nanoTime();
+		LinkedHashMap<String, DNASequence> sequences = new GenbankReader<DNASequence, NucleotideCompound>(file,
+				new GenericGenbankHeaderParser<DNASequence, NucleotideCompound>(), new DNASequenceCreator(set))
+				.process();
+		long baseline = System.nanoTime() - timeS;
+		System.out.println("GenbankReader: " + sequences.size() + " records in " + (baseline / 1000000) + "ms");
+
+		for (int threads = 1;; threads = Math.min(threads * 2, maxThreads)) {
+			ExecutorService executor = Executors.newFixedThreadPool(threads);
+			try {
+				for (boolean ordered : new boolean[] { true, false }) {
+					timeS = System.nanoTime();
+					Map<String, DNASequence> parsed = new ParallelGenbankReader<DNASequence, NucleotideCompound>(file,
+							new DNASequenceCreator(set)).process(executor, threads * 4, ordered);
+					long time = System.nanoTime() - timeS;
+					if (parsed.size() != sequences.size()) {
+						throw new IllegalStateException("Parsed " + parsed.size() + " records, expected " + sequences.size());
+					}
+					System.out.println(threads + " threads" + (ordered ? ", ordered: " : ", unordered: ")
+							+ (time / 1000000) + "ms (" + String.format("%.1f", (double) baseline / time) + "x)");
+				}
+			} finally {
+				executor.shutdown();
+			}
+			if (threads >= maxThreads) {
+				break;
+			}
+		}
+	}
+}
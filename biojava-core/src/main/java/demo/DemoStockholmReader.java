@@ -0,0 +1,103 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package demo;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.Writer;
+import java.util.Random;
+
+import org.biojava.nbio.core.sequence.io.StockholmAlignment;
+import org.biojava.nbio.core.sequence.io.StockholmReader;
+
+/**
+ * Measures the throughput of {@link StockholmReader} on a single thread,
+ * counting the gaps of every column as a per column statistic would. Takes
+ * a Stockholm file such as <code>Pfam-A.seed</code>; without one, a file of
+ * random families is written to the temporary directory first.
+ */
+public class DemoStockholmReader {
+
+	public static void main(String[] args) throws Exception {
+		File file;
+		if (args.length > 0) {
+			file = new File(args[0]);
+		} else {
+			file = File.createTempFile("demo", ".sto");
+			file.deleteOnExit();
+			writeRandomFamilies(file, 500, 200, 300);
+		}
+		double megabytes = file.length() / 1e6;
+
+		for (int round = 0; round < 3; round++) {
+			long families = 0;
+			long residues = 0;
+			long gaps = 0;
+			long timeS = System.nanoTime();
+			try (StockholmReader reader = new StockholmReader(file)) {
+				for (StockholmAlignment family; (family = reader.read()) != null;) {
+					byte[] column = new byte[family.getSize()];
+					for (int c = 0; c < family.getLength(); c++) {
+						family.getColumn(c, column, 0);
+						for (byte residue : column) {
+							if (residue == '-' || residue == '.') {
+								gaps++;
+							}
+						}
+					}
+					families++;
+					residues += (long) family.getSize() * family.getLength();
+				}
+			}
+			double seconds = (System.nanoTime() - timeS) / 1e9;
+			System.out.println("read " + families + " families, " + residues + " residues, " + gaps + " gaps: "
+					+ String.format("%.0f", megabytes / seconds) + " MB/s");
+		}
+	}
+
+	private static void writeRandomFamilies(File file, int count, int sequences, int length) throws Exception {
+		Random random = new Random(1);
+		String residues = "ACDEFGHIKLMNPQRSTVWY-.";
+		char[] line = new char[length / 2];
+		try (Writer out = new BufferedWriter(new FileWriter(file))) {
+			for (int f = 0; f < count; f++) {
+				out.write("# STOCKHOLM 1.0\n#=GF ID   family" + f + "\n#=GF AC   PF" + f + "\n");
+				for (int s = 0; s < sequences; s++) {
+					out.write("#=GS seq" + s + "/1-" + length + " AC Q" + s + "\n");
+				}
+				// two blocks of half the columns each
+				for (int block = 0; block < 2; block++) {
+					out.write('\n');
+					for (int s = 0; s < sequences; s++) {
+						for (int i = 0; i < line.length; i++) {
+							line[i] = residues.charAt(random.nextInt(residues.length()));
+						}
+						out.write(String.format("%-20s", "seq" + s + "/1-" + length));
+						out.write(line);
+						out.write('\n');
+					}
+				}
+				out.write("//\n");
+			}
+		}
+	}
+}
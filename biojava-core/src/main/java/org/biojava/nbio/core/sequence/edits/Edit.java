@@ -23,6 +23,7 @@ package org.biojava.nbio.core.sequence.edits;
 import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
 import org.biojava.nbio.core.sequence.BasicSequence;
 import org.biojava.nbio.core.sequence.storage.JoiningSequenceReader;
+import org.biojava.nbio.core.sequence.storage.RopeSequenceReader;
 import org.biojava.nbio.core.sequence.template.Compound;
 import org.biojava.nbio.core.sequence.template.Sequence;
 import org.slf4j.Logger;
@@ -75,9 +76,21 @@ public interface Edit<C extends Compound> {
 		protected abstract Sequence<C> getThreePrime(Sequence<C> editingSequence);
 
 
+		/**
+		 * Joins the 5' end, the target and the 3' end together. If the
+		 * editing Sequence is a {@link RopeSequenceReader} the target is
+		 * spliced into the rope instead which costs O(log n) and gives back
+		 * another rope, so chains of edits never build up nested views.
+		 */
 		@Override
 		public Sequence<C> edit(Sequence<C> editingSequence) {
 			Sequence<C> targetSequence = getTargetSequence(editingSequence);
+			if (editingSequence instanceof RopeSequenceReader) {
+				Sequence<C> edited = editRope((RopeSequenceReader<C>) editingSequence, targetSequence);
+				if (edited != null) {
+					return edited;
+				}
+			}
 			List<Sequence<C>> sequences = new ArrayList<Sequence<C>>();
 
 			sequences.add(getFivePrime(editingSequence));
@@ -86,6 +99,21 @@ public interface Edit<C extends Compound> {
 
 			return new JoiningSequenceReader<C>(sequences);
 		}
+
+		/**
+		 * Replaces whatever lies between the 5' and 3' ends with the target.
+		 * Returns null if the ends overlap as that cannot be expressed as a
+		 * single replacement.
+		 */
+		private Sequence<C> editRope(RopeSequenceReader<C> rope, Sequence<C> targetSequence) {
+			int length = rope.getLength();
+			int fivePrime = getFivePrime(rope).getLength();
+			int threePrime = getThreePrime(rope).getLength();
+			if (fivePrime + threePrime > length) {
+				return null;
+			}
+			return rope.replace(fivePrime + 1, length - threePrime, targetSequence);
+		}
 		private int start = -1;
 		private int end = -1;
 		private String stringSequence;
@@ -0,0 +1,120 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.features;
+
+import java.util.AbstractList;
+import java.util.List;
+
+import org.biojava.nbio.core.sequence.template.AbstractSequence;
+import org.biojava.nbio.core.sequence.template.Compound;
+
+/**
+ * A {@link QualityFeature} holding the quality scores in a byte array, one
+ * byte per base, rather than as a List of boxed numbers; this is what
+ * sequencing reads need. {@link #getQualities()} gives a read only view of
+ * the scores as numbers for code written against QualityFeature.
+ *
+ * @param <S> The type of sequence
+ * @param <C> The type of compound
+ */
+public class ByteQualityFeature<S extends AbstractSequence<C>, C extends Compound> extends QualityFeature<S, C> {
+
+	private byte[] scores;
+
+	/**
+	 * @param type
+	 * @param source
+	 * @param scores Quality score of each base, which is not copied
+	 */
+	public ByteQualityFeature(String type, String source, byte[] scores) {
+		super(type, source);
+		this.scores = scores;
+	}
+
+	/**
+	 * Returns the quality score of each base; the array is not copied
+	 */
+	public byte[] getScores() {
+		return scores;
+	}
+
+	/**
+	 * @param scores Quality score of each base, which is not copied
+	 */
+	public void setScores(byte[] scores) {
+		this.scores = scores;
+	}
+
+	/**
+	 * @param bioindex the biological index (starts with 1)
+	 * @return the quality score at the given biological index
+	 */
+	public int getScoreAt(int bioindex) {
+		return scores[bioindex - 1];
+	}
+
+	/**
+	 * @return a read only view of the scores
+	 */
+	@Override
+	public List<Number> getQualities() {
+		return new AbstractList<Number>() {
+
+			@Override
+			public Number get(int index) {
+				return Integer.valueOf(scores[index]);
+			}
+
+			@Override
+			public int size() {
+				return scores.length;
+			}
+		};
+	}
+
+	/**
+	 * Stores the given qualities as bytes
+	 *
+	 * @throws IllegalArgumentException if a quality does not fit a byte
+	 */
+	@Override
+	public void setQualities(List<Number> qualities) {
+		byte[] scores = new byte[qualities.size()];
+		for (int i = 0; i < scores.length; i++) {
+			int score = qualities.get(i).intValue();
+			if (score < Byte.MIN_VALUE || score > Byte.MAX_VALUE) {
+				throw new IllegalArgumentException("Quality " + score + " at " + (i + 1) + " does not fit a byte");
+			}
+			scores[i] = (byte) score;
+		}
+		this.scores = scores;
+	}
+
+	@Override
+	public Number getQualityAt(int bioindex) {
+		return Integer.valueOf(getScoreAt(bioindex));
+	}
+
+	@Override
+	public List<Number> getQualities(int biostart, int bioend) {
+		return getQualities().subList(biostart - 1, bioend - 1);
+	}
+}
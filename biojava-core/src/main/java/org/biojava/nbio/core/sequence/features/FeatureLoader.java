@@ -0,0 +1,41 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.features;
+
+import org.biojava.nbio.core.sequence.template.AbstractSequence;
+import org.biojava.nbio.core.sequence.template.Compound;
+
+/**
+ * Supplies the annotation of a sequence the first time it is needed: a
+ * reader may keep the unparsed feature table of a record and set a loader
+ * through {@link AbstractSequence#setFeatureLoader(FeatureLoader)} rather
+ * than parse the features itself.
+ *
+ * @param <C> The type of compound
+ */
+public interface FeatureLoader<C extends Compound> {
+
+	/**
+	 * Adds the features, references and taxonomy to the sequence. Called at
+	 * most once per sequence.
+	 */
+	void loadFeatures(AbstractSequence<C> sequence);
+}
@@ -26,9 +26,9 @@ import java.io.IOException;
 import java.io.File;
 import java.io.BufferedInputStream;
 import java.io.ByteArrayOutputStream;
-import java.io.FileInputStream;
-import java.io.DataInputStream;
-import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
@@ -50,16 +50,20 @@ import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
  * ABI files contain two sets of basecall and sequence data, one that was originally
  * created programatically and the other, which is an editable copy. This version of this object
  * only references the original unedited data.<p>
+ * Only the index of the file is read and checked on construction; the basecalls, quality calls,
+ * sequence and traces are each decoded when first asked for, so reading just the sequence and qualities skips
+ * the four trace channels. Files are memory mapped rather than copied into the heap.<p>
  */
 public class ABITrace {
 
-	//the next three lines are the important persistent data
+	//the next three lines are the important persistent data; all but the
+	//lengths are decoded from the file data when first asked for
 	private String sequence;
 	private int A[], G[], C[], T[], baseCalls[], qCalls[];
 	private int traceLength, seqLength;
 
-	//This is the actual file data.
-	private byte[] traceData;
+	//This is the actual file data, mapped when read from a file.
+	private ByteBuffer traceData;
 
 	//the next four declaration lines comprise the file index information
 	private int macJunk = 0; //sometimes when macintosh files are
@@ -72,9 +76,10 @@ public class ABITrace {
 
 	//the next declaration is for the actual file pointers
 	private int DATA9, DATA10, DATA11, DATA12, PBAS2, FWO;
+	private int tracePointers[] = new int[4]; //alphabetical, 0=A, 1=C, 2=G, 3=T
 
 	/**
-	 * The File constructor opens a local ABI file and parses the content.
+	 * The File constructor maps a local ABI file and reads its index.
 	 *
 	 * @param ABIFile is a <code>java.io.File</code> on the local file system.
 	 * @throws IOException              if there is a problem reading the file.
@@ -82,10 +87,10 @@ public class ABITrace {
 	 */
 	public ABITrace(File ABIFile) throws IOException
 	{
-		FileInputStream fis = new FileInputStream(ABIFile);
-		BufferedInputStream bis = new BufferedInputStream(fis);
-		ABITraceInit(bis);
-		fis.close();
+		try (FileChannel channel = FileChannel.open(ABIFile.toPath(), StandardOpenOption.READ)) {
+			// the mapping stays valid once the channel is closed
+			initData(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
 	}
 
 	/**
@@ -110,16 +115,15 @@ public class ABITrace {
 	 * @throws IOException if there is a problem reading from the BufferedInputStream
 	 */
 	private void ABITraceInit(BufferedInputStream bis) throws IOException{
-		byte[] bytes = null;
 		ByteArrayOutputStream baos = new ByteArrayOutputStream();
-		int b;
-		while ((b = bis.read()) >= 0)
+		byte[] buffer = new byte[8192];
+		int n;
+		while ((n = bis.read(buffer)) >= 0)
 		{
-			baos.write(b);
+			baos.write(buffer, 0, n);
 		}
 		bis.close(); baos.close();
-		bytes = baos.toByteArray();
-		initData(bytes);
+		initData(ByteBuffer.wrap(baos.toByteArray()));
 	}
 
 	/**
@@ -129,7 +133,7 @@ public class ABITrace {
 	 * @throws IllegalArgumentException if the data does not represent a valid ABI file.
 	 */
 	public ABITrace(byte[] ABIFileData) {
-		initData(ABIFileData);
+		initData(ByteBuffer.wrap(ABIFileData));
 	}
 
 	/**
@@ -156,7 +160,10 @@ public class ABITrace {
 	 *
 	 * @return int[] Basecalls
 	 */
-	public int[] getBasecalls() {
+	public synchronized int[] getBasecalls() {
+		if (baseCalls == null) {
+			setBasecalls();
+		}
 		return baseCalls;
 	}
 
@@ -166,7 +173,10 @@ public class ABITrace {
 	 *
 	 * @return int[] qCalls
 	 */
-	public int[] getQcalls() {
+	public synchronized int[] getQcalls() {
+		if (qCalls == null) {
+			setQcalls();
+		}
 		return qCalls;
 	}
 
@@ -177,7 +187,20 @@ public class ABITrace {
 	 */
 	public AbstractSequence<NucleotideCompound> getSequence() throws CompoundNotFoundException {
 		DNASequenceCreator creator = new DNASequenceCreator(ABITracerCompoundSet.getABITracerCompoundSet());
-		return creator.getSequence(sequence, 0);
+		return creator.getSequence(getSequenceString(), 0);
+	}
+
+	private synchronized String getSequenceString() {
+		if (sequence == null) {
+			setSeq();
+		}
+		return sequence;
+	}
+
+	private synchronized void ensureTraces() {
+		if (A == null) {
+			setTraces();
+		}
 	}
 
 	/**
@@ -191,6 +214,7 @@ public class ABITrace {
 	 * @throws CompoundNotFoundException if the base is not valid
 	 */
 	public int[] getTrace (String base) throws CompoundNotFoundException {
+		ensureTraces();
 		if (base.equals("A")) {
 			return A;
 		} else if (base.equals("C")) {
@@ -215,6 +239,7 @@ public class ABITrace {
 	 * @return BufferedImage image
 	 */
 	public BufferedImage getImage(int imageHeight, int widthScale) {
+		ensureTraces();
 		BufferedImage out = new BufferedImage(traceLength * widthScale, imageHeight, BufferedImage.TYPE_BYTE_INDEXED);
 		Graphics2D g = out.createGraphics();
 		Color acolor = Color.green.darker();
@@ -223,8 +248,8 @@ public class ABITrace {
 		Color tcolor = Color.red;
 		Color ncolor = Color.pink;
 		double scale = calculateScale(imageHeight);
-		int[] bc = baseCalls;
-		char[] seq = sequence.toCharArray();
+		int[] bc = getBasecalls();
+		char[] seq = getSequenceString().toCharArray();
 		g.setBackground(Color.white);
 		g.clearRect(0, 0, traceLength * widthScale, imageHeight);
 		int here = 0;
@@ -360,23 +385,19 @@ public class ABITrace {
 	 * @param fileData - data for object
 	 * @throws IllegalArgumentException which will propagate to all of the constructors.
 	 */
-	private void initData(byte[] fileData) {
+	private void initData(ByteBuffer fileData) {
 		traceData = fileData;
 		if (isABI()) {
 			setIndex();
-			setBasecalls();
-			setQcalls();
-			setSeq();
-			setTraces();
+			setOrder();
+			verifyBounds();
 		} else throw new IllegalArgumentException("Not a valid ABI file.");
 	}
 
 	/**
-	 * Shuffle the pointers to point to the proper spots in the trace, then load the
-	 * traces into their arrays.
+	 * Shuffle the pointers to point to the proper spots in the trace.
 	 */
-	private void setTraces() {
-		int pointers[] = new int[4]; //alphabetical, 0=A, 1=C, 2=G, 3=T
+	private void setOrder() {
 		int datas[] = new int[4];
 		char order[] = new char[4];
 
@@ -386,33 +407,45 @@ public class ABITrace {
 		datas[3] = DATA12;
 
 		for (int i = 0; i <= 3; i++) {
-			order[i] = (char) traceData[FWO + i];
+			order[i] = (char) traceData.get(FWO + i);
 		}
 
-		verifyOrder(pointers, datas, order);
+		verifyOrder(tracePointers, datas, order);
+	}
 
-		A = new int[traceLength];
-		C = new int[traceLength];
-		G = new int[traceLength];
-		T = new int[traceLength];
+	/**
+	 * Check that the records decoded lazily lie within the trace data, so that a
+	 * truncated file is rejected on construction rather than when first read.
+	 */
+	private void verifyBounds() {
+		verifyBounds(PBAS2, seqLength);
+		verifyBounds(PCON, seqLength);
+		verifyBounds(PLOC, 2L * seqLength);
+		for (int pointer : tracePointers) {
+			verifyBounds(pointer, 2L * traceLength);
+		}
+	}
+
+	private void verifyBounds(int pointer, long length) {
+		if (pointer < 0 || length < 0 || pointer + length > traceData.limit()) {
+			throw new IllegalArgumentException("Trace contains illegal values.");
+		}
+	}
 
+	/**
+	 * Load the traces into their arrays.
+	 */
+	private void setTraces() {
+		int[][] traces = new int[4][traceLength];
 		for (int i = 0; i <= 3; i++) {
-			byte[] qq = new byte[traceLength * 2];
-			getSubArray(qq, pointers[i]);
-			DataInputStream dis = new DataInputStream(new ByteArrayInputStream(qq));
 			for (int x = 0; x <= traceLength - 1; x++) {
-				try {
-					if (i == 0) A[x] = (int) dis.readShort();
-					if (i == 1) C[x] = (int) dis.readShort();
-					if (i == 2) G[x] = (int) dis.readShort();
-					if (i == 3) T[x] = (int) dis.readShort();
-				} catch (IOException e)//This shouldn't happen. If it does something must be seriously wrong.
-				{
-					throw new IllegalStateException("Unexpected IOException encountered while manipulating internal streams.");
-				}
+				traces[i][x] = traceData.getShort(tracePointers[i] + 2 * x);
 			}
 		}
-		return;
+		A = traces[0];
+		C = traces[1];
+		G = traces[2];
+		T = traces[3];
 	}
 
 	private void verifyOrder(int[] pointers, int[] datas, char[] order) {
@@ -446,7 +479,7 @@ public class ABITrace {
 	private void setSeq() {
 		char tempseq[] = new char[seqLength];
 		for (int x = 0; x <= seqLength - 1; ++x) {
-			tempseq[x] = (char) traceData[PBAS2 + x];
+			tempseq[x] = (char) traceData.get(PBAS2 + x);
 		}
 		sequence = new String(tempseq);
 	}
@@ -455,36 +488,22 @@ public class ABITrace {
 	 * Fetch the quality calls from the trace data.
 	 */
 	private void setQcalls() {
-		qCalls = new int[seqLength];
-		byte[] qq = new byte[seqLength];
-		getSubArray(qq, PCON);
-		DataInputStream dis = new DataInputStream(new ByteArrayInputStream(qq));
+		int[] calls = new int[seqLength];
 		for (int i = 0; i <= seqLength - 1; ++i) {
-			try {
-				qCalls[i] = (int) dis.readByte();
-			} catch (IOException e)//This shouldn't happen. If it does something must be seriously wrong.
-			{
-				throw new IllegalStateException("Unexpected IOException encountered while manipulating internal streams.");
-			}
+			calls[i] = traceData.get(PCON + i);
 		}
+		qCalls = calls;
 	}
 
 	/**
 	 * Fetch the basecalls from the trace data.
 	 */
 	private void setBasecalls() {
-		baseCalls = new int[seqLength];
-		byte[] qq = new byte[seqLength * 2];
-		getSubArray(qq, PLOC);
-		DataInputStream dis = new DataInputStream(new ByteArrayInputStream(qq));
+		int[] calls = new int[seqLength];
 		for (int i = 0; i <= seqLength - 1; ++i) {
-			try {
-				baseCalls[i] = (int) dis.readShort();
-			} catch (IOException e)//This shouldn't happen. If it does something must be seriously wrong.
-			{
-				throw new IllegalStateException("Unexpected IOException encountered while manipulating internal streams.");
-			}
+			calls[i] = traceData.getShort(PLOC + 2 * i);
 		}
+		baseCalls = calls;
 	}
 
 	/**
@@ -559,17 +578,7 @@ public class ABITrace {
 	 * @return - int beginning at pointer in trace array
 	 */
 	private int getIntAt(int pointer) {
-		int out = 0;
-		byte[] temp = new byte[4];
-		getSubArray(temp, pointer);
-		try {
-			DataInputStream dis = new DataInputStream(new ByteArrayInputStream(temp));
-			out = dis.readInt();
-		} catch (IOException e) //This shouldn't happen. If it does something must be seriously wrong.
-		{
-			throw new IllegalStateException("Unexpected IOException encountered while manipulating internal streams.");
-		}
-		return out;
+		return traceData.getInt(pointer);
 	}
 
 	/**
@@ -580,7 +589,7 @@ public class ABITrace {
 	 */
 	private void getSubArray(byte[] b, int traceDataOffset) {
 		for (int x = 0; x <= b.length - 1; x++) {
-			b[x] = traceData[traceDataOffset + x];
+			b[x] = traceData.get(traceDataOffset + x);
 		}
 	}
 
@@ -595,13 +604,13 @@ public class ABITrace {
 		char ABI[] = new char[4];
 
 		for (int i = 0; i <= 2; i++) {
-			ABI[i] = (char) traceData[i];
+			ABI[i] = (char) traceData.get(i);
 		}
 		if (ABI[0] == 'A' && (ABI[1] == 'B' && ABI[2] == 'I')) {
 			return true;
 		} else {
 			for (int i = 128; i <= 130; i++) {
-				ABI[i-128] = (char) traceData[i];
+				ABI[i-128] = (char) traceData.get(i);
 			}
 			if (ABI[0] == 'A' && (ABI[1] == 'B' && ABI[2] == 'I')) {
 				macJunk = 128;
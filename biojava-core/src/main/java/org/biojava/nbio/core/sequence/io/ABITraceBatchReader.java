@@ -0,0 +1,167 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
+import org.biojava.nbio.core.sequence.AccessionID;
+import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
+import org.biojava.nbio.core.sequence.features.ByteQualityFeature;
+import org.biojava.nbio.core.sequence.template.AbstractSequence;
+import org.biojava.nbio.core.util.ConcurrencyTools;
+
+/**
+ * Reads many ABI traces at once into sequences with their quality calls,
+ * as for a run of Sanger sequencing. Every {@link ABITrace} is checked as a
+ * whole when opened, but only its basecalls and quality calls are decoded;
+ * the trace channels are never read.
+ * <p>
+ * Each sequence takes the name of its file without the extension as
+ * accession and holds its quality calls in a {@link ByteQualityFeature} of
+ * type {@link FastqReader#QUALITY_FEATURE_TYPE}, so
+ * {@link FastqReader#getScores(AbstractSequence)} returns them and
+ * {@link FastqWriter} writes the traces as FASTQ:
+ *
+ * <pre>
+ * List&lt;AbstractSequence&lt;NucleotideCompound&gt;&gt; reads = ABITraceBatchReader.readDirectory(new File("run42"));
+ * </pre>
+ */
+public class ABITraceBatchReader {
+
+	private static final String QUALITY_FEATURE_SOURCE = "ABI";
+
+	private ABITraceBatchReader() {
+	}
+
+	/**
+	 * Returns the traces of a directory, the files ending in
+	 * <code>.ab1</code> or <code>.abi</code> in any case, sorted by name
+	 *
+	 * @throws IOException if the directory cannot be listed
+	 */
+	public static List<File> listTraces(File directory) throws IOException {
+		File[] files = directory.listFiles((dir, name) -> {
+			String lower = name.toLowerCase(Locale.ROOT);
+			return lower.endsWith(".ab1") || lower.endsWith(".abi");
+		});
+		if (files == null) {
+			throw new IOException("Cannot list the traces of " + directory);
+		}
+		Arrays.sort(files);
+		return new ArrayList<File>(Arrays.asList(files));
+	}
+
+	/**
+	 * Reads the traces of a directory on the pool of {@link ConcurrencyTools}
+	 *
+	 * @return the sequences in the order of {@link #listTraces(File)}
+	 * @throws IOException if a trace cannot be read or is not valid
+	 * @throws CompoundNotFoundException if a trace holds an unknown basecall
+	 */
+	public static List<AbstractSequence<NucleotideCompound>> readDirectory(File directory)
+			throws IOException, CompoundNotFoundException {
+		return read(listTraces(directory), ConcurrencyTools.getThreadPool());
+	}
+
+	/**
+	 * Reads traces in parallel. Reading stops at the first trace which
+	 * fails, the traces not yet read being cancelled.
+	 *
+	 * @param files Traces to read
+	 * @param executor Reads the traces
+	 * @return the sequences in the order of the files
+	 * @throws IOException if a trace cannot be read or is not valid
+	 * @throws CompoundNotFoundException if a trace holds an unknown basecall
+	 */
+	public static List<AbstractSequence<NucleotideCompound>> read(List<File> files, ExecutorService executor)
+			throws IOException, CompoundNotFoundException {
+		List<Future<AbstractSequence<NucleotideCompound>>> futures = new ArrayList<Future<AbstractSequence<NucleotideCompound>>>(
+				files.size());
+		for (File file : files) {
+			futures.add(executor.submit(() -> read(file)));
+		}
+		List<AbstractSequence<NucleotideCompound>> sequences = new ArrayList<AbstractSequence<NucleotideCompound>>(
+				files.size());
+		try {
+			for (Future<AbstractSequence<NucleotideCompound>> future : futures) {
+				sequences.add(future.get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while reading traces", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			} else if (cause instanceof CompoundNotFoundException) {
+				throw (CompoundNotFoundException) cause;
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new IOException(cause);
+		} finally {
+			for (Future<AbstractSequence<NucleotideCompound>> future : futures) {
+				future.cancel(false);
+			}
+		}
+		return sequences;
+	}
+
+	/**
+	 * Reads the sequence and quality calls of a single trace
+	 *
+	 * @throws IOException if the trace cannot be read or is not valid
+	 * @throws CompoundNotFoundException if the trace holds an unknown basecall
+	 */
+	public static AbstractSequence<NucleotideCompound> read(File file) throws IOException, CompoundNotFoundException {
+		AbstractSequence<NucleotideCompound> sequence;
+		int[] qualities;
+		try {
+			ABITrace trace = new ABITrace(file);
+			sequence = trace.getSequence();
+			qualities = trace.getQcalls();
+		} catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+			throw new IOException("Not a valid ABI trace: " + file, e);
+		}
+		String name = file.getName();
+		int dot = name.lastIndexOf('.');
+		sequence.setAccession(new AccessionID((dot > 0) ? name.substring(0, dot) : name));
+
+		byte[] scores = new byte[qualities.length];
+		for (int i = 0; i < scores.length; i++) {
+			scores[i] = (byte) qualities[i];
+		}
+		if (scores.length > 0) {
+			sequence.addFeature(1, scores.length, new ByteQualityFeature<AbstractSequence<NucleotideCompound>, NucleotideCompound>(
+					FastqReader.QUALITY_FEATURE_TYPE, QUALITY_FEATURE_SOURCE, scores));
+		}
+		return sequence;
+	}
+}
@@ -20,6 +20,7 @@
  */
 package org.biojava.nbio.core.sequence.io;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -79,6 +80,16 @@ public class CasePreservingProteinSequenceCreator extends ProteinSequenceCreator
 		return seq;
 	}
 
+	/**
+	 * Goes through {@link #getSequence(String, long)} as the case of every
+	 * residue has to be recorded
+	 */
+	@Override
+	public AbstractSequence<AminoAcidCompound> getSequence(byte[] residues, int offset,
+			int length, long index) throws CompoundNotFoundException {
+		return getSequence(new String(residues, offset, length, StandardCharsets.US_ASCII), index);
+	}
+
 
 	/**
 	 * Assumes all compounds were uppercase
@@ -0,0 +1,165 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.io;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+
+import org.biojava.nbio.core.sequence.template.CompoundOrdinals;
+import org.biojava.nbio.core.sequence.template.CompoundSet;
+
+/**
+ * The buffer shared by {@link FastaWriter} and {@link FastqWriter}: a
+ * single reused byte buffer drained to a {@link WritableByteChannel}, and
+ * the bytes written for each ordinal of the CompoundSet last written. Text
+ * such as headers and residues is encoded with the charset given.
+ * <p>
+ * Residues may be written straight into {@link #getBuffer()} once
+ * {@link #ensureRemaining(int)} has made room for them.
+ */
+class ChannelRecordOutput implements Closeable, Flushable {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final WritableByteChannel channel;
+	private final Charset charset;
+	private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+	// residue table of the CompoundSet last written
+	private CompoundOrdinals<?> tableOrdinals = null;
+	private byte[][] table = null;
+	// the single byte of each residue, 0 for those written as more than one
+	private byte[] singleBytes = null;
+	private boolean singleByte = false;
+
+	ChannelRecordOutput(WritableByteChannel channel, Charset charset) {
+		this.channel = channel;
+		this.charset = charset;
+	}
+
+	ByteBuffer getBuffer() {
+		return buffer;
+	}
+
+	/**
+	 * Bytes written for each ordinal of the given CompoundSet; rebuilt only
+	 * when the CompoundSet changes
+	 */
+	byte[][] getTable(CompoundSet<?> compoundSet) {
+		CompoundOrdinals<?> current = CompoundOrdinals.forCompoundSet(compoundSet);
+		if (current != tableOrdinals) {
+			table = new byte[current.size()][];
+			singleBytes = new byte[table.length];
+			singleByte = true;
+			for (int i = 0; i < table.length; i++) {
+				table[i] = current.getString(i).getBytes(charset);
+				if (table[i].length == 1) {
+					singleBytes[i] = table[i][0];
+				} else {
+					singleByte = false;
+				}
+			}
+			tableOrdinals = current;
+		}
+		return table;
+	}
+
+	/**
+	 * The byte written for each ordinal of the CompoundSet last passed to
+	 * {@link #getTable(CompoundSet)}, 0 for those not written as one byte
+	 */
+	byte[] getSingleBytes() {
+		return singleBytes;
+	}
+
+	/**
+	 * True if every compound of the CompoundSet last passed to
+	 * {@link #getTable(CompoundSet)} is written as one byte
+	 */
+	boolean isSingleByte() {
+		return singleByte;
+	}
+
+	/**
+	 * Drains the buffer unless it has room for n more bytes; n must not
+	 * exceed its capacity
+	 */
+	void ensureRemaining(int n) throws IOException {
+		if (buffer.remaining() < n) {
+			drain();
+		}
+	}
+
+	void put(byte b) throws IOException {
+		if (!buffer.hasRemaining()) {
+			drain();
+		}
+		buffer.put(b);
+	}
+
+	void put(byte[] bytes) throws IOException {
+		int offset = 0;
+		while (offset < bytes.length) {
+			if (!buffer.hasRemaining()) {
+				drain();
+			}
+			int n = Math.min(buffer.remaining(), bytes.length - offset);
+			buffer.put(bytes, offset, n);
+			offset += n;
+		}
+	}
+
+	void put(String text) throws IOException {
+		put(text.getBytes(charset));
+	}
+
+	private void drain() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * Writes any buffered output to the channel
+	 */
+	@Override
+	public void flush() throws IOException {
+		drain();
+	}
+
+	/**
+	 * Flushes and closes the channel
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			flush();
+		} finally {
+			channel.close();
+		}
+	}
+}
@@ -0,0 +1,129 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.io;
+
+import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
+import org.biojava.nbio.core.sequence.io.template.SequenceCreatorInterface;
+import org.biojava.nbio.core.sequence.storage.SequenceReaderPool;
+import org.biojava.nbio.core.sequence.template.AbstractSequence;
+import org.biojava.nbio.core.sequence.template.Compound;
+import org.biojava.nbio.core.sequence.template.CompoundSet;
+import org.biojava.nbio.core.sequence.template.ProxySequenceReader;
+import org.biojava.nbio.core.sequence.template.SequenceReader;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Wraps another {@link SequenceCreatorInterface} so sequences with identical
+ * residues share one backing {@link SequenceReader} from a
+ * {@link SequenceReaderPool}. Each call still returns a new
+ * {@link AbstractSequence} so headers and accessions stay separate. Use it to
+ * opt a {@link FastaReader} into deduplication:
+ *
+ * <pre>
+ * SequenceReaderPool&lt;AminoAcidCompound&gt; pool = new SequenceReaderPool&lt;AminoAcidCompound&gt;();
+ * FastaReader&lt;ProteinSequence, AminoAcidCompound&gt; reader = new FastaReader&lt;ProteinSequence, AminoAcidCompound&gt;(
+ *     inputStream,
+ *     new GenericFastaHeaderParser&lt;ProteinSequence, AminoAcidCompound&gt;(),
+ *     new DeduplicatingSequenceCreator&lt;AminoAcidCompound&gt;(new ProteinSequenceCreator(set), pool));
+ * reader.process();
+ * logger.info("Saved {} bytes", pool.getBytesDeduplicated());
+ * </pre>
+ *
+ * Only sequences created from a String or from residue bytes are pooled;
+ * those created from a List or a proxy are passed through untouched.
+ * Residue bytes, as given by {@link MappedFastaReader}, are looked up in the
+ * pool as they are and only those not yet pooled are decoded by the
+ * wrapped creator; stores of another CompoundSet, from other creators
+ * sharing the pool, are never returned. This should not be used
+ * with the file proxy creators as their stores are not held in memory.
+ *
+ * @param <C> Type of compound
+ */
+public class DeduplicatingSequenceCreator<C extends Compound> implements SequenceCreatorInterface<C> {
+
+	private final SequenceCreatorInterface<C> delegate;
+	private final SequenceReaderPool<C> pool;
+	// CompoundSet of the sequences made by the delegate, once one was made
+	private volatile CompoundSet<C> compoundSet = null;
+
+	/**
+	 * Deduplicates using a pool private to this creator
+	 */
+	public DeduplicatingSequenceCreator(SequenceCreatorInterface<C> delegate) {
+		this(delegate, new SequenceReaderPool<C>());
+	}
+
+	/**
+	 * Deduplicates using the given pool which may be shared between creators
+	 */
+	public DeduplicatingSequenceCreator(SequenceCreatorInterface<C> delegate, SequenceReaderPool<C> pool) {
+		this.delegate = delegate;
+		this.pool = pool;
+	}
+
+	public SequenceReaderPool<C> getPool() {
+		return pool;
+	}
+
+	@Override
+	public AbstractSequence<C> getSequence(String sequence, long index) throws CompoundNotFoundException, IOException {
+		AbstractSequence<C> created = delegate.getSequence(sequence, index);
+		SequenceReader<C> reader = created.getProxySequenceReader();
+		compoundSet = reader.getCompoundSet();
+		SequenceReader<C> pooled = pool.intern(sequence, reader);
+		if (pooled != reader) {
+			created.setProxySequenceReader(pooled);
+		}
+		return created;
+	}
+
+	@Override
+	public AbstractSequence<C> getSequence(byte[] residues, int offset, int length, long index)
+			throws CompoundNotFoundException, IOException {
+		CompoundSet<C> set = compoundSet;
+		SequenceReader<C> pooled = set == null ? null : pool.find(set, residues, offset, length);
+		if (pooled instanceof ProxySequenceReader) {
+			return delegate.getSequence((ProxySequenceReader<C>) pooled, index);
+		}
+		AbstractSequence<C> created = delegate.getSequence(residues, offset, length, index);
+		if (pooled == null) {
+			SequenceReader<C> reader = created.getProxySequenceReader();
+			compoundSet = reader.getCompoundSet();
+			pooled = pool.intern(SequenceReaderPool.checksum(residues, offset, length), length, reader);
+		}
+		if (pooled != created.getProxySequenceReader()) {
+			created.setProxySequenceReader(pooled);
+		}
+		return created;
+	}
+
+	@Override
+	public AbstractSequence<C> getSequence(ProxySequenceReader<C> proxyLoader, long index) {
+		return delegate.getSequence(proxyLoader, index);
+	}
+
+	@Override
+	public AbstractSequence<C> getSequence(List<C> list) {
+		return delegate.getSequence(list);
+	}
+}
@@ -0,0 +1,463 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.io;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
+import org.biojava.nbio.core.exceptions.ParserException;
+import org.biojava.nbio.core.sequence.AccessionID;
+import org.biojava.nbio.core.sequence.DataSource;
+import org.biojava.nbio.core.sequence.features.FeatureLoader;
+import org.biojava.nbio.core.sequence.io.template.SequenceCreatorInterface;
+import org.biojava.nbio.core.sequence.location.InsdcLocationCache;
+import org.biojava.nbio.core.sequence.reference.AbstractReference;
+import org.biojava.nbio.core.sequence.reference.GenbankReference;
+import org.biojava.nbio.core.sequence.template.AbstractSequence;
+import org.biojava.nbio.core.sequence.template.Compound;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads EMBL flat files, as distributed by ENA, one record at a time.
+ * <p>
+ * The feature table of EMBL shares its columns with that of GenBank so it
+ * is parsed by the same code as {@link GenbankReader}, giving the same
+ * features, qualifiers and locations (through {@link InsdcParser}). The
+ * identification lines map onto the sequence as follows:
+ * <ul>
+ * <li><code>ID</code>: the original header, the length and topology used
+ * for the locations</li>
+ * <li><code>AC</code>: the accession, the first one given being the
+ * primary one</li>
+ * <li><code>ID</code> or <code>SV</code>: the version of the accession</li>
+ * <li><code>DE</code>: the description</li>
+ * <li><code>CC</code>: the comments, one per block</li>
+ * <li><code>RA</code>, <code>RT</code> and <code>RL</code>: the authors,
+ * title and journal of each reference</li>
+ * <li>the first <code>db_xref</code> qualifier naming a <code>taxon:</code>
+ * (such as <code>/db_xref="taxon:9606"</code>): the taxonomy; other
+ * cross references, such as <code>EMBL:</code>, are left as qualifiers</li>
+ * </ul>
+ * Only the record being read is held in memory, so {@link #process(int)},
+ * {@link #iterator()} and {@link #stream()} read files of any size.
+ */
+public class EmblReader<S extends AbstractSequence<C>, C extends Compound> {
+
+	private static final byte[] ID_MARKER = { 'I', 'D', ' ', ' ', ' ' };
+
+	private static final String FEATURES_LINE = "FEATURES             Location/Qualifiers\n";
+
+	private final SequenceCreatorInterface<C> sequenceCreator;
+	private final BufferedReader bufferedReader;
+	private final Logger logger = LoggerFactory.getLogger(this.getClass());
+	private File file = null;
+	private boolean closed = false;
+	private boolean started = false;
+	private boolean lazyFeatures = false;
+	private InsdcLocationCache locationCache = null;
+	private int lineNumber = 0;
+
+	/**
+	 * @param is Stream of EMBL records
+	 * @param sequenceCreator Creates the sequences
+	 */
+	public EmblReader(final InputStream is, final SequenceCreatorInterface<C> sequenceCreator) {
+		this.bufferedReader = new BufferedReader(new InputStreamReader(is));
+		this.sequenceCreator = sequenceCreator;
+	}
+
+	/**
+	 * Reading from a File lets {@link #stream()} split it between threads
+	 *
+	 * @param file File of EMBL records
+	 * @param sequenceCreator Creates the sequences
+	 * @throws FileNotFoundException if the file cannot be opened
+	 */
+	public EmblReader(final File file, final SequenceCreatorInterface<C> sequenceCreator)
+			throws FileNotFoundException {
+		this.bufferedReader = new BufferedReader(new FileReader(file));
+		this.file = file;
+		this.sequenceCreator = sequenceCreator;
+	}
+
+	public boolean isClosed() {
+		return closed;
+	}
+
+	/**
+	 * In lazy mode the feature table and references of each record are kept
+	 * and parsed only when first asked for through the sequence, as with
+	 * {@link GenbankReader#setLazyFeatures(boolean)}. Off by default.
+	 */
+	public void setLazyFeatures(boolean lazyFeatures) {
+		this.lazyFeatures = lazyFeatures;
+	}
+
+	public boolean isLazyFeatures() {
+		return lazyFeatures;
+	}
+
+	/**
+	 * Keeps up to the given number of parsed feature locations across the
+	 * records read, as {@link GenbankReader#setLocationCacheSize(int)}; 0
+	 * turns caching off, as by default
+	 */
+	public void setLocationCacheSize(int cacheSize) {
+		this.locationCache = (cacheSize > 0) ? new InsdcLocationCache(cacheSize) : null;
+	}
+
+	/**
+	 * Reads all the remaining records and closes the reader
+	 *
+	 * @return the records by accession in file order
+	 * @throws IOException if the input cannot be read
+	 * @throws CompoundNotFoundException if a sequence holds unknown compounds
+	 * @throws ParserException if a record is malformed
+	 */
+	public LinkedHashMap<String, S> process() throws IOException, CompoundNotFoundException {
+		LinkedHashMap<String, S> result = process(-1);
+		close();
+		return result;
+	}
+
+	/**
+	 * Reads at most <code>max</code> records leaving the reader open;
+	 * subsequent calls carry on from there. The result is empty once all the
+	 * records have been read.
+	 *
+	 * @param max Most records to read; all the remaining ones if not positive
+	 * @return the records by accession in file order
+	 * @throws IOException if the input cannot be read or the reader is closed
+	 * @throws CompoundNotFoundException if a sequence holds unknown compounds
+	 * @throws ParserException if a record is malformed
+	 */
+	public LinkedHashMap<String, S> process(final int max) throws IOException, CompoundNotFoundException {
+		if (closed) {
+			throw new IOException("Cannot perform action: resource has been closed.");
+		}
+		started = true;
+		LinkedHashMap<String, S> sequences = new LinkedHashMap<>();
+		for (int i = 0; max <= 0 || i < max; i++) {
+			S sequence = readRecord();
+			if (sequence == null) {
+				break;
+			}
+			sequences.put(sequence.getAccession().getID(), sequence);
+		}
+		return sequences;
+	}
+
+	/**
+	 * Returns the remaining records one at a time; each call to
+	 * {@link Iterator#next()} parses at most one record. Remember to
+	 * {@link #close()} the reader.
+	 *
+	 * @throws UncheckedIOException from the Iterator if the input cannot be read
+	 * @throws ParserException from the Iterator if a sequence holds unknown compounds
+	 */
+	public Iterator<S> iterator() {
+		return new RecordIterator<S>(() -> process(1));
+	}
+
+	/**
+	 * Returns the remaining records as a Stream; closing the Stream closes
+	 * this reader.
+	 * <p>
+	 * If this reader was created from a File and nothing has been read yet
+	 * {@link Stream#parallel()} splits the file at its <code>ID</code> lines,
+	 * each part parsed by its own reader sharing the sequence creator, which
+	 * must then be thread-safe. Otherwise the Stream reads this reader
+	 * sequentially.
+	 */
+	public Stream<S> stream() {
+		if (file != null && !started && !closed) {
+			close();
+			final boolean lazy = lazyFeatures;
+			final InsdcLocationCache cache = locationCache;
+			final FileRecordSpliterator<S> spliterator = new FileRecordSpliterator<S>(file, ID_MARKER,
+					(in, start) -> {
+						EmblReader<S, C> reader = new EmblReader<S, C>(in, sequenceCreator);
+						reader.setLazyFeatures(lazy);
+						reader.locationCache = cache;
+						return reader.iterator();
+					});
+			return StreamSupport.stream(spliterator, false).onClose(spliterator::close);
+		}
+		Spliterator<S> spliterator = Spliterators.spliteratorUnknownSize(iterator(),
+				Spliterator.ORDERED | Spliterator.NONNULL);
+		return StreamSupport.stream(spliterator, false).onClose(this::close);
+	}
+
+	/**
+	 * Reads the next record
+	 *
+	 * @return the record or null at the end of the input
+	 */
+	private S readRecord() throws IOException, CompoundNotFoundException {
+		String line;
+		do {
+			line = readLine();
+			if (line == null) {
+				return null;
+			}
+		} while (line.trim().isEmpty());
+		if (!line.startsWith("ID")) {
+			throw new ParserException("Expected an ID line at line " + lineNumber + " but found: " + line);
+		}
+
+		String header = value(line);
+		String accession = null;
+		Integer version = null;
+		long length = -1;
+		boolean circular = false;
+		String[] tokens = header.split(";");
+		if (!tokens[0].trim().isEmpty()) {
+			accession = tokens[0].trim().split("\\s+")[0];
+		}
+		for (int i = 1; i < tokens.length; i++) {
+			String token = tokens[i].trim();
+			if (token.startsWith("SV ")) {
+				version = parseVersion(token.substring(3).trim());
+			} else if (token.contains("circular")) {
+				circular = true;
+			} else if (token.endsWith("BP.") || token.endsWith("AA.")) {
+				length = parseLength(token);
+			}
+		}
+
+		StringBuilder description = null;
+		StringBuilder comment = null;
+		List<String> comments = new ArrayList<>();
+		StringBuilder features = null;
+		List<AbstractReference> references = new ArrayList<>();
+		GenbankReference reference = null;
+		String sequence = null;
+		boolean accessionSeen = false;
+
+		while (true) {
+			line = readLine();
+			if (line == null) {
+				throw new ParserException("Record " + accession + " ends at line " + lineNumber + " without //");
+			}
+			if (line.startsWith("//")) {
+				break;
+			}
+			String code = (line.length() < 2) ? line : line.substring(0, 2);
+			if (comment != null && !code.equals("CC")) {
+				comments.add(comment.toString());
+				comment = null;
+			}
+			switch (code) {
+			case "AC":
+				if (!accessionSeen) {
+					String primary = value(line).split(";")[0].trim();
+					if (!primary.isEmpty()) {
+						accession = primary;
+					}
+					accessionSeen = true;
+				}
+				break;
+			case "SV":
+				// the version line of releases before 2006
+				String sv = value(line).trim();
+				int dot = sv.lastIndexOf('.');
+				if (dot >= 0) {
+					version = parseVersion(sv.substring(dot + 1));
+				}
+				break;
+			case "DE":
+				description = append(description, value(line), ' ');
+				break;
+			case "CC":
+				comment = append(comment, value(line), '\n');
+				break;
+			case "RN":
+				reference = new GenbankReference();
+				references.add(reference);
+				break;
+			case "RA":
+				if (reference != null) {
+					reference.setAuthors(append(reference.getAuthors(), value(line)));
+				}
+				break;
+			case "RT":
+				if (reference != null) {
+					reference.setTitle(append(reference.getTitle(), value(line)));
+				}
+				break;
+			case "RL":
+				if (reference != null) {
+					reference.setJournal(append(reference.getJournal(), value(line)));
+				}
+				break;
+			case "FT":
+				if (features == null) {
+					features = new StringBuilder(FEATURES_LINE);
+				}
+				// the columns are those of GenBank once the line code is dropped
+				features.append("  ").append(line, 2, line.length()).append('\n');
+				break;
+			case "SQ":
+				sequence = readSequence();
+				break;
+			default:
+				// ID, XX, DT, KW, OS, OC, OG, RC, RP, RX, RG, DR, AH, AS, CO, FH are not kept
+			}
+			if (sequence != null) {
+				break;
+			}
+		}
+		if (sequence == null) {
+			throw new ParserException("Record " + accession + " has no sequence");
+		}
+		if (accession == null) {
+			throw new ParserException("Record ending at line " + lineNumber + " has no accession");
+		}
+		for (AbstractReference r : references) {
+			r.setAuthors(trimTerminator(r.getAuthors()));
+			r.setTitle(trimQuotes(trimTerminator(r.getTitle())));
+		}
+
+		@SuppressWarnings("unchecked")
+		S result = (S) sequenceCreator.getSequence(sequence, 0);
+		result.setOriginalHeader(header);
+		result.setAccession(new AccessionID(accession, DataSource.ENA, version, null));
+		result.setDescription(description == null ? null : description.toString());
+		result.setComments(comments);
+		FeatureLoader<C> loader = GenbankSequenceParser.getFeatureLoader(
+				features == null ? null : features.toString(), references,
+				length < 0 ? sequence.length() : length, circular, DataSource.ENA, locationCache);
+		if (lazyFeatures) {
+			result.setFeatureLoader(loader);
+		} else {
+			loader.loadFeatures(result);
+		}
+		return result;
+	}
+
+	/**
+	 * Reads the residues following the SQ line up to and including the
+	 * terminating <code>//</code>, dropping the spaces and position numbers
+	 */
+	private String readSequence() throws IOException {
+		StringBuilder residues = new StringBuilder();
+		String line;
+		while ((line = readLine()) != null) {
+			if (line.startsWith("//")) {
+				return residues.toString();
+			}
+			for (int i = 0; i < line.length(); i++) {
+				char c = line.charAt(i);
+				if (Character.isLetter(c)) {
+					residues.append(Character.toUpperCase(c));
+				} else if (c == '-' || c == '.' || c == '~') {
+					residues.append('-');
+				} else if (c == '*') {
+					residues.append(c);
+				}
+			}
+		}
+		throw new ParserException("Sequence ends at line " + lineNumber + " without //");
+	}
+
+	private String readLine() throws IOException {
+		String line = bufferedReader.readLine();
+		if (line != null) {
+			lineNumber++;
+		}
+		return line;
+	}
+
+	/**
+	 * The text of a line after its code and the spaces padding it to column 6
+	 */
+	private static String value(String line) {
+		return (line.length() > 5) ? line.substring(5).trim() : "";
+	}
+
+	private static StringBuilder append(StringBuilder text, String value, char separator) {
+		if (text == null) {
+			return new StringBuilder(value);
+		}
+		return text.append(separator).append(value);
+	}
+
+	private static String append(String text, String value) {
+		return (text == null) ? value : text + " " + value;
+	}
+
+	private static String trimTerminator(String text) {
+		if (text != null && text.endsWith(";")) {
+			return text.substring(0, text.length() - 1).trim();
+		}
+		return text;
+	}
+
+	private static String trimQuotes(String text) {
+		if (text != null && text.length() >= 2 && text.startsWith("\"") && text.endsWith("\"")) {
+			return text.substring(1, text.length() - 1);
+		}
+		return text;
+	}
+
+	private Integer parseVersion(String version) {
+		try {
+			return Integer.valueOf(version.trim());
+		} catch (NumberFormatException e) {
+			throw new ParserException("Invalid sequence version " + version + " at line " + lineNumber);
+		}
+	}
+
+	private long parseLength(String token) {
+		String digits = token.substring(0, token.length() - 3).trim();
+		try {
+			return Long.parseLong(digits);
+		} catch (NumberFormatException e) {
+			throw new ParserException("Invalid sequence length " + token + " at line " + lineNumber);
+		}
+	}
+
+	public void close() {
+		try {
+			bufferedReader.close();
+			this.closed = true;
+		} catch (IOException e) {
+			logger.error("Couldn't close the reader.", e);
+			this.closed = false;
+		}
+	}
+}
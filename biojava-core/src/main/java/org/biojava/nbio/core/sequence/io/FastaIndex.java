@@ -0,0 +1,351 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.io;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.biojava.nbio.core.exceptions.ParserException;
+import org.biojava.nbio.core.util.BgzfInputStream;
+import org.biojava.nbio.core.util.Equals;
+import org.biojava.nbio.core.util.Hashcoder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The index of a FASTA file in the samtools <code>.fai</code> format. For
+ * every record it holds the name (the header up to the first whitespace),
+ * the number of bases, the byte offset of the first base, the number of
+ * bases per line and the number of bytes per line including the line
+ * terminator. As every line of a record but the last has the same length,
+ * the offset of any base can be computed without reading the file; see
+ * {@link IndexedFastaReader}.
+ *
+ * <pre>
+ * FastaIndex index = FastaIndex.build(new File("hg38.fa"));
+ * index.write(FastaIndex.getIndexFile(new File("hg38.fa")));
+ * </pre>
+ */
+public class FastaIndex {
+
+	private final static Logger logger = LoggerFactory.getLogger(FastaIndex.class);
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final Map<String, Entry> entries;
+
+	private FastaIndex(Map<String, Entry> entries) {
+		this.entries = entries;
+	}
+
+	/**
+	 * Returns the file samtools expects the index of the given FASTA file
+	 * in, i.e. the name with <code>.fai</code> appended
+	 */
+	public static File getIndexFile(File fasta) {
+		return new File(fasta.getPath() + ".fai");
+	}
+
+	/**
+	 * Indexes a FASTA file in a single pass over its bytes; a file compressed
+	 * with <code>bgzip</code> is indexed by its uncompressed bytes as
+	 * samtools does. Records whose
+	 * lines (bar the last) differ in length cannot be indexed. Blank lines
+	 * may only end a record and anything before the first header is
+	 * ignored. Should a name be repeated only the first record is kept.
+	 *
+	 * @throws ParserException if the line lengths of a record differ
+	 * @throws IOException if an error occurs reading the file
+	 */
+	public static FastaIndex build(File fasta) throws IOException {
+		Builder builder = new Builder();
+		try (InputStream in = BgzfInputStream.isBgzf(fasta) ? new BgzfInputStream(fasta) : Files.newInputStream(fasta.toPath())) {
+			builder.scan(in);
+		}
+		return new FastaIndex(builder.entries);
+	}
+
+	/**
+	 * Reads a <code>.fai</code> file
+	 *
+	 * @throws ParserException if a line does not have the five columns
+	 * @throws IOException if an error occurs reading the file
+	 */
+	public static FastaIndex read(File fai) throws IOException {
+		Map<String, Entry> entries = new LinkedHashMap<String, Entry>();
+		try (BufferedReader br = Files.newBufferedReader(fai.toPath(), StandardCharsets.UTF_8)) {
+			String line;
+			while ((line = br.readLine()) != null) {
+				if (line.isEmpty()) {
+					continue;
+				}
+				String[] columns = line.split("\t");
+				if (columns.length < 5) {
+					throw new ParserException("Expected 5 tab separated columns in FASTA index line: " + line);
+				}
+				try {
+					Entry entry = new Entry(columns[0], Long.parseLong(columns[1]), Long.parseLong(columns[2]),
+							Integer.parseInt(columns[3]), Integer.parseInt(columns[4]));
+					entries.put(entry.getName(), entry);
+				} catch (NumberFormatException e) {
+					throw new ParserException("Malformed FASTA index line: " + line, e);
+				}
+			}
+		}
+		return new FastaIndex(entries);
+	}
+
+	/**
+	 * Writes the index in the <code>.fai</code> format
+	 *
+	 * @throws IOException if an error occurs writing the file
+	 */
+	public void write(File fai) throws IOException {
+		try (Writer writer = Files.newBufferedWriter(fai.toPath(), StandardCharsets.UTF_8)) {
+			for (Entry entry : entries.values()) {
+				writer.write(entry.toString());
+				writer.write('\n');
+			}
+		}
+	}
+
+	/**
+	 * Returns the names of the indexed records in file order
+	 */
+	public List<String> getSequenceNames() {
+		return Collections.unmodifiableList(new ArrayList<String>(entries.keySet()));
+	}
+
+	/**
+	 * Returns true if a record of the given name was indexed
+	 */
+	public boolean containsSequence(String name) {
+		return entries.containsKey(name);
+	}
+
+	/**
+	 * Returns the entry of the given record or null if there is none
+	 */
+	public Entry getEntry(String name) {
+		return entries.get(name);
+	}
+
+	/**
+	 * A line of a <code>.fai</code> file
+	 */
+	public static class Entry {
+		private final String name;
+		private final long length;
+		private final long offset;
+		private final int lineBases;
+		private final int lineWidth;
+
+		public Entry(String name, long length, long offset, int lineBases, int lineWidth) {
+			this.name = name;
+			this.length = length;
+			this.offset = offset;
+			this.lineBases = lineBases;
+			this.lineWidth = lineWidth;
+		}
+
+		/**
+		 * Name of the record; the header up to the first whitespace
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * Number of bases in the record
+		 */
+		public long getLength() {
+			return length;
+		}
+
+		/**
+		 * Byte offset of the first base in the file
+		 */
+		public long getOffset() {
+			return offset;
+		}
+
+		/**
+		 * Number of bases on every line but the last
+		 */
+		public int getLineBases() {
+			return lineBases;
+		}
+
+		/**
+		 * Number of bytes of every line but the last including the line
+		 * terminator
+		 */
+		public int getLineWidth() {
+			return lineWidth;
+		}
+
+		/**
+		 * Returns the byte offset in the file of the base at the given
+		 * position, indexed from 0
+		 */
+		public long getByteOffset(long position) {
+			if (lineBases == 0) {
+				return offset;
+			}
+			return offset + (position / lineBases) * lineWidth + position % lineBases;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!Equals.classEqual(this, o)) {
+				return false;
+			}
+			Entry that = (Entry) o;
+			return Equals.equal(name, that.name) && length == that.length && offset == that.offset
+					&& lineBases == that.lineBases && lineWidth == that.lineWidth;
+		}
+
+		@Override
+		public int hashCode() {
+			int result = Hashcoder.SEED;
+			result = Hashcoder.hash(result, name);
+			result = Hashcoder.hash(result, length);
+			result = Hashcoder.hash(result, offset);
+			result = Hashcoder.hash(result, lineBases);
+			result = Hashcoder.hash(result, lineWidth);
+			return result;
+		}
+
+		/**
+		 * Returns the entry as a line of a <code>.fai</code> file without
+		 * the line feed
+		 */
+		@Override
+		public String toString() {
+			return name + "\t" + length + "\t" + offset + "\t" + lineBases + "\t" + lineWidth;
+		}
+	}
+
+	/**
+	 * Gathers the entries line by line as the bytes of the file go past
+	 */
+	private static class Builder {
+		private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>();
+		private final ByteArrayOutputStream header = new ByteArrayOutputStream();
+
+		private String name = null;
+		private long length;
+		private long offset;
+		private int lineBases;
+		private int lineWidth;
+		// set once a short or blank line was seen; only blank lines may follow
+		private boolean ended;
+
+		void scan(InputStream in) throws IOException {
+			byte[] buffer = new byte[BUFFER_SIZE];
+			long position = 0;
+			long lineStart = 0;
+			int lineBytes = 0;
+			int bases = 0;
+			boolean isHeader = false;
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				for (int i = 0; i < read; i++) {
+					byte b = buffer[i];
+					if (lineBytes == 0) {
+						isHeader = b == '>';
+						header.reset();
+					}
+					lineBytes++;
+					if (b == '\n') {
+						endLine(lineStart, lineBytes, bases, isHeader);
+						lineStart = position + i + 1;
+						lineBytes = 0;
+						bases = 0;
+					} else if (b != '\r') {
+						if (isHeader) {
+							header.write(b);
+						} else {
+							bases++;
+						}
+					}
+				}
+				position += read;
+			}
+			if (lineBytes > 0) {
+				endLine(lineStart, lineBytes, bases, isHeader);
+			}
+			endRecord();
+		}
+
+		private void endLine(long lineStart, int lineBytes, int bases, boolean isHeader) {
+			if (isHeader) {
+				endRecord();
+				String line = new String(header.toByteArray(), 1, header.size() - 1, StandardCharsets.UTF_8);
+				name = line.trim().split("\\s", 2)[0];
+				length = 0;
+				offset = lineStart + lineBytes;
+				lineBases = -1;
+				lineWidth = -1;
+				ended = false;
+			} else if (name == null) {
+				return;
+			} else if (bases == 0) {
+				ended = true;
+			} else {
+				if (lineBases < 0) {
+					lineBases = bases;
+					lineWidth = lineBytes;
+				} else if (ended || bases > lineBases || (bases == lineBases && lineBytes != lineWidth
+						&& lineBytes != bases)) {
+					throw new ParserException("Different line length in sequence '" + name + "' at offset " + lineStart);
+				}
+				if (bases < lineBases) {
+					ended = true;
+				}
+				length += bases;
+			}
+		}
+
+		private void endRecord() {
+			if (name == null) {
+				return;
+			}
+			if (entries.containsKey(name)) {
+				logger.warn("Ignoring duplicate sequence '{}' at offset {}", name, offset);
+			} else {
+				entries.put(name, new Entry(name, length, offset, Math.max(lineBases, 0), Math.max(lineWidth, 0)));
+			}
+			name = null;
+		}
+	}
+}
@@ -27,8 +27,14 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
 import org.biojava.nbio.core.sequence.io.template.SequenceCreatorInterface;
@@ -48,11 +54,15 @@ public class FastaReader<S extends Sequence<?>, C extends Compound> {
 
 	private final static Logger logger = LoggerFactory.getLogger(FastaReader.class);
 
+	static final byte[] HEADER_MARKER = { '>' };
+
 	SequenceCreatorInterface<C> sequenceCreator;
 	SequenceHeaderParserInterface<S, C> headerParser;
 	BufferedReaderBytesRead br;
 	InputStreamReader isr;
 	FileInputStream fi = null;
+	File file = null;
+	long offset = 0;
 	long fileIndex = 0;
 	long sequenceIndex = 0;
 	String line = "";
@@ -77,6 +87,17 @@ public class FastaReader<S extends Sequence<?>, C extends Compound> {
 		this.sequenceCreator = sequenceCreator;
 	}
 
+	/**
+	 * Reads the records of a part of a file which starts at the given
+	 * offset; the indexes handed to the sequence creator are offsets into
+	 * the whole file
+	 */
+	FastaReader(InputStream is, long offset, SequenceHeaderParserInterface<S, C> headerParser,
+			SequenceCreatorInterface<C> sequenceCreator) {
+		this(is, headerParser, sequenceCreator);
+		this.offset = offset;
+	}
+
 	/**
 	 * If you are going to use the FileProxyProteinSequenceCreator then you need to
 	 * use this constructor because we need details about the location of the file.
@@ -93,6 +114,7 @@ public class FastaReader<S extends Sequence<?>, C extends Compound> {
 	public FastaReader(File file, SequenceHeaderParserInterface<S, C> headerParser,
 			SequenceCreatorInterface<C> sequenceCreator) throws FileNotFoundException {
 		this.headerParser = headerParser;
+		this.file = file;
 		fi = new FileInputStream(file);
 		isr = new InputStreamReader(fi);
 		this.br = new BufferedReaderBytesRead(isr);
@@ -167,7 +189,7 @@ public class FastaReader<S extends Sequence<?>, C extends Compound> {
 				} else
 					markStart(line, sb);
 			}
-			fileIndex = br.getBytesRead();
+			fileIndex = offset + br.getBytesRead();
 
 			line = br.readLine();
 
@@ -204,6 +226,53 @@ public class FastaReader<S extends Sequence<?>, C extends Compound> {
 		return max > -1 && sequences.isEmpty() ? null : sequences;
 	}
 
+	/**
+	 * Returns the remaining records one at a time. Each call to
+	 * {@link Iterator#next()} parses at most one record so memory use does
+	 * not depend on the size of the input. Records are read through
+	 * {@link #process(int)} so the two can be mixed; remember to
+	 * {@link #close()} the reader.
+	 *
+	 * @throws UncheckedIOException from the Iterator if the input cannot be read
+	 */
+	public Iterator<S> iterator() {
+		return new RecordIterator<S>(() -> process(1));
+	}
+
+	/**
+	 * Returns the remaining records as a Stream; closing the Stream closes
+	 * this reader.
+	 * <p>
+	 * If this reader was created from a File and nothing has been read yet
+	 * the Stream is backed by the file itself: its size is estimated by
+	 * counting record headers and {@link Stream#parallel()} splits the file
+	 * at record boundaries with each part parsed by its own reader. The
+	 * header parser and sequence creator are then shared between threads so
+	 * must be thread-safe, as the ones in this package are. Otherwise the
+	 * Stream reads this reader sequentially.
+	 */
+	public Stream<S> stream() {
+		if (file != null && br.getBytesRead() == 0) {
+			try {
+				close();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			final FileRecordSpliterator<S> spliterator = new FileRecordSpliterator<S>(file, HEADER_MARKER,
+					(in, start) -> new FastaReader<S, C>(in, start, headerParser, sequenceCreator).iterator());
+			return StreamSupport.stream(spliterator, false).onClose(spliterator::close);
+		}
+		Spliterator<S> spliterator = Spliterators.spliteratorUnknownSize(iterator(),
+				Spliterator.ORDERED | Spliterator.NONNULL);
+		return StreamSupport.stream(spliterator, false).onClose(() -> {
+			try {
+				close();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+	}
+
 	private void markStart(String line, StringBuilder sb) {
 		if (line.startsWith(";")) {
 		} else {
@@ -0,0 +1,213 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.io;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.biojava.nbio.core.sequence.io.template.FastaHeaderFormatInterface;
+import org.biojava.nbio.core.sequence.template.Compound;
+import org.biojava.nbio.core.sequence.template.Sequence;
+
+/**
+ * Writes sequences as FASTA to a {@link WritableByteChannel}. Residues are
+ * pulled from each sequence in blocks through
+ * {@link Sequence#getOrdinals(int, int, int[], int)}, which the storage
+ * implementations answer in bulk, and translated through a per
+ * CompoundSet table straight into a single reused byte buffer; no String
+ * holding the sequence is created.
+ *
+ * <pre>
+ * try (FastaWriter&lt;ProteinSequence, AminoAcidCompound&gt; writer = new FastaWriter&lt;ProteinSequence, AminoAcidCompound&gt;(
+ *     FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE),
+ *     new GenericFastaHeaderFormat&lt;ProteinSequence, AminoAcidCompound&gt;())) {
+ *   writer.write(sequences);
+ * }
+ * </pre>
+ *
+ * Lines end with a line feed. Output is buffered; call {@link #flush()} or
+ * {@link #close()} once done.
+ *
+ * @param <S> The type of sequence written
+ * @param <C> The type of compound
+ */
+public class FastaWriter<S extends Sequence<?>, C extends Compound> implements Closeable, Flushable {
+
+	/**
+	 * Number of residues fetched from a sequence at once
+	 */
+	private static final int BLOCK_SIZE = 1 << 14;
+
+	private final ChannelRecordOutput output;
+	private final FastaHeaderFormatInterface<S, C> headerFormat;
+	private final int lineLength;
+	private final int[] ordinals = new int[BLOCK_SIZE];
+
+	/**
+	 * Uses the default line length of 60
+	 *
+	 * @param channel Channel to write to
+	 * @param headerFormat Creates the header line of each record
+	 */
+	public FastaWriter(WritableByteChannel channel, FastaHeaderFormatInterface<S, C> headerFormat) {
+		this(channel, headerFormat, 60);
+	}
+
+	/**
+	 * @param channel Channel to write to
+	 * @param headerFormat Creates the header line of each record
+	 * @param lineLength Number of residues per line
+	 */
+	public FastaWriter(WritableByteChannel channel, FastaHeaderFormatInterface<S, C> headerFormat, int lineLength) {
+		if (lineLength < 1) {
+			throw new IllegalArgumentException("Line length must be at least 1 but was " + lineLength);
+		}
+		this.output = new ChannelRecordOutput(channel, Charset.defaultCharset());
+		this.headerFormat = headerFormat;
+		this.lineLength = lineLength;
+	}
+
+	/**
+	 * Writes to an OutputStream through {@link Channels#newChannel(OutputStream)}
+	 *
+	 * @param os Stream to write to
+	 * @param headerFormat Creates the header line of each record
+	 * @param lineLength Number of residues per line
+	 */
+	public FastaWriter(OutputStream os, FastaHeaderFormatInterface<S, C> headerFormat, int lineLength) {
+		this(Channels.newChannel(os), headerFormat, lineLength);
+	}
+
+	/**
+	 * Writes all the given sequences
+	 *
+	 * @throws IOException if an error occurs writing to the channel
+	 */
+	public void write(Iterable<? extends S> sequences) throws IOException {
+		write(sequences.iterator());
+	}
+
+	/**
+	 * Writes all the sequences of the given stream in encounter order
+	 *
+	 * @throws IOException if an error occurs writing to the channel
+	 */
+	public void write(Stream<? extends S> sequences) throws IOException {
+		write(sequences.iterator());
+	}
+
+	private void write(Iterator<? extends S> sequences) throws IOException {
+		while (sequences.hasNext()) {
+			write(sequences.next());
+		}
+	}
+
+	/**
+	 * Writes a single record
+	 *
+	 * @throws IOException if an error occurs writing to the channel
+	 */
+	public void write(S sequence) throws IOException {
+		output.put((byte) '>');
+		output.put(headerFormat.getHeader(sequence));
+		output.put((byte) '\n');
+
+		byte[][] table = output.getTable(sequence.getCompoundSet());
+		byte[] singleBytes = output.isSingleByte() ? output.getSingleBytes() : null;
+		ByteBuffer buffer = output.getBuffer();
+		int length = sequence.getLength();
+		int column = 0;
+		for (int start = 1; start <= length; start += BLOCK_SIZE) {
+			int end = Math.min(length, start + BLOCK_SIZE - 1);
+			sequence.getOrdinals(start, end, ordinals, 0);
+			int n = end - start + 1;
+			int i = 0;
+			while (i < n) {
+				int run = Math.min(n - i, lineLength - column);
+				if (singleBytes != null && run < buffer.capacity()) {
+					// fill the rest of the line straight into the buffer
+					output.ensureRemaining(run + 1);
+					byte[] out = buffer.array();
+					int position = buffer.position();
+					int j = 0;
+					for (; j < run; j++) {
+						int ordinal = ordinals[i + j];
+						if (ordinal < 0) {
+							break;
+						}
+						out[position + j] = singleBytes[ordinal];
+					}
+					buffer.position(position + j);
+					i += j;
+					column += j;
+					if (j < run) {
+						putResidue(sequence, table, start + i, ordinals[i]);
+						i++;
+						column++;
+					}
+				} else {
+					putResidue(sequence, table, start + i, ordinals[i]);
+					i++;
+					column++;
+				}
+				if (column == lineLength) {
+					output.put((byte) '\n');
+					column = 0;
+				}
+			}
+		}
+		if (column > 0) {
+			output.put((byte) '\n');
+		}
+	}
+
+	private void putResidue(S sequence, byte[][] table, int position, int ordinal) throws IOException {
+		if (ordinal < 0) {
+			output.put(sequence.getCompoundAt(position).toString());
+		} else {
+			output.put(table[ordinal]);
+		}
+	}
+
+	/**
+	 * Writes any buffered output to the channel
+	 */
+	@Override
+	public void flush() throws IOException {
+		output.flush();
+	}
+
+	/**
+	 * Flushes and closes the channel
+	 */
+	@Override
+	public void close() throws IOException {
+		output.close();
+	}
+}
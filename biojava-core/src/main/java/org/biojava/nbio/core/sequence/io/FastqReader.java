@@ -0,0 +1,315 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.io;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
+import org.biojava.nbio.core.exceptions.ParserException;
+import org.biojava.nbio.core.sequence.AccessionID;
+import org.biojava.nbio.core.sequence.features.ByteQualityFeature;
+import org.biojava.nbio.core.sequence.io.template.SequenceCreatorInterface;
+import org.biojava.nbio.core.sequence.template.AbstractSequence;
+import org.biojava.nbio.core.sequence.template.Compound;
+
+/**
+ * Reads FASTQ files one read at a time. Each read becomes a sequence whose
+ * accession is the first word of its header and whose original header is
+ * the whole header; its quality scores are held by a
+ * {@link ByteQualityFeature} of type {@link #QUALITY_FEATURE_TYPE} spanning
+ * the read.
+ *
+ * <pre>
+ * try (FastqReader&lt;DNASequence, NucleotideCompound&gt; reader = new FastqReader&lt;DNASequence, NucleotideCompound&gt;(
+ *     new FileInputStream("reads.fastq"), new DNASequenceCreator(DNACompoundSet.getDNACompoundSet()))) {
+ *   for (DNASequence read; (read = reader.read()) != null;) {
+ *     byte[] scores = FastqReader.getScores(read);
+ *   }
+ * }
+ * </pre>
+ *
+ * The input is scanned as bytes through a single buffer which is reused for
+ * every read; bases go straight from it to the sequence creator through
+ * {@link SequenceCreatorInterface#getSequence(byte[], int, int, long)} and
+ * qualities straight into the score array. Each read must take four lines:
+ * the header starting with <code>@</code>, the bases, a line starting with
+ * <code>+</code> and the qualities. Line feeds and carriage return line
+ * feeds are accepted.
+ *
+ * @param <S> The type of sequence created
+ * @param <C> The type of compound
+ */
+public class FastqReader<S extends AbstractSequence<C>, C extends Compound> implements Closeable {
+
+	/**
+	 * Type of the feature holding the qualities of a read
+	 */
+	public static final String QUALITY_FEATURE_TYPE = "quality";
+
+	private static final String QUALITY_FEATURE_SOURCE = "FASTQ";
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final InputStream in;
+	private final SequenceCreatorInterface<C> sequenceCreator;
+	private final QualityEncoding encoding;
+
+	private byte[] buffer = new byte[BUFFER_SIZE];
+	private int position = 0;
+	private int limit = 0;
+	private boolean endOfInput = false;
+	// offset of the start of the buffer in the input
+	private long bufferOffset = 0;
+	// the line last read
+	private int lineStart;
+	private int lineEnd;
+	private long lineNumber = 0;
+
+	/**
+	 * Reads qualities encoded as {@link QualityEncoding#PHRED_33}
+	 *
+	 * @param in Stream to read, which need not be buffered
+	 * @param sequenceCreator Creates the sequence of each read
+	 */
+	public FastqReader(InputStream in, SequenceCreatorInterface<C> sequenceCreator) {
+		this(in, sequenceCreator, QualityEncoding.PHRED_33);
+	}
+
+	/**
+	 * @param in Stream to read, which need not be buffered
+	 * @param sequenceCreator Creates the sequence of each read
+	 * @param encoding How the qualities are encoded
+	 */
+	public FastqReader(InputStream in, SequenceCreatorInterface<C> sequenceCreator, QualityEncoding encoding) {
+		this.in = in;
+		this.sequenceCreator = sequenceCreator;
+		this.encoding = encoding;
+	}
+
+	/**
+	 * @param file File to read
+	 * @param sequenceCreator Creates the sequence of each read
+	 * @param encoding How the qualities are encoded
+	 * @throws IOException if the file cannot be opened
+	 */
+	public FastqReader(File file, SequenceCreatorInterface<C> sequenceCreator, QualityEncoding encoding)
+			throws IOException {
+		this(new FileInputStream(file), sequenceCreator, encoding);
+	}
+
+	/**
+	 * Returns the scores of a read created by this class, or null if the
+	 * sequence has none
+	 */
+	public static byte[] getScores(AbstractSequence<?> read) {
+		ByteQualityFeature<?, ?> feature = getQualityFeature(read);
+		return (feature == null) ? null : feature.getScores();
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	static ByteQualityFeature<?, ?> getQualityFeature(AbstractSequence<?> read) {
+		for (Object feature : ((AbstractSequence) read).getFeaturesByType(QUALITY_FEATURE_TYPE)) {
+			if (feature instanceof ByteQualityFeature) {
+				return (ByteQualityFeature<?, ?>) feature;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Reads the next read
+	 *
+	 * @return the read or null at the end of the input
+	 * @throws IOException if the input cannot be read
+	 * @throws CompoundNotFoundException if the bases are not recognised by
+	 * the sequence creator
+	 * @throws ParserException if the read is malformed
+	 */
+	public S read() throws IOException, CompoundNotFoundException {
+		do {
+			if (!readLine()) {
+				return null;
+			}
+		} while (lineStart == lineEnd);
+		if (buffer[lineStart] != '@') {
+			throw malformed("Expected a header starting with @");
+		}
+		String header = new String(buffer, lineStart + 1, lineEnd - lineStart - 1, StandardCharsets.ISO_8859_1);
+
+		if (!readLine()) {
+			throw malformed("Missing bases of " + header);
+		}
+		int length = lineEnd - lineStart;
+		@SuppressWarnings("unchecked")
+		S sequence = (S) sequenceCreator.getSequence(buffer, lineStart, length, bufferOffset + lineStart);
+
+		if (!readLine() || lineStart == lineEnd || buffer[lineStart] != '+') {
+			throw malformed("Expected a line starting with + after the bases of " + header);
+		}
+		if (!readLine()) {
+			throw malformed("Missing qualities of " + header);
+		}
+		if (lineEnd - lineStart != length) {
+			throw malformed(header + " has " + length + " bases but " + (lineEnd - lineStart) + " qualities");
+		}
+		byte[] scores = new byte[length];
+		int offset = encoding.getOffset();
+		int invalid = 0;
+		for (int i = 0; i < length; i++) {
+			int c = buffer[lineStart + i];
+			scores[i] = (byte) (c - offset);
+			// negative when out of range
+			invalid |= (c - offset) | (QualityEncoding.MAX_CHARACTER - c);
+		}
+		if (invalid < 0) {
+			throw malformed("Quality out of range for " + encoding + " in " + header);
+		}
+
+		int space = indexOfWhitespace(header);
+		sequence.setAccession(new AccessionID((space < 0) ? header : header.substring(0, space)));
+		sequence.setOriginalHeader(header);
+		ByteQualityFeature<AbstractSequence<C>, C> quality = new ByteQualityFeature<AbstractSequence<C>, C>(
+				QUALITY_FEATURE_TYPE, QUALITY_FEATURE_SOURCE, scores);
+		if (length > 0) {
+			sequence.addFeature(1, length, quality);
+		}
+		return sequence;
+	}
+
+	private static int indexOfWhitespace(String header) {
+		for (int i = 0; i < header.length(); i++) {
+			if (Character.isWhitespace(header.charAt(i))) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Finds the next line in the buffer, reading more input as needed, and
+	 * sets lineStart and lineEnd around it without the line terminator
+	 *
+	 * @return false at the end of the input
+	 */
+	private boolean readLine() throws IOException {
+		int scanned = position;
+		while (true) {
+			for (int i = scanned; i < limit; i++) {
+				if (buffer[i] == '\n') {
+					setLine(i);
+					position = i + 1;
+					return true;
+				}
+			}
+			if (endOfInput) {
+				if (position == limit) {
+					return false;
+				}
+				setLine(limit);
+				position = limit;
+				return true;
+			}
+			scanned = limit - position;
+			fill();
+		}
+	}
+
+	private void setLine(int end) {
+		lineStart = position;
+		lineEnd = (end > position && buffer[end - 1] == '\r') ? end - 1 : end;
+		lineNumber++;
+	}
+
+	/**
+	 * Moves the unread bytes to the start of the buffer, growing it if they
+	 * fill it, and reads more after them
+	 */
+	private void fill() throws IOException {
+		int remaining = limit - position;
+		if (remaining == buffer.length) {
+			buffer = Arrays.copyOf(buffer, buffer.length * 2);
+		} else if (position > 0) {
+			System.arraycopy(buffer, position, buffer, 0, remaining);
+		}
+		bufferOffset += position;
+		position = 0;
+		limit = remaining;
+		int read = in.read(buffer, limit, buffer.length - limit);
+		if (read < 0) {
+			endOfInput = true;
+		} else {
+			limit += read;
+		}
+	}
+
+	private ParserException malformed(String message) {
+		return new ParserException(message + " at line " + lineNumber);
+	}
+
+	/**
+	 * Returns the remaining reads one at a time; remember to
+	 * {@link #close()} the reader.
+	 *
+	 * @throws UncheckedIOException from the Iterator if the input cannot be read
+	 * @throws ParserException from the Iterator if a read is malformed or
+	 * holds unknown compounds
+	 */
+	public Iterator<S> iterator() {
+		return new RecordIterator<S>(() -> {
+			S read = read();
+			return (read == null) ? null : Collections.singletonMap(read.getAccession().getID(), read);
+		});
+	}
+
+	/**
+	 * Returns the remaining reads as a sequential Stream; closing the Stream
+	 * closes this reader.
+	 */
+	public Stream<S> stream() {
+		Spliterator<S> spliterator = Spliterators.spliteratorUnknownSize(iterator(),
+				Spliterator.ORDERED | Spliterator.NONNULL);
+		return StreamSupport.stream(spliterator, false).onClose(() -> {
+			try {
+				close();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+}
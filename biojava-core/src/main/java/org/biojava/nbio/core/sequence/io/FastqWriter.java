@@ -0,0 +1,225 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.io;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.biojava.nbio.core.sequence.features.ByteQualityFeature;
+import org.biojava.nbio.core.sequence.features.FeatureInterface;
+import org.biojava.nbio.core.sequence.features.QualityFeature;
+import org.biojava.nbio.core.sequence.io.template.FastaHeaderFormatInterface;
+import org.biojava.nbio.core.sequence.template.AbstractSequence;
+import org.biojava.nbio.core.sequence.template.Compound;
+
+/**
+ * Writes reads as FASTQ, four lines per read, to a
+ * {@link WritableByteChannel}. The qualities are taken from the first
+ * {@link QualityFeature} of each sequence; a {@link ByteQualityFeature}, as
+ * created by {@link FastqReader}, is written straight from its scores. As
+ * with {@link FastaWriter} the bases are pulled in blocks of ordinals and
+ * everything goes through one reused buffer.
+ *
+ * <pre>
+ * try (FastqWriter&lt;DNASequence, NucleotideCompound&gt; writer = new FastqWriter&lt;DNASequence, NucleotideCompound&gt;(
+ *     new FileOutputStream("trimmed.fastq"), new GenericFastaHeaderFormat&lt;DNASequence, NucleotideCompound&gt;(),
+ *     QualityEncoding.PHRED_33)) {
+ *   writer.write(reads);
+ * }
+ * </pre>
+ *
+ * Lines end with a line feed and the <code>+</code> line is left bare.
+ * Headers are written as ISO-8859-1, as {@link FastqReader} reads them.
+ * Output is buffered; call {@link #flush()} or {@link #close()} once done.
+ *
+ * @param <S> The type of sequence written
+ * @param <C> The type of compound
+ */
+public class FastqWriter<S extends AbstractSequence<C>, C extends Compound> implements Closeable, Flushable {
+
+	/**
+	 * Number of bases fetched from a sequence at once
+	 */
+	private static final int BLOCK_SIZE = 1 << 14;
+
+	private final ChannelRecordOutput output;
+	private final FastaHeaderFormatInterface<S, C> headerFormat;
+	private final QualityEncoding encoding;
+	private final int[] ordinals = new int[BLOCK_SIZE];
+
+	/**
+	 * @param channel Channel to write to
+	 * @param headerFormat Creates the header line of each read, without the
+	 * leading <code>@</code>
+	 * @param encoding How to encode the qualities
+	 */
+	public FastqWriter(WritableByteChannel channel, FastaHeaderFormatInterface<S, C> headerFormat,
+			QualityEncoding encoding) {
+		// headers are read by FastqReader as ISO-8859-1, which keeps every byte
+		this.output = new ChannelRecordOutput(channel, StandardCharsets.ISO_8859_1);
+		this.headerFormat = headerFormat;
+		this.encoding = encoding;
+	}
+
+	/**
+	 * Writes to an OutputStream through {@link Channels#newChannel(OutputStream)}
+	 *
+	 * @param os Stream to write to
+	 * @param headerFormat Creates the header line of each read
+	 * @param encoding How to encode the qualities
+	 */
+	public FastqWriter(OutputStream os, FastaHeaderFormatInterface<S, C> headerFormat, QualityEncoding encoding) {
+		this(Channels.newChannel(os), headerFormat, encoding);
+	}
+
+	/**
+	 * Writes all the given reads
+	 *
+	 * @throws IOException if an error occurs writing to the channel
+	 */
+	public void write(Iterable<? extends S> reads) throws IOException {
+		write(reads.iterator());
+	}
+
+	/**
+	 * Writes all the reads of the given stream in encounter order
+	 *
+	 * @throws IOException if an error occurs writing to the channel
+	 */
+	public void write(Stream<? extends S> reads) throws IOException {
+		write(reads.iterator());
+	}
+
+	private void write(Iterator<? extends S> reads) throws IOException {
+		while (reads.hasNext()) {
+			write(reads.next());
+		}
+	}
+
+	/**
+	 * Writes a single read
+	 *
+	 * @throws IllegalArgumentException if the read has no quality feature,
+	 * its length differs from that of the read, a base is written as more
+	 * than one character or a quality cannot be encoded
+	 * @throws IOException if an error occurs writing to the channel
+	 */
+	public void write(S read) throws IOException {
+		QualityFeature<?, ?> quality = getQualityFeature(read);
+		if (quality == null) {
+			throw new IllegalArgumentException(read.getAccession() + " has no quality feature");
+		}
+		int length = read.getLength();
+		byte[] scores = (quality instanceof ByteQualityFeature) ? ((ByteQualityFeature<?, ?>) quality).getScores() : null;
+		List<Number> qualities = (scores == null) ? quality.getQualities() : null;
+		int qualityCount = (scores == null) ? qualities.size() : scores.length;
+		if (qualityCount != length) {
+			throw new IllegalArgumentException(read.getAccession() + " has " + length + " bases but " + qualityCount
+					+ " qualities");
+		}
+
+		output.put((byte) '@');
+		output.put(headerFormat.getHeader(read));
+		output.put((byte) '\n');
+
+		output.getTable(read.getCompoundSet());
+		byte[] table = output.getSingleBytes();
+		ByteBuffer buffer = output.getBuffer();
+		for (int start = 1; start <= length; start += BLOCK_SIZE) {
+			int end = Math.min(length, start + BLOCK_SIZE - 1);
+			read.getOrdinals(start, end, ordinals, 0);
+			int n = end - start + 1;
+			output.ensureRemaining(n);
+			byte[] out = buffer.array();
+			int position = buffer.position();
+			for (int i = 0; i < n; i++) {
+				int ordinal = ordinals[i];
+				byte base = (ordinal < 0) ? 0 : table[ordinal];
+				if (base == 0) {
+					throw new IllegalArgumentException("Cannot write " + read.getCompoundAt(start + i)
+							+ " of " + read.getAccession() + " as a single character");
+				}
+				out[position + i] = base;
+			}
+			buffer.position(position + n);
+		}
+		output.put((byte) '\n');
+		output.put((byte) '+');
+		output.put((byte) '\n');
+
+		int offset = encoding.getOffset();
+		int maxScore = encoding.getMaxScore();
+		for (int start = 0; start < length; start += BLOCK_SIZE) {
+			int n = Math.min(length - start, BLOCK_SIZE);
+			output.ensureRemaining(n);
+			byte[] out = buffer.array();
+			int position = buffer.position();
+			for (int i = 0; i < n; i++) {
+				int score = (scores == null) ? qualities.get(start + i).intValue() : scores[start + i];
+				if (score < 0 || score > maxScore) {
+					throw new IllegalArgumentException("Quality " + score + " at " + (start + i + 1) + " of "
+							+ read.getAccession() + " cannot be written as " + encoding);
+				}
+				out[position + i] = (byte) (score + offset);
+			}
+			buffer.position(position + n);
+		}
+		output.put((byte) '\n');
+	}
+
+	private QualityFeature<?, ?> getQualityFeature(S read) {
+		ByteQualityFeature<?, ?> bytes = FastqReader.getQualityFeature(read);
+		if (bytes != null) {
+			return bytes;
+		}
+		for (FeatureInterface<AbstractSequence<C>, C> feature : read.getFeatures()) {
+			if (feature instanceof QualityFeature) {
+				return (QualityFeature<?, ?>) feature;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Writes any buffered output to the channel
+	 */
+	@Override
+	public void flush() throws IOException {
+		output.flush();
+	}
+
+	/**
+	 * Flushes and closes the channel
+	 */
+	@Override
+	public void close() throws IOException {
+		output.close();
+	}
+}
@@ -77,13 +77,33 @@ public class FileProxyDNASequenceCreator implements
 	 * @throws IOException
 	 */
 	@Override
-	public AbstractSequence<NucleotideCompound> getSequence(String sequence, long index ) throws CompoundNotFoundException, IOException {
-		SequenceFileProxyLoader<NucleotideCompound> sequenceFileProxyLoader = new SequenceFileProxyLoader<NucleotideCompound>(
-				file,
-				sequenceParser,
-				index,
-				sequence.length(),
-				compoundSet);
+	public AbstractSequence<NucleotideCompound> getSequence(String sequence, long index) throws CompoundNotFoundException, IOException {
+		return createSequence(index, sequence.length());
+	}
+
+	/**
+	 * Only the number of residues is used; no String is created
+	 * @param residues
+	 * @param offset
+	 * @param length
+	 * @param index
+	 * @return
+	 * @throws IOException
+	 */
+	@Override
+	public AbstractSequence<NucleotideCompound> getSequence(byte[] residues, int offset, int length, long index) throws CompoundNotFoundException, IOException {
+		return createSequence(index, length);
+	}
+
+	private AbstractSequence<NucleotideCompound> createSequence(long index, int length) throws CompoundNotFoundException, IOException {
+		SequenceFileProxyLoader<NucleotideCompound> sequenceFileProxyLoader =
+				new SequenceFileProxyLoader<NucleotideCompound>(
+						file,
+						sequenceParser,
+						index,
+						length,
+						compoundSet
+						);
 		return new DNASequence(sequenceFileProxyLoader, compoundSet);
 	}
 
@@ -75,12 +75,30 @@ public class FileProxyProteinSequenceCreator implements SequenceCreatorInterface
 	 */
 	@Override
 	public AbstractSequence<AminoAcidCompound> getSequence(String sequence, long index) throws CompoundNotFoundException, IOException {
+		return createSequence(index, sequence.length());
+	}
+
+	/**
+	 * Only the number of residues is used; no String is created
+	 * @param residues
+	 * @param offset
+	 * @param length
+	 * @param index
+	 * @return
+	 * @throws IOException
+	 */
+	@Override
+	public AbstractSequence<AminoAcidCompound> getSequence(byte[] residues, int offset, int length, long index) throws CompoundNotFoundException, IOException {
+		return createSequence(index, length);
+	}
+
+	private AbstractSequence<AminoAcidCompound> createSequence(long index, int length) throws CompoundNotFoundException, IOException {
 		SequenceFileProxyLoader<AminoAcidCompound> sequenceFileProxyLoader =
 				new SequenceFileProxyLoader<AminoAcidCompound>(
 						file,
 						sequenceParser,
 						index,
-						sequence.length(),
+						length,
 						compoundSet
 						);
 		return new ProteinSequence(sequenceFileProxyLoader, compoundSet);
@@ -0,0 +1,290 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.io;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * A {@link Spliterator} over the records of a file whose records each
+ * start with a fixed marker at the beginning of a line (<code>&gt;</code>
+ * for FASTA, <code>LOCUS</code> for GenBank). The spliterator covers a byte
+ * range of the file; {@link #trySplit()} cuts the range at the first record
+ * start after its middle so both halves can be parsed independently, and
+ * {@link #estimateSize()} counts the record starts in the range. The range
+ * is only opened once records are requested and is closed as soon as it is
+ * exhausted; {@link #close()} closes any range still open, e.g. after a
+ * short-circuiting stream operation.
+ *
+ * @param <S> The type of record
+ */
+class FileRecordSpliterator<S> implements Spliterator<S>, Closeable {
+
+	/**
+	 * Creates the records of a range of the file
+	 */
+	interface RecordSource<S> {
+		/**
+		 * @param in Stream over the range
+		 * @param offset Offset of the range in the file
+		 */
+		Iterator<S> open(InputStream in, long offset) throws IOException;
+	}
+
+	/**
+	 * Ranges smaller than this are not split
+	 */
+	static final long MIN_SPLIT_SIZE = 4096;
+
+	private static final int SCAN_BUFFER_SIZE = 1 << 16;
+
+	private final File file;
+	private final byte[] marker;
+	private final RecordSource<S> source;
+	private final Set<Closeable> open;
+
+	private long start;
+	private final long end;
+	private long count = -1;
+	private long consumed = 0;
+	private Iterator<S> records = null;
+	private RangeInputStream in = null;
+
+	FileRecordSpliterator(File file, byte[] marker, RecordSource<S> source) {
+		this(file, marker, source, 0, file.length(), ConcurrentHashMap.<Closeable>newKeySet());
+	}
+
+	private FileRecordSpliterator(File file, byte[] marker, RecordSource<S> source, long start, long end, Set<Closeable> open) {
+		this.file = file;
+		this.marker = marker;
+		this.source = source;
+		this.start = start;
+		this.end = end;
+		this.open = open;
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super S> action) {
+		if (records == null) {
+			if (start >= end) {
+				return false;
+			}
+			try {
+				in = new RangeInputStream(file, start, end);
+				open.add(in);
+				records = source.open(in, start);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		if (records.hasNext()) {
+			action.accept(records.next());
+			consumed++;
+			return true;
+		}
+		closeRange();
+		return false;
+	}
+
+	/**
+	 * Splits off the first half of the remaining range at a record start.
+	 * Ranges already being read are not split.
+	 */
+	@Override
+	public Spliterator<S> trySplit() {
+		if (records != null || end - start < MIN_SPLIT_SIZE) {
+			return null;
+		}
+		long boundary;
+		try {
+			boundary = scan(start + (end - start) / 2 - 1, end, false, true);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		if (boundary <= start || boundary >= end) {
+			return null;
+		}
+		FileRecordSpliterator<S> prefix = new FileRecordSpliterator<S>(file, marker, source, start, boundary, open);
+		if (count >= 0) {
+			prefix.count = prefix.estimateSize();
+			count -= prefix.count;
+		}
+		start = boundary;
+		return prefix;
+	}
+
+	/**
+	 * Number of record starts in the range less those already handed out.
+	 * Records the reader skips (e.g. those with unknown compounds) are
+	 * included so this is an estimate rather than an exact size.
+	 */
+	@Override
+	public long estimateSize() {
+		if (count < 0) {
+			try {
+				count = scan(start, end, true, false);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		return Math.max(0, count - consumed);
+	}
+
+	@Override
+	public int characteristics() {
+		return ORDERED | NONNULL;
+	}
+
+	@Override
+	public void close() {
+		for (Closeable c : open) {
+			try {
+				c.close();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		open.clear();
+	}
+
+	private void closeRange() {
+		if (in != null) {
+			open.remove(in);
+			try {
+				in.close();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			in = null;
+		}
+	}
+
+	private long scan(long from, long to, boolean lineStart, boolean first) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			return scan(channel, marker, from, to, lineStart, first);
+		}
+	}
+
+	/**
+	 * Offset of the first record start at or after from, or to if there is
+	 * none before it. from itself only counts if it follows a line feed.
+	 */
+	static long nextRecordStart(FileChannel channel, byte[] marker, long from, long to) throws IOException {
+		return scan(channel, marker, Math.max(0, from - 1), to, from == 0, true);
+	}
+
+	/**
+	 * Scans the bytes from (inclusive) to to (exclusive) for the marker at
+	 * the start of a line.
+	 *
+	 * @param lineStart true if from is the start of a line
+	 * @param first true to return the offset of the first marker found (or
+	 * to if there is none) rather than the number of markers
+	 */
+	private static long scan(FileChannel channel, byte[] marker, long from, long to, boolean lineStart, boolean first)
+			throws IOException {
+		long found = 0;
+		int matched = lineStart ? 0 : -1;
+		ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+		long position = from;
+		while (position < to) {
+			buffer.clear();
+			buffer.limit((int) Math.min(buffer.capacity(), to - position));
+			int read = channel.read(buffer, position);
+			if (read <= 0) {
+				break;
+			}
+			byte[] bytes = buffer.array();
+			for (int i = 0; i < read; i++) {
+				byte b = bytes[i];
+				if (matched >= 0) {
+					if (b == marker[matched]) {
+						matched++;
+						if (matched == marker.length) {
+							if (first) {
+								return position + i - marker.length + 1;
+							}
+							found++;
+							matched = -1;
+						}
+					} else {
+						matched = -1;
+					}
+				}
+				if (b == '\n') {
+					matched = 0;
+				}
+			}
+			position += read;
+		}
+		return first ? to : found;
+	}
+
+	/**
+	 * Reads a byte range of a file through positional reads
+	 */
+	static class RangeInputStream extends InputStream {
+		private final FileChannel channel;
+		private long position;
+		private final long end;
+
+		RangeInputStream(File file, long start, long end) throws IOException {
+			this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+			this.position = start;
+			this.end = end;
+		}
+
+		@Override
+		public int read() throws IOException {
+			byte[] b = new byte[1];
+			return (read(b, 0, 1) == -1) ? -1 : b[0] & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (position >= end) {
+				return -1;
+			}
+			int wanted = (int) Math.min(len, end - position);
+			int read = channel.read(ByteBuffer.wrap(b, off, wanted), position);
+			if (read > 0) {
+				position += read;
+			}
+			return read;
+		}
+
+		@Override
+		public void close() throws IOException {
+			channel.close();
+		}
+	}
+}
@@ -32,16 +32,24 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
+import org.biojava.nbio.core.exceptions.ParserException;
 import org.biojava.nbio.core.sequence.DataSource;
 import org.biojava.nbio.core.sequence.TaxonomyID;
 import org.biojava.nbio.core.sequence.features.DBReferenceInfo;
 import org.biojava.nbio.core.sequence.io.template.SequenceCreatorInterface;
 import org.biojava.nbio.core.sequence.io.template.SequenceHeaderParserInterface;
+import org.biojava.nbio.core.sequence.location.InsdcLocationCache;
 import org.biojava.nbio.core.sequence.template.AbstractSequence;
 import org.biojava.nbio.core.sequence.template.Compound;
 import org.slf4j.Logger;
@@ -58,12 +66,52 @@ public class GenbankReader<S extends AbstractSequence<C>, C extends Compound> {
 	private GenbankSequenceParser<S,C> genbankParser;
 	private BufferedReader bufferedReader;
 	private boolean closed;
+	private File file = null;
+	private boolean started = false;
 	private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
+	private static final byte[] LOCUS_MARKER = { 'L', 'O', 'C', 'U', 'S' };
+
 	public boolean isClosed() {
 		return closed;
 	}
 
+	/**
+	 * In lazy mode the feature table and references of each record are kept
+	 * as text and parsed only when first asked for through the sequence, as
+	 * by {@link AbstractSequence#getFeatures()},
+	 * {@link AbstractSequence#getFeaturesByType(String)},
+	 * {@link AbstractSequence#getReferences()} or
+	 * {@link AbstractSequence#getTaxonomy()}. Reading just the sequences and
+	 * accessions then skips tokenising the features and parsing their
+	 * locations and qualifiers. Off by default.
+	 *
+	 * @see AbstractSequence#setFeatureLoader(org.biojava.nbio.core.sequence.features.FeatureLoader)
+	 */
+	public void setLazyFeatures(boolean lazyFeatures) {
+		genbankParser.setLazyFeatures(lazyFeatures);
+	}
+
+	public boolean isLazyFeatures() {
+		return genbankParser.isLazyFeatures();
+	}
+
+	/**
+	 * Keeps up to the given number of parsed feature locations across the
+	 * records read, so that a location string repeated in the file is
+	 * parsed once; 0 turns caching off, as by default. Features then share
+	 * their Location objects, which must not be modified.
+	 *
+	 * @see GenbankSequenceParser#setLocationCacheSize(int)
+	 */
+	public void setLocationCacheSize(int cacheSize) {
+		genbankParser.setLocationCacheSize(cacheSize);
+	}
+
+	void setLocationCache(InsdcLocationCache cache) {
+		genbankParser.setLocationCache(cache);
+	}
+
 	/**
 	 * If you are going to use {@link FileProxyProteinSequenceCreator} then do not use this constructor because we need details about
 	 * local file offsets for quick reads. {@link InputStream} does not give you the name of the stream to access quickly via file seek. A seek in
@@ -100,6 +148,7 @@ public class GenbankReader<S extends AbstractSequence<C>, C extends Compound> {
 			) throws FileNotFoundException {
 
 		this.bufferedReader = new BufferedReader(new FileReader(file));
+		this.file = file;
 		this.sequenceCreator = sequenceCreator;
 		genbankParser = new GenbankSequenceParser<>();
 	}
@@ -151,6 +200,7 @@ public class GenbankReader<S extends AbstractSequence<C>, C extends Compound> {
 			throw new IOException("Cannot perform action: resource has been closed.");
 		}
 
+		started = true;
 		LinkedHashMap<String,S> sequences = new LinkedHashMap<>();
 		int i=0;
 		while(true) {
@@ -159,10 +209,27 @@ public class GenbankReader<S extends AbstractSequence<C>, C extends Compound> {
 			String seqString = genbankParser.getSequence(bufferedReader, 0);
 			//reached end of file?
 			if(seqString==null) break;
-			@SuppressWarnings("unchecked")
-			S sequence = (S) sequenceCreator.getSequence(seqString, 0);
-			genbankParser.getSequenceHeaderParser().parseHeader(genbankParser.getHeader(), sequence);
+			S sequence = createSequence(genbankParser, seqString, sequenceCreator);
+			sequences.put(sequence.getAccession().getID(), sequence);
+		}
 
+		return sequences;
+	}
+
+	/**
+	 * Creates the sequence of the record the parser read last and adds its
+	 * header, features and taxonomy
+	 */
+	static <S extends AbstractSequence<C>, C extends Compound> S createSequence(GenbankSequenceParser<S, C> genbankParser,
+			String seqString, SequenceCreatorInterface<C> sequenceCreator) throws IOException, CompoundNotFoundException {
+		@SuppressWarnings("unchecked")
+		S sequence = (S) sequenceCreator.getSequence(seqString, 0);
+		genbankParser.getSequenceHeaderParser().parseHeader(genbankParser.getHeader(), sequence);
+
+		if (genbankParser.isLazyFeatures()) {
+			// features, references and taxonomy are parsed once asked for
+			sequence.setFeatureLoader(genbankParser.getFeatureLoader());
+		} else {
 			// add features to new sequence
 			genbankParser.getFeatures().values().stream()
 			.flatMap(List::stream)
@@ -174,11 +241,50 @@ public class GenbankReader<S extends AbstractSequence<C>, C extends Compound> {
 				DBReferenceInfo q = dbQualifier.get(0);
 				sequence.setTaxonomy(new TaxonomyID(q.getDatabase()+":"+q.getId(), DataSource.GENBANK));
 			}
-
-			sequences.put(sequence.getAccession().getID(), sequence);
 		}
+		return sequence;
+	}
 
-		return sequences;
+	/**
+	 * Returns the remaining records one at a time; each call to
+	 * {@link Iterator#next()} parses at most one record. Remember to
+	 * {@link #close()} the reader.
+	 *
+	 * @throws UncheckedIOException from the Iterator if the input cannot be read
+	 * @throws ParserException from the Iterator if a sequence holds unknown compounds
+	 */
+	public Iterator<S> iterator() {
+		return new RecordIterator<S>(() -> process(1));
+	}
+
+	/**
+	 * Returns the remaining records as a Stream; closing the Stream closes
+	 * this reader.
+	 * <p>
+	 * If this reader was created from a File and nothing has been read yet
+	 * the Stream is backed by the file itself: its size is estimated by
+	 * counting <code>LOCUS</code> lines and {@link Stream#parallel()} splits
+	 * the file at record boundaries with each part parsed by its own reader
+	 * sharing the sequence creator, which must then be thread-safe.
+	 * Otherwise the Stream reads this reader sequentially.
+	 */
+	public Stream<S> stream() {
+		if (file != null && !started && !closed) {
+			close();
+			final boolean lazyFeatures = isLazyFeatures();
+			final InsdcLocationCache locationCache = genbankParser.getLocationCache();
+			final FileRecordSpliterator<S> spliterator = new FileRecordSpliterator<S>(file, LOCUS_MARKER,
+					(in, start) -> {
+						GenbankReader<S, C> reader = new GenbankReader<S, C>(in, null, sequenceCreator);
+						reader.setLazyFeatures(lazyFeatures);
+						reader.setLocationCache(locationCache);
+						return reader.iterator();
+					});
+			return StreamSupport.stream(spliterator, false).onClose(spliterator::close);
+		}
+		Spliterator<S> spliterator = Spliterators.spliteratorUnknownSize(iterator(),
+				Spliterator.ORDERED | Spliterator.NONNULL);
+		return StreamSupport.stream(spliterator, false).onClose(this::close);
 	}
 
 	public void close() {
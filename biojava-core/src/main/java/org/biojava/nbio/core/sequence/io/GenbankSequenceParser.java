@@ -34,17 +34,21 @@ package org.biojava.nbio.core.sequence.io;
 import org.biojava.nbio.core.exceptions.Messages;
 import org.biojava.nbio.core.exceptions.ParserException;
 import org.biojava.nbio.core.sequence.DataSource;
+import org.biojava.nbio.core.sequence.TaxonomyID;
 import org.biojava.nbio.core.sequence.compound.AminoAcidCompoundSet;
 import org.biojava.nbio.core.sequence.compound.DNACompoundSet;
 import org.biojava.nbio.core.sequence.compound.RNACompoundSet;
 import org.biojava.nbio.core.sequence.features.AbstractFeature;
 import org.biojava.nbio.core.sequence.features.DBReferenceInfo;
+import org.biojava.nbio.core.sequence.features.FeatureLoader;
 import org.biojava.nbio.core.sequence.features.Qualifier;
 import org.biojava.nbio.core.sequence.features.TextFeature;
 import org.biojava.nbio.core.sequence.io.template.SequenceParserInterface;
+import org.biojava.nbio.core.sequence.location.InsdcLocationCache;
 import org.biojava.nbio.core.sequence.location.InsdcParser;
 import org.biojava.nbio.core.sequence.location.template.AbstractLocation;
 import org.biojava.nbio.core.sequence.location.template.Location;
+import org.biojava.nbio.core.sequence.reference.AbstractReference;
 import org.biojava.nbio.core.sequence.reference.GenbankReference;
 import org.biojava.nbio.core.sequence.template.AbstractSequence;
 import org.biojava.nbio.core.sequence.template.Compound;
@@ -54,6 +58,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.StringReader;
 import java.util.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -65,6 +70,11 @@ public class GenbankSequenceParser<S extends AbstractSequence<C>, C extends Comp
 	private String header;
 	private String accession;
 	private boolean isCircularSequence;
+	private long sequenceLength;
+	private boolean lazyFeatures = false;
+	// the sections kept unparsed in lazy mode
+	private String rawFeatures;
+	private List<String> rawReferences;
 	private Map<String, List<DBReferenceInfo>> mapDB;
 	/**
 	 * this data structure collects list of features extracted from the
@@ -119,7 +129,8 @@ public class GenbankSequenceParser<S extends AbstractSequence<C>, C extends Comp
 	// dbxref line
 	protected static final Pattern dbxp = Pattern.compile("^([^:]+):(\\S+)$");
 
-	protected static final InsdcParser locationParser = new InsdcParser(DataSource.GENBANK);
+	// set up for each record so not shared between parsers
+	protected final InsdcParser locationParser = new InsdcParser(DataSource.GENBANK);
 	/**
 	 * sections start at a line and continue till the first line afterwards with a
 	 * 	non-whitespace first character
@@ -139,6 +150,9 @@ public class GenbankSequenceParser<S extends AbstractSequence<C>, C extends Comp
 		List<String[]> section;
 		// Get an ordered list of key->value pairs in array-tuples
 		do {
+			if (lazyFeatures) {
+				keepRawSections(bufferedReader);
+			}
 			section = this.readSection(bufferedReader);
 			sectionKey = section.get(0)[0];
 			if (sectionKey == null) {
@@ -253,6 +267,10 @@ public class GenbankSequenceParser<S extends AbstractSequence<C>, C extends Comp
 	}
 
 	private void parseReferenceTag(List<String[]> section) {
+		headerParser.addReference(parseReference(section));
+	}
+
+	private static GenbankReference parseReference(List<String[]> section) {
 		GenbankReference genbankReference = new GenbankReference();
 		for (String[] ref : section) {
 			if (ref[0].equals(AUTHORS_TAG)) {
@@ -263,7 +281,7 @@ public class GenbankSequenceParser<S extends AbstractSequence<C>, C extends Comp
 				genbankReference.setJournal(ref[1]);
 			}
 		}
-		headerParser.addReference(genbankReference);
+		return genbankReference;
 	}
 
 	private void parseVersionTag(List<String[]> section) {
@@ -307,7 +325,7 @@ public class GenbankSequenceParser<S extends AbstractSequence<C>, C extends Comp
 		if (m.matches()) {
 			headerParser.setName(m.group(1));
 			headerParser.setAccession(m.group(1)); // default if no accession found
-			long sequenceLength = Long.valueOf(m.group(2));
+			sequenceLength = Long.valueOf(m.group(2));
 			String lengthUnits = m.group(3);
 			String type = m.group(6);
 
@@ -339,10 +357,49 @@ public class GenbankSequenceParser<S extends AbstractSequence<C>, C extends Comp
 	}
 
 
-	// reads an indented section, combining split lines and creating a list of
-	// key->value tuples
-	// reads an indented section, combining split lines and creating a list of
-	// key->value tuples
+	/**
+	 * Keeps the lines of the sections which are parsed on demand in lazy mode
+	 * as they are, until the next section is one parsed straight away
+	 */
+	private void keepRawSections(BufferedReader bufferedReader) {
+		try {
+			while (true) {
+				String line;
+				do {
+					bufferedReader.mark(320);
+					line = bufferedReader.readLine();
+				} while (line != null && line.trim().isEmpty());
+				boolean features = isSectionStart(line, FEATURE_TAG);
+				if (!features && !isSectionStart(line, REFERENCE_TAG)) {
+					bufferedReader.reset();
+					return;
+				}
+				StringBuilder raw = new StringBuilder(line).append('\n');
+				while (true) {
+					bufferedReader.mark(320);
+					line = bufferedReader.readLine();
+					if (line == null || !(line.startsWith(" ") || line.trim().isEmpty())) {
+						bufferedReader.reset();
+						break;
+					}
+					raw.append(line).append('\n');
+				}
+				if (features) {
+					rawFeatures = raw.toString();
+				} else {
+					rawReferences.add(raw.toString());
+				}
+			}
+		} catch (IOException e) {
+			throw new ParserException(e.getMessage());
+		}
+	}
+
+	private static boolean isSectionStart(String line, String key) {
+		return line != null && line.startsWith(key)
+				&& (line.length() == key.length() || Character.isWhitespace(line.charAt(key.length())));
+	}
+
 	// reads an indented section, combining split lines and creating a list of
 	// key->value tuples
 	private List<String[]> readSection(BufferedReader bufferedReader) {
@@ -416,6 +473,8 @@ public class GenbankSequenceParser<S extends AbstractSequence<C>, C extends Comp
 		featureCollection = new HashMap<>();
 		mapDB = new LinkedHashMap<>();
 		headerParser = new GenericGenbankHeaderParser<>();
+		rawFeatures = null;
+		rawReferences = new ArrayList<>();
 		try {
 			parse(bufferedReader);
 		} catch (ParserException e) {
@@ -426,6 +485,79 @@ public class GenbankSequenceParser<S extends AbstractSequence<C>, C extends Comp
 		return seqData;
 	}
 
+	/**
+	 * In lazy mode the FEATURES and REFERENCE sections of a record are kept
+	 * as text rather than parsed: {@link #getFeatures()},
+	 * {@link #getDatabaseReferences()} and the references of the header
+	 * parser are then empty and {@link #getFeatureLoader()} parses them once
+	 * needed. Lazy mode is off by default.
+	 */
+	public void setLazyFeatures(boolean lazyFeatures) {
+		this.lazyFeatures = lazyFeatures;
+	}
+
+	public boolean isLazyFeatures() {
+		return lazyFeatures;
+	}
+
+	/**
+	 * Keeps up to the given number of parsed feature locations, so that a
+	 * location repeated across features and records is parsed once; 0 turns
+	 * caching off, as by default. Features then share their Location
+	 * objects, which must not be modified.
+	 *
+	 * @see InsdcParser#setCacheSize(int)
+	 */
+	public void setLocationCacheSize(int cacheSize) {
+		locationParser.setCacheSize(cacheSize);
+	}
+
+	/**
+	 * Keeps parsed feature locations in the given cache, which may be shared
+	 * with other parsers; null turns caching off
+	 */
+	public void setLocationCache(InsdcLocationCache cache) {
+		locationParser.setCache(cache);
+	}
+
+	public InsdcLocationCache getLocationCache() {
+		return locationParser.getCache();
+	}
+
+	/**
+	 * Returns a loader adding the features, references and taxonomy of the
+	 * record last read to a sequence, for
+	 * {@link AbstractSequence#setFeatureLoader(FeatureLoader)}; null unless
+	 * in lazy mode
+	 */
+	public FeatureLoader<C> getFeatureLoader() {
+		if (!lazyFeatures) {
+			return null;
+		}
+		return new RawAnnotation<>(rawFeatures, rawReferences, Collections.emptyList(), sequenceLength,
+				isCircularSequence, DataSource.GENBANK, false, getLocationCache());
+	}
+
+	/**
+	 * Returns a loader for a feature table laid out as in GenBank, starting
+	 * with its FEATURES line, and references already parsed. Used by readers
+	 * of the other INSDC formats, whose feature tables share the layout.
+	 *
+	 * @param features Feature table or null if there is none
+	 * @param references References of the record
+	 * @param sequenceLength Length of the sequence the locations refer to
+	 * @param circular true if the sequence is circular
+	 * @param dataSource Source of the taxonomy, which is taken from the first
+	 * <code>taxon</code> db_xref qualifier
+	 * @param locationCache Cache of the parsed locations or null
+	 */
+	static <C extends Compound> FeatureLoader<C> getFeatureLoader(String features,
+			List<AbstractReference> references, long sequenceLength, boolean circular, DataSource dataSource,
+			InsdcLocationCache locationCache) {
+		return new RawAnnotation<>(features, Collections.emptyList(), references, sequenceLength, circular,
+				dataSource, true, locationCache);
+	}
+
 	public String getHeader() {
 		return header;
 	}
@@ -458,4 +590,81 @@ public class GenbankSequenceParser<S extends AbstractSequence<C>, C extends Comp
 	public CompoundSet<?> getCompoundType() {
 		return compoundType;
 	}
+
+	/**
+	 * The sections of a record kept unparsed in lazy mode
+	 */
+	private static class RawAnnotation<C extends Compound> implements FeatureLoader<C> {
+
+		private final String features;
+		private final List<String> rawReferences;
+		private final List<AbstractReference> references;
+		private final long sequenceLength;
+		private final boolean circular;
+		private final DataSource dataSource;
+		// whether the taxonomy is the taxon db_xref rather than the last db_xref, as GenbankReader has it
+		private final boolean taxonXref;
+		private final InsdcLocationCache locationCache;
+
+		RawAnnotation(String features, List<String> rawReferences, List<AbstractReference> references,
+				long sequenceLength, boolean circular, DataSource dataSource, boolean taxonXref,
+				InsdcLocationCache locationCache) {
+			this.features = features;
+			this.rawReferences = rawReferences;
+			this.references = references;
+			this.sequenceLength = sequenceLength;
+			this.circular = circular;
+			this.dataSource = dataSource;
+			this.taxonXref = taxonXref;
+			this.locationCache = locationCache;
+		}
+
+		@Override
+		public void loadFeatures(AbstractSequence<C> sequence) {
+			GenbankSequenceParser<AbstractSequence<C>, C> parser = new GenbankSequenceParser<>();
+			parser.featureCollection = new HashMap<>();
+			parser.mapDB = new LinkedHashMap<>();
+			if (features != null) {
+				parser.locationParser.setSequenceLength(sequenceLength);
+				parser.locationParser.setSequenceCircular(circular);
+				parser.locationParser.setCache(locationCache);
+				parser.parseFeatureTag(parser.readSection(new BufferedReader(new StringReader(features))));
+			}
+			for (List<AbstractFeature<AbstractSequence<C>, C>> list : parser.featureCollection.values()) {
+				for (AbstractFeature<AbstractSequence<C>, C> feature : list) {
+					sequence.addFeature(feature);
+				}
+			}
+			DBReferenceInfo q = taxonXref ? findTaxon(parser.featureCollection.values()) : null;
+			List<DBReferenceInfo> dbQualifier = parser.mapDB.get("db_xref");
+			if (!taxonXref && dbQualifier != null) {
+				q = dbQualifier.get(0);
+			}
+			if (q != null) {
+				sequence.setTaxonomy(new TaxonomyID(q.getDatabase() + ":" + q.getId(), dataSource));
+			}
+			List<AbstractReference> parsed = new ArrayList<>(references);
+			for (String reference : rawReferences) {
+				parsed.add(parseReference(parser.readSection(new BufferedReader(new StringReader(reference)))));
+			}
+			sequence.setReferences(parsed);
+		}
+
+		private static <C extends Compound> DBReferenceInfo findTaxon(
+				Collection<List<AbstractFeature<AbstractSequence<C>, C>>> features) {
+			for (List<AbstractFeature<AbstractSequence<C>, C>> list : features) {
+				for (AbstractFeature<AbstractSequence<C>, C> feature : list) {
+					List<Qualifier> xrefs = feature.getQualifiers().get("db_xref");
+					if (xrefs != null) {
+						for (Qualifier xref : xrefs) {
+							if (xref instanceof DBReferenceInfo && "taxon".equals(((DBReferenceInfo) xref).getDatabase())) {
+								return (DBReferenceInfo) xref;
+							}
+						}
+					}
+				}
+			}
+			return null;
+		}
+	}
 }
@@ -30,6 +30,7 @@ import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
 import org.biojava.nbio.core.sequence.io.template.GenbankHeaderFormatInterface;
 import org.biojava.nbio.core.sequence.template.Compound;
 import org.biojava.nbio.core.sequence.template.Sequence;
+import org.biojava.nbio.core.util.BgzfOutputStream;
 
 import java.io.BufferedOutputStream;
 import java.io.File;
@@ -65,6 +66,23 @@ public class GenbankWriterHelper {
 		outputStream.close();
 	}
 
+	/**
+	 * Write collection of protein sequences to a BGZF compressed file along
+	 * with its .gzi index
+	 *
+	 * @param file
+	 * @param proteinSequences
+	 * @param maxPending number of blocks deflated at once; 0 to deflate on
+	 *        the calling thread
+	 * @throws Exception
+	 */
+	public static void writeProteinSequenceBgzf(File file,
+			Collection<ProteinSequence> proteinSequences, int maxPending) throws Exception {
+		try (BgzfOutputStream outputStream = new BgzfOutputStream(file, maxPending, true)) {
+			writeProteinSequence(outputStream, proteinSequences);
+		}
+	}
+
 	/**
 	 * Write collection of protein sequences to a stream
 	 *
@@ -101,6 +119,23 @@ public class GenbankWriterHelper {
 		outputStream.close();
 	}
 
+	/**
+	 * Write a collection of NucleotideSequences to a BGZF compressed file
+	 * along with its .gzi index
+	 *
+	 * @param file
+	 * @param dnaSequences
+	 * @param maxPending number of blocks deflated at once; 0 to deflate on
+	 *        the calling thread
+	 * @throws Exception
+	 */
+	public static void writeNucleotideSequenceBgzf(File file,
+			Collection<DNASequence> dnaSequences, int maxPending) throws Exception {
+		try (BgzfOutputStream outputStream = new BgzfOutputStream(file, maxPending, true)) {
+			writeNucleotideSequence(outputStream, dnaSequences);
+		}
+	}
+
 	/**
 	 * Write a collection of NucleotideSequences to a file
 	 *
@@ -0,0 +1,50 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.io;
+
+import org.biojava.nbio.core.sequence.AccessionID;
+import org.biojava.nbio.core.sequence.io.template.FastaHeaderFormatInterface;
+import org.biojava.nbio.core.sequence.template.AbstractSequence;
+import org.biojava.nbio.core.sequence.template.Compound;
+import org.biojava.nbio.core.sequence.template.Sequence;
+
+/**
+ * Writes back the header a sequence was read with, as kept by
+ * {@link GenericFastaHeaderParser}, falling back to the accession ID for
+ * sequences which were not read from a FASTA file
+ *
+ * @param <S> The type of sequence
+ * @param <C> The type of compound
+ */
+public class GenericFastaHeaderFormat<S extends Sequence<?>, C extends Compound> implements FastaHeaderFormatInterface<S, C> {
+
+	@Override
+	public String getHeader(S sequence) {
+		if (sequence instanceof AbstractSequence) {
+			String header = ((AbstractSequence<?>) sequence).getOriginalHeader();
+			if (header != null && !header.isEmpty()) {
+				return header;
+			}
+		}
+		AccessionID accession = sequence.getAccession();
+		return (accession == null || accession.getID() == null) ? "" : accession.getID();
+	}
+}
@@ -0,0 +1,300 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.io;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
+import org.biojava.nbio.core.exceptions.ParserException;
+import org.biojava.nbio.core.sequence.AccessionID;
+import org.biojava.nbio.core.sequence.io.template.SequenceCreatorInterface;
+import org.biojava.nbio.core.sequence.template.AbstractSequence;
+import org.biojava.nbio.core.sequence.template.Compound;
+import org.biojava.nbio.core.util.BgzfIndex;
+import org.biojava.nbio.core.util.BgzfInputStream;
+
+/**
+ * Random access to the records of a FASTA file through its
+ * {@link FastaIndex}. The bytes of a region are located from the line
+ * lengths held in the index so fetching a region reads just the bytes of
+ * that region, whatever the size of the record it is in.
+ *
+ * <pre>
+ * try (IndexedFastaReader&lt;NucleotideCompound&gt; reader = new IndexedFastaReader&lt;NucleotideCompound&gt;(
+ *     new File("hg38.fa"), new DNASequenceCreator(DNACompoundSet.getDNACompoundSet()))) {
+ *   AbstractSequence&lt;NucleotideCompound&gt; region = reader.getRegion("chr1:1000001-1001000");
+ * }
+ * </pre>
+ *
+ * Files compressed with <code>bgzip</code> are read through a
+ * {@link BgzfInputStream}; the offsets in their <code>.fai</code> index are
+ * offsets into the uncompressed data, which the <code>.gzi</code> index
+ * turns into block positions. Only the blocks holding a region are then
+ * inflated. The offsets handed to the sequence creator are offsets into the
+ * uncompressed data.
+ *
+ * A reader may be shared between threads provided the sequence creator is
+ * thread safe; reads of plain files are positional and do not block each
+ * other.
+ *
+ * @param <C> The type of compound
+ */
+public class IndexedFastaReader<C extends Compound> implements Closeable {
+
+	private final FastaIndex index;
+	private final SequenceCreatorInterface<C> sequenceCreator;
+	// exactly one of these is set
+	private final FileChannel channel;
+	private final BgzfInputStream bgzf;
+
+	/**
+	 * Opens the FASTA file using the index next to it (the name with
+	 * <code>.fai</code> appended); if there is none the file is indexed in
+	 * memory first.
+	 *
+	 * @param fasta FASTA file
+	 * @param sequenceCreator Creates the sequences of the regions read
+	 * @throws IOException if an error occurs reading the files
+	 */
+	public IndexedFastaReader(File fasta, SequenceCreatorInterface<C> sequenceCreator) throws IOException {
+		this(fasta, FastaIndex.getIndexFile(fasta).exists() ? FastaIndex.read(FastaIndex.getIndexFile(fasta))
+				: FastaIndex.build(fasta), sequenceCreator);
+	}
+
+	/**
+	 * A BGZF compressed file is read through the <code>.gzi</code> index
+	 * next to it, which is built in memory if missing.
+	 *
+	 * @param fasta FASTA file
+	 * @param index Index of the file
+	 * @param sequenceCreator Creates the sequences of the regions read
+	 * @throws IOException if the file cannot be opened
+	 */
+	public IndexedFastaReader(File fasta, FastaIndex index, SequenceCreatorInterface<C> sequenceCreator)
+			throws IOException {
+		this.index = index;
+		this.sequenceCreator = sequenceCreator;
+		if (BgzfInputStream.isBgzf(fasta)) {
+			File gzi = BgzfIndex.getIndexFile(fasta);
+			this.bgzf = new BgzfInputStream(fasta, gzi.exists() ? BgzfIndex.read(gzi) : BgzfIndex.build(fasta), null, 0);
+			this.channel = null;
+		} else {
+			this.bgzf = null;
+			this.channel = FileChannel.open(fasta.toPath(), StandardOpenOption.READ);
+		}
+	}
+
+	/**
+	 * Returns the index used to locate regions
+	 */
+	public FastaIndex getIndex() {
+		return index;
+	}
+
+	/**
+	 * Returns the names of the records in file order
+	 */
+	public List<String> getSequenceNames() {
+		return index.getSequenceNames();
+	}
+
+	/**
+	 * Returns true if the file has a record of the given name
+	 */
+	public boolean containsSequence(String name) {
+		return index.containsSequence(name);
+	}
+
+	/**
+	 * Reads a whole record
+	 *
+	 * @param name Name of the record as given in the index
+	 * @throws IOException if an error occurs reading the file
+	 * @throws CompoundNotFoundException if the creator does not recognise
+	 * the residues
+	 */
+	public AbstractSequence<C> getSequence(String name) throws IOException, CompoundNotFoundException {
+		FastaIndex.Entry entry = getEntry(name);
+		return read(entry, 0, entry.getLength());
+	}
+
+	/**
+	 * Reads part of a record
+	 *
+	 * @param name Name of the record as given in the index
+	 * @param start Biological index start; must be greater than 0
+	 * @param end Biological end; must be less than length + 1
+	 * @throws IOException if an error occurs reading the file
+	 * @throws CompoundNotFoundException if the creator does not recognise
+	 * the residues
+	 */
+	public AbstractSequence<C> getSubSequence(String name, long start, long end)
+			throws IOException, CompoundNotFoundException {
+		FastaIndex.Entry entry = getEntry(name);
+		if (start < 1) {
+			throw new IllegalArgumentException(start + " is less than 1; you must use biological indexing (indexing from 1)");
+		}
+		if (end > entry.getLength()) {
+			throw new IllegalArgumentException(end + " is greater than length. Cannot access this position");
+		}
+		if (start > end + 1) {
+			throw new IllegalArgumentException("Start " + start + " is greater than end " + end);
+		}
+		return read(entry, start - 1, end);
+	}
+
+	/**
+	 * Reads a region given in the samtools form <code>name</code>,
+	 * <code>name:start</code> or <code>name:start-end</code> with 1 based
+	 * inclusive coordinates; commas in the numbers are ignored. As with
+	 * samtools, a start before the record is moved to its first base and an
+	 * end after the record to its last.
+	 *
+	 * @throws IllegalArgumentException if the region cannot be parsed or
+	 * names no record
+	 * @throws IOException if an error occurs reading the file
+	 * @throws CompoundNotFoundException if the creator does not recognise
+	 * the residues
+	 */
+	public AbstractSequence<C> getRegion(String region) throws IOException, CompoundNotFoundException {
+		String name = region;
+		long start = 1;
+		long end = Long.MAX_VALUE;
+		int colon = region.lastIndexOf(':');
+		// names may contain ':' so only treat it as a range if the whole string is not a name
+		if (colon > 0 && !index.containsSequence(region)) {
+			name = region.substring(0, colon);
+			String range = region.substring(colon + 1).replace(",", "");
+			int dash = range.indexOf('-');
+			try {
+				if (dash < 0) {
+					start = Long.parseLong(range);
+				} else {
+					start = Long.parseLong(range.substring(0, dash));
+					if (dash < range.length() - 1) {
+						end = Long.parseLong(range.substring(dash + 1));
+					}
+				}
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("Cannot parse region " + region, e);
+			}
+		}
+		FastaIndex.Entry entry = getEntry(name);
+		start = Math.max(start, 1);
+		end = Math.min(end, entry.getLength());
+		if (start > end + 1) {
+			throw new IllegalArgumentException("Start " + start + " is greater than end " + end + " in region " + region);
+		}
+		return read(entry, start - 1, end);
+	}
+
+	private FastaIndex.Entry getEntry(String name) {
+		FastaIndex.Entry entry = index.getEntry(name);
+		if (entry == null) {
+			throw new IllegalArgumentException("No sequence named " + name + " in the index");
+		}
+		return entry;
+	}
+
+	/**
+	 * Reads the bases from (inclusive) to to (exclusive), indexed from 0,
+	 * dropping the line terminators in between
+	 */
+	private AbstractSequence<C> read(FastaIndex.Entry entry, long from, long to)
+			throws IOException, CompoundNotFoundException {
+		long count = to - from;
+		if (count > Integer.MAX_VALUE - 8) {
+			throw new IllegalArgumentException("Cannot read " + count + " bases into a single sequence");
+		}
+		byte[] bases = new byte[(int) count];
+		int length = 0;
+		if (count > 0) {
+			long first = entry.getByteOffset(from);
+			long last = entry.getByteOffset(to - 1) + 1;
+			if (bgzf == null) {
+				length = copyBases(entry, first, last, bases);
+			} else {
+				synchronized (bgzf) {
+					bgzf.seekUncompressed(first);
+					length = copyBases(entry, first, last, bases);
+				}
+			}
+		}
+		if (length != count) {
+			throw mismatch(entry, count);
+		}
+		AbstractSequence<C> sequence = sequenceCreator.getSequence(bases, 0, length, entry.getByteOffset(from));
+		sequence.setAccession(new AccessionID(entry.getName()));
+		return sequence;
+	}
+
+	/**
+	 * Copies the bytes from first (inclusive) to last (exclusive) other than
+	 * line terminators into bases. A BGZF file must already be positioned
+	 * at first.
+	 *
+	 * @return the number of bases copied
+	 */
+	private int copyBases(FastaIndex.Entry entry, long first, long last, byte[] bases) throws IOException {
+		int length = 0;
+		ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(last - first, 1 << 16));
+		for (long position = first; position < last;) {
+			buffer.clear();
+			buffer.limit((int) Math.min(buffer.capacity(), last - position));
+			int read = (bgzf == null) ? channel.read(buffer, position) : bgzf.read(buffer.array(), 0, buffer.limit());
+			if (read <= 0) {
+				break;
+			}
+			byte[] bytes = buffer.array();
+			for (int i = 0; i < read; i++) {
+				byte b = bytes[i];
+				if (b != '\n' && b != '\r') {
+					if (length == bases.length) {
+						throw mismatch(entry, bases.length);
+					}
+					bases[length++] = b;
+				}
+			}
+			position += read;
+		}
+		return length;
+	}
+
+	private ParserException mismatch(FastaIndex.Entry entry, long count) {
+		return new ParserException("Index does not match the file: the line terminators expected around "
+				+ count + " bases of " + entry.getName() + " were not found");
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (bgzf == null) {
+			channel.close();
+		} else {
+			bgzf.close();
+		}
+	}
+}
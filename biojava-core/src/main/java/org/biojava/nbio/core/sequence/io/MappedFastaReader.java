@@ -0,0 +1,296 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.io;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+
+import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
+import org.biojava.nbio.core.sequence.io.template.SequenceCreatorInterface;
+import org.biojava.nbio.core.sequence.io.template.SequenceHeaderParserInterface;
+import org.biojava.nbio.core.sequence.template.Compound;
+import org.biojava.nbio.core.sequence.template.Sequence;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads FASTA files through a memory-mapped {@link FileChannel} rather than
+ * a {@link java.io.Reader}. Record and line boundaries are found on the raw
+ * bytes and the residues of each record are gathered into a single reused
+ * buffer which is handed to
+ * {@link SequenceCreatorInterface#getSequence(byte[], int, int, long)}; no
+ * String is created per line and, for the creators which support it, none
+ * per record either. Only headers are decoded into Strings.
+ *
+ * Parsing follows {@link FastaReader}: lines are trimmed, blank lines and
+ * lines starting with <code>;</code> are skipped. The index passed to the
+ * creator is the byte offset of the first sequence line of the record, as
+ * needed by {@link FileProxyDNASequenceCreator} and friends.
+ *
+ * The file is mapped in windows of at most 1GB so files larger than 2GB can
+ * be read.
+ *
+ * @param <S> The type of sequence created
+ * @param <C> The type of compound
+ */
+public class MappedFastaReader<S extends Sequence<?>, C extends Compound> implements Closeable {
+
+	private final static Logger logger = LoggerFactory.getLogger(MappedFastaReader.class);
+
+	private static final int WINDOW_SIZE = 1 << 30;
+
+	private final SequenceCreatorInterface<C> sequenceCreator;
+	private final SequenceHeaderParserInterface<S, C> headerParser;
+	private final RandomAccessFile raf;
+	private final FileChannel channel;
+	private final long size;
+	private final int windowSize;
+
+	private MappedByteBuffer window = null;
+	private long windowStart = 0;
+	// windowStart + positionInWindow is the offset of the next unread byte
+	private int positionInWindow = 0;
+
+	private final ByteBuilder residues = new ByteBuilder();
+	private final ByteBuilder headerBytes = new ByteBuilder();
+
+	long fileIndex = 0;
+	long sequenceIndex = 0;
+	String header = null;
+
+	/**
+	 * @param file FASTA file to read
+	 * @param headerParser
+	 * @param sequenceCreator
+	 * @throws IOException if the file cannot be opened
+	 */
+	public MappedFastaReader(File file, SequenceHeaderParserInterface<S, C> headerParser,
+			SequenceCreatorInterface<C> sequenceCreator) throws IOException {
+		this(file, headerParser, sequenceCreator, WINDOW_SIZE);
+	}
+
+	MappedFastaReader(File file, SequenceHeaderParserInterface<S, C> headerParser,
+			SequenceCreatorInterface<C> sequenceCreator, int windowSize) throws IOException {
+		this.headerParser = headerParser;
+		this.sequenceCreator = sequenceCreator;
+		this.windowSize = windowSize;
+		this.raf = new RandomAccessFile(file, "r");
+		this.channel = raf.getChannel();
+		this.size = channel.size();
+	}
+
+	/**
+	 * Parses every remaining record and closes the file
+	 *
+	 * @see #process(int)
+	 * @return {@link HashMap} containing all the parsed fasta records present,
+	 *         starting current fileIndex onwards.
+	 * @throws IOException if an error occurs reading the input file
+	 */
+	public LinkedHashMap<String, S> process() throws IOException {
+		LinkedHashMap<String, S> sequences = process(-1);
+		close();
+		return sequences;
+	}
+
+	/**
+	 * Parses at most <code>max</code> records leaving the file open;
+	 * subsequent calls continue where the last one stopped. Behaves as
+	 * {@link FastaReader#process(int)}.
+	 *
+	 * @param max maximum number of records to return, <code>-1</code> for infinity.
+	 * @return {@link HashMap} containing maximum <code>max</code> parsed fasta
+	 *         records present, starting current fileIndex onwards.
+	 * @throws IOException if an error occurs reading the input file
+	 */
+	public LinkedHashMap<String, S> process(int max) throws IOException {
+		LinkedHashMap<String, S> sequences = new LinkedHashMap<String, S>();
+		int processedSequences = 0;
+		while (max < 0 || processedSequences < max) {
+			fileIndex = windowStart + positionInWindow;
+			int first = skipLeadingWhitespace();
+			if (first == -1) {
+				// i.e. EOF
+				if (header != null || residues.length > 0) {
+					processedSequences += createSequence(sequences);
+				}
+				header = null;
+				break;
+			}
+			if (first == '>') {
+				positionInWindow++;
+				readLine(headerBytes);
+				if (header != null || residues.length > 0) {
+					processedSequences += createSequence(sequences);
+				}
+				header = headerBytes.toString(Charset.defaultCharset());
+			} else if (first == ';' || first == '\n') {
+				readLine(null);
+			} else {
+				if (residues.length == 0) {
+					// mark the start of the sequence with the offset of its first line
+					sequenceIndex = fileIndex;
+				}
+				readLine(residues);
+			}
+		}
+		return max > -1 && sequences.isEmpty() ? null : sequences;
+	}
+
+	/**
+	 * Hands the gathered residues to the creator and resets them
+	 *
+	 * @return 1 if a sequence was added otherwise 0
+	 */
+	private int createSequence(LinkedHashMap<String, S> sequences) throws IOException {
+		String recordHeader = (header == null) ? "" : header;
+		int created = 0;
+		if (residues.length == 0) {
+			logger.warn("Can't parse sequence {}. Got sequence of length 0!", sequenceIndex);
+			logger.warn("header: {}", recordHeader);
+		} else {
+			try {
+				@SuppressWarnings("unchecked")
+				S sequence = (S) sequenceCreator.getSequence(residues.bytes, 0, residues.length, sequenceIndex);
+				headerParser.parseHeader(recordHeader, sequence);
+				sequences.put(sequence.getAccession().getID(), sequence);
+				created = 1;
+			} catch (CompoundNotFoundException e) {
+				logger.warn("Sequence with header '{}' has unrecognised compounds ({}), it will be ignored",
+						recordHeader, e.getMessage());
+			}
+		}
+		residues.length = 0;
+		return created;
+	}
+
+	/**
+	 * Makes sure the next unread byte is mapped
+	 *
+	 * @return false at the end of the file
+	 */
+	private boolean mapped() throws IOException {
+		if (window != null && positionInWindow < window.limit()) {
+			return true;
+		}
+		long position = windowStart + positionInWindow;
+		if (position >= size) {
+			return false;
+		}
+		window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(windowSize, size - position));
+		windowStart = position;
+		positionInWindow = 0;
+		return true;
+	}
+
+	/**
+	 * Skips whitespace at the start of a line without leaving it
+	 *
+	 * @return The first other byte, '\n' for a blank line or -1 at the end
+	 * of the file
+	 */
+	private int skipLeadingWhitespace() throws IOException {
+		while (mapped()) {
+			int b = window.get(positionInWindow) & 0xFF;
+			if (b == '\n' || b > ' ') {
+				return b;
+			}
+			positionInWindow++;
+		}
+		return -1;
+	}
+
+	/**
+	 * Consumes the rest of the current line including its line feed,
+	 * appending it to target (if not null) without trailing whitespace
+	 */
+	private void readLine(ByteBuilder target) throws IOException {
+		int lineStart = (target == null) ? 0 : target.length;
+		while (mapped()) {
+			int from = positionInWindow;
+			int limit = window.limit();
+			int end = from;
+			while (end < limit && window.get(end) != '\n') {
+				end++;
+			}
+			if (target != null && end > from) {
+				target.ensureCapacity(end - from);
+				window.position(from);
+				window.get(target.bytes, target.length, end - from);
+				target.length += end - from;
+			}
+			positionInWindow = end;
+			if (end < limit) {
+				// consume the line feed
+				positionInWindow++;
+				break;
+			}
+		}
+		if (target != null) {
+			while (target.length > lineStart && (target.bytes[target.length - 1] & 0xFF) <= ' ') {
+				target.length--;
+			}
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		window = null;
+		channel.close();
+		raf.close();
+		header = null;
+	}
+
+	/**
+	 * Growable byte buffer which is reused between records
+	 */
+	private static class ByteBuilder {
+		private byte[] bytes = new byte[1024];
+		private int length = 0;
+
+		void ensureCapacity(int extra) {
+			if (length + extra > bytes.length) {
+				long capacity = Math.max((long) bytes.length * 2, (long) length + extra);
+				if (capacity > Integer.MAX_VALUE - 8) {
+					if ((long) length + extra > Integer.MAX_VALUE - 8) {
+						throw new IllegalStateException("Record holds more than " + (Integer.MAX_VALUE - 8) + " residues");
+					}
+					capacity = Integer.MAX_VALUE - 8;
+				}
+				bytes = Arrays.copyOf(bytes, (int) capacity);
+			}
+		}
+
+		String toString(Charset charset) {
+			String s = new String(bytes, 0, length, charset);
+			length = 0;
+			return s;
+		}
+	}
+}
@@ -0,0 +1,229 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.biojava.nbio.core.sequence.io.template.SequenceCreatorInterface;
+import org.biojava.nbio.core.sequence.io.template.SequenceHeaderParserInterface;
+import org.biojava.nbio.core.sequence.template.Compound;
+import org.biojava.nbio.core.sequence.template.Sequence;
+
+/**
+ * Parses a FASTA file on several cores. The file is cut into byte ranges,
+ * each cut is moved forward to the next <code>&gt;</code> at the start of a
+ * line and the resulting chunks are parsed independently by
+ * {@link FastaReader}s on a {@link ForkJoinPool}. Parsing of each record is
+ * identical to {@link FastaReader}, including the file offsets handed to the
+ * sequence creator, so {@link FileProxyProteinSequenceCreator} and friends
+ * can be used.
+ *
+ * The header parser and sequence creator are shared by all threads and so
+ * must be thread safe; the ones shipped with BioJava which hold no state
+ * (e.g. {@link GenericFastaHeaderParser}, {@link ProteinSequenceCreator})
+ * are.
+ *
+ * @param <S> The type of sequence created
+ * @param <C> The type of compound
+ */
+public class ParallelFastaReader<S extends Sequence<?>, C extends Compound> {
+
+	/**
+	 * Chunks are never smaller than this unless the file is
+	 */
+	private static final long MIN_CHUNK_SIZE = 1 << 20;
+
+	/**
+	 * Number of chunks per thread so that threads finishing early can steal
+	 * work
+	 */
+	private static final int CHUNKS_PER_THREAD = 4;
+
+	private final File file;
+	private final SequenceHeaderParserInterface<S, C> headerParser;
+	private final SequenceCreatorInterface<C> sequenceCreator;
+	private final long chunkSize;
+
+	/**
+	 * @param file FASTA file to read
+	 * @param headerParser thread safe header parser
+	 * @param sequenceCreator thread safe sequence creator
+	 */
+	public ParallelFastaReader(File file, SequenceHeaderParserInterface<S, C> headerParser,
+			SequenceCreatorInterface<C> sequenceCreator) {
+		this(file, headerParser, sequenceCreator, -1);
+	}
+
+	/**
+	 * @param chunkSize Target size of a chunk in bytes; -1 to derive it from
+	 * the file size and the parallelism of the pool
+	 */
+	ParallelFastaReader(File file, SequenceHeaderParserInterface<S, C> headerParser,
+			SequenceCreatorInterface<C> sequenceCreator, long chunkSize) {
+		this.file = file;
+		this.headerParser = headerParser;
+		this.sequenceCreator = sequenceCreator;
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * Parses the whole file on the common {@link ForkJoinPool} keeping the
+	 * records in file order
+	 *
+	 * @return the records keyed by accession ID as {@link FastaReader#process()}
+	 * @throws IOException if an error occurs reading the input file
+	 */
+	public LinkedHashMap<String, S> process() throws IOException {
+		return (LinkedHashMap<String, S>) process(ForkJoinPool.commonPool(), true);
+	}
+
+	/**
+	 * Parses the whole file on the given pool.
+	 *
+	 * @param pool Pool to parse the chunks on; its parallelism sets the
+	 * number of chunks unless a chunk size was given
+	 * @param ordered true to return a {@link LinkedHashMap} in file order.
+	 * Otherwise the chunks are gathered straight into a
+	 * {@link ConcurrentHashMap}, which saves the final merge; if IDs are
+	 * repeated it is then undefined which record is kept.
+	 * @return the records keyed by accession ID
+	 * @throws IOException if an error occurs reading the input file
+	 */
+	public Map<String, S> process(ForkJoinPool pool, boolean ordered) throws IOException {
+		long[] boundaries = chunkBoundaries(pool.getParallelism());
+		int chunks = boundaries.length - 1;
+		if (!ordered) {
+			Map<String, S> sequences = new ConcurrentHashMap<String, S>();
+			invoke(pool, new ChunkTask(boundaries, 0, chunks, null, sequences));
+			return sequences;
+		}
+		List<LinkedHashMap<String, S>> results = new ArrayList<LinkedHashMap<String, S>>(chunks);
+		for (int i = 0; i < chunks; i++) {
+			results.add(null);
+		}
+		invoke(pool, new ChunkTask(boundaries, 0, chunks, results, null));
+		LinkedHashMap<String, S> sequences = new LinkedHashMap<String, S>();
+		for (LinkedHashMap<String, S> result : results) {
+			sequences.putAll(result);
+		}
+		return sequences;
+	}
+
+	private void invoke(ForkJoinPool pool, ChunkTask task) throws IOException {
+		try {
+			pool.invoke(task);
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Offsets at which chunks start, each the start of a record, followed
+	 * by the length of the file
+	 */
+	long[] chunkBoundaries(int parallelism) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			long size = channel.size();
+			long target = chunkSize;
+			if (target <= 0) {
+				target = Math.max(MIN_CHUNK_SIZE, size / ((long) parallelism * CHUNKS_PER_THREAD));
+			}
+			List<Long> boundaries = new ArrayList<Long>();
+			boundaries.add(0L);
+			for (long cut = target; cut < size; cut += target) {
+				long boundary = FileRecordSpliterator.nextRecordStart(channel, FastaReader.HEADER_MARKER, cut, size);
+				if (boundary >= size) {
+					break;
+				}
+				boundaries.add(boundary);
+				// skip cuts falling inside a record longer than a chunk
+				cut = Math.max(cut, boundary - boundary % target);
+			}
+			boundaries.add(size);
+			long[] result = new long[boundaries.size()];
+			for (int i = 0; i < result.length; i++) {
+				result[i] = boundaries.get(i);
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * Parses chunks from (inclusive) to to (exclusive) forking halves until a
+	 * single chunk remains
+	 */
+	private class ChunkTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final long[] boundaries;
+		private final int from;
+		private final int to;
+		private final List<LinkedHashMap<String, S>> results;
+		private final Map<String, S> sequences;
+
+		ChunkTask(long[] boundaries, int from, int to, List<LinkedHashMap<String, S>> results,
+				Map<String, S> sequences) {
+			this.boundaries = boundaries;
+			this.from = from;
+			this.to = to;
+			this.results = results;
+			this.sequences = sequences;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > 1) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new ChunkTask(boundaries, from, middle, results, sequences),
+						new ChunkTask(boundaries, middle, to, results, sequences));
+				return;
+			}
+			if (from >= to) {
+				return;
+			}
+			long start = boundaries[from];
+			LinkedHashMap<String, S> chunk;
+			try {
+				chunk = new FastaReader<S, C>(new FileRecordSpliterator.RangeInputStream(file, start, boundaries[to]),
+						start, headerParser, sequenceCreator).process();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			if (results != null) {
+				results.set(from, chunk);
+			} else {
+				sequences.putAll(chunk);
+			}
+		}
+	}
+}
@@ -0,0 +1,367 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.io;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
+import org.biojava.nbio.core.exceptions.ParserException;
+import org.biojava.nbio.core.sequence.io.template.SequenceCreatorInterface;
+import org.biojava.nbio.core.sequence.location.InsdcLocationCache;
+import org.biojava.nbio.core.sequence.template.AbstractSequence;
+import org.biojava.nbio.core.sequence.template.Compound;
+import org.biojava.nbio.core.util.ConcurrencyTools;
+
+/**
+ * Parses GenBank records on several threads. The thread reading the records
+ * only cuts the text into records at the <code>//</code> lines ending them;
+ * each record is then parsed by its own {@link GenbankSequenceParser} on an
+ * executor while the next ones are read. Parsing of each record is the same
+ * as {@link GenbankReader}.
+ *
+ * <pre>
+ * ParallelGenbankReader&lt;DNASequence, NucleotideCompound&gt; reader = new ParallelGenbankReader&lt;DNASequence, NucleotideCompound&gt;(
+ *     new File("bacteria.gbff"), new DNASequenceCreator(DNACompoundSet.getDNACompoundSet()));
+ * Iterator&lt;DNASequence&gt; it = reader.iterator(executor, 64, false);
+ * </pre>
+ *
+ * At most <code>maxInFlight</code> records are read but not yet handed out
+ * at any time, which bounds the memory used whatever the size of the input.
+ * Records are handed out in file order or in the order their parsing
+ * finishes. The sequence creator is shared by all threads and so must be
+ * thread safe; the ones shipped with BioJava which hold no state (e.g.
+ * {@link DNASequenceCreator}) are.
+ *
+ * @param <S> The type of sequence created
+ * @param <C> The type of compound
+ */
+public class ParallelGenbankReader<S extends AbstractSequence<C>, C extends Compound> implements Closeable {
+
+	/**
+	 * Records in flight per thread of the pool by default, so that threads
+	 * finishing early find work waiting
+	 */
+	private static final int IN_FLIGHT_PER_THREAD = 4;
+
+	private final BufferedReader bufferedReader;
+	private final SequenceCreatorInterface<C> sequenceCreator;
+	private boolean lazyFeatures = false;
+	private InsdcLocationCache locationCache = null;
+	private Pipeline pipeline = null;
+
+	/**
+	 * @param is Stream of GenBank records
+	 * @param sequenceCreator thread safe sequence creator
+	 */
+	public ParallelGenbankReader(InputStream is, SequenceCreatorInterface<C> sequenceCreator) {
+		this.bufferedReader = new BufferedReader(new InputStreamReader(is));
+		this.sequenceCreator = sequenceCreator;
+	}
+
+	/**
+	 * @param file File of GenBank records
+	 * @param sequenceCreator thread safe sequence creator
+	 * @throws FileNotFoundException if the file cannot be opened
+	 */
+	public ParallelGenbankReader(File file, SequenceCreatorInterface<C> sequenceCreator) throws FileNotFoundException {
+		this.bufferedReader = new BufferedReader(new FileReader(file));
+		this.sequenceCreator = sequenceCreator;
+	}
+
+	/**
+	 * Keeps the features of each record unparsed until first asked for, as
+	 * {@link GenbankReader#setLazyFeatures(boolean)}
+	 */
+	public void setLazyFeatures(boolean lazyFeatures) {
+		this.lazyFeatures = lazyFeatures;
+	}
+
+	public boolean isLazyFeatures() {
+		return lazyFeatures;
+	}
+
+	/**
+	 * Keeps up to the given number of parsed feature locations in a cache
+	 * shared by the parsers of all records, as
+	 * {@link GenbankReader#setLocationCacheSize(int)}; 0 turns caching off,
+	 * as by default
+	 */
+	public void setLocationCacheSize(int cacheSize) {
+		this.locationCache = (cacheSize > 0) ? new InsdcLocationCache(cacheSize) : null;
+	}
+
+	/**
+	 * Parses all the records on the pool of {@link ConcurrencyTools} keeping
+	 * them in file order, and closes the input
+	 *
+	 * @return the records keyed by accession ID as {@link GenbankReader#process()}
+	 * @throws IOException if an error occurs reading the input
+	 * @throws CompoundNotFoundException if a sequence holds unknown compounds
+	 */
+	public LinkedHashMap<String, S> process() throws IOException, CompoundNotFoundException {
+		ThreadPoolExecutor pool = ConcurrencyTools.getThreadPool();
+		return process(pool, pool.getMaximumPoolSize() * IN_FLIGHT_PER_THREAD, true);
+	}
+
+	/**
+	 * Parses all the records and closes the input
+	 *
+	 * @param executor Parses the records
+	 * @param maxInFlight Most records read but not yet handed out
+	 * @param ordered true for the records in file order, false for the order
+	 * in which they were parsed
+	 * @return the records keyed by accession ID in the order asked for
+	 * @throws IOException if an error occurs reading the input
+	 * @throws CompoundNotFoundException if a sequence holds unknown compounds
+	 */
+	public LinkedHashMap<String, S> process(ExecutorService executor, int maxInFlight, boolean ordered)
+			throws IOException, CompoundNotFoundException {
+		try {
+			Pipeline records = start(executor, maxInFlight, ordered);
+			LinkedHashMap<String, S> sequences = new LinkedHashMap<String, S>();
+			for (S sequence; (sequence = records.next()) != null;) {
+				sequences.put(sequence.getAccession().getID(), sequence);
+			}
+			return sequences;
+		} finally {
+			close();
+		}
+	}
+
+	/**
+	 * Returns the records one at a time; records are read and parsed ahead
+	 * of the Iterator up to <code>maxInFlight</code>. Remember to
+	 * {@link #close()} the reader, which also cancels the records still in
+	 * flight.
+	 *
+	 * @param executor Parses the records
+	 * @param maxInFlight Most records read but not yet handed out
+	 * @param ordered true for the records in file order, false for the order
+	 * in which they were parsed
+	 * @throws UncheckedIOException from the Iterator if the input cannot be read
+	 * @throws ParserException from the Iterator if a sequence holds unknown compounds
+	 */
+	public Iterator<S> iterator(ExecutorService executor, int maxInFlight, boolean ordered) {
+		final Pipeline records = start(executor, maxInFlight, ordered);
+		return new Iterator<S>() {
+
+			private S next = null;
+
+			@Override
+			public boolean hasNext() {
+				if (next == null) {
+					try {
+						next = records.next();
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					} catch (CompoundNotFoundException e) {
+						throw new ParserException(e);
+					}
+				}
+				return next != null;
+			}
+
+			@Override
+			public S next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException("No more records");
+				}
+				S sequence = next;
+				next = null;
+				return sequence;
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException("Cannot remove() records");
+			}
+		};
+	}
+
+	private Pipeline start(ExecutorService executor, int maxInFlight, boolean ordered) {
+		if (maxInFlight < 1) {
+			throw new IllegalArgumentException("At least one record must be in flight but was " + maxInFlight);
+		}
+		if (pipeline != null) {
+			throw new IllegalStateException("The records are already being read");
+		}
+		pipeline = new Pipeline(executor, maxInFlight, ordered);
+		return pipeline;
+	}
+
+	/**
+	 * Reads the text of the next record up to and including its
+	 * <code>//</code> line
+	 *
+	 * @return the record or null at the end of the input
+	 */
+	private String readRecord() throws IOException {
+		StringBuilder record = null;
+		String line;
+		while ((line = bufferedReader.readLine()) != null) {
+			if (record == null) {
+				if (line.trim().isEmpty()) {
+					continue;
+				}
+				record = new StringBuilder();
+			}
+			record.append(line).append('\n');
+			if (line.startsWith(GenbankSequenceParser.END_SEQUENCE_TAG)) {
+				break;
+			}
+		}
+		return (record == null) ? null : record.toString();
+	}
+
+	/**
+	 * Parses a single record on a worker thread
+	 *
+	 * @return the sequence or null if the record holds none
+	 */
+	private S parse(String record) throws IOException, CompoundNotFoundException {
+		GenbankSequenceParser<S, C> parser = new GenbankSequenceParser<S, C>();
+		parser.setLazyFeatures(lazyFeatures);
+		parser.setLocationCache(locationCache);
+		String seqString = parser.getSequence(new BufferedReader(new StringReader(record)), 0);
+		if (seqString == null) {
+			return null;
+		}
+		return GenbankReader.createSequence(parser, seqString, sequenceCreator);
+	}
+
+	/**
+	 * Closes the input and cancels the records in flight
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			bufferedReader.close();
+		} finally {
+			if (pipeline != null) {
+				pipeline.cancel();
+			}
+		}
+	}
+
+	/**
+	 * Keeps up to maxInFlight records being parsed, reading more as records
+	 * are handed out
+	 */
+	private class Pipeline {
+
+		private final ExecutorService executor;
+		private final CompletionService<S> completion;
+		private final int maxInFlight;
+		private final Deque<Future<S>> inFlight = new ArrayDeque<Future<S>>();
+		private boolean endOfInput = false;
+
+		Pipeline(ExecutorService executor, int maxInFlight, boolean ordered) {
+			this.executor = executor;
+			this.completion = ordered ? null : new ExecutorCompletionService<S>(executor);
+			this.maxInFlight = maxInFlight;
+		}
+
+		/**
+		 * @return the next record or null once all have been handed out
+		 */
+		S next() throws IOException, CompoundNotFoundException {
+			while (true) {
+				while (!endOfInput && inFlight.size() < maxInFlight) {
+					final String record = readRecord();
+					if (record == null) {
+						endOfInput = true;
+					} else if (completion == null) {
+						inFlight.add(executor.submit(() -> parse(record)));
+					} else {
+						inFlight.add(completion.submit(() -> parse(record)));
+					}
+				}
+				if (inFlight.isEmpty()) {
+					return null;
+				}
+				S sequence = take();
+				if (sequence != null) {
+					return sequence;
+				}
+			}
+		}
+
+		private S take() throws IOException, CompoundNotFoundException {
+			try {
+				Future<S> future;
+				if (completion == null) {
+					future = inFlight.poll();
+				} else {
+					future = completion.take();
+					inFlight.remove(future);
+				}
+				return future.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while parsing GenBank records");
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof IOException) {
+					throw (IOException) cause;
+				}
+				if (cause instanceof CompoundNotFoundException) {
+					throw (CompoundNotFoundException) cause;
+				}
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				}
+				if (cause instanceof Error) {
+					throw (Error) cause;
+				}
+				throw new ParserException("Failed to parse GenBank record", (Exception) cause);
+			}
+		}
+
+		void cancel() {
+			for (Future<S> future : inFlight) {
+				future.cancel(false);
+			}
+			inFlight.clear();
+			endOfInput = true;
+		}
+	}
+}
@@ -27,10 +27,12 @@ import org.biojava.nbio.core.sequence.ProteinSequence;
 import org.biojava.nbio.core.sequence.compound.AminoAcidCompound;
 import org.biojava.nbio.core.sequence.io.template.SequenceCreatorInterface;
 import org.biojava.nbio.core.sequence.loader.ArrayListProxySequenceReader;
+import org.biojava.nbio.core.sequence.storage.ByteArraySequenceReader;
 import org.biojava.nbio.core.sequence.template.AbstractSequence;
 import org.biojava.nbio.core.sequence.template.CompoundSet;
 import org.biojava.nbio.core.sequence.template.ProxySequenceReader;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 /**
@@ -62,6 +64,25 @@ public AbstractSequence<AminoAcidCompound> getSequence(String sequence,
 			long index) throws CompoundNotFoundException {
 		return new ProteinSequence(sequence, compoundSet);
 	}
+/**
+ * Encodes the residues straight into a {@link ByteArraySequenceReader}
+ * rather than going through a String
+ *
+ * @param residues ASCII encoded residues
+ * @param offset Index of the first residue
+ * @param length Number of residues
+ * @param index Currently not used
+ * @return
+ * @throws CompoundNotFoundException
+ */
+	@Override
+public AbstractSequence<AminoAcidCompound> getSequence(byte[] residues, int offset,
+			int length, long index) throws CompoundNotFoundException {
+		if (!ByteArraySequenceReader.canStore(compoundSet)) {
+			return getSequence(new String(residues, offset, length, StandardCharsets.US_ASCII), index);
+		}
+		return new ProteinSequence(new ByteArraySequenceReader<AminoAcidCompound>(residues, offset, length, compoundSet), compoundSet);
+	}
 /**
  *
  * @param list
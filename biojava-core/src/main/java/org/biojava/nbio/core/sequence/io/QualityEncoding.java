@@ -0,0 +1,65 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.io;
+
+/**
+ * The ways FASTQ files encode Phred quality scores as printable characters
+ *
+ * @see FastqReader
+ * @see FastqWriter
+ */
+public enum QualityEncoding {
+
+	/**
+	 * Score plus 33, as written by Sanger and Illumina 1.8 onwards
+	 */
+	PHRED_33(33),
+
+	/**
+	 * Score plus 64, as written by Illumina 1.3 to 1.7
+	 */
+	PHRED_64(64);
+
+	/**
+	 * Highest character allowed in a quality line
+	 */
+	static final int MAX_CHARACTER = '~';
+
+	private final int offset;
+
+	private QualityEncoding(int offset) {
+		this.offset = offset;
+	}
+
+	/**
+	 * Returns the value added to a score to give its character
+	 */
+	public int getOffset() {
+		return offset;
+	}
+
+	/**
+	 * Returns the highest score which can be written
+	 */
+	public int getMaxScore() {
+		return MAX_CHARACTER - offset;
+	}
+}
@@ -0,0 +1,90 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.io;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
+import org.biojava.nbio.core.exceptions.ParserException;
+
+/**
+ * Turns the batch based <code>process(int)</code> methods of the readers
+ * into an {@link Iterator} which asks for one record at a time, so only the
+ * record being handed out is held in memory.
+ *
+ * @param <S> The type of record
+ */
+class RecordIterator<S> implements Iterator<S> {
+
+	/**
+	 * Parses the next batch of records; null or an empty Map signals the
+	 * end of the input
+	 */
+	interface Batch<S> {
+		Map<String, S> next() throws IOException, CompoundNotFoundException;
+	}
+
+	private final Batch<S> batch;
+	private Iterator<S> pending = Collections.<S>emptyList().iterator();
+	private boolean exhausted = false;
+
+	RecordIterator(Batch<S> batch) {
+		this.batch = batch;
+	}
+
+	@Override
+	public boolean hasNext() {
+		while (!pending.hasNext() && !exhausted) {
+			Map<String, S> records;
+			try {
+				records = batch.next();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			} catch (CompoundNotFoundException e) {
+				throw new ParserException(e);
+			}
+			if (records == null || records.isEmpty()) {
+				exhausted = true;
+			} else {
+				pending = records.values().iterator();
+			}
+		}
+		return pending.hasNext();
+	}
+
+	@Override
+	public S next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException("No more records");
+		}
+		return pending.next();
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException("Cannot remove() records");
+	}
+}
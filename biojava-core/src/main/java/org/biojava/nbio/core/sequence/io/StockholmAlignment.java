@@ -0,0 +1,289 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.io;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.biojava.nbio.core.alignment.SimpleAlignedSequence;
+import org.biojava.nbio.core.alignment.SimpleProfile;
+import org.biojava.nbio.core.alignment.template.AlignedSequence;
+import org.biojava.nbio.core.alignment.template.AlignedSequence.Step;
+import org.biojava.nbio.core.alignment.template.Profile;
+import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
+import org.biojava.nbio.core.sequence.AccessionID;
+import org.biojava.nbio.core.sequence.MultipleSequenceAlignment;
+import org.biojava.nbio.core.sequence.io.template.SequenceCreatorInterface;
+import org.biojava.nbio.core.sequence.template.AbstractSequence;
+import org.biojava.nbio.core.sequence.template.Compound;
+
+/**
+ * A multiple alignment read by {@link StockholmReader} along with its
+ * Stockholm markup. The residues of all the sequences are held in a single
+ * byte array column by column, one byte per residue as found in the file,
+ * so a column is a contiguous run of bytes.
+ * <p>
+ * Rows and columns are indexed from 0. The markup is kept as text:
+ * <ul>
+ * <li><code>#=GF feature text</code>: {@link #getFileAnnotations()}, one
+ * entry per line</li>
+ * <li><code>#=GS name feature text</code>:
+ * {@link #getSequenceAnnotations(String)}, one entry per line</li>
+ * <li><code>#=GC feature text</code>: {@link #getColumnAnnotations()}, one
+ * character per column</li>
+ * <li><code>#=GR name feature text</code>:
+ * {@link #getResidueAnnotations(String)}, one character per column</li>
+ * </ul>
+ */
+public class StockholmAlignment {
+
+	private final List<String> names;
+	private final Map<String, Integer> rows;
+	private final int length;
+	private final byte[] columns;
+	private final Map<String, List<String>> fileAnnotations;
+	private final Map<String, Map<String, List<String>>> sequenceAnnotations;
+	private final Map<String, String> columnAnnotations;
+	private final Map<String, Map<String, String>> residueAnnotations;
+
+	/**
+	 * @param names Names of the sequences in row order
+	 * @param rows Row of each name
+	 * @param length Number of columns
+	 * @param columns Residues column by column
+	 */
+	StockholmAlignment(List<String> names, Map<String, Integer> rows, int length, byte[] columns,
+			Map<String, List<String>> fileAnnotations, Map<String, Map<String, List<String>>> sequenceAnnotations,
+			Map<String, String> columnAnnotations, Map<String, Map<String, String>> residueAnnotations) {
+		this.names = names;
+		this.rows = rows;
+		this.length = length;
+		this.columns = columns;
+		this.fileAnnotations = fileAnnotations;
+		this.sequenceAnnotations = sequenceAnnotations;
+		this.columnAnnotations = columnAnnotations;
+		this.residueAnnotations = residueAnnotations;
+	}
+
+	/**
+	 * Returns the identifier of the family (<code>#=GF ID</code>) or null
+	 */
+	public String getName() {
+		return getFileAnnotation("ID");
+	}
+
+	/**
+	 * Returns the accession of the family (<code>#=GF AC</code>) or null
+	 */
+	public String getAccession() {
+		return getFileAnnotation("AC");
+	}
+
+	private String getFileAnnotation(String feature) {
+		List<String> values = fileAnnotations.get(feature);
+		return (values == null) ? null : values.get(0);
+	}
+
+	/**
+	 * Number of sequences
+	 */
+	public int getSize() {
+		return names.size();
+	}
+
+	/**
+	 * Number of columns
+	 */
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * Names of the sequences in row order
+	 */
+	public List<String> getSequenceNames() {
+		return Collections.unmodifiableList(names);
+	}
+
+	/**
+	 * Returns the row of the named sequence or -1 if there is none
+	 */
+	public int getRow(String name) {
+		Integer row = rows.get(name);
+		return (row == null) ? -1 : row;
+	}
+
+	/**
+	 * Returns the residue of a sequence in a column, as found in the file
+	 */
+	public byte getResidue(int row, int column) {
+		checkIndex(row, names.size(), "Row");
+		checkIndex(column, length, "Column");
+		return columns[column * names.size() + row];
+	}
+
+	/**
+	 * Returns the residues of all the sequences in a column, in row order
+	 */
+	public byte[] getColumn(int column) {
+		byte[] residues = new byte[names.size()];
+		getColumn(column, residues, 0);
+		return residues;
+	}
+
+	/**
+	 * Copies the residues of a column into an array, in row order
+	 *
+	 * @param column Column to copy
+	 * @param residues Array receiving {@link #getSize()} residues
+	 * @param offset Position in the array of the first residue
+	 */
+	public void getColumn(int column, byte[] residues, int offset) {
+		checkIndex(column, length, "Column");
+		System.arraycopy(columns, column * names.size(), residues, offset, names.size());
+	}
+
+	/**
+	 * Returns the aligned residues of a sequence, gaps included
+	 */
+	public byte[] getAlignedResidues(int row) {
+		checkIndex(row, names.size(), "Row");
+		int size = names.size();
+		byte[] residues = new byte[length];
+		for (int column = 0, i = row; column < length; column++, i += size) {
+			residues[column] = columns[i];
+		}
+		return residues;
+	}
+
+	private static void checkIndex(int index, int size, String what) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException(what + " " + index + " is outside 0.." + (size - 1));
+		}
+	}
+
+	/**
+	 * Returns the <code>#=GF</code> markup: the text of each line by feature
+	 */
+	public Map<String, List<String>> getFileAnnotations() {
+		return Collections.unmodifiableMap(fileAnnotations);
+	}
+
+	/**
+	 * Returns the <code>#=GS</code> markup of a sequence: the text of each
+	 * line by feature; empty if there is none
+	 */
+	public Map<String, List<String>> getSequenceAnnotations(String name) {
+		Map<String, List<String>> annotations = sequenceAnnotations.get(name);
+		return (annotations == null) ? Collections.<String, List<String>>emptyMap()
+				: Collections.unmodifiableMap(annotations);
+	}
+
+	/**
+	 * Returns the <code>#=GC</code> markup, such as <code>SS_cons</code>, by
+	 * feature
+	 */
+	public Map<String, String> getColumnAnnotations() {
+		return Collections.unmodifiableMap(columnAnnotations);
+	}
+
+	/**
+	 * Returns the <code>#=GR</code> markup of a sequence by feature; empty if
+	 * there is none
+	 */
+	public Map<String, String> getResidueAnnotations(String name) {
+		Map<String, String> annotations = residueAnnotations.get(name);
+		return (annotations == null) ? Collections.<String, String>emptyMap()
+				: Collections.unmodifiableMap(annotations);
+	}
+
+	/**
+	 * Creates a {@link MultipleSequenceAlignment} of the aligned sequences,
+	 * gaps included, each with its name as accession
+	 *
+	 * @param sequenceCreator Creates the sequences; its compounds must
+	 * include the gap characters of the alignment
+	 * @throws CompoundNotFoundException if a residue is not a compound of
+	 * the creator
+	 */
+	public <C extends Compound> MultipleSequenceAlignment<AbstractSequence<C>, C> toMultipleSequenceAlignment(
+			SequenceCreatorInterface<C> sequenceCreator) throws CompoundNotFoundException {
+		MultipleSequenceAlignment<AbstractSequence<C>, C> msa = new MultipleSequenceAlignment<AbstractSequence<C>, C>();
+		for (int row = 0; row < names.size(); row++) {
+			byte[] residues = getAlignedResidues(row);
+			msa.addAlignedSequence(createSequence(sequenceCreator, row, residues, residues.length));
+		}
+		return msa;
+	}
+
+	/**
+	 * Creates a {@link Profile} of the sequences: each original sequence
+	 * holds the residues of a row without gaps, which are placed back by its
+	 * steps
+	 *
+	 * @param sequenceCreator Creates the sequences
+	 * @throws CompoundNotFoundException if a residue is not a compound of
+	 * the creator
+	 */
+	public <C extends Compound> Profile<AbstractSequence<C>, C> toProfile(SequenceCreatorInterface<C> sequenceCreator)
+			throws CompoundNotFoundException {
+		List<AlignedSequence<AbstractSequence<C>, C>> aligned = new ArrayList<AlignedSequence<AbstractSequence<C>, C>>();
+		for (int row = 0; row < names.size(); row++) {
+			byte[] residues = getAlignedResidues(row);
+			List<Step> steps = new ArrayList<Step>(length);
+			int ungapped = 0;
+			for (byte residue : residues) {
+				if (isGap(residue)) {
+					steps.add(Step.GAP);
+				} else {
+					steps.add(Step.COMPOUND);
+					residues[ungapped++] = residue;
+				}
+			}
+			aligned.add(new SimpleAlignedSequence<AbstractSequence<C>, C>(
+					createSequence(sequenceCreator, row, residues, ungapped), steps));
+		}
+		return new SimpleProfile<AbstractSequence<C>, C>(aligned);
+	}
+
+	private <C extends Compound> AbstractSequence<C> createSequence(SequenceCreatorInterface<C> sequenceCreator,
+			int row, byte[] residues, int count) throws CompoundNotFoundException {
+		AbstractSequence<C> sequence;
+		try {
+			sequence = sequenceCreator.getSequence(residues, 0, count, 0);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		sequence.setAccession(new AccessionID(names.get(row)));
+		return sequence;
+	}
+
+	/**
+	 * Returns true for the gap characters of Stockholm and SELEX
+	 */
+	static boolean isGap(byte residue) {
+		return residue == '-' || residue == '.' || residue == '~';
+	}
+}
@@ -0,0 +1,321 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.io;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.biojava.nbio.core.exceptions.ParserException;
+
+/**
+ * Reads multiple alignments in the Stockholm format, as distributed by
+ * Pfam and Rfam, one family at a time into a {@link StockholmAlignment}.
+ * Only the family being read is held in memory so whole releases such as
+ * <code>Pfam-A.full</code> can be iterated over.
+ *
+ * <pre>
+ * try (StockholmReader reader = new StockholmReader(new GZIPInputStream(new FileInputStream("Pfam-A.seed.gz")))) {
+ *   for (StockholmAlignment family; (family = reader.read()) != null;) {
+ *     String ss = family.getColumnAnnotations().get("SS_cons");
+ *   }
+ * }
+ * </pre>
+ *
+ * The sequences of a family may be split into several blocks, each
+ * continuing the rows of the previous ones, and <code>#=GC</code> and
+ * <code>#=GR</code> lines are concatenated in the same way. SELEX files,
+ * which lack the <code># STOCKHOLM</code> header and may lack the closing
+ * <code>//</code>, are read as a single family. Other lines starting with
+ * <code>#</code> are comments and skipped.
+ */
+public class StockholmReader implements Closeable {
+
+	private static final String HEADER = "# STOCKHOLM";
+	private static final String END = "//";
+
+	private final BufferedReader reader;
+	private int lineNumber = 0;
+
+	public StockholmReader(InputStream is) {
+		this.reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.ISO_8859_1));
+	}
+
+	/**
+	 * @throws IOException if the file cannot be opened
+	 */
+	public StockholmReader(File file) throws IOException {
+		this(new FileInputStream(file));
+	}
+
+	/**
+	 * Reads the next family
+	 *
+	 * @return the family or null at the end of the input
+	 * @throws IOException if the input cannot be read
+	 * @throws ParserException if the family is malformed, such as rows of
+	 * different lengths
+	 */
+	public StockholmAlignment read() throws IOException {
+		Family family = null;
+		String line;
+		while ((line = reader.readLine()) != null) {
+			lineNumber++;
+			if (line.startsWith(END)) {
+				if (family != null) {
+					return family.build();
+				}
+				continue;
+			}
+			if (isBlank(line)) {
+				continue;
+			}
+			if (family == null) {
+				family = new Family();
+			}
+			if (line.startsWith(HEADER)) {
+				continue;
+			}
+			if (line.startsWith("#=")) {
+				family.addMarkup(line);
+			} else if (line.charAt(0) != '#') {
+				family.addResidues(line);
+			}
+		}
+		return (family == null) ? null : family.build();
+	}
+
+	/**
+	 * Returns the remaining families one at a time. Remember to
+	 * {@link #close()} the reader.
+	 *
+	 * @throws UncheckedIOException from the Iterator if the input cannot be read
+	 */
+	public Iterator<StockholmAlignment> iterator() {
+		return new RecordIterator<StockholmAlignment>(() -> {
+			StockholmAlignment family = read();
+			return (family == null) ? null : Collections.singletonMap(family.getName(), family);
+		});
+	}
+
+	/**
+	 * Returns the remaining families as a sequential Stream; closing the
+	 * Stream closes this reader.
+	 */
+	public Stream<StockholmAlignment> stream() {
+		Spliterator<StockholmAlignment> spliterator = Spliterators.spliteratorUnknownSize(iterator(),
+				Spliterator.ORDERED | Spliterator.NONNULL);
+		return StreamSupport.stream(spliterator, false).onClose(() -> {
+			try {
+				close();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+	}
+
+	@Override
+	public void close() throws IOException {
+		reader.close();
+	}
+
+	private static boolean isBlank(String line) {
+		for (int i = 0; i < line.length(); i++) {
+			if (!Character.isWhitespace(line.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Splits a line into the given number of words, the last taking the
+	 * rest of the line and being empty if there is nothing left; null if
+	 * there are fewer words before it
+	 */
+	private static String[] split(String line, int words) {
+		String[] split = new String[words];
+		int i = 0;
+		for (int w = 0; w < words; w++) {
+			while (i < line.length() && Character.isWhitespace(line.charAt(i))) {
+				i++;
+			}
+			if (i == line.length()) {
+				if (w < words - 1) {
+					return null;
+				}
+				split[w] = "";
+				break;
+			}
+			int start = i;
+			if (w == words - 1) {
+				i = line.length();
+				while (Character.isWhitespace(line.charAt(i - 1))) {
+					i--;
+				}
+			} else {
+				while (i < line.length() && !Character.isWhitespace(line.charAt(i))) {
+					i++;
+				}
+			}
+			split[w] = line.substring(start, i);
+		}
+		return split;
+	}
+
+	/**
+	 * The residues of a sequence gathered across blocks
+	 */
+	private static class Row {
+		byte[] residues = new byte[256];
+		int length = 0;
+	}
+
+	/**
+	 * A family being read
+	 */
+	private class Family {
+
+		private final Map<String, Row> rows = new LinkedHashMap<>();
+		private final Map<String, List<String>> fileAnnotations = new LinkedHashMap<>();
+		private final Map<String, Map<String, List<String>>> sequenceAnnotations = new HashMap<>();
+		private final Map<String, StringBuilder> columnAnnotations = new LinkedHashMap<>();
+		private final Map<String, Map<String, StringBuilder>> residueAnnotations = new HashMap<>();
+
+		void addResidues(String line) {
+			int i = 0;
+			while (i < line.length() && !Character.isWhitespace(line.charAt(i))) {
+				i++;
+			}
+			String name = line.substring(0, i);
+			Row row = rows.get(name);
+			if (row == null) {
+				row = new Row();
+				rows.put(name, row);
+			}
+			for (; i < line.length(); i++) {
+				char c = line.charAt(i);
+				if (!Character.isWhitespace(c)) {
+					if (row.length == row.residues.length) {
+						row.residues = Arrays.copyOf(row.residues, row.length * 2);
+					}
+					row.residues[row.length++] = (byte) c;
+				}
+			}
+		}
+
+		void addMarkup(String line) {
+			String[] words;
+			if (line.startsWith("#=GF")) {
+				words = split(line, 3);
+				if (words != null) {
+					fileAnnotations.computeIfAbsent(words[1], k -> new ArrayList<>()).add(words[2]);
+				}
+			} else if (line.startsWith("#=GS")) {
+				words = split(line, 4);
+				if (words != null) {
+					sequenceAnnotations.computeIfAbsent(words[1], k -> new LinkedHashMap<>())
+							.computeIfAbsent(words[2], k -> new ArrayList<>()).add(words[3]);
+				}
+			} else if (line.startsWith("#=GC")) {
+				words = split(line, 3);
+				if (words != null) {
+					columnAnnotations.computeIfAbsent(words[1], k -> new StringBuilder()).append(words[2]);
+				}
+			} else if (line.startsWith("#=GR")) {
+				words = split(line, 4);
+				if (words != null) {
+					residueAnnotations.computeIfAbsent(words[1], k -> new LinkedHashMap<>())
+							.computeIfAbsent(words[2], k -> new StringBuilder()).append(words[3]);
+				}
+			} else {
+				// other markup, such as the #=RF line of some SELEX files, is ignored
+				return;
+			}
+			if (words == null) {
+				throw new ParserException("Incomplete markup at line " + lineNumber + ": " + line);
+			}
+		}
+
+		/**
+		 * Lays the rows out column by column
+		 */
+		StockholmAlignment build() {
+			List<String> names = new ArrayList<>(rows.keySet());
+			Map<String, Integer> index = new HashMap<>();
+			int size = names.size();
+			int length = size == 0 ? 0 : rows.get(names.get(0)).length;
+			if ((long) size * length > Integer.MAX_VALUE - 8) {
+				throw new ParserException("Alignment ending at line " + lineNumber + " of " + size + " sequences of "
+						+ length + " columns is too large");
+			}
+			byte[] columns = new byte[size * length];
+			for (int r = 0; r < size; r++) {
+				String name = names.get(r);
+				Row row = rows.get(name);
+				if (row.length != length) {
+					throw new ParserException("Sequence " + name + " has " + row.length + " columns but "
+							+ names.get(0) + " has " + length + " in the alignment ending at line " + lineNumber);
+				}
+				index.put(name, r);
+				byte[] residues = row.residues;
+				for (int c = 0, i = r; c < length; c++, i += size) {
+					columns[i] = residues[c];
+				}
+				// the rows are dropped as they are laid out
+				row.residues = null;
+			}
+
+			Map<String, String> columnText = new LinkedHashMap<>();
+			for (Map.Entry<String, StringBuilder> entry : columnAnnotations.entrySet()) {
+				columnText.put(entry.getKey(), entry.getValue().toString());
+			}
+			Map<String, Map<String, String>> residueText = new HashMap<>();
+			for (Map.Entry<String, Map<String, StringBuilder>> entry : residueAnnotations.entrySet()) {
+				Map<String, String> features = new LinkedHashMap<>();
+				for (Map.Entry<String, StringBuilder> feature : entry.getValue().entrySet()) {
+					features.put(feature.getKey(), feature.getValue().toString());
+				}
+				residueText.put(entry.getKey(), features);
+			}
+			return new StockholmAlignment(names, index, length, columns, fileAnnotations, sequenceAnnotations,
+					columnText, residueText);
+		}
+	}
+}
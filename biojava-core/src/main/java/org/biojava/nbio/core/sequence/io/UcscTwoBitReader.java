@@ -0,0 +1,231 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.io;
+
+import org.biojava.nbio.core.sequence.AccessionID;
+import org.biojava.nbio.core.sequence.DNASequence;
+import org.biojava.nbio.core.sequence.compound.DNACompoundSet;
+import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
+import org.biojava.nbio.core.sequence.storage.UcscTwoBitSequenceReader;
+import org.biojava.nbio.core.sequence.template.CompoundSet;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads UCSC <code>.2bit</code> files. Only the header and the sequence index
+ * are read when the file is opened; a record's N-block and mask lists are read
+ * when it is asked for and its bases are memory-mapped and decoded on demand
+ * by {@link UcscTwoBitSequenceReader}. This means pulling a single region out
+ * of a whole genome touches only the pages holding that region.
+ *
+ * Files written in either byte order are understood as are version 1 files
+ * (64 bit offsets) used for files larger than 4GB.
+ *
+ * <pre>
+ * try (UcscTwoBitReader reader = new UcscTwoBitReader(new File("hg38.2bit"))) {
+ *   DNASequence chr1 = reader.getSequence("chr1");
+ *   String region = chr1.getSubSequence(1000000, 1000100).getSequenceAsString();
+ * }
+ * </pre>
+ *
+ * Sequences remain usable after the reader is closed.
+ *
+ * @see UcscTwoBitWriter
+ */
+public class UcscTwoBitReader implements Closeable {
+
+	/**
+	 * Signature found at the start of every <code>.2bit</code> file
+	 */
+	public static final int SIGNATURE = 0x1A412743;
+
+	private final File file;
+	private final RandomAccessFile raf;
+	private final FileChannel channel;
+	private final CompoundSet<NucleotideCompound> compoundSet;
+	private final ByteOrder order;
+	private final int version;
+	private final Map<String, Long> offsets = new LinkedHashMap<String, Long>();
+
+	/**
+	 * Opens the file using {@link DNACompoundSet}
+	 */
+	public UcscTwoBitReader(File file) throws IOException {
+		this(file, DNACompoundSet.getDNACompoundSet());
+	}
+
+	/**
+	 * Opens the file and reads its index
+	 *
+	 * @throws IOException If the file cannot be read or is not a
+	 * <code>.2bit</code> file
+	 */
+	public UcscTwoBitReader(File file, CompoundSet<NucleotideCompound> compoundSet) throws IOException {
+		this.file = file;
+		this.compoundSet = compoundSet;
+		this.raf = new RandomAccessFile(file, "r");
+		this.channel = raf.getChannel();
+		try {
+			ByteBuffer header = read(0, 16);
+			if (header.getInt(0) == SIGNATURE) {
+				order = ByteOrder.BIG_ENDIAN;
+			} else if (header.order(ByteOrder.LITTLE_ENDIAN).getInt(0) == SIGNATURE) {
+				order = ByteOrder.LITTLE_ENDIAN;
+			} else {
+				throw new IOException(file + " is not a .2bit file; bad signature");
+			}
+			header.order(order);
+			version = header.getInt(4);
+			if (version != 0 && version != 1) {
+				throw new IOException("Do not understand version " + version + " of the .2bit format");
+			}
+			readIndex(header.getInt(8));
+		} catch (IOException e) {
+			close();
+			throw e;
+		}
+	}
+
+	private void readIndex(int sequenceCount) throws IOException {
+		int offsetSize = (version == 0) ? 4 : 8;
+		long maxIndexSize = (long) sequenceCount * (1 + 255 + offsetSize);
+		ByteBuffer index = map(16, Math.min(maxIndexSize, channel.size() - 16));
+		byte[] name = new byte[255];
+		for (int i = 0; i < sequenceCount; i++) {
+			int nameSize = index.get() & 0xFF;
+			index.get(name, 0, nameSize);
+			long offset = (version == 0) ? index.getInt() & 0xFFFFFFFFL : index.getLong();
+			offsets.put(new String(name, 0, nameSize, StandardCharsets.US_ASCII), offset);
+		}
+	}
+
+	/**
+	 * Returns the record names in file order
+	 */
+	public List<String> getSequenceNames() {
+		return new ArrayList<String>(offsets.keySet());
+	}
+
+	/**
+	 * Returns true if the file holds a record of the given name
+	 */
+	public boolean containsSequence(String name) {
+		return offsets.containsKey(name);
+	}
+
+	/**
+	 * Returns the named record. The N-block and mask lists are read
+	 * immediately; the bases are mapped but not read.
+	 *
+	 * @throws IllegalArgumentException If the file holds no such record
+	 * @throws IOException If the record cannot be read
+	 */
+	public DNASequence getSequence(String name) throws IOException {
+		Long offset = offsets.get(name);
+		if (offset == null) {
+			throw new IllegalArgumentException(file + " does not contain a sequence called " + name);
+		}
+		ByteBuffer counts = read(offset, 8);
+		int length = counts.getInt();
+		int nBlockCount = counts.getInt();
+		long position = offset + 8;
+
+		ByteBuffer nBlocks = read(position, 8L * nBlockCount + 4);
+		int[] nBlockStarts = readInts(nBlocks, nBlockCount);
+		int[] nBlockSizes = readInts(nBlocks, nBlockCount);
+		int maskBlockCount = nBlocks.getInt();
+		position += 8L * nBlockCount + 4;
+
+		ByteBuffer maskBlocks = read(position, 8L * maskBlockCount + 4);
+		int[] maskBlockStarts = readInts(maskBlocks, maskBlockCount);
+		int[] maskBlockSizes = readInts(maskBlocks, maskBlockCount);
+		position += 8L * maskBlockCount + 4;
+
+		ByteBuffer packed = map(position, UcscTwoBitSequenceReader.packedSize(length));
+		UcscTwoBitSequenceReader<NucleotideCompound> reader = new UcscTwoBitSequenceReader<NucleotideCompound>(
+				packed, length, nBlockStarts, nBlockSizes, maskBlockStarts, maskBlockSizes,
+				compoundSet, new AccessionID(name));
+		DNASequence sequence = new DNASequence(reader, compoundSet);
+		sequence.setAccession(reader.getAccession());
+		return sequence;
+	}
+
+	/**
+	 * Returns every record in the file in file order and closes the reader
+	 */
+	public LinkedHashMap<String, DNASequence> process() throws IOException {
+		LinkedHashMap<String, DNASequence> sequences = new LinkedHashMap<String, DNASequence>();
+		try {
+			for (String name : offsets.keySet()) {
+				sequences.put(name, getSequence(name));
+			}
+		} finally {
+			close();
+		}
+		return sequences;
+	}
+
+	private static int[] readInts(ByteBuffer buffer, int count) {
+		int[] values = new int[count];
+		for (int i = 0; i < count; i++) {
+			values[i] = buffer.getInt();
+		}
+		return values;
+	}
+
+	private ByteBuffer read(long position, long size) throws IOException {
+		if (position + size > channel.size()) {
+			throw new IOException(file + " is truncated; expected at least " + (position + size) + " bytes");
+		}
+		ByteBuffer buffer = ByteBuffer.allocate((int) size);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) {
+				throw new IOException(file + " is truncated");
+			}
+		}
+		buffer.flip();
+		return (order == null) ? buffer : buffer.order(order);
+	}
+
+	private ByteBuffer map(long position, long size) throws IOException {
+		if (position + size > channel.size()) {
+			throw new IOException(file + " is truncated; expected at least " + (position + size) + " bytes");
+		}
+		return channel.map(FileChannel.MapMode.READ_ONLY, position, size).order(order);
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+		raf.close();
+	}
+}
@@ -0,0 +1,236 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.io;
+
+import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
+import org.biojava.nbio.core.sequence.template.Sequence;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Writes nucleotide sequences as a UCSC <code>.2bit</code> file. Any base
+ * other than A, C, G or T is recorded as N and lower case bases are recorded
+ * as soft-masked; each record is named after the ID of its accession.
+ *
+ * Every sequence is scanned twice: once to build its N-block and mask lists
+ * (so the index can be written first) and once to pack its bases. The packed
+ * bases are never held in memory as a whole. Files are written little-endian
+ * as UCSC tools do and switch to version 1 (64 bit offsets) only when they
+ * exceed 4GB.
+ *
+ * @see UcscTwoBitReader
+ */
+public class UcscTwoBitWriter {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * Writes the given sequences to the file, replacing any existing contents
+	 *
+	 * @throws IllegalArgumentException If a sequence has no accession or its
+	 * ID is longer than 255 characters
+	 * @throws IOException If the file cannot be written
+	 */
+	public static <C extends NucleotideCompound> void write(File file, Collection<? extends Sequence<C>> sequences) throws IOException {
+		List<byte[]> names = new ArrayList<byte[]>(sequences.size());
+		List<Blocks[]> blocks = new ArrayList<Blocks[]>(sequences.size());
+		long indexSize = 0;
+		for (Sequence<C> sequence : sequences) {
+			if (sequence.getAccession() == null) {
+				throw new IllegalArgumentException("Cannot write a sequence without an accession to a .2bit file");
+			}
+			byte[] name = sequence.getAccession().getID().getBytes(StandardCharsets.US_ASCII);
+			if (name.length > 255) {
+				throw new IllegalArgumentException("Sequence name " + sequence.getAccession().getID() + " is longer than 255 characters");
+			}
+			names.add(name);
+			blocks.add(scan(sequence));
+			indexSize += 1 + name.length + 4;
+		}
+
+		long offset = 16 + indexSize;
+		long[] offsets = new long[names.size()];
+		int i = 0;
+		for (Sequence<C> sequence : sequences) {
+			offsets[i] = offset;
+			offset += recordSize(sequence.getLength(), blocks.get(i));
+			i++;
+		}
+		int version = 0;
+		if (offset > 0xFFFFFFFFL) {
+			version = 1;
+			for (int j = 0; j < offsets.length; j++) {
+				offsets[j] += 4L * offsets.length;
+			}
+		}
+
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw");
+				FileChannel channel = raf.getChannel()) {
+			channel.truncate(0);
+			ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			buffer.putInt(UcscTwoBitReader.SIGNATURE);
+			buffer.putInt(version);
+			buffer.putInt(names.size());
+			buffer.putInt(0);
+			for (int j = 0; j < names.size(); j++) {
+				byte[] name = names.get(j);
+				ensure(buffer, channel, 1 + name.length + 8);
+				buffer.put((byte) name.length);
+				buffer.put(name);
+				if (version == 0) {
+					buffer.putInt((int) offsets[j]);
+				} else {
+					buffer.putLong(offsets[j]);
+				}
+			}
+			i = 0;
+			for (Sequence<C> sequence : sequences) {
+				Blocks[] recordBlocks = blocks.get(i++);
+				ensure(buffer, channel, 4);
+				buffer.putInt(sequence.getLength());
+				recordBlocks[0].write(buffer, channel);
+				recordBlocks[1].write(buffer, channel);
+				ensure(buffer, channel, 4);
+				buffer.putInt(0);
+				pack(sequence, buffer, channel);
+			}
+			flush(buffer, channel);
+			channel.force(false);
+		}
+	}
+
+	private static long recordSize(int length, Blocks[] blocks) {
+		return 4 + blocks[0].size() + blocks[1].size() + 4 + ((length + 3L) / 4);
+	}
+
+	/**
+	 * Returns the N-blocks and mask blocks of the given sequence
+	 */
+	private static <C extends NucleotideCompound> Blocks[] scan(Sequence<C> sequence) {
+		Blocks nBlocks = new Blocks();
+		Blocks maskBlocks = new Blocks();
+		int position = 0;
+		for (C compound : sequence) {
+			char base = compound.getBase().charAt(0);
+			if (encode(base) == -1) {
+				nBlocks.extend(position);
+			}
+			if (Character.isLowerCase(base)) {
+				maskBlocks.extend(position);
+			}
+			position++;
+		}
+		return new Blocks[] { nBlocks, maskBlocks };
+	}
+
+	private static <C extends NucleotideCompound> void pack(Sequence<C> sequence, ByteBuffer buffer, FileChannel channel) throws IOException {
+		int packed = 0;
+		int position = 0;
+		for (C compound : sequence) {
+			int value = encode(compound.getBase().charAt(0));
+			packed = (packed << 2) | (value == -1 ? 0 : value);
+			if ((++position & 3) == 0) {
+				ensure(buffer, channel, 1);
+				buffer.put((byte) packed);
+				packed = 0;
+			}
+		}
+		if ((position & 3) != 0) {
+			ensure(buffer, channel, 1);
+			buffer.put((byte) (packed << (2 * (4 - (position & 3)))));
+		}
+	}
+
+	/**
+	 * Returns the UCSC encoding of the base or -1 if it must be stored as N
+	 */
+	private static int encode(char base) {
+		switch (base) {
+			case 'T': case 't': return 0;
+			case 'C': case 'c': return 1;
+			case 'A': case 'a': return 2;
+			case 'G': case 'g': return 3;
+			default: return -1;
+		}
+	}
+
+	private static void ensure(ByteBuffer buffer, FileChannel channel, int bytes) throws IOException {
+		if (buffer.remaining() < bytes) {
+			flush(buffer, channel);
+		}
+	}
+
+	private static void flush(ByteBuffer buffer, FileChannel channel) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * Growable list of 0-based intervals built one position at a time
+	 */
+	private static class Blocks {
+		private int[] starts = new int[8];
+		private int[] sizes = new int[8];
+		private int count = 0;
+
+		void extend(int position) {
+			if (count > 0 && starts[count - 1] + sizes[count - 1] == position) {
+				sizes[count - 1]++;
+				return;
+			}
+			if (count == starts.length) {
+				starts = Arrays.copyOf(starts, count * 2);
+				sizes = Arrays.copyOf(sizes, count * 2);
+			}
+			starts[count] = position;
+			sizes[count] = 1;
+			count++;
+		}
+
+		long size() {
+			return 4 + 8L * count;
+		}
+
+		void write(ByteBuffer buffer, FileChannel channel) throws IOException {
+			ensure(buffer, channel, 4);
+			buffer.putInt(count);
+			for (int[] values : new int[][] { starts, sizes }) {
+				for (int i = 0; i < count; i++) {
+					ensure(buffer, channel, 4);
+					buffer.putInt(values[i]);
+				}
+			}
+		}
+	}
+}
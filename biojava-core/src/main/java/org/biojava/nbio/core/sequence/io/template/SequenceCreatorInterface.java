@@ -28,6 +28,7 @@ import org.biojava.nbio.core.sequence.template.Compound;
 import org.biojava.nbio.core.sequence.template.ProxySequenceReader;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 /**
@@ -45,6 +46,23 @@ public interface SequenceCreatorInterface<C extends Compound> {
 	 */
 	public AbstractSequence<C> getSequence(String sequence, long index) throws CompoundNotFoundException, IOException;
 
+	/**
+	 * Creates a sequence from ASCII encoded residues read straight from a
+	 * file, avoiding an intermediate String where the implementation can.
+	 * Defaults to {@link #getSequence(String, long)}.
+	 *
+	 * @param residues Array holding the residues
+	 * @param offset Index of the first residue in residues
+	 * @param length Number of residues
+	 * @param index File offset of the sequence
+	 * @return
+	 * @throws CompoundNotFoundException
+	 * @throws IOException
+	 */
+	default AbstractSequence<C> getSequence(byte[] residues, int offset, int length, long index) throws CompoundNotFoundException, IOException {
+		return getSequence(new String(residues, offset, length, StandardCharsets.US_ASCII), index);
+	}
+
 	/**
 	 *
 	 * @param proxyLoader
@@ -0,0 +1,99 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.location;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.biojava.nbio.core.sequence.location.template.Location;
+
+/**
+ * Locations parsed by {@link InsdcParser} by their string, dropping the
+ * least recently used once full. A location with several parts records
+ * whether its sequence is circular, so locations are kept apart by the
+ * topology of the sequence they were parsed for.
+ * <p>
+ * The cache is thread-safe and may be shared by the parsers of many
+ * records, as the readers do when given a cache size. The same Location
+ * is handed out for every occurrence of a string, so the locations
+ * returned must not be modified.
+ */
+public class InsdcLocationCache {
+
+	private final Map<String, Location> linear;
+	private final Map<String, Location> circular;
+
+	/**
+	 * @param maxSize Most locations kept for each topology
+	 */
+	public InsdcLocationCache(int maxSize) {
+		if (maxSize < 1) {
+			throw new IllegalArgumentException("Cache size must be at least 1 but was " + maxSize);
+		}
+		linear = new LruMap(maxSize);
+		circular = new LruMap(maxSize);
+	}
+
+	/**
+	 * Returns the location parsed from the given string for a sequence of
+	 * the given topology, or null if it is not kept
+	 */
+	public synchronized Location get(String location, boolean sequenceCircular) {
+		return (sequenceCircular ? circular : linear).get(location);
+	}
+
+	public synchronized void put(String location, boolean sequenceCircular, Location parsed) {
+		(sequenceCircular ? circular : linear).put(location, parsed);
+	}
+
+	/**
+	 * Number of locations kept
+	 */
+	public synchronized int size() {
+		return linear.size() + circular.size();
+	}
+
+	public synchronized void clear() {
+		linear.clear();
+		circular.clear();
+	}
+
+	/**
+	 * Map in access order dropping the least recently used location once
+	 * full
+	 */
+	private static class LruMap extends LinkedHashMap<String, Location> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int maxSize;
+
+		LruMap(int maxSize) {
+			super(16, 0.75f, true);
+			this.maxSize = maxSize;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Location> eldest) {
+			return size() > maxSize;
+		}
+	}
+}
@@ -49,6 +49,10 @@ public class InsdcParser {
 
 	private final DataSource dataSource;
 
+	// parsed locations if caching, and whether the last parse used the sequence length
+	private InsdcLocationCache cache = null;
+	private boolean dependsOnSequence;
+
 		/**
 	 * parse a location. if group(1) is null than the feature is on the positive
 	 * strand, group(2) start position, group(3) end position.
@@ -124,6 +128,35 @@ public class InsdcParser {
 		this.sequenceLength = sequenceLength;
 	}
 
+	/**
+	 * Keeps up to the given number of parsed locations, dropping the least
+	 * recently used, so that a location string seen before is not parsed
+	 * again. Locations which depend on the sequence length, those spanning
+	 * the origin of a circular sequence, are not kept.
+	 * <p>
+	 * The same Location is then handed out for every occurrence of a string,
+	 * so the locations returned must not be modified. Off by default.
+	 *
+	 * @param cacheSize Most locations kept; 0 to turn caching off
+	 * @see InsdcLocationCache
+	 */
+	public void setCacheSize(int cacheSize) {
+		setCache((cacheSize > 0) ? new InsdcLocationCache(cacheSize) : null);
+	}
+
+	/**
+	 * Keeps parsed locations in the given cache, which may be shared with
+	 * other parsers; null turns caching off. The cache is only used while
+	 * complex features are appended hierarchically, as they are by default.
+	 */
+	public void setCache(InsdcLocationCache cache) {
+		this.cache = cache;
+	}
+
+	public InsdcLocationCache getCache() {
+		return cache;
+	}
+
 	/**
 	 * Main method for parsing a location from a String instance
 	 *
@@ -132,8 +165,99 @@ public class InsdcParser {
 	 * @throws ParserException thrown in the event of any error during parsing
 	 */
 	public Location parse(String locationString) throws ParserException {
+		InsdcLocationCache cache = (complexFeaturesAppendMode == complexFeaturesAppendEnum.HIERARCHICAL) ? this.cache
+				: null;
+		if (cache != null) {
+			Location cached = cache.get(locationString, isSequenceCircular);
+			if (cached != null) {
+				return cached;
+			}
+		}
+		Location l = parseSimpleLocation(locationString);
+		if (l == null) {
+			l = parseComplexLocation(locationString);
+		}
+		if (cache != null && !dependsOnSequence) {
+			cache.put(locationString, isSequenceCircular, l);
+		}
+		return l;
+	}
+
+	/**
+	 * Scans the forms most features have, <code>a..b</code> or a single
+	 * position <code>a</code> with optional <code>&lt;</code> and
+	 * <code>&gt;</code> partial markers, alone or within one
+	 * <code>complement(...)</code>, in a single pass.
+	 *
+	 * @return the location or null if the string has any other form
+	 */
+	Location parseSimpleLocation(String string) {
 		featureGlobalStart = Integer.MAX_VALUE;
 		featureGlobalEnd = 1;
+		dependsOnSequence = false;
+		int length = string.length();
+		int i = 0;
+		Strand strand = Strand.POSITIVE;
+		if (string.startsWith("complement(")) {
+			if (string.charAt(length - 1) != ')') {
+				return null;
+			}
+			strand = Strand.NEGATIVE;
+			i = "complement(".length();
+			length--;
+		}
+		boolean partialOn5prime = false;
+		boolean partialOn3prime = false;
+		if (i < length && string.charAt(i) == '<') {
+			partialOn5prime = true;
+			i++;
+		}
+		int from = i;
+		int start = 0;
+		for (; i < length && i - from < 10 && Character.isDigit(string.charAt(i)); i++) {
+			start = start * 10 + (string.charAt(i) - '0');
+		}
+		// at most 9 digits so the position fits an int
+		if (i == from || i - from > 9) {
+			return null;
+		}
+		int end = start;
+		if (i < length) {
+			if (i + 2 >= length || string.charAt(i) != '.' || string.charAt(i + 1) != '.') {
+				return null;
+			}
+			i += 2;
+			if (string.charAt(i) == '>') {
+				partialOn3prime = true;
+				i++;
+			}
+			from = i;
+			end = 0;
+			for (; i < length && i - from < 10 && Character.isDigit(string.charAt(i)); i++) {
+				end = end * 10 + (string.charAt(i) - '0');
+			}
+			if (i == from || i - from > 9 || i != length) {
+				return null;
+			}
+		}
+		if (start > end) {
+			// spans the origin; needs the sequence length
+			return null;
+		}
+		extracted3(start, end);
+		SimpleLocation l = new SimpleLocation(start, end, strand);
+		l.setPartialOn5prime(partialOn5prime);
+		l.setPartialOn3prime(partialOn3prime);
+		return l;
+	}
+
+	/**
+	 * Parses any location through the regular expressions
+	 */
+	Location parseComplexLocation(String locationString) throws ParserException {
+		featureGlobalStart = Integer.MAX_VALUE;
+		featureGlobalEnd = 1;
+		dependsOnSequence = false;
 
 		Location l;
 		List<Location> ll = parseLocationString(locationString, 1);
@@ -198,6 +322,7 @@ public class InsdcParser {
 				);
 			} else {
 				// in case of location spanning the end point, Location contract wants sublocations
+				dependsOnSequence = true;
 				AbstractLocation l5prime = new SimpleLocation(
 						1,
 						end,
@@ -310,5 +435,4 @@ public class InsdcParser {
 		}
 		return returnStrand;
 	}
-
 }
@@ -35,6 +35,7 @@ import org.biojava.nbio.core.util.Hashcoder;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.function.IntConsumer;
 
 /**
  * Stores a Sequence as a collection of compounds in an ArrayList
@@ -254,6 +255,36 @@ public class ArrayListSequenceReader<C extends Compound> implements SequenceRead
 		return SequenceMixin.countCompounds(this, compounds);
 	}
 
+	/**
+	 * Looks up the ordinal of each stored compound in turn
+	 */
+	@Override
+	public void getOrdinals(int start, int end, int[] dest, int destOffset) {
+		SequenceMixin.checkOrdinalRange(this, start, end, dest.length, destOffset);
+		CompoundOrdinals<C> ordinals = CompoundOrdinals.forCompoundSet(compoundSet);
+		for (int i = start - 1; i < end; i++) {
+			dest[destOffset++] = ordinals.getOrdinal(parsedCompounds.get(i));
+		}
+	}
+
+	@Override
+	public void getOrdinals(int start, int end, byte[] dest, int destOffset) {
+		SequenceMixin.checkOrdinalRange(this, start, end, dest.length, destOffset);
+		CompoundOrdinals<C> ordinals = CompoundOrdinals.forCompoundSet(compoundSet);
+		SequenceMixin.checkByteOrdinals(ordinals);
+		for (int i = start - 1; i < end; i++) {
+			dest[destOffset++] = (byte) ordinals.getOrdinal(parsedCompounds.get(i));
+		}
+	}
+
+	@Override
+	public void forEachOrdinal(IntConsumer consumer) {
+		CompoundOrdinals<C> ordinals = CompoundOrdinals.forCompoundSet(compoundSet);
+		for (int i = 0; i < parsedCompounds.size(); i++) {
+			consumer.accept(ordinals.getOrdinal(parsedCompounds.get(i)));
+		}
+	}
+
 	/**
 	 *
 	 * @return
@@ -27,9 +27,13 @@ import org.biojava.nbio.core.sequence.template.*;
 import org.biojava.nbio.core.util.Equals;
 import org.biojava.nbio.core.util.Hashcoder;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntConsumer;
 
 /**
  * An implementation of the popular bit encodings. This class provides the
@@ -80,11 +84,21 @@ public class BitSequenceReader<C extends Compound> implements ProxySequenceReade
 	}
 
 	/**
-	 * Counts the number of times a compound appears in this sequence store
+	 * Counts the number of times a compound appears in this sequence store;
+	 * delegates to {@link BitArrayWorker#countCompounds(Compound[])} which
+	 * works a whole int at a time
 	 */
 	@Override
 	public int countCompounds(C... compounds) {
-		return SequenceMixin.countCompounds(this, compounds);
+		return worker.countCompounds(compounds);
+	}
+
+	/**
+	 * Returns the number of times each compound appears in this store; see
+	 * {@link BitArrayWorker#getComposition()}
+	 */
+	public Map<C, Integer> getComposition() {
+		return worker.getComposition();
 	}
 
 
@@ -98,7 +112,7 @@ public class BitSequenceReader<C extends Compound> implements ProxySequenceReade
 	 */
 	@Override
 	public List<C> getAsList() {
-		return SequenceMixin.toList(this);
+		return worker.getAsList();
 	}
 
 	/**
@@ -147,12 +161,34 @@ public class BitSequenceReader<C extends Compound> implements ProxySequenceReade
 	}
 
 	/**
-	 * Returns the sequence as a String
+	 * Returns the sequence as a String; see
+	 * {@link BitArrayWorker#getSequenceAsString()}
 	 */
 
 	@Override
 	public String getSequenceAsString() {
-		return SequenceMixin.toStringBuilder(this).toString();
+		return worker.getSequenceAsString();
+	}
+
+	/**
+	 * Decodes ordinals straight from the packed array; see
+	 * {@link BitArrayWorker#getOrdinals(int, int, int[], int)}
+	 */
+	@Override
+	public void getOrdinals(int start, int end, int[] dest, int destOffset) {
+		SequenceMixin.checkOrdinalRange(this, start, end, dest.length, destOffset);
+		worker.getOrdinals(start, end, dest, destOffset);
+	}
+
+	@Override
+	public void getOrdinals(int start, int end, byte[] dest, int destOffset) {
+		SequenceMixin.checkOrdinalRange(this, start, end, dest.length, destOffset);
+		worker.getOrdinals(start, end, dest, destOffset);
+	}
+
+	@Override
+	public void forEachOrdinal(IntConsumer consumer) {
+		worker.forEachOrdinal(consumer);
 	}
 
 	/**
@@ -218,6 +254,8 @@ public class BitSequenceReader<C extends Compound> implements ProxySequenceReade
 		private final int[] sequence;
 		private transient List<C> indexToCompoundsLookup = null;
 		private transient Map<C, Integer> compoundsToIndexLookup = null;
+		private transient DecodeTable decodeTable = null;
+		private transient OrdinalTable ordinalTable = null;
 		public static final int BYTES_PER_INT = 32;
 
 		private volatile Integer hashcode = null;
@@ -349,11 +387,12 @@ public class BitSequenceReader<C extends Compound> implements ProxySequenceReade
 			int shifted = currentByte >>> shiftBy;
 			int masked = shifted & bitMask();
 
-			//If we could encode 4 compounds then our max masked value is 3
-			if (masked > (compoundsPerDatatype() - 1)) {
-				throw new IllegalStateException("Got a masked value of " + masked + "; do not understand values greater than " + (compoundsPerDatatype() - 1));
+			//Only values assigned to a compound can be decoded
+			List<C> lookup = getIndexToCompoundsLookup();
+			if (masked >= lookup.size()) {
+				throw new IllegalStateException("Got a masked value of " + masked + "; do not understand values greater than " + (lookup.size() - 1));
 			}
-			return getIndexToCompoundsLookup().get(masked);
+			return lookup.get(masked);
 		}
 
 		/**
@@ -372,6 +411,370 @@ public class BitSequenceReader<C extends Compound> implements ProxySequenceReade
 			throw new IllegalStateException("Do not know how to translate the compound " + compound + " to a " + bitsPerCompound() + "bit representation");
 		}
 
+		/**
+		 * Counts how many times each encoded value appears in the backing
+		 * array. Rather than decoding every position this works on a whole
+		 * int at a time; for each value we XOR the int against that value
+		 * repeated into every field, collapse each field down to a single
+		 * bit which is set only when the field matched and count the set bits
+		 * with {@link Integer#bitCount(int)}. The unused fields of the last
+		 * int are masked out.
+		 *
+		 * @return Array indexed by encoded value holding the number of times
+		 * that value was seen
+		 */
+		public int[] countEncodedValues() {
+			int bits = bitsPerCompound();
+			int perInt = compoundsPerDatatype();
+			int[] counts = new int[1 << bits];
+			int[] patterns = valuePatterns(bits, perInt, counts.length);
+			int fullMask = fieldStartMask(bits, perInt);
+			int words = seqArraySize(length);
+			for (int w = 0; w < words; w++) {
+				int fields = Math.min(perInt, length - (w * perInt));
+				int mask = (fields == perInt) ? fullMask : fieldStartMask(bits, fields);
+				countWord(sequence[w], bits, mask, patterns, counts);
+			}
+			return counts;
+		}
+
+		/**
+		 * Returns the number of times the given compounds appear in this
+		 * store. Compounds which are not decoded by this worker (e.g. a
+		 * lowercased base in a case-insensitive encoding) are never seen and
+		 * so count as 0, matching
+		 * {@link SequenceMixin#countCompounds(Sequence, Compound[])}.
+		 */
+		public int countCompounds(C... compounds) {
+			int[] counts = countEncodedValues();
+			List<C> lookup = getIndexToCompoundsLookup();
+			int count = 0;
+			for (C compound : compounds) {
+				int index = lookup.indexOf(compound);
+				if (index != -1) {
+					count += counts[index];
+				}
+			}
+			return count;
+		}
+
+		/**
+		 * Returns the number of times each compound appears in this store.
+		 * Only compounds which appear are present in the Map, as with
+		 * {@link SequenceMixin#getComposition(Sequence)}.
+		 */
+		public Map<C, Integer> getComposition() {
+			int[] counts = countEncodedValues();
+			List<C> lookup = getIndexToCompoundsLookup();
+			Map<C, Integer> composition = new HashMap<C, Integer>();
+			for (int i = 0; i < counts.length && i < lookup.size(); i++) {
+				if (counts[i] > 0) {
+					composition.put(lookup.get(i), counts[i]);
+				}
+			}
+			return composition;
+		}
+
+		/**
+		 * Decodes the whole store into a String. Rather than going through
+		 * {@link #getCompoundAt(int)} for every position each packed byte is
+		 * turned into its characters with a single lookup into a precomputed
+		 * table (4 characters per byte with 2bit encodings and 2 with 4bit);
+		 * encodings whose compounds do not fill whole bytes are decoded a
+		 * compound at a time from a per-value table instead.
+		 */
+		public String getSequenceAsString() {
+			DecodeTable table = getDecodeTable();
+			if (table.chars != null) {
+				char[] chars = new char[length];
+				decode(table, 1, length, chars, 0);
+				return new String(chars);
+			}
+			StringBuilder sb = new StringBuilder(length);
+			int bits = bitsPerCompound();
+			int perInt = compoundsPerDatatype();
+			int mask = bitMask() & 0xFF;
+			for (int index = 0; index < length; index++) {
+				int value = (sequence[index / perInt] >>> ((index % perInt) * bits)) & mask;
+				sb.append(table.strings[table.checkValue(value)]);
+			}
+			return sb.toString();
+		}
+
+		/**
+		 * Copies the given biological positions (inclusive) into the array
+		 * using the same tables as {@link #getSequenceAsString()}
+		 *
+		 * @throws IllegalStateException If a compound is not represented by a
+		 * single character
+		 */
+		public void getChars(int start, int end, char[] dest, int destOffset) {
+			if (end < start) {
+				return;
+			}
+			if (end > getLength()) {
+				throw new IllegalArgumentException(end + " is greater than length. Cannot access this position");
+			}
+			if (start < 1) {
+				throw new IllegalArgumentException(start + " is less than 1; you must use biological indexing (indexing from 1)");
+			}
+			DecodeTable table = getDecodeTable();
+			if (table.chars == null) {
+				throw new IllegalStateException("Cannot decode into a char[]; not every compound is a single character");
+			}
+			decode(table, start, end, dest, destOffset);
+		}
+
+		private void decode(DecodeTable table, int start, int end, char[] dest, int destOffset) {
+			int[] seq = sequence;
+			int bits = bitsPerCompound();
+			int perInt = compoundsPerDatatype();
+			int mask = bitMask() & 0xFF;
+			char[] chars = table.chars;
+			int index = start - 1;
+			int last = end;
+			int out = destOffset;
+			if (table.byteChars != null) {
+				int perByte = table.perByte;
+				char[] byteChars = table.byteChars;
+				while (index < last && index % perByte != 0) {
+					dest[out++] = chars[table.checkValue((seq[index / perInt] >>> ((index % perInt) * bits)) & mask)];
+					index++;
+				}
+				boolean[] validBytes = table.validBytes;
+				int byteIndex = index / perByte;
+				//bytes up to the next int boundary
+				while ((byteIndex & 3) != 0 && index + perByte <= last) {
+					out = copyByte(table, (seq[byteIndex >>> 2] >>> ((byteIndex & 3) << 3)) & 0xFF, dest, out);
+					index += perByte;
+					byteIndex++;
+				}
+				//whole ints
+				int wordIndex = byteIndex >>> 2;
+				while (index + perInt <= last) {
+					int word = seq[wordIndex++];
+					for (int k = 0; k < 4; k++) {
+						int b = word & 0xFF;
+						if (!validBytes[b]) {
+							table.checkByte(b);
+						}
+						int from = b * perByte;
+						//unrolled for the 2bit and 4bit cases
+						if (perByte == 4) {
+							dest[out] = byteChars[from];
+							dest[out + 1] = byteChars[from + 1];
+							dest[out + 2] = byteChars[from + 2];
+							dest[out + 3] = byteChars[from + 3];
+						} else if (perByte == 2) {
+							dest[out] = byteChars[from];
+							dest[out + 1] = byteChars[from + 1];
+						} else {
+							System.arraycopy(byteChars, from, dest, out, perByte);
+						}
+						out += perByte;
+						word >>>= 8;
+					}
+					index += perInt;
+				}
+				//trailing whole bytes
+				byteIndex = index / perByte;
+				while (index + perByte <= last) {
+					out = copyByte(table, (seq[byteIndex >>> 2] >>> ((byteIndex & 3) << 3)) & 0xFF, dest, out);
+					index += perByte;
+					byteIndex++;
+				}
+			}
+			while (index < last) {
+				dest[out++] = chars[table.checkValue((seq[index / perInt] >>> ((index % perInt) * bits)) & mask)];
+				index++;
+			}
+		}
+
+		private static int copyByte(DecodeTable table, int b, char[] dest, int out) {
+			if (!table.validBytes[b]) {
+				table.checkByte(b);
+			}
+			int perByte = table.perByte;
+			int from = b * perByte;
+			for (int c = 0; c < perByte; c++) {
+				dest[out++] = table.byteChars[from + c];
+			}
+			return out;
+		}
+
+		/**
+		 * Decodes the whole store into a new List a whole int at a time
+		 */
+		public List<C> getAsList() {
+			List<C> lookup = getIndexToCompoundsLookup();
+			int bits = bitsPerCompound();
+			int perInt = compoundsPerDatatype();
+			int mask = bitMask() & 0xFF;
+			List<C> list = new ArrayList<C>(length);
+			for (int index = 0; index < length; index += perInt) {
+				int word = sequence[index / perInt];
+				int fields = Math.min(perInt, length - index);
+				for (int i = 0; i < fields; i++) {
+					int value = (word >>> (i * bits)) & mask;
+					if (value >= lookup.size()) {
+						throw new IllegalStateException("Got a masked value of " + value + "; do not understand values greater than " + (lookup.size() - 1));
+					}
+					list.add(lookup.get(value));
+				}
+			}
+			return list;
+		}
+
+		/**
+		 * Writes the {@link CompoundOrdinals} of the given biological
+		 * positions (inclusive) into the array. Each int of the backing array
+		 * is read once and its fields translated through a table from encoded
+		 * value to ordinal; no compounds are created.
+		 */
+		public void getOrdinals(int start, int end, int[] dest, int destOffset) {
+			int[] table = getOrdinalTable();
+			int bits = bitsPerCompound();
+			int perInt = compoundsPerDatatype();
+			int mask = bitMask() & 0xFF;
+			int out = destOffset;
+			for (int index = start - 1; index < end;) {
+				int offset = index % perInt;
+				int word = sequence[index / perInt] >>> (offset * bits);
+				int fields = Math.min(perInt - offset, end - index);
+				for (int i = 0; i < fields; i++) {
+					dest[out++] = toOrdinal(table, word & mask);
+					word >>>= bits;
+				}
+				index += fields;
+			}
+		}
+
+		/**
+		 * Byte version of {@link #getOrdinals(int, int, int[], int)}
+		 */
+		public void getOrdinals(int start, int end, byte[] dest, int destOffset) {
+			SequenceMixin.checkByteOrdinals(CompoundOrdinals.forCompoundSet(compoundSet));
+			int[] table = getOrdinalTable();
+			int bits = bitsPerCompound();
+			int perInt = compoundsPerDatatype();
+			int mask = bitMask() & 0xFF;
+			int out = destOffset;
+			for (int index = start - 1; index < end;) {
+				int offset = index % perInt;
+				int word = sequence[index / perInt] >>> (offset * bits);
+				int fields = Math.min(perInt - offset, end - index);
+				for (int i = 0; i < fields; i++) {
+					dest[out++] = (byte) toOrdinal(table, word & mask);
+					word >>>= bits;
+				}
+				index += fields;
+			}
+		}
+
+		/**
+		 * Hands the ordinal of every position to the consumer a whole int
+		 * of the backing array at a time
+		 */
+		public void forEachOrdinal(IntConsumer consumer) {
+			int[] table = getOrdinalTable();
+			int bits = bitsPerCompound();
+			int perInt = compoundsPerDatatype();
+			int mask = bitMask() & 0xFF;
+			for (int index = 0; index < length; index += perInt) {
+				int word = sequence[index / perInt];
+				int fields = Math.min(perInt, length - index);
+				for (int i = 0; i < fields; i++) {
+					consumer.accept(toOrdinal(table, word & mask));
+					word >>>= bits;
+				}
+			}
+		}
+
+		private static int toOrdinal(int[] table, int value) {
+			if (value >= table.length) {
+				throw new IllegalStateException("Got a masked value of " + value + "; do not understand values greater than " + (table.length - 1));
+			}
+			return table[value];
+		}
+
+		/**
+		 * Table from encoded value to ordinal; rebuilt if the CompoundSet's
+		 * ordinals have been refreshed since it was last generated
+		 */
+		private int[] getOrdinalTable() {
+			CompoundOrdinals<C> ordinals = CompoundOrdinals.forCompoundSet(compoundSet);
+			OrdinalTable current = ordinalTable;
+			if (current == null || current.source != ordinals) {
+				List<C> lookup = getIndexToCompoundsLookup();
+				int[] values = new int[lookup.size()];
+				for (int i = 0; i < values.length; i++) {
+					values[i] = ordinals.getOrdinal(lookup.get(i));
+				}
+				current = new OrdinalTable(ordinals, values);
+				ordinalTable = current;
+			}
+			return current.values;
+		}
+
+		private static class OrdinalTable {
+			private final CompoundOrdinals<?> source;
+			private final int[] values;
+
+			OrdinalTable(CompoundOrdinals<?> source, int[] values) {
+				this.source = source;
+				this.values = values;
+			}
+		}
+
+		private DecodeTable getDecodeTable() {
+			if (decodeTable == null) {
+				decodeTable = DecodeTable.forLookup(getIndexToCompoundsLookup(), bitsPerCompound(),
+						compoundsPerDatatype() * bitsPerCompound() == BYTES_PER_INT);
+			}
+			return decodeTable;
+		}
+
+		/**
+		 * Returns an int with only the lowest bit of each of the first
+		 * <code>fields</code> fields set
+		 */
+		static int fieldStartMask(int bits, int fields) {
+			int mask = 0;
+			for (int i = 0; i < fields; i++) {
+				mask |= 1 << (i * bits);
+			}
+			return mask;
+		}
+
+		/**
+		 * Returns every encoded value repeated into each field of an int
+		 */
+		static int[] valuePatterns(int bits, int fields, int values) {
+			int[] patterns = new int[values];
+			for (int v = 0; v < values; v++) {
+				for (int i = 0; i < fields; i++) {
+					patterns[v] |= v << (i * bits);
+				}
+			}
+			return patterns;
+		}
+
+		/**
+		 * Adds the number of fields in <code>word</code> holding each value to
+		 * <code>counts</code>. Only fields whose lowest bit is set in
+		 * <code>mask</code> are considered.
+		 */
+		static void countWord(int word, int bits, int mask, int[] patterns, int[] counts) {
+			for (int v = 0; v < patterns.length; v++) {
+				int matched = ~(word ^ patterns[v]);
+				int collapsed = matched;
+				for (int i = 1; i < bits; i++) {
+					collapsed &= matched >>> i;
+				}
+				counts[v] += Integer.bitCount(collapsed & mask);
+			}
+		}
+
 		/**
 		 * Returns a list of compounds the index position of which is used
 		 * to translate from the byte representation into a compound.
@@ -432,6 +835,14 @@ public class BitSequenceReader<C extends Compound> implements ProxySequenceReade
 			return (byte) (((index - 1) % compoundsPerDatatype()) * bitsPerCompound());
 		}
 
+		/**
+		 * Returns the packed array backing this worker; this is not a copy
+		 * so must not be modified
+		 */
+		protected int[] getPackedArray() {
+			return sequence;
+		}
+
 		/**
 		 * Returns the compound set backing this store
 		 */
@@ -443,6 +854,87 @@ public class BitSequenceReader<C extends Compound> implements ProxySequenceReade
 			return length;
 		}
 
+		/**
+		 * Precomputed decoding of every value and, where compounds fill whole
+		 * bytes, of every byte. Tables depend only on the String forms of the
+		 * compounds and the number of bits so are shared between workers.
+		 */
+		private static class DecodeTable {
+
+			private static final Map<String, DecodeTable> TABLES = new ConcurrentHashMap<String, DecodeTable>();
+
+			private final String[] strings;
+			private final char[] chars;
+			private final int perByte;
+			private final char[] byteChars;
+			private final boolean[] validBytes;
+
+			static DecodeTable forLookup(List<? extends Compound> lookup, int bits, boolean packedIntoBytes) {
+				String[] strings = new String[lookup.size()];
+				StringBuilder key = new StringBuilder().append(bits).append(packedIntoBytes);
+				for (int i = 0; i < strings.length; i++) {
+					strings[i] = lookup.get(i).toString();
+					key.append('\u0000').append(strings[i]);
+				}
+				String k = key.toString();
+				DecodeTable table = TABLES.get(k);
+				if (table == null) {
+					table = new DecodeTable(strings, bits, packedIntoBytes);
+					TABLES.put(k, table);
+				}
+				return table;
+			}
+
+			private DecodeTable(String[] strings, int bits, boolean packedIntoBytes) {
+				this.strings = strings;
+				char[] chars = new char[strings.length];
+				for (int i = 0; i < strings.length; i++) {
+					if (strings[i].length() != 1) {
+						chars = null;
+						break;
+					}
+					chars[i] = strings[i].charAt(0);
+				}
+				this.chars = chars;
+				if (chars != null && packedIntoBytes && 8 % bits == 0) {
+					this.perByte = 8 / bits;
+					this.byteChars = new char[256 * perByte];
+					this.validBytes = new boolean[256];
+					int mask = (1 << bits) - 1;
+					for (int b = 0; b < 256; b++) {
+						boolean valid = true;
+						for (int k = 0; k < perByte; k++) {
+							int value = (b >>> (k * bits)) & mask;
+							if (value < chars.length) {
+								byteChars[b * perByte + k] = chars[value];
+							} else {
+								valid = false;
+							}
+						}
+						validBytes[b] = valid;
+					}
+				} else {
+					this.perByte = 0;
+					this.byteChars = null;
+					this.validBytes = null;
+				}
+			}
+
+			int checkValue(int value) {
+				if (value >= strings.length) {
+					throw new IllegalStateException("Got a masked value of " + value + "; do not understand values greater than " + (strings.length - 1));
+				}
+				return value;
+			}
+
+			void checkByte(int b) {
+				int bits = 8 / perByte;
+				for (int k = 0; k < perByte; k++) {
+					checkValue((b >>> (k * bits)) & ((1 << bits) - 1));
+				}
+			}
+		}
+
 		@Override
 		public int hashCode() {
 			if(hashcode == null) {
@@ -0,0 +1,522 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.storage;
+
+import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
+import org.biojava.nbio.core.sequence.AccessionID;
+import org.biojava.nbio.core.sequence.Strand;
+import org.biojava.nbio.core.sequence.template.*;
+import org.biojava.nbio.core.util.Equals;
+import org.biojava.nbio.core.util.Hashcoder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
+
+/**
+ * Stores a Sequence as one byte per compound. Each byte holds the
+ * compound's ordinal as assigned by {@link CompoundOrdinals} and is decoded
+ * back into a compound through the shared ordinal table. Compared to
+ * {@link ArrayListSequenceReader} this removes the object reference per
+ * position (4-8 bytes plus list overhead) and turns every access into an
+ * array lookup.
+ *
+ * Only CompoundSets holding at most {@value #MAX_COMPOUNDS} compounds can be
+ * stored; see {@link #canStore(CompoundSet)}.
+ *
+ * @param <C> Type of compound
+ */
+public class ByteArraySequenceReader<C extends Compound> implements ProxySequenceReader<C> {
+
+	/**
+	 * Maximum number of compounds a CompoundSet can hold and still be
+	 * encoded in a byte; ordinal 255 is left free as the {@code (byte) -1}
+	 * written by {@link #getOrdinals(int, int, byte[], int)} for compounds
+	 * not in the set
+	 */
+	public static final int MAX_COMPOUNDS = 255;
+
+	private static final byte[] EMPTY = new byte[0];
+
+	private CompoundSet<C> compoundSet;
+	private CompoundOrdinals<C> ordinals;
+	private byte[] data = EMPTY;
+
+	private volatile Integer hashcode = null;
+
+	/**
+	 * Returns true if the given CompoundSet is small enough to be stored
+	 * by this class
+	 */
+	public static boolean canStore(CompoundSet<?> compoundSet) {
+		return CompoundOrdinals.forCompoundSet(compoundSet).size() <= MAX_COMPOUNDS;
+	}
+
+	public ByteArraySequenceReader() {
+		//Do nothing
+	}
+
+	public ByteArraySequenceReader(String sequence, CompoundSet<C> compoundSet) throws CompoundNotFoundException {
+		setCompoundSet(compoundSet);
+		setContents(sequence);
+	}
+
+	public ByteArraySequenceReader(byte[] residues, int offset, int length, CompoundSet<C> compoundSet) throws CompoundNotFoundException {
+		setCompoundSet(compoundSet);
+		setContents(residues, offset, length);
+	}
+
+	public ByteArraySequenceReader(List<C> compounds, CompoundSet<C> compoundSet) {
+		setCompoundSet(compoundSet);
+		setContents(compounds);
+	}
+
+	/**
+	 * Sets the CompoundSet; any existing contents are re-encoded
+	 *
+	 * @throws IllegalArgumentException If the CompoundSet is too large or
+	 * does not hold the compounds already stored
+	 */
+	@Override
+	public void setCompoundSet(CompoundSet<C> compoundSet) {
+		CompoundOrdinals<C> newOrdinals = CompoundOrdinals.forCompoundSet(compoundSet);
+		if (newOrdinals.size() > MAX_COMPOUNDS) {
+			throw new IllegalArgumentException("CompoundSet holds " + newOrdinals.size()
+					+ " compounds; cannot store more than " + MAX_COMPOUNDS + " in a byte");
+		}
+		if (ordinals != null && ordinals != newOrdinals && data.length > 0) {
+			List<C> compounds = new ArrayList<C>(getAsList());
+			this.ordinals = newOrdinals;
+			this.compoundSet = compoundSet;
+			setContents(compounds);
+		}
+		this.compoundSet = compoundSet;
+		this.ordinals = newOrdinals;
+	}
+
+	@Override
+	public CompoundSet<C> getCompoundSet() {
+		return compoundSet;
+	}
+
+	@Override
+	public void setContents(String sequence) throws CompoundNotFoundException {
+		hashcode = null;
+		if (ordinals.isSingleCharCompounds() && compoundSet.getMaxSingleCompoundStringLength() == 1) {
+			byte[] encoded = new byte[sequence.length()];
+			// Characters the CompoundSet maps onto another compound
+			// (e.g. case-insensitive sets) are resolved once per call
+			int[] aliases = null;
+			for (int i = 0; i < encoded.length; i++) {
+				char c = sequence.charAt(i);
+				int ordinal = ordinals.getOrdinal(c);
+				if (ordinal == -1) {
+					if (aliases != null && c < aliases.length && aliases[c] != -1) {
+						ordinal = aliases[c];
+					} else {
+						String compoundStr = Character.toString(c);
+						C compound = compoundSet.getCompoundForString(compoundStr);
+						ordinal = (compound == null) ? -1 : ordinals.getOrdinal(compound);
+						if (ordinal == -1) {
+							if (compound != null && refreshOrdinals(compoundStr)) {
+								setContents(sequence);
+								return;
+							}
+							throw new CompoundNotFoundException("Cannot find compound for: " + compoundStr);
+						}
+						if (c < 128) {
+							if (aliases == null) {
+								aliases = new int[128];
+								Arrays.fill(aliases, -1);
+							}
+							aliases[c] = ordinal;
+						}
+					}
+				}
+				encoded[i] = (byte) ordinal;
+			}
+			this.data = encoded;
+			return;
+		}
+
+		// Multi character compounds; same scheme as ArrayListSequenceReader
+		int maxCompoundLength = compoundSet.getMaxSingleCompoundStringLength();
+		int length = sequence.length();
+		byte[] encoded = new byte[length];
+		int size = 0;
+		for (int i = 0; i < length;) {
+			String compoundStr = null;
+			C compound = null;
+			for (int compoundStrLength = 1; compound == null && compoundStrLength <= maxCompoundLength && i + compoundStrLength <= length; compoundStrLength++) {
+				compoundStr = sequence.substring(i, i + compoundStrLength);
+				compound = compoundSet.getCompoundForString(compoundStr);
+			}
+			if (compound == null) {
+				throw new CompoundNotFoundException("Cannot find compound for: " + compoundStr);
+			}
+			i += compoundStr.length();
+			int ordinal = ordinals.getOrdinal(compound);
+			if (ordinal == -1) {
+				if (refreshOrdinals(compoundStr)) {
+					setContents(sequence);
+					return;
+				}
+				throw new CompoundNotFoundException("Cannot find compound for: " + compoundStr);
+			}
+			encoded[size++] = (byte) ordinal;
+		}
+		this.data = (size == length) ? encoded : Arrays.copyOf(encoded, size);
+	}
+
+	/**
+	 * Sets the contents from ASCII encoded residues without going through a
+	 * String. Each byte is translated with
+	 * {@link CompoundOrdinals#getAsciiLookup()}; residues the table cannot
+	 * resolve and multi character CompoundSets are handed to
+	 * {@link #setContents(String)} so errors are reported in the same way.
+	 *
+	 * @param residues Array holding the residues
+	 * @param offset Index of the first residue
+	 * @param length Number of residues
+	 */
+	public void setContents(byte[] residues, int offset, int length) throws CompoundNotFoundException {
+		if (ordinals.isSingleCharCompounds() && compoundSet.getMaxSingleCompoundStringLength() == 1) {
+			int[] lookup = ordinals.getAsciiLookup();
+			byte[] encoded = new byte[length];
+			boolean resolved = true;
+			for (int i = 0; i < length; i++) {
+				int ordinal = lookup[residues[offset + i] & 0xff];
+				if (ordinal == -1) {
+					resolved = false;
+					break;
+				}
+				encoded[i] = (byte) ordinal;
+			}
+			if (resolved) {
+				hashcode = null;
+				this.data = encoded;
+				return;
+			}
+		}
+		setContents(new String(residues, offset, length, StandardCharsets.US_ASCII));
+	}
+
+	/**
+	 * Sets the contents from a list of compounds
+	 *
+	 * @throws IllegalArgumentException If a compound is not in the CompoundSet
+	 */
+	public void setContents(List<C> list) {
+		hashcode = null;
+		byte[] encoded = new byte[list.size()];
+		int i = 0;
+		for (C compound : list) {
+			int ordinal = ordinals.getOrdinal(compound);
+			if (ordinal == -1) {
+				if (refreshOrdinals(compoundSet.getStringForCompound(compound))) {
+					setContents(list);
+					return;
+				}
+				throw new IllegalArgumentException("Compound " + compound + " is not part of the CompoundSet");
+			}
+			encoded[i++] = (byte) ordinal;
+		}
+		this.data = encoded;
+	}
+
+	/**
+	 * The CompoundSet may have gained compounds since its ordinals were
+	 * generated; if the given compound is now known regenerate the ordinals,
+	 * re-encode the current contents against them and return true.
+	 */
+	private boolean refreshOrdinals(String compoundStr) {
+		C compound = compoundSet.getCompoundForString(compoundStr);
+		if (compound == null) {
+			return false;
+		}
+		CompoundOrdinals<C> refreshed = CompoundOrdinals.refresh(compoundSet);
+		if (refreshed.getOrdinal(compound) == -1 || refreshed.size() > MAX_COMPOUNDS) {
+			return false;
+		}
+		byte[] recoded = new byte[data.length];
+		for (int i = 0; i < data.length; i++) {
+			recoded[i] = (byte) refreshed.getOrdinal(ordinals.getCompound(data[i] & 0xff));
+		}
+		data = recoded;
+		ordinals = refreshed;
+		return true;
+	}
+
+	@Override
+	public int getLength() {
+		return data.length;
+	}
+
+	@Override
+	public C getCompoundAt(int position) {
+		return ordinals.getCompound(data[position - 1] & 0xff);
+	}
+
+	@Override
+	public int getIndexOf(C compound) {
+		int ordinal = ordinals.getOrdinal(compound);
+		if (ordinal != -1) {
+			byte b = (byte) ordinal;
+			for (int i = 0; i < data.length; i++) {
+				if (data[i] == b) {
+					return i + 1;
+				}
+			}
+		}
+		return 0;
+	}
+
+	@Override
+	public int getLastIndexOf(C compound) {
+		int ordinal = ordinals.getOrdinal(compound);
+		if (ordinal != -1) {
+			byte b = (byte) ordinal;
+			for (int i = data.length - 1; i >= 0; i--) {
+				if (data[i] == b) {
+					return i + 1;
+				}
+			}
+		}
+		return 0;
+	}
+
+	@Override
+	public String getSequenceAsString() {
+		return getSequenceAsString(1, getLength(), Strand.POSITIVE);
+	}
+
+	/**
+	 * Decodes the given region straight from the byte array. Follows the
+	 * same rules as {@link SequenceAsStringHelper} for the negative strand
+	 * and circular (begin greater than end) regions.
+	 */
+	public String getSequenceAsString(Integer bioBegin, Integer bioEnd, Strand strand) {
+		if (data.length == 0) {
+			return "";
+		}
+		StringBuilder builder = new StringBuilder();
+		if (strand.equals(Strand.NEGATIVE)) {
+			if (bioBegin <= bioEnd) {
+				appendReverse(builder, bioEnd - 1, bioBegin - 1);
+			} else {
+				appendReverse(builder, bioBegin - 1, 0);
+				appendReverse(builder, data.length - 1, bioEnd - 1);
+			}
+		} else {
+			if (bioBegin <= bioEnd) {
+				appendForward(builder, bioBegin - 1, bioEnd - 1);
+			} else {
+				appendForward(builder, bioBegin - 1, data.length - 1);
+				appendForward(builder, 0, bioEnd - 1);
+			}
+		}
+		return builder.toString();
+	}
+
+	private void appendForward(StringBuilder builder, int from, int to) {
+		for (int i = from; i <= to; i++) {
+			builder.append(ordinals.getString(data[i] & 0xff));
+		}
+	}
+
+	private void appendReverse(StringBuilder builder, int from, int to) {
+		for (int i = from; i >= to; i--) {
+			builder.append(ordinals.getString(data[i] & 0xff));
+		}
+	}
+
+	/**
+	 * Returns a List view backed by the byte array. The view supports
+	 * {@link List#set(int, Object)} which writes through to this store.
+	 */
+	@Override
+	public List<C> getAsList() {
+		return new AbstractList<C>() {
+			@Override
+			public C get(int index) {
+				return ordinals.getCompound(data[index] & 0xff);
+			}
+
+			@Override
+			public C set(int index, C element) {
+				int ordinal = ordinals.getOrdinal(element);
+				if (ordinal == -1) {
+					throw new IllegalArgumentException("Compound " + element + " is not part of the CompoundSet");
+				}
+				C previous = get(index);
+				data[index] = (byte) ordinal;
+				hashcode = null;
+				return previous;
+			}
+
+			@Override
+			public int size() {
+				return data.length;
+			}
+		};
+	}
+
+	@Override
+	public SequenceView<C> getSubSequence(final Integer bioBegin, final Integer bioEnd) {
+		return new SequenceProxyView<C>(ByteArraySequenceReader.this, bioBegin, bioEnd);
+	}
+
+	@Override
+	public Iterator<C> iterator() {
+		return new Iterator<C>() {
+			private final byte[] contents = data;
+			private int index = 0;
+
+			@Override
+			public boolean hasNext() {
+				return index < contents.length;
+			}
+
+			@Override
+			public C next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException("Exhausted sequence of elements");
+				}
+				return ordinals.getCompound(contents[index++] & 0xff);
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException("Cannot remove() on a ByteArraySequenceReader iterator");
+			}
+		};
+	}
+
+	@Override
+	public AccessionID getAccession() {
+		throw new UnsupportedOperationException("Not supported yet.");
+	}
+
+	/**
+	 * Copies the stored ordinals; they only need translating if the
+	 * CompoundSet's ordinals were refreshed after this store was written
+	 */
+	@Override
+	public void getOrdinals(int start, int end, int[] dest, int destOffset) {
+		SequenceMixin.checkOrdinalRange(this, start, end, dest.length, destOffset);
+		int[] remap = remapOrdinals();
+		for (int i = start - 1; i < end; i++) {
+			int ordinal = data[i] & 0xff;
+			dest[destOffset++] = (remap == null) ? ordinal : remap[ordinal];
+		}
+	}
+
+	@Override
+	public void getOrdinals(int start, int end, byte[] dest, int destOffset) {
+		SequenceMixin.checkOrdinalRange(this, start, end, dest.length, destOffset);
+		int[] remap = remapOrdinals();
+		if (remap == null) {
+			System.arraycopy(data, start - 1, dest, destOffset, end - start + 1);
+			return;
+		}
+		SequenceMixin.checkByteOrdinals(CompoundOrdinals.forCompoundSet(compoundSet));
+		for (int i = start - 1; i < end; i++) {
+			dest[destOffset++] = (byte) remap[data[i] & 0xff];
+		}
+	}
+
+	@Override
+	public void forEachOrdinal(IntConsumer consumer) {
+		byte[] contents = data;
+		int[] remap = remapOrdinals();
+		for (byte b : contents) {
+			consumer.accept((remap == null) ? b & 0xff : remap[b & 0xff]);
+		}
+	}
+
+	/**
+	 * Returns null when the stored ordinals are the current ones for the
+	 * CompoundSet otherwise a table from stored to current ordinal
+	 */
+	private int[] remapOrdinals() {
+		CompoundOrdinals<C> current = CompoundOrdinals.forCompoundSet(compoundSet);
+		if (current == ordinals) {
+			return null;
+		}
+		int[] remap = new int[ordinals.size()];
+		for (int i = 0; i < remap.length; i++) {
+			remap[i] = current.getOrdinal(ordinals.getCompound(i));
+		}
+		return remap;
+	}
+
+	/**
+	 * Counts using a histogram of the stored ordinals rather than building
+	 * a composition Map
+	 */
+	@Override
+	public int countCompounds(C... compounds) {
+		int[] histogram = new int[MAX_COMPOUNDS];
+		for (byte b : data) {
+			histogram[b & 0xff]++;
+		}
+		int count = 0;
+		for (C compound : compounds) {
+			int ordinal = ordinals.getOrdinal(compound);
+			if (ordinal != -1) {
+				count += histogram[ordinal];
+			}
+		}
+		return count;
+	}
+
+	@Override
+	public SequenceView<C> getInverse() {
+		return SequenceMixin.inverse(this);
+	}
+
+	@Override
+	public int hashCode() {
+		if(hashcode == null) {
+			int s = Hashcoder.SEED;
+			s = Hashcoder.hash(s, getAsList());
+			s = Hashcoder.hash(s, compoundSet);
+			hashcode = s;
+		}
+		return hashcode;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public boolean equals(Object o) {
+		if(Equals.classEqual(this, o)) {
+			ByteArraySequenceReader<C> that = (ByteArraySequenceReader<C>)o;
+			return  Equals.equal(getAsList(), that.getAsList()) &&
+					Equals.equal(compoundSet, that.compoundSet);
+		}
+		return false;
+	}
+}
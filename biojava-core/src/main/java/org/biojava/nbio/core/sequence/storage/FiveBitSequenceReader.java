@@ -0,0 +1,222 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.storage;
+
+import org.biojava.nbio.core.sequence.AccessionID;
+import org.biojava.nbio.core.sequence.template.Compound;
+import org.biojava.nbio.core.sequence.template.CompoundSet;
+import org.biojava.nbio.core.sequence.template.Sequence;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Five bit encoding of the bit formats. This can support up to 32 compounds
+ * from a compound set which is enough to hold every compound in
+ * {@link org.biojava.nbio.core.sequence.compound.AminoAcidCompoundSet}; 6
+ * compounds are packed into each int (the top 2 bits are unused) giving
+ * roughly a 6 fold saving over a byte per compound and far more over a List
+ * of references.
+ *
+ * Encodings are assigned exactly as in {@link FourBitSequenceReader} i.e.
+ * case-insensitively and in lexographical order of the compounds. Since the
+ * encoding depends only on the CompoundSet the lookup tables are shared by
+ * every worker using the same CompoundSet; with short sequences such as
+ * proteins per-instance tables would otherwise cost more than the packed
+ * data itself.
+ */
+public class FiveBitSequenceReader<C extends Compound> extends BitSequenceReader<C> {
+
+	public FiveBitSequenceReader(Sequence<C> sequence) {
+		super(new FiveBitArrayWorker<C>(sequence), sequence.getAccession());
+	}
+
+	public FiveBitSequenceReader(String sequence, CompoundSet<C> compoundSet) {
+		this(sequence, compoundSet, new AccessionID("Unknown"));
+	}
+
+	public FiveBitSequenceReader(String sequence, CompoundSet<C> compoundSet, AccessionID accession) {
+		super(new FiveBitArrayWorker<C>(sequence, compoundSet), accession);
+	}
+
+	public FiveBitSequenceReader(FiveBitArrayWorker<C> worker) {
+		super(worker, new AccessionID("unknown"));
+	}
+
+	public FiveBitSequenceReader(FiveBitArrayWorker<C> worker, AccessionID accession) {
+		super(worker, accession);
+	}
+
+	/**
+	 * A five bit per compound implementation of the bit array worker code.
+	 * The compound to value mapping is inherited from
+	 * {@link FourBitSequenceReader.FourBitArrayWorker}; only the packing
+	 * differs.
+	 *
+	 * @param <C> Type of compound
+	 */
+	public static class FiveBitArrayWorker<C extends Compound> extends FourBitSequenceReader.FourBitArrayWorker<C> {
+
+		/**
+		 * Number of distinct values 5 bits can hold
+		 */
+		public static final int MAX_COMPOUNDS = 32;
+
+		/**
+		 * Masking value used for extracting the right most 5 bits
+		 */
+		private final static byte MASK = 0x1F;
+
+		public FiveBitArrayWorker(CompoundSet<C> compoundSet, int length) {
+			super(compoundSet, length);
+		}
+
+		public FiveBitArrayWorker(CompoundSet<C> compoundSet, int[] sequence) {
+			super(compoundSet, sequence);
+		}
+
+		public FiveBitArrayWorker(Sequence<C> sequence) {
+			super(sequence);
+		}
+
+		public FiveBitArrayWorker(String sequence, CompoundSet<C> compoundSet) {
+			super(sequence, compoundSet);
+		}
+
+		/**
+		 * Lookups shared by workers of the same CompoundSet. Values are only
+		 * weakly held as the compounds refer back to their CompoundSet.
+		 */
+		private static final Map<CompoundSet<?>, WeakReference<Lookups<?>>> SHARED_LOOKUPS =
+				new WeakHashMap<CompoundSet<?>, WeakReference<Lookups<?>>>();
+
+		private transient Lookups<C> lookups = null;
+
+		@Override
+		protected byte bitMask() {
+			return MASK;
+		}
+
+		@Override
+		protected int compoundsPerDatatype() {
+			return 6;
+		}
+
+		@Override
+		protected int bitsPerCompound() {
+			return 5;
+		}
+
+		/**
+		 * As {@link FourBitSequenceReader.FourBitArrayWorker#generateCompoundsToIndex()}
+		 * but fails if the CompoundSet needs more than {@value #MAX_COMPOUNDS}
+		 * values
+		 *
+		 * @throws IllegalStateException If the compounds cannot be encoded in
+		 * 5 bits
+		 */
+		@Override
+		protected Map<C, Integer> generateCompoundsToIndex() {
+			Map<C, Integer> map = super.generateCompoundsToIndex();
+			if (!map.isEmpty() && Collections.max(map.values()) >= MAX_COMPOUNDS) {
+				throw new IllegalStateException("CompoundSet needs " + (Collections.max(map.values()) + 1) + " values; cannot encode more than " + MAX_COMPOUNDS + " in 5 bits");
+			}
+			return map;
+		}
+
+		@Override
+		protected Map<C, Integer> getCompoundsToIndexLookup() {
+			return getLookups().compoundsToIndex;
+		}
+
+		@Override
+		protected List<C> getIndexToCompoundsLookup() {
+			return getLookups().indexToCompounds;
+		}
+
+		/**
+		 * Decodes straight from the shared table rather than going through
+		 * the generic {@link BitSequenceReader.BitArrayWorker#getCompoundAt(int)}
+		 */
+		@Override
+		public C getCompoundAt(int position) {
+			if (position > getLength()) {
+				throw new IllegalArgumentException(position + " is greater than length. Cannot access this position");
+			}
+			if (position < 1) {
+				throw new IllegalArgumentException(position + " is less than 1; you must use biological indexing (indexing from 1)");
+			}
+			int index = position - 1;
+			int value = (getPackedArray()[index / 6] >>> ((index % 6) * 5)) & MASK;
+			C[] decode = getLookups().decode;
+			if (value >= decode.length) {
+				throw new IllegalStateException("Got a masked value of " + value + "; do not understand values greater than " + (decode.length - 1));
+			}
+			return decode[value];
+		}
+
+		@SuppressWarnings("unchecked")
+		private Lookups<C> getLookups() {
+			if (lookups == null) {
+				CompoundSet<C> cs = getCompoundSet();
+				synchronized (SHARED_LOOKUPS) {
+					WeakReference<Lookups<?>> ref = SHARED_LOOKUPS.get(cs);
+					Lookups<C> shared = (ref == null) ? null : (Lookups<C>) ref.get();
+					if (shared == null) {
+						shared = new Lookups<C>(generateCompoundsToIndex(), cs);
+						SHARED_LOOKUPS.put(cs, new WeakReference<Lookups<?>>(shared));
+					}
+					lookups = shared;
+				}
+			}
+			return lookups;
+		}
+
+		/**
+		 * Both directions of the encoding for a CompoundSet; the decode
+		 * table holds the upper cased compound for each value
+		 */
+		private static class Lookups<C extends Compound> {
+			private final Map<C, Integer> compoundsToIndex;
+			private final List<C> indexToCompounds;
+			private final C[] decode;
+
+			@SuppressWarnings("unchecked")
+			Lookups(Map<C, Integer> compoundsToIndex, CompoundSet<C> cs) {
+				this.compoundsToIndex = Collections.unmodifiableMap(compoundsToIndex);
+				int size = compoundsToIndex.isEmpty() ? 0 : Collections.max(compoundsToIndex.values()) + 1;
+				Compound[] decode = new Compound[size];
+				for (Map.Entry<C, Integer> entry : compoundsToIndex.entrySet()) {
+					C compound = entry.getKey();
+					C upper = cs.getCompoundForString(cs.getStringForCompound(compound).toUpperCase());
+					decode[entry.getValue()] = (upper == null) ? compound : upper;
+				}
+				this.decode = (C[]) decode;
+				this.indexToCompounds = Collections.unmodifiableList(new ArrayList<C>(Arrays.asList(this.decode)));
+			}
+		}
+	}
+}
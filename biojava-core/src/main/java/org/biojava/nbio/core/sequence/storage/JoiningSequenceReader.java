@@ -26,6 +26,7 @@ import org.biojava.nbio.core.sequence.template.*;
 import org.biojava.nbio.core.util.Equals;
 
 import java.util.*;
+import java.util.function.IntConsumer;
 
 /**
  * This reader actually proxies onto multiple types of sequence in order
@@ -38,7 +39,13 @@ import java.util.*;
  * Performance is not as good as if you are using a flat sequence however the
  * speed of lookup is more than adaquate for most situations. Using the iterator
  * gives the best performance as this does not rely on the binary search
- * mechanism instead iterating through each sequence in turn.
+ * mechanism instead iterating through each sequence in turn. Lookups also
+ * remember the last sequence they landed in so scanning through positions in
+ * order only falls back to the binary search when crossing into a sequence
+ * which is not the next one. {@link #getSequenceAsString()},
+ * {@link #getAsList()} and {@link #countCompounds(Compound...)} hand each
+ * sequence's bulk method the whole of that sequence rather than working
+ * a compound at a time.
  *
  * @author ayates
  * @param <C> Tyoe of compound to hold
@@ -54,6 +61,7 @@ public class JoiningSequenceReader<C extends Compound> implements ProxySequenceR
 	private final CompoundSet<C> compoundSet;
 	private int[] maxSequenceIndex;
 	private int[] minSequenceIndex;
+	private volatile int lastSequenceIndex = 0;
 
 	/**
 	 * Allows creation of the store from Vargs Sequence<C> objects. CompoundSet
@@ -128,14 +136,27 @@ public class JoiningSequenceReader<C extends Compound> implements ProxySequenceR
 	}
 
 	/**
-	 * Returns which Sequence holds the position queried for
+	 * Returns which Sequence holds the position queried for. The last
+	 * Sequence found and the one after it are checked before searching.
 	 */
 	private int getSequenceIndex(int position) {
+		int[] minSeqIndex = getMinSequenceIndex();
+		int[] maxSeqIndex = getMaxSequenceIndex();
+		int last = lastSequenceIndex;
+		for (int i = last; i < last + 2 && i < minSeqIndex.length; i++) {
+			if (position >= minSeqIndex[i] && position <= maxSeqIndex[i]) {
+				lastSequenceIndex = i;
+				return i;
+			}
+		}
+		int found;
 		if (BINARY_SEARCH) {
-			return binarySearch(position);
+			found = binarySearch(position);
 		} else {
-			return linearSearch(position);
+			found = linearSearch(position);
 		}
+		lastSequenceIndex = found;
+		return found;
 	}
 
 	private int[] getMinSequenceIndex() {
@@ -216,10 +237,9 @@ public class JoiningSequenceReader<C extends Compound> implements ProxySequenceR
 	}
 
 	/**
-	 * Iterator implementation which attempts to move through the 2D structure
-	 * attempting to skip onto the next sequence as & when it is asked to
+	 * Iterator implementation which moves through the 2D structure using each
+	 * sequence's own iterator in turn; no positional lookups are done
 	 */
-
 	@Override
 	public Iterator<C> iterator() {
 		final List<Sequence<C>> localSequences = sequences;
@@ -228,40 +248,24 @@ public class JoiningSequenceReader<C extends Compound> implements ProxySequenceR
 			private Iterator<C> currentSequenceIterator = null;
 			private int currentPosition = 0;
 
-
 			@Override
 			public boolean hasNext() {
-				//If the current iterator is null then see if the Sequences object has anything
-				if (currentSequenceIterator == null) {
-					return !localSequences.isEmpty();
-				}
-
-				//See if we had any compounds
-				boolean hasNext = currentSequenceIterator.hasNext();
-				if (!hasNext) {
-					hasNext = currentPosition < sequences.size();
+				while ((currentSequenceIterator == null || !currentSequenceIterator.hasNext())
+						&& currentPosition < localSequences.size()) {
+					currentSequenceIterator = localSequences.get(currentPosition).iterator();
+					currentPosition++;
 				}
-				return hasNext;
+				return currentSequenceIterator != null && currentSequenceIterator.hasNext();
 			}
 
-
 			@Override
 			public C next() {
-				if (currentSequenceIterator == null) {
-					if (localSequences.isEmpty()) {
-						throw new NoSuchElementException("No sequences to iterate over; make sure you call hasNext() before next()");
-					}
-					currentSequenceIterator = localSequences.get(currentPosition).iterator();
-					currentPosition++;
-				}
-				if (!currentSequenceIterator.hasNext()) {
-					currentSequenceIterator = localSequences.get(currentPosition).iterator();
-					currentPosition++;
+				if (!hasNext()) {
+					throw new NoSuchElementException("No more compounds to iterate over; make sure you call hasNext() before next()");
 				}
 				return currentSequenceIterator.next();
 			}
 
-
 			@Override
 			public void remove() throws UnsupportedOperationException {
 				throw new UnsupportedOperationException("Cannot remove from this Sequence");
@@ -269,7 +273,6 @@ public class JoiningSequenceReader<C extends Compound> implements ProxySequenceR
 		};
 	}
 
-
 	@Override
 	public void setCompoundSet(CompoundSet<C> compoundSet) {
 		throw new UnsupportedOperationException();
@@ -282,9 +285,16 @@ public class JoiningSequenceReader<C extends Compound> implements ProxySequenceR
 	}
 
 
+	/**
+	 * Sums the counts of each sequence so packed stores can count in bulk
+	 */
 	@Override
 	public int countCompounds(C... compounds) {
-		return SequenceMixin.countCompounds(this, compounds);
+		int count = 0;
+		for (Sequence<C> sequence : sequences) {
+			count += sequence.countCompounds(compounds);
+		}
+		return count;
 	}
 
 
@@ -294,9 +304,16 @@ public class JoiningSequenceReader<C extends Compound> implements ProxySequenceR
 	}
 
 
+	/**
+	 * Copies each sequence's List in turn into a new List
+	 */
 	@Override
 	public List<C> getAsList() {
-		return SequenceMixin.toList(this);
+		List<C> list = new ArrayList<C>(getLength());
+		for (Sequence<C> sequence : sequences) {
+			list.addAll(sequence.getAsList());
+		}
+		return list;
 	}
 
 	@Override
@@ -345,10 +362,116 @@ public class JoiningSequenceReader<C extends Compound> implements ProxySequenceR
 
 	@Override
 	public String getSequenceAsString() {
-		return SequenceMixin.toStringBuilder(this).toString();
+		return appendTo(new StringBuilder(getLength()), 1, getLength()).toString();
+	}
+
+	/**
+	 * Returns the given biological positions (inclusive) as a String
+	 */
+	public String getSequenceAsString(int start, int end) {
+		return appendTo(new StringBuilder(Math.max(0, end - start + 1)), start, end).toString();
+	}
+
+	/**
+	 * Appends the given biological positions (inclusive) to the builder.
+	 * Only the sequences overlapping the region are visited; those which
+	 * are wholly inside it are copied using their own
+	 * {@link Sequence#getSequenceAsString()} and those cut by the region
+	 * through a sub sequence of themselves.
+	 *
+	 * @return The given builder
+	 */
+	public StringBuilder appendTo(StringBuilder builder, int start, int end) {
+		if (end < start) {
+			return builder;
+		}
+		if (start < 1 || end > getLength()) {
+			throw new IndexOutOfBoundsException("Cannot get " + start + " to " + end + " from a Sequence of length " + getLength());
+		}
+		int[] minSeqIndex = getMinSequenceIndex();
+		int[] maxSeqIndex = getMaxSequenceIndex();
+		for (int i = getSequenceIndex(start); i < minSeqIndex.length && minSeqIndex[i] <= end; i++) {
+			Sequence<C> sequence = sequences.get(i);
+			int from = Math.max(start, minSeqIndex[i]) - minSeqIndex[i] + 1;
+			int to = Math.min(end, maxSeqIndex[i]) - minSeqIndex[i] + 1;
+			if (from == 1 && to == sequence.getLength()) {
+				builder.append(sequence.getSequenceAsString());
+			} else {
+				builder.append(sequence.getSubSequence(from, to).getSequenceAsString());
+			}
+		}
+		return builder;
 	}
 
 
+	/**
+	 * Asks each sequence overlapping the region for its own ordinals.
+	 * Sequences backed by a different CompoundSet are translated a compound
+	 * at a time.
+	 */
+	@Override
+	public void getOrdinals(int start, int end, int[] dest, int destOffset) {
+		SequenceMixin.checkOrdinalRange(this, start, end, dest.length, destOffset);
+		if (end < start) {
+			return;
+		}
+		CompoundOrdinals<C> ordinals = CompoundOrdinals.forCompoundSet(compoundSet);
+		int[] minSeqIndex = getMinSequenceIndex();
+		int[] maxSeqIndex = getMaxSequenceIndex();
+		for (int i = getSequenceIndex(start); i < minSeqIndex.length && minSeqIndex[i] <= end; i++) {
+			Sequence<C> sequence = sequences.get(i);
+			int from = Math.max(start, minSeqIndex[i]) - minSeqIndex[i] + 1;
+			int to = Math.min(end, maxSeqIndex[i]) - minSeqIndex[i] + 1;
+			if (sequence.getCompoundSet() == compoundSet) {
+				sequence.getOrdinals(from, to, dest, destOffset);
+				destOffset += to - from + 1;
+			} else {
+				for (int p = from; p <= to; p++) {
+					dest[destOffset++] = ordinals.getOrdinal(sequence.getCompoundAt(p));
+				}
+			}
+		}
+	}
+
+	@Override
+	public void getOrdinals(int start, int end, byte[] dest, int destOffset) {
+		SequenceMixin.checkOrdinalRange(this, start, end, dest.length, destOffset);
+		if (end < start) {
+			return;
+		}
+		CompoundOrdinals<C> ordinals = CompoundOrdinals.forCompoundSet(compoundSet);
+		SequenceMixin.checkByteOrdinals(ordinals);
+		int[] minSeqIndex = getMinSequenceIndex();
+		int[] maxSeqIndex = getMaxSequenceIndex();
+		for (int i = getSequenceIndex(start); i < minSeqIndex.length && minSeqIndex[i] <= end; i++) {
+			Sequence<C> sequence = sequences.get(i);
+			int from = Math.max(start, minSeqIndex[i]) - minSeqIndex[i] + 1;
+			int to = Math.min(end, maxSeqIndex[i]) - minSeqIndex[i] + 1;
+			if (sequence.getCompoundSet() == compoundSet) {
+				sequence.getOrdinals(from, to, dest, destOffset);
+				destOffset += to - from + 1;
+			} else {
+				for (int p = from; p <= to; p++) {
+					dest[destOffset++] = (byte) ordinals.getOrdinal(sequence.getCompoundAt(p));
+				}
+			}
+		}
+	}
+
+	@Override
+	public void forEachOrdinal(IntConsumer consumer) {
+		CompoundOrdinals<C> ordinals = CompoundOrdinals.forCompoundSet(compoundSet);
+		for (Sequence<C> sequence : sequences) {
+			if (sequence.getCompoundSet() == compoundSet) {
+				sequence.forEachOrdinal(consumer);
+			} else {
+				for (C compound : sequence) {
+					consumer.accept(ordinals.getOrdinal(compound));
+				}
+			}
+		}
+	}
+
 	@Override
 	public SequenceView<C> getSubSequence(Integer start, Integer end) {
 		return SequenceMixin.createSubSequence(this, start, end);
@@ -0,0 +1,201 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.storage;
+
+import org.biojava.nbio.core.sequence.AccessionID;
+import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
+import org.biojava.nbio.core.sequence.template.*;
+import org.biojava.nbio.core.util.Equals;
+import org.biojava.nbio.core.util.Hashcoder;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An on-heap 2bit store addressed by long positions allowing sequences of
+ * more than {@link Integer#MAX_VALUE} compounds. Data is held in pages of
+ * ints (each holding 16 compounds in the layout used by
+ * {@link TwoBitSequenceReader.TwoBitArrayWorker}) so no single array ever
+ * needs to be larger than the JVM allows.
+ *
+ * The store is populated using {@link #setCompoundAt(NucleotideCompound, long)}
+ * or built from a list of sequences using {@link #concatenate(List, AccessionID)}.
+ * As with the other 2bit stores we cannot encode N.
+ *
+ * @param <C> Type of compound; must extend {@link NucleotideCompound}
+ */
+public class LongTwoBitSequenceReader<C extends NucleotideCompound> implements LongSequence<C> {
+
+	private static final int COMPOUNDS_PER_INT = 16;
+	private static final int BITS_PER_COMPOUND = 2;
+	private static final int MASK = 3;
+	private static final int PAGE_BITS = 24;
+	private static final int PAGE_SIZE = 1 << PAGE_BITS;
+
+	private final AccessionID accession;
+	private final CompoundSet<C> compoundSet;
+	private final long length;
+	private final int[][] pages;
+	private transient List<C> indexToCompounds = null;
+	private transient Map<C, Integer> compoundsToIndex = null;
+
+	/**
+	 * Creates an empty store for the given number of compounds. All
+	 * positions decode as T until set.
+	 */
+	public LongTwoBitSequenceReader(CompoundSet<C> compoundSet, long length, AccessionID accession) {
+		if (length < 0) {
+			throw new IllegalArgumentException("Length cannot be negative; got " + length);
+		}
+		this.compoundSet = compoundSet;
+		this.length = length;
+		this.accession = accession;
+		long words = MappedTwoBitSequenceReader.seqArraySize(length);
+		int pageCount = (int) ((words + PAGE_SIZE - 1) >>> PAGE_BITS);
+		this.pages = new int[pageCount][];
+		for (int i = 0; i < pageCount; i++) {
+			long remaining = words - ((long) i << PAGE_BITS);
+			pages[i] = new int[(int) Math.min(PAGE_SIZE, remaining)];
+		}
+	}
+
+	/**
+	 * Concatenates the given sequences end to end into a single store. Each
+	 * sequence is copied; the total length may exceed
+	 * {@link Integer#MAX_VALUE}.
+	 *
+	 * @throws IllegalArgumentException If no sequences are given
+	 */
+	public static <C extends NucleotideCompound> LongTwoBitSequenceReader<C> concatenate(List<? extends Sequence<C>> sequences, AccessionID accession) {
+		if (sequences.isEmpty()) {
+			throw new IllegalArgumentException("Need at least one sequence to concatenate");
+		}
+		long total = 0;
+		for (Sequence<C> sequence : sequences) {
+			total += sequence.getLength();
+		}
+		LongTwoBitSequenceReader<C> reader = new LongTwoBitSequenceReader<C>(
+				sequences.get(0).getCompoundSet(), total, accession);
+		long position = 1;
+		for (Sequence<C> sequence : sequences) {
+			for (C compound : sequence) {
+				reader.setCompoundAt(compound, position++);
+			}
+		}
+		return reader;
+	}
+
+	/**
+	 * Sets the compound at the specified biological index
+	 *
+	 * @throws IllegalStateException If the compound cannot be encoded in 2bit
+	 */
+	public void setCompoundAt(C compound, long position) {
+		LongSequenceMixin.checkPosition(position, length);
+		Integer value = getCompoundsToIndex().get(compound);
+		if (value == null) {
+			throw new IllegalStateException("Do not know how to translate the compound " + compound + " to a " + BITS_PER_COMPOUND + "bit representation");
+		}
+		long index = position - 1;
+		long wordIndex = index / COMPOUNDS_PER_INT;
+		int shiftBy = (int) (index % COMPOUNDS_PER_INT) * BITS_PER_COMPOUND;
+		int[] page = pages[(int) (wordIndex >>> PAGE_BITS)];
+		int offset = (int) (wordIndex & (PAGE_SIZE - 1));
+		page[offset] = (page[offset] & ~(MASK << shiftBy)) | (value << shiftBy);
+	}
+
+	/**
+	 * Returns the compound at the specified biological index
+	 */
+	@Override
+	public C getCompoundAt(long position) {
+		LongSequenceMixin.checkPosition(position, length);
+		long index = position - 1;
+		long wordIndex = index / COMPOUNDS_PER_INT;
+		int shiftBy = (int) (index % COMPOUNDS_PER_INT) * BITS_PER_COMPOUND;
+		int word = pages[(int) (wordIndex >>> PAGE_BITS)][(int) (wordIndex & (PAGE_SIZE - 1))];
+		return getIndexToCompounds().get((word >>> shiftBy) & MASK);
+	}
+
+	private List<C> getIndexToCompounds() {
+		if (indexToCompounds == null) {
+			indexToCompounds = MappedTwoBitSequenceReader.generateIndexToCompounds(compoundSet);
+		}
+		return indexToCompounds;
+	}
+
+	private Map<C, Integer> getCompoundsToIndex() {
+		if (compoundsToIndex == null) {
+			compoundsToIndex = MappedTwoBitSequenceReader.generateCompoundsToIndex(compoundSet);
+		}
+		return compoundsToIndex;
+	}
+
+	@Override
+	public long getLongLength() {
+		return length;
+	}
+
+	@Override
+	public CompoundSet<C> getCompoundSet() {
+		return compoundSet;
+	}
+
+	@Override
+	public LongSequenceView<C> getLongSubSequence(long start, long end) {
+		return LongSequenceMixin.createSubSequence(this, start, end);
+	}
+
+	@Override
+	public AccessionID getAccession() {
+		return accession;
+	}
+
+	@Override
+	public Iterator<C> iterator() {
+		return LongSequenceMixin.createIterator(this);
+	}
+
+	@Override
+	public int hashCode() {
+		int s = Hashcoder.SEED;
+		s = Hashcoder.hash(s, accession);
+		s = Hashcoder.hash(s, length);
+		s = Hashcoder.hash(s, Arrays.deepHashCode(pages));
+		s = Hashcoder.hash(s, compoundSet);
+		return s;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public boolean equals(Object o) {
+		if(Equals.classEqual(this, o)) {
+			LongTwoBitSequenceReader<C> that = (LongTwoBitSequenceReader<C>)o;
+			return  Equals.equal(accession, that.accession) &&
+					Equals.equal(compoundSet, that.compoundSet) &&
+					Equals.equal(length, that.length) &&
+					Arrays.deepEquals(pages, that.pages);
+		}
+		return false;
+	}
+}
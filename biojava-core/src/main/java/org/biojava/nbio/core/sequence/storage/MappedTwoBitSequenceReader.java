@@ -0,0 +1,551 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.storage;
+
+import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
+import org.biojava.nbio.core.sequence.AccessionID;
+import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
+import org.biojava.nbio.core.sequence.template.*;
+import org.biojava.nbio.core.util.Equals;
+import org.biojava.nbio.core.util.Hashcoder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * A 2bit sequence store which keeps its data off-heap in a memory-mapped
+ * file rather than in an <code>int[]</code>. The file is written once using
+ * {@link #write(Sequence, File)} and is then mapped read-only; this means
+ * construction costs nothing more than the mapping itself and several JVMs
+ * on the same machine will share the operating system's page cache for the
+ * same file.
+ *
+ * The packed data uses the same layout as
+ * {@link TwoBitSequenceReader.TwoBitArrayWorker} i.e. 16 compounds per
+ * little-endian int encoded as:
+ *
+ * <ul>
+ * <li>0 - T</li>
+ * <li>1 - C</li>
+ * <li>2 - A</li>
+ * <li>3 - G</li>
+ * </ul>
+ *
+ * As with the on-heap version we cannot encode N and case is not preserved.
+ * Files holding more than {@link Integer#MAX_VALUE} compounds are mapped in
+ * several chunks and must be accessed through the {@link LongSequence}
+ * methods. The file starts with a {@value #HEADER_SIZE} byte header holding a magic
+ * number, a format version and the number of compounds stored.
+ *
+ * @param <C> Type of compound; must extend {@link NucleotideCompound}
+ */
+public class MappedTwoBitSequenceReader<C extends NucleotideCompound> implements ProxySequenceReader<C>, LongSequence<C> {
+
+	/**
+	 * Magic number at the start of every file; reads as BJ2B
+	 */
+	public static final int MAGIC = 0x42324a42;
+	public static final int VERSION = 1;
+	public static final int HEADER_SIZE = 16;
+
+	private static final int COMPOUNDS_PER_INT = 16;
+	private static final int BITS_PER_COMPOUND = 2;
+	private static final int MASK = 3;
+	private static final int WRITE_BUFFER_SIZE = 1 << 16;
+	private static final int CHUNK_BITS = 30;
+	private static final long CHUNK_SIZE = 1L << CHUNK_BITS;
+
+	private final File file;
+	private final AccessionID accession;
+	private final CompoundSet<C> compoundSet;
+	private final long length;
+	private final ByteBuffer[] chunks;
+	private final List<C> indexToCompounds;
+
+	/**
+	 * Maps the given file using an unknown accession
+	 */
+	public MappedTwoBitSequenceReader(File file, CompoundSet<C> compoundSet) throws IOException {
+		this(file, compoundSet, new AccessionID("Unknown"));
+	}
+
+	/**
+	 * Maps the given file read-only. The channel used to create the mapping
+	 * is closed before returning; the mapping itself stays valid until this
+	 * object is garbage collected.
+	 *
+	 * @throws IOException If the file cannot be read or is not in the
+	 * expected format
+	 */
+	public MappedTwoBitSequenceReader(File file, CompoundSet<C> compoundSet, AccessionID accession) throws IOException {
+		this.file = file;
+		this.compoundSet = compoundSet;
+		this.accession = accession;
+		this.indexToCompounds = generateIndexToCompounds(compoundSet);
+
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+				FileChannel channel = raf.getChannel()) {
+			if (channel.size() < HEADER_SIZE) {
+				throw new IOException(file + " is too short to be a 2bit mapped sequence file");
+			}
+			MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+			header.order(ByteOrder.LITTLE_ENDIAN);
+			if (header.getInt(0) != MAGIC) {
+				throw new IOException(file + " is not a 2bit mapped sequence file; bad magic number");
+			}
+			if (header.getInt(4) != VERSION) {
+				throw new IOException("Do not understand version " + header.getInt(4) + " of the 2bit mapped sequence format");
+			}
+			this.length = header.getLong(8);
+			long dataSize = seqArraySize(length) * 4;
+			if (channel.size() < HEADER_SIZE + dataSize) {
+				throw new IOException(file + " is truncated; expected " + (HEADER_SIZE + dataSize) + " bytes but found " + channel.size());
+			}
+			int chunkCount = (int) ((dataSize + CHUNK_SIZE - 1) >>> CHUNK_BITS);
+			this.chunks = new ByteBuffer[chunkCount];
+			for (int i = 0; i < chunkCount; i++) {
+				long chunkStart = i * CHUNK_SIZE;
+				long chunkLength = Math.min(CHUNK_SIZE, dataSize - chunkStart);
+				chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + chunkStart, chunkLength)
+						.order(ByteOrder.LITTLE_ENDIAN);
+			}
+		}
+	}
+
+	/**
+	 * Packs the given Sequence into the given file in the format understood
+	 * by this class. The data is streamed out in blocks so no copy of the
+	 * full packed array is ever held in memory.
+	 *
+	 * @throws IOException If the file cannot be written
+	 * @throws IllegalStateException If the Sequence holds a compound which
+	 * cannot be represented in 2bit (e.g. N)
+	 */
+	public static <C extends NucleotideCompound> void write(Sequence<C> sequence, File file) throws IOException {
+		write(sequence, sequence.getLength(), sequence.getCompoundSet(), file);
+	}
+
+	/**
+	 * Packs the given {@link LongSequence} into the given file; see
+	 * {@link #write(Sequence, File)}
+	 */
+	public static <C extends NucleotideCompound> void write(LongSequence<C> sequence, File file) throws IOException {
+		write(sequence, sequence.getLongLength(), sequence.getCompoundSet(), file);
+	}
+
+	private static <C extends NucleotideCompound> void write(Iterable<C> compounds, long length, CompoundSet<C> compoundSet, File file) throws IOException {
+		Map<C, Integer> compoundsToIndex = generateCompoundsToIndex(compoundSet);
+
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw");
+				FileChannel channel = raf.getChannel()) {
+			channel.truncate(0);
+			ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			buffer.putInt(MAGIC);
+			buffer.putInt(VERSION);
+			buffer.putLong(length);
+
+			int word = 0;
+			long position = 0;
+			for (C compound : compounds) {
+				Integer value = compoundsToIndex.get(compound);
+				if (value == null) {
+					throw new IllegalStateException("Do not know how to translate the compound " + compound + " to a " + BITS_PER_COMPOUND + "bit representation");
+				}
+				int offset = (int) (position % COMPOUNDS_PER_INT);
+				word |= value << (offset * BITS_PER_COMPOUND);
+				position++;
+				if (offset == COMPOUNDS_PER_INT - 1) {
+					flushIfFull(buffer, channel);
+					buffer.putInt(word);
+					word = 0;
+				}
+			}
+			if (position % COMPOUNDS_PER_INT != 0) {
+				flushIfFull(buffer, channel);
+				buffer.putInt(word);
+			}
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			channel.force(false);
+		}
+	}
+
+	private static void flushIfFull(ByteBuffer buffer, FileChannel channel) throws IOException {
+		if (buffer.remaining() < 4) {
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			buffer.clear();
+		}
+	}
+
+	static long seqArraySize(long length) {
+		return (length + COMPOUNDS_PER_INT - 1) / COMPOUNDS_PER_INT;
+	}
+
+	/**
+	 * Returns a Map which encodes TCAG into positions 0,1,2,3.
+	 */
+	static <C extends NucleotideCompound> Map<C, Integer> generateCompoundsToIndex(CompoundSet<C> cs) {
+		Map<C, Integer> map = new HashMap<C, Integer>();
+		String[] bases = { "T", "C", "A", "G" };
+		for (int i = 0; i < bases.length; i++) {
+			map.put(cs.getCompoundForString(bases[i]), i);
+			map.put(cs.getCompoundForString(bases[i].toLowerCase()), i);
+		}
+		return map;
+	}
+
+	/**
+	 * Returns a List which encodes TCAG into positions 0,1,2,3.
+	 */
+	static <C extends NucleotideCompound> List<C> generateIndexToCompounds(CompoundSet<C> cs) {
+		List<C> result = new ArrayList<C>();
+		result.add(cs.getCompoundForString("T"));
+		result.add(cs.getCompoundForString("C"));
+		result.add(cs.getCompoundForString("A"));
+		result.add(cs.getCompoundForString("G"));
+		return result;
+	}
+
+	/**
+	 * Returns the file this store is mapped from
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * Class is immutable & so this is unsupported
+	 */
+	@Override
+	public void setCompoundSet(CompoundSet<C> compoundSet) {
+		throw new UnsupportedOperationException("Cannot reset the CompoundSet; object is immutable");
+	}
+
+	/**
+	 * Class is immutable & so this is unsupported
+	 */
+	@Override
+	public void setContents(String sequence) throws CompoundNotFoundException {
+		throw new UnsupportedOperationException(getClass().getSimpleName() + " is an immutable data structure; cannot reset contents");
+	}
+
+	/**
+	 * Returns the compound at the specified biological index
+	 */
+	@Override
+	public C getCompoundAt(int position) {
+		return getCompoundAt((long) position);
+	}
+
+	/**
+	 * Returns the compound at the specified biological index
+	 */
+	@Override
+	public C getCompoundAt(long position) {
+		LongSequenceMixin.checkPosition(position, length);
+		long index = position - 1;
+		int word = getWord(index / COMPOUNDS_PER_INT);
+		int shiftBy = (int) (index % COMPOUNDS_PER_INT) * BITS_PER_COMPOUND;
+		return indexToCompounds.get((word >>> shiftBy) & MASK);
+	}
+
+	private int getWord(long wordIndex) {
+		long byteOffset = wordIndex * 4;
+		return chunks[(int) (byteOffset >>> CHUNK_BITS)].getInt((int) (byteOffset & (CHUNK_SIZE - 1)));
+	}
+
+	/**
+	 * Returns the length of the sequence
+	 *
+	 * @throws IllegalStateException If the sequence is longer than
+	 * {@link Integer#MAX_VALUE}; use {@link #getLongLength()} instead
+	 */
+	@Override
+	public int getLength() {
+		if (length > Integer.MAX_VALUE) {
+			throw new IllegalStateException("Sequence holds " + length + " compounds; use getLongLength()");
+		}
+		return (int) length;
+	}
+
+	/**
+	 * Returns the length of the sequence
+	 */
+	@Override
+	public long getLongLength() {
+		return length;
+	}
+
+	/**
+	 * Decodes a whole int at a time rather than going through
+	 * {@link #getCompoundAt(int)} for every position
+	 */
+	@Override
+	public String getSequenceAsString() {
+		String[] lookup = new String[indexToCompounds.size()];
+		for (int i = 0; i < lookup.length; i++) {
+			lookup[i] = indexToCompounds.get(i).toString();
+		}
+		int length = getLength();
+		StringBuilder sb = new StringBuilder(length);
+		long words = seqArraySize(length);
+		int remaining = length;
+		for (long w = 0; w < words; w++) {
+			int word = getWord(w);
+			int inWord = Math.min(remaining, COMPOUNDS_PER_INT);
+			for (int i = 0; i < inWord; i++) {
+				sb.append(lookup[(word >>> (i * BITS_PER_COMPOUND)) & MASK]);
+			}
+			remaining -= inWord;
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Returns this Sequence store as a List
+	 */
+	@Override
+	public List<C> getAsList() {
+		return SequenceMixin.toList(this);
+	}
+
+	/**
+	 * Reads the region straight from the mapped file a whole int at a time
+	 */
+	@Override
+	public void getOrdinals(int start, int end, int[] dest, int destOffset) {
+		SequenceMixin.checkOrdinalRange(this, start, end, dest.length, destOffset);
+		int[] table = ordinalTable();
+		int out = destOffset;
+		for (int index = start - 1; index < end;) {
+			int offset = index % COMPOUNDS_PER_INT;
+			int word = getWord(index / COMPOUNDS_PER_INT) >>> (offset * BITS_PER_COMPOUND);
+			int fields = Math.min(COMPOUNDS_PER_INT - offset, end - index);
+			for (int i = 0; i < fields; i++) {
+				dest[out++] = table[word & MASK];
+				word >>>= BITS_PER_COMPOUND;
+			}
+			index += fields;
+		}
+	}
+
+	@Override
+	public void getOrdinals(int start, int end, byte[] dest, int destOffset) {
+		SequenceMixin.checkOrdinalRange(this, start, end, dest.length, destOffset);
+		SequenceMixin.checkByteOrdinals(CompoundOrdinals.forCompoundSet(compoundSet));
+		int[] table = ordinalTable();
+		int out = destOffset;
+		for (int index = start - 1; index < end;) {
+			int offset = index % COMPOUNDS_PER_INT;
+			int word = getWord(index / COMPOUNDS_PER_INT) >>> (offset * BITS_PER_COMPOUND);
+			int fields = Math.min(COMPOUNDS_PER_INT - offset, end - index);
+			for (int i = 0; i < fields; i++) {
+				dest[out++] = (byte) table[word & MASK];
+				word >>>= BITS_PER_COMPOUND;
+			}
+			index += fields;
+		}
+	}
+
+	/**
+	 * Visits every position of the file, including those beyond
+	 * {@link Integer#MAX_VALUE}
+	 */
+	@Override
+	public void forEachOrdinal(IntConsumer consumer) {
+		int[] table = ordinalTable();
+		long words = seqArraySize(length);
+		long remaining = length;
+		for (long w = 0; w < words; w++) {
+			int word = getWord(w);
+			int inWord = (int) Math.min(remaining, COMPOUNDS_PER_INT);
+			for (int i = 0; i < inWord; i++) {
+				consumer.accept(table[word & MASK]);
+				word >>>= BITS_PER_COMPOUND;
+			}
+			remaining -= inWord;
+		}
+	}
+
+	private int[] ordinalTable() {
+		CompoundOrdinals<C> ordinals = CompoundOrdinals.forCompoundSet(compoundSet);
+		int[] table = new int[indexToCompounds.size()];
+		for (int i = 0; i < table.length; i++) {
+			table[i] = ordinals.getOrdinal(indexToCompounds.get(i));
+		}
+		return table;
+	}
+
+	/**
+	 * Returns the first occurrence of the given compound in this store; performs
+	 * a linear search
+	 */
+	@Override
+	public int getIndexOf(C compound) {
+		return SequenceMixin.indexOf(this, compound);
+	}
+
+	/**
+	 * Returns the last occurrence of the given compound in this store; performs
+	 * a linear search
+	 */
+	@Override
+	public int getLastIndexOf(C compound) {
+		return SequenceMixin.lastIndexOf(this, compound);
+	}
+
+	/**
+	 * Returns a sub sequence view
+	 */
+	@Override
+	public SequenceView<C> getSubSequence(Integer start, Integer end) {
+		return SequenceMixin.createSubSequence(this, start, end);
+	}
+
+	/**
+	 * Returns a long addressed sub sequence view
+	 */
+	@Override
+	public LongSequenceView<C> getLongSubSequence(long start, long end) {
+		return LongSequenceMixin.createSubSequence(this, start, end);
+	}
+
+	/**
+	 * Returns the compound set backing this store
+	 */
+	@Override
+	public CompoundSet<C> getCompoundSet() {
+		return compoundSet;
+	}
+
+	@Override
+	public AccessionID getAccession() {
+		return accession;
+	}
+
+	/**
+	 * Counts the number of times a compound appears in this sequence store
+	 * working a whole int at a time; see
+	 * {@link BitSequenceReader.BitArrayWorker#countEncodedValues()}
+	 */
+	@Override
+	public int countCompounds(C... compounds) {
+		long[] counts = countEncodedValues();
+		long count = 0;
+		for (C compound : compounds) {
+			int index = indexToCompounds.indexOf(compound);
+			if (index != -1) {
+				count += counts[index];
+			}
+		}
+		return (int) count;
+	}
+
+	/**
+	 * Returns the number of times each compound appears in this store. Only
+	 * compounds which appear are present in the Map.
+	 */
+	public Map<C, Integer> getComposition() {
+		long[] counts = countEncodedValues();
+		Map<C, Integer> composition = new HashMap<C, Integer>();
+		for (int i = 0; i < counts.length; i++) {
+			if (counts[i] > 0) {
+				composition.put(indexToCompounds.get(i), (int) counts[i]);
+			}
+		}
+		return composition;
+	}
+
+	private long[] countEncodedValues() {
+		int[] patterns = BitSequenceReader.BitArrayWorker.valuePatterns(BITS_PER_COMPOUND, COMPOUNDS_PER_INT, MASK + 1);
+		int fullMask = BitSequenceReader.BitArrayWorker.fieldStartMask(BITS_PER_COMPOUND, COMPOUNDS_PER_INT);
+		int[] counts = new int[MASK + 1];
+		long[] totals = new long[MASK + 1];
+		long words = seqArraySize(length);
+		for (long w = 0; w < words; w++) {
+			int fields = (int) Math.min(COMPOUNDS_PER_INT, length - (w * COMPOUNDS_PER_INT));
+			int mask = (fields == COMPOUNDS_PER_INT) ? fullMask : BitSequenceReader.BitArrayWorker.fieldStartMask(BITS_PER_COMPOUND, fields);
+			BitSequenceReader.BitArrayWorker.countWord(getWord(w), BITS_PER_COMPOUND, mask, patterns, counts);
+			// flush the int counters well before they could overflow
+			if ((w & 0xFFFFFF) == 0xFFFFFF) {
+				for (int i = 0; i < counts.length; i++) {
+					totals[i] += counts[i];
+					counts[i] = 0;
+				}
+			}
+		}
+		for (int i = 0; i < counts.length; i++) {
+			totals[i] += counts[i];
+		}
+		return totals;
+	}
+
+	/**
+	 * Provides basic iterable access to this class
+	 */
+	@Override
+	public Iterator<C> iterator() {
+		return LongSequenceMixin.createIterator(this);
+	}
+
+	@Override
+	public SequenceView<C> getInverse() {
+		return SequenceMixin.inverse(this);
+	}
+
+	@Override
+	public int hashCode() {
+		int s = Hashcoder.SEED;
+		s = Hashcoder.hash(s, accession);
+		s = Hashcoder.hash(s, file);
+		s = Hashcoder.hash(s, length);
+		return s;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public boolean equals(Object o) {
+		if(Equals.classEqual(this, o)) {
+			MappedTwoBitSequenceReader<C> that = (MappedTwoBitSequenceReader<C>)o;
+			return  Equals.equal(accession, that.accession) &&
+					Equals.equal(file, that.file) &&
+					Equals.equal(compoundSet, that.compoundSet) &&
+					Equals.equal(length, that.length);
+		}
+		return false;
+	}
+}
@@ -0,0 +1,621 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.storage;
+
+import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
+import org.biojava.nbio.core.sequence.AccessionID;
+import org.biojava.nbio.core.sequence.template.*;
+import org.biojava.nbio.core.util.Equals;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
+
+/**
+ * A persistent (immutable) sequence store built as a rope i.e. a balanced
+ * binary tree whose leaves hold chunks of up to {@value #LEAF_SIZE}
+ * compounds encoded as {@link CompoundOrdinals} in a <code>byte[]</code>.
+ * Every edit ({@link #replace(int, int, Sequence)} and its friends) returns
+ * a new reader sharing all untouched leaves with this one so applying an
+ * edit costs O(log n) in time and memory and lookups stay O(log n) however
+ * many edits have been applied. Compare this to chaining
+ * {@link JoiningSequenceReader}s where every edit adds a level of
+ * indirection to all later lookups.
+ *
+ * The tree is kept balanced using AVL rules; splitting and joining trees
+ * of different heights only rebuilds the nodes along the join path.
+ *
+ * {@link org.biojava.nbio.core.sequence.edits.Edit}s applied to a rope
+ * return a rope so a chain of edits can be carried out as:
+ *
+ * <pre>
+ * Sequence&lt;NucleotideCompound&gt; seq = new RopeSequenceReader&lt;NucleotideCompound&gt;(chromosome);
+ * for (Edit&lt;NucleotideCompound&gt; edit : variants) {
+ *   seq = edit.edit(seq);
+ * }
+ * </pre>
+ *
+ * @param <C> Type of compound to hold
+ */
+public class RopeSequenceReader<C extends Compound> implements ProxySequenceReader<C> {
+
+	/**
+	 * Maximum number of compounds held in a leaf
+	 */
+	public static final int LEAF_SIZE = 1024;
+
+	private static final Leaf EMPTY = new Leaf(new byte[0]);
+
+	private final CompoundSet<C> compoundSet;
+	private final CompoundOrdinals<C> ordinals;
+	private final AccessionID accession;
+	private final Node root;
+
+	/**
+	 * Builds a rope holding the contents of the given Sequence
+	 *
+	 * @throws IllegalArgumentException If the CompoundSet holds more than
+	 * {@value ByteArraySequenceReader#MAX_COMPOUNDS} compounds
+	 */
+	public RopeSequenceReader(Sequence<C> sequence) {
+		this.compoundSet = sequence.getCompoundSet();
+		if (!ByteArraySequenceReader.canStore(compoundSet)) {
+			throw new IllegalArgumentException("CompoundSet holds too many compounds to be stored in a "
+					+ getClass().getSimpleName());
+		}
+		this.ordinals = CompoundOrdinals.forCompoundSet(compoundSet);
+		this.accession = accessionOf(sequence);
+		this.root = encode(sequence);
+	}
+
+	/**
+	 * Builds a rope by parsing the given String with the CompoundSet
+	 */
+	public RopeSequenceReader(String sequence, CompoundSet<C> compoundSet) throws CompoundNotFoundException {
+		this(new ByteArraySequenceReader<C>(sequence, compoundSet));
+	}
+
+	private RopeSequenceReader(RopeSequenceReader<C> template, Node root) {
+		this.compoundSet = template.compoundSet;
+		this.ordinals = template.ordinals;
+		this.accession = template.accession;
+		this.root = root;
+	}
+
+	private static AccessionID accessionOf(Sequence<?> sequence) {
+		try {
+			AccessionID accession = sequence.getAccession();
+			return (accession == null) ? new AccessionID("Unknown") : accession;
+		} catch (UnsupportedOperationException e) {
+			return new AccessionID("Unknown");
+		}
+	}
+
+	/**
+	 * Returns a rope where the biological positions start to end (inclusive)
+	 * have been replaced by the given Sequence. Passing an end of
+	 * <code>start - 1</code> inserts without removing anything and passing
+	 * an empty Sequence deletes.
+	 *
+	 * @param start First position to replace; 1 to length + 1
+	 * @param end Last position to replace; start - 1 to length
+	 * @param replacement Compounds to splice in; if this is also a rope
+	 * using the same CompoundSet its tree is shared rather than copied
+	 */
+	public RopeSequenceReader<C> replace(int start, int end, Sequence<C> replacement) {
+		if (start < 1 || start > getLength() + 1) {
+			throw new IndexOutOfBoundsException("Start " + start + " is outside of 1 to " + (getLength() + 1));
+		}
+		if (end < start - 1 || end > getLength()) {
+			throw new IndexOutOfBoundsException("End " + end + " is outside of " + (start - 1) + " to " + getLength());
+		}
+		Node[] head = split(root, start - 1);
+		Node[] tail = split(head[1], end - start + 1);
+		Node middle = (replacement == null) ? EMPTY : encode(replacement);
+		return new RopeSequenceReader<C>(this, join(join(head[0], middle), tail[1]));
+	}
+
+	/**
+	 * Returns a rope with the given Sequence inserted so it starts at the
+	 * given biological position; use length + 1 to append
+	 */
+	public RopeSequenceReader<C> insert(int position, Sequence<C> sequence) {
+		return replace(position, position - 1, sequence);
+	}
+
+	/**
+	 * Returns a rope with biological positions start to end (inclusive)
+	 * removed
+	 */
+	public RopeSequenceReader<C> delete(int start, int end) {
+		return replace(start, end, null);
+	}
+
+	/**
+	 * Returns biological positions start to end (inclusive) as a rope
+	 * sharing leaves with this one
+	 */
+	public RopeSequenceReader<C> slice(int start, int end) {
+		if (start < 1 || end > getLength() || end < start - 1) {
+			throw new IndexOutOfBoundsException("Cannot slice " + start + " to " + end + " from a Sequence of length " + getLength());
+		}
+		Node[] head = split(root, start - 1);
+		return new RopeSequenceReader<C>(this, split(head[1], end - start + 1)[0]);
+	}
+
+	/**
+	 * Returns the height of the underlying tree; a single leaf has a height
+	 * of 0
+	 */
+	public int getDepth() {
+		return root.height;
+	}
+
+	/**
+	 * Converts a Sequence into a tree; ropes sharing our ordinals are used
+	 * as is
+	 */
+	private Node encode(Sequence<C> sequence) {
+		if (sequence instanceof RopeSequenceReader && ((RopeSequenceReader<C>) sequence).ordinals == ordinals) {
+			return ((RopeSequenceReader<C>) sequence).root;
+		}
+		List<Node> leaves = new ArrayList<Node>();
+		byte[] chunk = new byte[Math.min(LEAF_SIZE, Math.max(1, sequence.getLength()))];
+		int used = 0;
+		for (C compound : sequence) {
+			int ordinal = ordinals.getOrdinal(compound);
+			if (ordinal == -1) {
+				throw new IllegalArgumentException("Compound " + compound + " is not part of the CompoundSet " + compoundSet);
+			}
+			if (used == chunk.length) {
+				leaves.add(new Leaf(chunk));
+				chunk = new byte[LEAF_SIZE];
+				used = 0;
+			}
+			chunk[used++] = (byte) ordinal;
+		}
+		if (used > 0) {
+			leaves.add(new Leaf(used == chunk.length ? chunk : Arrays.copyOf(chunk, used)));
+		}
+		return balanced(leaves, 0, leaves.size());
+	}
+
+	private static Node balanced(List<Node> leaves, int from, int to) {
+		if (to - from == 0) {
+			return EMPTY;
+		}
+		if (to - from == 1) {
+			return leaves.get(from);
+		}
+		int mid = (from + to) >>> 1;
+		return new Branch(balanced(leaves, from, mid), balanced(leaves, mid, to));
+	}
+
+	/**
+	 * Splits the tree so the first node holds the first <code>index</code>
+	 * compounds and the second node the remainder
+	 */
+	private static Node[] split(Node node, int index) {
+		if (index == 0) {
+			return new Node[] { EMPTY, node };
+		}
+		if (index == node.length) {
+			return new Node[] { node, EMPTY };
+		}
+		if (node instanceof Leaf) {
+			byte[] data = ((Leaf) node).data;
+			return new Node[] {
+				new Leaf(Arrays.copyOfRange(data, 0, index)),
+				new Leaf(Arrays.copyOfRange(data, index, data.length)) };
+		}
+		Branch branch = (Branch) node;
+		int leftLength = branch.left.length;
+		if (index <= leftLength) {
+			Node[] parts = split(branch.left, index);
+			return new Node[] { parts[0], join(parts[1], branch.right) };
+		}
+		Node[] parts = split(branch.right, index - leftLength);
+		return new Node[] { join(branch.left, parts[0]), parts[1] };
+	}
+
+	/**
+	 * Joins two trees keeping the result balanced. Walks down the spine of
+	 * the taller tree until it finds a subtree of similar height, joins
+	 * there and rebalances on the way back up; small neighbouring leaves are
+	 * merged.
+	 */
+	private static Node join(Node left, Node right) {
+		if (left.length == 0) {
+			return right;
+		}
+		if (right.length == 0) {
+			return left;
+		}
+		if (left.height > right.height + 1) {
+			Branch l = (Branch) left;
+			return balance(l.left, join(l.right, right));
+		}
+		if (right.height > left.height + 1) {
+			Branch r = (Branch) right;
+			return balance(join(left, r.left), r.right);
+		}
+		if (left instanceof Leaf && right instanceof Leaf && left.length + right.length <= LEAF_SIZE) {
+			byte[] merged = Arrays.copyOf(((Leaf) left).data, left.length + right.length);
+			System.arraycopy(((Leaf) right).data, 0, merged, left.length, right.length);
+			return new Leaf(merged);
+		}
+		return new Branch(left, right);
+	}
+
+	/**
+	 * Builds a branch from two subtrees whose heights differ by at most 2
+	 * applying a single or double rotation if needed
+	 */
+	private static Node balance(Node left, Node right) {
+		if (left.height > right.height + 1) {
+			Branch l = (Branch) left;
+			if (l.left.height >= l.right.height) {
+				return new Branch(l.left, new Branch(l.right, right));
+			}
+			Branch lr = (Branch) l.right;
+			return new Branch(new Branch(l.left, lr.left), new Branch(lr.right, right));
+		}
+		if (right.height > left.height + 1) {
+			Branch r = (Branch) right;
+			if (r.right.height >= r.left.height) {
+				return new Branch(new Branch(left, r.left), r.right);
+			}
+			Branch rl = (Branch) r.left;
+			return new Branch(new Branch(left, rl.left), new Branch(rl.right, r.right));
+		}
+		return new Branch(left, right);
+	}
+
+	/**
+	 * Class is immutable & so this is unsupported
+	 */
+	@Override
+	public void setCompoundSet(CompoundSet<C> compoundSet) {
+		throw new UnsupportedOperationException("Cannot reset the CompoundSet; object is immutable");
+	}
+
+	/**
+	 * Class is immutable & so this is unsupported
+	 */
+	@Override
+	public void setContents(String sequence) throws CompoundNotFoundException {
+		throw new UnsupportedOperationException(getClass().getSimpleName() + " is an immutable data structure; cannot reset contents");
+	}
+
+	@Override
+	public int getLength() {
+		return root.length;
+	}
+
+	/**
+	 * Walks down the tree to the leaf holding the position
+	 */
+	@Override
+	public C getCompoundAt(int position) {
+		if (position > getLength()) {
+			throw new IllegalArgumentException(position + " is greater than length. Cannot access this position");
+		}
+		if (position < 1) {
+			throw new IllegalArgumentException(position + " is less than 1; you must use biological indexing (indexing from 1)");
+		}
+		int index = position - 1;
+		Node node = root;
+		while (node instanceof Branch) {
+			Branch branch = (Branch) node;
+			if (index < branch.left.length) {
+				node = branch.left;
+			} else {
+				index -= branch.left.length;
+				node = branch.right;
+			}
+		}
+		return ordinals.getCompound(((Leaf) node).data[index] & 0xFF);
+	}
+
+	@Override
+	public String getSequenceAsString() {
+		StringBuilder sb = new StringBuilder(getLength());
+		LeafIterator leaves = new LeafIterator(root);
+		while (leaves.hasNext()) {
+			for (byte b : leaves.next().data) {
+				sb.append(ordinals.getString(b & 0xFF));
+			}
+		}
+		return sb.toString();
+	}
+
+	@Override
+	public List<C> getAsList() {
+		return SequenceMixin.toList(this);
+	}
+
+	@Override
+	public int getIndexOf(C compound) {
+		return SequenceMixin.indexOf(this, compound);
+	}
+
+	@Override
+	public int getLastIndexOf(C compound) {
+		return SequenceMixin.lastIndexOf(this, compound);
+	}
+
+	@Override
+	public SequenceView<C> getSubSequence(Integer start, Integer end) {
+		return SequenceMixin.createSubSequence(this, start, end);
+	}
+
+	@Override
+	public CompoundSet<C> getCompoundSet() {
+		return compoundSet;
+	}
+
+	@Override
+	public AccessionID getAccession() {
+		return accession;
+	}
+
+	/**
+	 * Builds a histogram of ordinals over the leaves rather than decoding
+	 * every compound
+	 */
+	@Override
+	public int countCompounds(C... compounds) {
+		int[] counts = new int[ordinals.size()];
+		LeafIterator leaves = new LeafIterator(root);
+		while (leaves.hasNext()) {
+			for (byte b : leaves.next().data) {
+				counts[b & 0xFF]++;
+			}
+		}
+		int count = 0;
+		for (C compound : compounds) {
+			int ordinal = ordinals.getOrdinal(compound);
+			if (ordinal != -1) {
+				count += counts[ordinal];
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Copies the ordinals stored in the leaves covering the range; only the
+	 * leaves overlapping it are visited
+	 */
+	@Override
+	public void getOrdinals(int start, int end, int[] dest, int destOffset) {
+		SequenceMixin.checkOrdinalRange(this, start, end, dest.length, destOffset);
+		copyOrdinals(root, start - 1, end, remapOrdinals(), dest, null, destOffset);
+	}
+
+	@Override
+	public void getOrdinals(int start, int end, byte[] dest, int destOffset) {
+		SequenceMixin.checkOrdinalRange(this, start, end, dest.length, destOffset);
+		int[] remap = remapOrdinals();
+		if (remap != null) {
+			SequenceMixin.checkByteOrdinals(CompoundOrdinals.forCompoundSet(compoundSet));
+		}
+		copyOrdinals(root, start - 1, end, remap, null, dest, destOffset);
+	}
+
+	@Override
+	public void forEachOrdinal(IntConsumer consumer) {
+		int[] remap = remapOrdinals();
+		LeafIterator leaves = new LeafIterator(root);
+		while (leaves.hasNext()) {
+			for (byte b : leaves.next().data) {
+				consumer.accept((remap == null) ? b & 0xFF : remap[b & 0xFF]);
+			}
+		}
+	}
+
+	/**
+	 * Writes the ordinals from index from (inclusive) to to (exclusive) of
+	 * the given node into whichever of the two arrays is not null
+	 */
+	private static int copyOrdinals(Node node, int from, int to, int[] remap, int[] ints, byte[] bytes, int out) {
+		if (from >= to) {
+			return out;
+		}
+		if (node instanceof Branch) {
+			Branch branch = (Branch) node;
+			int split = branch.left.length;
+			if (from < split) {
+				out = copyOrdinals(branch.left, from, Math.min(to, split), remap, ints, bytes, out);
+			}
+			if (to > split) {
+				out = copyOrdinals(branch.right, Math.max(from, split) - split, to - split, remap, ints, bytes, out);
+			}
+			return out;
+		}
+		byte[] data = ((Leaf) node).data;
+		if (bytes != null && remap == null) {
+			System.arraycopy(data, from, bytes, out, to - from);
+			return out + to - from;
+		}
+		for (int i = from; i < to; i++) {
+			int ordinal = (remap == null) ? data[i] & 0xFF : remap[data[i] & 0xFF];
+			if (ints != null) {
+				ints[out++] = ordinal;
+			} else {
+				bytes[out++] = (byte) ordinal;
+			}
+		}
+		return out;
+	}
+
+	/**
+	 * Returns null when the ordinals in the leaves are the current ones for
+	 * the CompoundSet otherwise a table from stored to current ordinal
+	 */
+	private int[] remapOrdinals() {
+		CompoundOrdinals<C> current = CompoundOrdinals.forCompoundSet(compoundSet);
+		if (current == ordinals) {
+			return null;
+		}
+		int[] remap = new int[ordinals.size()];
+		for (int i = 0; i < remap.length; i++) {
+			remap[i] = current.getOrdinal(ordinals.getCompound(i));
+		}
+		return remap;
+	}
+
+	@Override
+	public Iterator<C> iterator() {
+		return new Iterator<C>() {
+
+			private final LeafIterator leaves = new LeafIterator(root);
+			private byte[] current = null;
+			private int index = 0;
+
+			@Override
+			public boolean hasNext() {
+				return (current != null && index < current.length) || leaves.hasNext();
+			}
+
+			@Override
+			public C next() {
+				if (current == null || index == current.length) {
+					current = leaves.next().data;
+					index = 0;
+				}
+				return ordinals.getCompound(current[index++] & 0xFF);
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException("Cannot remove from this Sequence");
+			}
+		};
+	}
+
+	@Override
+	public SequenceView<C> getInverse() {
+		return SequenceMixin.inverse(this);
+	}
+
+	@Override
+	public int hashCode() {
+		return getSequenceAsString().hashCode();
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public boolean equals(Object o) {
+		if(Equals.classEqual(this, o)) {
+			RopeSequenceReader<C> that = (RopeSequenceReader<C>)o;
+			return  Equals.equal(compoundSet, that.compoundSet) &&
+					Equals.equal(getSequenceAsString(), that.getSequenceAsString());
+		}
+		return false;
+	}
+
+	@Override
+	public String toString() {
+		return getSequenceAsString();
+	}
+
+	private static abstract class Node {
+		final int length;
+		final int height;
+
+		Node(int length, int height) {
+			this.length = length;
+			this.height = height;
+		}
+	}
+
+	private static class Leaf extends Node {
+		final byte[] data;
+
+		Leaf(byte[] data) {
+			super(data.length, 0);
+			this.data = data;
+		}
+	}
+
+	private static class Branch extends Node {
+		final Node left;
+		final Node right;
+
+		Branch(Node left, Node right) {
+			super(checkedLength(left, right), Math.max(left.height, right.height) + 1);
+			this.left = left;
+			this.right = right;
+		}
+
+		private static int checkedLength(Node left, Node right) {
+			long length = (long) left.length + right.length;
+			if (length > Integer.MAX_VALUE) {
+				throw new IllegalStateException("Rope would hold " + length + " compounds; cannot hold more than " + Integer.MAX_VALUE);
+			}
+			return (int) length;
+		}
+	}
+
+	/**
+	 * Visits the non-empty leaves of a tree from left to right
+	 */
+	private static class LeafIterator implements Iterator<Leaf> {
+		private final Deque<Node> stack = new ArrayDeque<Node>();
+
+		LeafIterator(Node root) {
+			if (root.length > 0) {
+				stack.push(root);
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return !stack.isEmpty();
+		}
+
+		@Override
+		public Leaf next() {
+			if (stack.isEmpty()) {
+				throw new NoSuchElementException("No more leaves");
+			}
+			Node node = stack.pop();
+			while (node instanceof Branch) {
+				Branch branch = (Branch) node;
+				if (branch.right.length > 0) {
+					stack.push(branch.right);
+				}
+				node = branch.left;
+			}
+			return (Leaf) node;
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
@@ -0,0 +1,205 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.storage;
+
+import org.biojava.nbio.core.sequence.template.Compound;
+import org.biojava.nbio.core.sequence.template.CompoundSet;
+import org.biojava.nbio.core.sequence.template.SequenceReader;
+import org.biojava.nbio.core.util.CRC64Checksum;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Content-addressed pool of {@link SequenceReader}s allowing sequences with
+ * identical residues to share one backing store. Stores are keyed by the
+ * {@link CRC64Checksum} of their String form; since different sequences can
+ * share a checksum every hit is verified compound by compound before it is
+ * returned.
+ *
+ * Shared stores must be treated as read-only; modifying one modifies every
+ * sequence it backs. The pool holds a strong reference to every store it has
+ * seen so should be discarded (or {@link #clear() cleared}) once loading is
+ * finished.
+ *
+ * @param <C> Type of compound held by the stores
+ */
+public class SequenceReaderPool<C extends Compound> {
+
+	private final Map<Long, List<SequenceReader<C>>> pool = new HashMap<Long, List<SequenceReader<C>>>();
+	private long uniqueCount = 0;
+	private long deduplicatedCount = 0;
+	private long bytesDeduplicated = 0;
+
+	/**
+	 * Returns the checksum used to key the given String in the pool
+	 */
+	public static long checksum(String sequence) {
+		CRC64Checksum crc = new CRC64Checksum();
+		crc.update(sequence);
+		return crc.getValue();
+	}
+
+	/**
+	 * Returns the checksum of ASCII encoded residues; the same as that of
+	 * their String form
+	 */
+	public static long checksum(byte[] residues, int offset, int length) {
+		CRC64Checksum crc = new CRC64Checksum();
+		crc.update(residues, offset, length);
+		return crc.getValue();
+	}
+
+	/**
+	 * Returns a pooled store with the same contents as the given one or adds
+	 * the given store to the pool and returns it if there is none
+	 *
+	 * @param sequence String form of the store; used for the checksum
+	 * @param reader Store holding the parsed sequence
+	 */
+	public SequenceReader<C> intern(String sequence, SequenceReader<C> reader) {
+		return intern(checksum(sequence), sequence.length(), reader);
+	}
+
+	/**
+	 * Returns a pooled store of the given CompoundSet holding the given ASCII
+	 * encoded residues, or null if there is none, without parsing them. A
+	 * store matches if each of its compounds is written as the residue at
+	 * the same position.
+	 *
+	 * @param compoundSet CompoundSet the residues would be parsed with; stores
+	 * of any other set are not returned even if written the same way
+	 */
+	public synchronized SequenceReader<C> find(CompoundSet<C> compoundSet, byte[] residues, int offset,
+			int length) {
+		List<SequenceReader<C>> candidates = pool.get(checksum(residues, offset, length));
+		if (candidates == null) {
+			return null;
+		}
+		for (SequenceReader<C> candidate : candidates) {
+			if (sameContents(candidate, compoundSet, residues, offset, length)) {
+				deduplicatedCount++;
+				bytesDeduplicated += length;
+				return candidate;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns a pooled store with the same contents as the given one or adds
+	 * the given store to the pool and returns it if there is none
+	 *
+	 * @param checksum Checksum of the String form of the store
+	 * @param length Number of residues in the store
+	 * @param reader Store holding the parsed sequence
+	 */
+	public synchronized SequenceReader<C> intern(long checksum, int length, SequenceReader<C> reader) {
+		Long key = checksum;
+		List<SequenceReader<C>> candidates = pool.get(key);
+		if (candidates == null) {
+			candidates = new ArrayList<SequenceReader<C>>(1);
+			pool.put(key, candidates);
+		}
+		for (SequenceReader<C> candidate : candidates) {
+			if (candidate == reader || sameContents(candidate, reader)) {
+				if (candidate != reader) {
+					deduplicatedCount++;
+					bytesDeduplicated += length;
+				}
+				return candidate;
+			}
+		}
+		candidates.add(reader);
+		uniqueCount++;
+		return reader;
+	}
+
+	private static <C extends Compound> boolean sameContents(SequenceReader<C> reader, CompoundSet<C> compoundSet,
+			byte[] residues, int offset, int length) {
+		if (reader.getLength() != length || !reader.getCompoundSet().equals(compoundSet)) {
+			return false;
+		}
+		int i = offset;
+		for (C compound : reader) {
+			String residue = compound.toString();
+			if (residue.length() != 1 || residue.charAt(0) != (residues[i++] & 0xFF)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static <C extends Compound> boolean sameContents(SequenceReader<C> a, SequenceReader<C> b) {
+		if (a.getLength() != b.getLength() || !a.getCompoundSet().equals(b.getCompoundSet())) {
+			return false;
+		}
+		Iterator<C> ai = a.iterator();
+		Iterator<C> bi = b.iterator();
+		while (ai.hasNext() && bi.hasNext()) {
+			if (!ai.next().equals(bi.next())) {
+				return false;
+			}
+		}
+		return ai.hasNext() == bi.hasNext();
+	}
+
+	/**
+	 * Number of distinct stores held in the pool
+	 */
+	public synchronized long getUniqueCount() {
+		return uniqueCount;
+	}
+
+	/**
+	 * Number of times a store was replaced by one already in the pool
+	 */
+	public synchronized long getDeduplicatedCount() {
+		return deduplicatedCount;
+	}
+
+	/**
+	 * Number of residue characters (i.e. bytes of sequence text) which did
+	 * not need to be held again because an identical store was pooled
+	 */
+	public synchronized long getBytesDeduplicated() {
+		return bytesDeduplicated;
+	}
+
+	/**
+	 * Empties the pool and resets its counters
+	 */
+	public synchronized void clear() {
+		pool.clear();
+		uniqueCount = 0;
+		deduplicatedCount = 0;
+		bytesDeduplicated = 0;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return getClass().getSimpleName() + " [unique=" + uniqueCount + ", deduplicated=" + deduplicatedCount
+				+ ", bytesDeduplicated=" + bytesDeduplicated + "]";
+	}
+}
@@ -26,8 +26,10 @@ import org.biojava.nbio.core.sequence.template.*;
 import org.biojava.nbio.core.util.Equals;
 import org.biojava.nbio.core.util.Hashcoder;
 
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.function.IntConsumer;
 
 /**
  * An implementation of the SequenceReader interface which for every
@@ -176,6 +178,34 @@ public class SingleCompoundSequenceReader<C extends Compound> implements ProxySe
 		return SequenceMixin.countCompounds(this, compounds);
 	}
 
+	/**
+	 * Fills the range with the ordinal of the single compound
+	 */
+	@Override
+	public void getOrdinals(int start, int end, int[] dest, int destOffset) {
+		SequenceMixin.checkOrdinalRange(this, start, end, dest.length, destOffset);
+		Arrays.fill(dest, destOffset, destOffset + end - start + 1, getOrdinal());
+	}
+
+	@Override
+	public void getOrdinals(int start, int end, byte[] dest, int destOffset) {
+		SequenceMixin.checkOrdinalRange(this, start, end, dest.length, destOffset);
+		SequenceMixin.checkByteOrdinals(CompoundOrdinals.forCompoundSet(compoundSet));
+		Arrays.fill(dest, destOffset, destOffset + end - start + 1, (byte) getOrdinal());
+	}
+
+	@Override
+	public void forEachOrdinal(IntConsumer consumer) {
+		int ordinal = getOrdinal();
+		for (int i = 0; i < length; i++) {
+			consumer.accept(ordinal);
+		}
+	}
+
+	private int getOrdinal() {
+		return CompoundOrdinals.forCompoundSet(compoundSet).getOrdinal(compound);
+	}
+
 	/**
 	 * Returns an instance of {@link SimpleSequenceIterator.SequenceIterator}
 	 */
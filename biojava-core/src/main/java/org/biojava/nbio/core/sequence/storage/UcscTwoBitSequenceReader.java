@@ -0,0 +1,403 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.storage;
+
+import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
+import org.biojava.nbio.core.sequence.AccessionID;
+import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
+import org.biojava.nbio.core.sequence.location.SimpleLocation;
+import org.biojava.nbio.core.sequence.location.template.Location;
+import org.biojava.nbio.core.sequence.template.*;
+import org.biojava.nbio.core.util.Equals;
+import org.biojava.nbio.core.util.Hashcoder;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Read-only storage for a single record of a UCSC <code>.2bit</code> file.
+ * Bases are held packed 4 to a byte (most significant bits first) using the
+ * UCSC encoding:
+ *
+ * <ul>
+ * <li>0 - T</li>
+ * <li>1 - C</li>
+ * <li>2 - A</li>
+ * <li>3 - G</li>
+ * </ul>
+ *
+ * Unlike {@link TwoBitSequenceReader} this store can represent runs of N and
+ * soft-masked (lower case) regions; both are held as sorted, non-overlapping
+ * interval lists alongside the packed data, exactly as they appear in the
+ * file. Masked bases are returned as the lower case compound from the
+ * CompoundSet.
+ *
+ * The packed data is normally a read-only slice of a memory-mapped file so
+ * nothing is decoded until it is asked for; see
+ * {@link org.biojava.nbio.core.sequence.io.UcscTwoBitReader}.
+ *
+ * @param <C> Type of compound; must extend {@link NucleotideCompound}
+ */
+public class UcscTwoBitSequenceReader<C extends NucleotideCompound> implements ProxySequenceReader<C> {
+
+	private static final char[] BASES = { 'T', 'C', 'A', 'G' };
+	private static final int ORDINAL_BUFFER_SIZE = 4096;
+
+	private final ByteBuffer packed;
+	private final int length;
+	private final int[] nBlockStarts;
+	private final int[] nBlockSizes;
+	private final int[] maskBlockStarts;
+	private final int[] maskBlockSizes;
+	private final CompoundSet<C> compoundSet;
+	private final AccessionID accession;
+	private final List<C> upperCompounds;
+	private final List<C> lowerCompounds;
+
+	/**
+	 * Creates the store from the raw contents of a <code>.2bit</code> record.
+	 * Block starts are 0-based offsets as in the file format.
+	 *
+	 * @param packed The packed bases; must hold at least
+	 * <code>(length + 3) / 4</code> bytes from position 0
+	 * @param length Number of bases in the record
+	 * @param nBlockStarts 0-based start of each run of N
+	 * @param nBlockSizes Length of each run of N
+	 * @param maskBlockStarts 0-based start of each soft-masked region
+	 * @param maskBlockSizes Length of each soft-masked region
+	 */
+	public UcscTwoBitSequenceReader(ByteBuffer packed, int length,
+			int[] nBlockStarts, int[] nBlockSizes,
+			int[] maskBlockStarts, int[] maskBlockSizes,
+			CompoundSet<C> compoundSet, AccessionID accession) {
+		if (packed.capacity() < packedSize(length)) {
+			throw new IllegalArgumentException("Packed data holds " + packed.capacity() + " bytes; need " + packedSize(length) + " for " + length + " bases");
+		}
+		if (nBlockStarts.length != nBlockSizes.length || maskBlockStarts.length != maskBlockSizes.length) {
+			throw new IllegalArgumentException("Block start and size arrays must be the same length");
+		}
+		this.packed = packed;
+		this.length = length;
+		this.nBlockStarts = nBlockStarts;
+		this.nBlockSizes = nBlockSizes;
+		this.maskBlockStarts = maskBlockStarts;
+		this.maskBlockSizes = maskBlockSizes;
+		this.compoundSet = compoundSet;
+		this.accession = accession;
+		this.upperCompounds = new ArrayList<C>();
+		this.lowerCompounds = new ArrayList<C>();
+		for (char base : BASES) {
+			addCompounds(String.valueOf(base));
+		}
+		addCompounds("N");
+	}
+
+	private void addCompounds(String base) {
+		C upper = compoundSet.getCompoundForString(base);
+		C lower = compoundSet.getCompoundForString(base.toLowerCase());
+		upperCompounds.add(upper);
+		lowerCompounds.add(lower == null ? upper : lower);
+	}
+
+	/**
+	 * Number of bytes needed to hold the given number of packed bases
+	 */
+	public static int packedSize(int length) {
+		return (int) ((length + 3L) / 4);
+	}
+
+	/**
+	 * Returns the runs of N in this record as biological (1 based) locations
+	 */
+	public List<Location> getNBlocks() {
+		return toLocations(nBlockStarts, nBlockSizes);
+	}
+
+	/**
+	 * Returns the soft-masked regions of this record as biological (1 based)
+	 * locations
+	 */
+	public List<Location> getMaskBlocks() {
+		return toLocations(maskBlockStarts, maskBlockSizes);
+	}
+
+	private static List<Location> toLocations(int[] starts, int[] sizes) {
+		List<Location> locations = new ArrayList<Location>(starts.length);
+		for (int i = 0; i < starts.length; i++) {
+			locations.add(new SimpleLocation(starts[i] + 1, starts[i] + sizes[i]));
+		}
+		return locations;
+	}
+
+	/**
+	 * Returns true if the given biological index falls in a soft-masked region
+	 */
+	public boolean isMasked(int position) {
+		LongSequenceMixin.checkPosition(position, length);
+		return inBlock(maskBlockStarts, maskBlockSizes, position - 1);
+	}
+
+	/**
+	 * Finds the block containing the 0-based index by binary search over the
+	 * sorted starts
+	 */
+	private static boolean inBlock(int[] starts, int[] sizes, int index) {
+		int block = blockAtOrBefore(starts, index);
+		return block >= 0 && index < starts[block] + sizes[block];
+	}
+
+	private static int blockAtOrBefore(int[] starts, int index) {
+		int found = Arrays.binarySearch(starts, index);
+		return (found >= 0) ? found : -(found + 1) - 1;
+	}
+
+	/**
+	 * Class is immutable & so this is unsupported
+	 */
+	@Override
+	public void setCompoundSet(CompoundSet<C> compoundSet) {
+		throw new UnsupportedOperationException("Cannot reset the CompoundSet; object is immutable");
+	}
+
+	/**
+	 * Class is immutable & so this is unsupported
+	 */
+	@Override
+	public void setContents(String sequence) throws CompoundNotFoundException {
+		throw new UnsupportedOperationException(getClass().getSimpleName() + " is an immutable data structure; cannot reset contents");
+	}
+
+	/**
+	 * Returns the compound at the specified biological index
+	 */
+	@Override
+	public C getCompoundAt(int position) {
+		LongSequenceMixin.checkPosition(position, length);
+		int index = position - 1;
+		int value = inBlock(nBlockStarts, nBlockSizes, index) ? BASES.length : decode(index);
+		List<C> compounds = inBlock(maskBlockStarts, maskBlockSizes, index) ? lowerCompounds : upperCompounds;
+		return compounds.get(value);
+	}
+
+	private int decode(int index) {
+		int b = packed.get(index >>> 2);
+		return (b >>> (6 - ((index & 3) << 1))) & 3;
+	}
+
+	@Override
+	public int getLength() {
+		return length;
+	}
+
+	@Override
+	public String getSequenceAsString() {
+		return getSequenceAsString(1, length);
+	}
+
+	/**
+	 * Decodes only the requested region; N runs and masked regions are
+	 * applied as intervals over the decoded bases rather than being looked up
+	 * for every position.
+	 *
+	 * @param start Biological start; must be greater than 0
+	 * @param end Biological end; must be less than length + 1
+	 */
+	public String getSequenceAsString(int start, int end) {
+		if (end < start) {
+			return "";
+		}
+		LongSequenceMixin.checkPosition(start, length);
+		LongSequenceMixin.checkPosition(end, length);
+		int from = start - 1;
+		char[] chars = new char[end - start + 1];
+		for (int i = 0; i < chars.length; i++) {
+			chars[i] = BASES[decode(from + i)];
+		}
+		int to = from + chars.length;
+		for (int block = Math.max(0, blockAtOrBefore(nBlockStarts, from)); block < nBlockStarts.length && nBlockStarts[block] < to; block++) {
+			int s = Math.max(from, nBlockStarts[block]);
+			int e = Math.min(to, nBlockStarts[block] + nBlockSizes[block]);
+			if (s < e) {
+				Arrays.fill(chars, s - from, e - from, 'N');
+			}
+		}
+		for (int block = Math.max(0, blockAtOrBefore(maskBlockStarts, from)); block < maskBlockStarts.length && maskBlockStarts[block] < to; block++) {
+			int s = Math.max(from, maskBlockStarts[block]);
+			int e = Math.min(to, maskBlockStarts[block] + maskBlockSizes[block]);
+			for (int i = s; i < e; i++) {
+				chars[i - from] = Character.toLowerCase(chars[i - from]);
+			}
+		}
+		return new String(chars);
+	}
+
+	@Override
+	public List<C> getAsList() {
+		return SequenceMixin.toList(this);
+	}
+
+	/**
+	 * Decodes the region as {@link #getSequenceAsString(int, int)} does:
+	 * packed values first, then N runs and masked regions applied as
+	 * intervals, finally translated to ordinals in place
+	 */
+	@Override
+	public void getOrdinals(int start, int end, int[] dest, int destOffset) {
+		SequenceMixin.checkOrdinalRange(this, start, end, dest.length, destOffset);
+		int from = start - 1;
+		int to = end;
+		for (int i = from; i < to; i++) {
+			dest[destOffset + i - from] = decode(i);
+		}
+		for (int block = Math.max(0, blockAtOrBefore(nBlockStarts, from)); block < nBlockStarts.length && nBlockStarts[block] < to; block++) {
+			int s = Math.max(from, nBlockStarts[block]);
+			int e = Math.min(to, nBlockStarts[block] + nBlockSizes[block]);
+			if (s < e) {
+				Arrays.fill(dest, destOffset + s - from, destOffset + e - from, BASES.length);
+			}
+		}
+		int lower = BASES.length + 1;
+		for (int block = Math.max(0, blockAtOrBefore(maskBlockStarts, from)); block < maskBlockStarts.length && maskBlockStarts[block] < to; block++) {
+			int s = Math.max(from, maskBlockStarts[block]);
+			int e = Math.min(to, maskBlockStarts[block] + maskBlockSizes[block]);
+			for (int i = s; i < e; i++) {
+				dest[destOffset + i - from] += lower;
+			}
+		}
+		int[] table = ordinalTable();
+		for (int i = destOffset; i < destOffset + to - from; i++) {
+			dest[i] = table[dest[i]];
+		}
+	}
+
+	/**
+	 * Decodes through a fixed size buffer of int ordinals
+	 */
+	@Override
+	public void getOrdinals(int start, int end, byte[] dest, int destOffset) {
+		SequenceMixin.checkOrdinalRange(this, start, end, dest.length, destOffset);
+		SequenceMixin.checkByteOrdinals(CompoundOrdinals.forCompoundSet(compoundSet));
+		int[] buffer = new int[Math.min(ORDINAL_BUFFER_SIZE, Math.max(0, end - start + 1))];
+		for (int s = start; s <= end; s += buffer.length) {
+			int e = Math.min(end, s + buffer.length - 1);
+			getOrdinals(s, e, buffer, 0);
+			for (int i = 0; i <= e - s; i++) {
+				dest[destOffset++] = (byte) buffer[i];
+			}
+		}
+	}
+
+	@Override
+	public void forEachOrdinal(IntConsumer consumer) {
+		int[] buffer = new int[Math.min(ORDINAL_BUFFER_SIZE, length)];
+		for (int s = 1; s <= length; s += buffer.length) {
+			int e = Math.min(length, s + buffer.length - 1);
+			getOrdinals(s, e, buffer, 0);
+			for (int i = 0; i <= e - s; i++) {
+				consumer.accept(buffer[i]);
+			}
+		}
+	}
+
+	/**
+	 * Ordinals of the upper case compounds followed by the lower case ones
+	 */
+	private int[] ordinalTable() {
+		CompoundOrdinals<C> ordinals = CompoundOrdinals.forCompoundSet(compoundSet);
+		int[] table = new int[upperCompounds.size() + lowerCompounds.size()];
+		for (int i = 0; i < upperCompounds.size(); i++) {
+			table[i] = ordinals.getOrdinal(upperCompounds.get(i));
+			table[i + upperCompounds.size()] = ordinals.getOrdinal(lowerCompounds.get(i));
+		}
+		return table;
+	}
+
+	@Override
+	public int getIndexOf(C compound) {
+		return SequenceMixin.indexOf(this, compound);
+	}
+
+	@Override
+	public int getLastIndexOf(C compound) {
+		return SequenceMixin.lastIndexOf(this, compound);
+	}
+
+	@Override
+	public SequenceView<C> getSubSequence(Integer start, Integer end) {
+		return SequenceMixin.createSubSequence(this, start, end);
+	}
+
+	@Override
+	public CompoundSet<C> getCompoundSet() {
+		return compoundSet;
+	}
+
+	@Override
+	public AccessionID getAccession() {
+		return accession;
+	}
+
+	@Override
+	public int countCompounds(C... compounds) {
+		return SequenceMixin.countCompounds(this, compounds);
+	}
+
+	@Override
+	public Iterator<C> iterator() {
+		return SequenceMixin.createIterator(this);
+	}
+
+	@Override
+	public SequenceView<C> getInverse() {
+		return SequenceMixin.inverse(this);
+	}
+
+	@Override
+	public int hashCode() {
+		int s = Hashcoder.SEED;
+		s = Hashcoder.hash(s, accession);
+		s = Hashcoder.hash(s, length);
+		s = Hashcoder.hash(s, nBlockStarts.length);
+		s = Hashcoder.hash(s, maskBlockStarts.length);
+		return s;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public boolean equals(Object o) {
+		if(Equals.classEqual(this, o)) {
+			UcscTwoBitSequenceReader<C> that = (UcscTwoBitSequenceReader<C>)o;
+			return  Equals.equal(accession, that.accession) &&
+					Equals.equal(compoundSet, that.compoundSet) &&
+					Equals.equal(length, that.length) &&
+					Arrays.equals(nBlockStarts, that.nBlockStarts) &&
+					Arrays.equals(nBlockSizes, that.nBlockSizes) &&
+					Arrays.equals(maskBlockStarts, that.maskBlockStarts) &&
+					Arrays.equals(maskBlockSizes, that.maskBlockSizes) &&
+					Equals.equal(packed, that.packed);
+		}
+		return false;
+	}
+}
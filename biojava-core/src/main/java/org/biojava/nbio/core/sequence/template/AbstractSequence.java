@@ -38,11 +38,13 @@ import org.biojava.nbio.core.sequence.location.SimpleLocation;
 import org.biojava.nbio.core.sequence.location.template.Location;
 import org.biojava.nbio.core.sequence.reference.AbstractReference;
 import org.biojava.nbio.core.sequence.storage.ArrayListSequenceReader;
+import org.biojava.nbio.core.sequence.storage.ByteArraySequenceReader;
 import org.biojava.nbio.core.util.Equals;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.function.IntConsumer;
 
 /**
  *
@@ -70,6 +72,8 @@ public abstract class AbstractSequence<C extends Compound> implements Sequence<C
 	private FeaturesKeyWordInterface featuresKeyWord = null;
 	private DatabaseReferenceInterface databaseReferences = null;
 	private FeatureRetriever featureRetriever = null;
+	private volatile FeatureLoader<C> featureLoader = null;
+	private boolean loadingFeatures = false;
 	private ArrayList<FeatureInterface<AbstractSequence<C>, C>> features =
 			new ArrayList<FeatureInterface<AbstractSequence<C>, C>>();
 	private LinkedHashMap<String, ArrayList<FeatureInterface<AbstractSequence<C>, C>>> groupedFeatures =
@@ -93,11 +97,24 @@ public abstract class AbstractSequence<C extends Compound> implements Sequence<C
 
 	//  so it can be called from subclass constructors
 	protected void initSequenceStorage(String seqString) throws CompoundNotFoundException {
-		sequenceStorage = new ArrayListSequenceReader<C>();
+		sequenceStorage = createSequenceStorage();
 		sequenceStorage.setCompoundSet(this.getCompoundSet());
 		sequenceStorage.setContents(seqString);
 	}
 
+	/**
+	 * Returns the in-memory store used when a sequence is created from a
+	 * String. Defaults to a {@link ByteArraySequenceReader} (one byte per
+	 * compound) unless the CompoundSet is too large for it, in which case
+	 * an {@link ArrayListSequenceReader} is used.
+	 */
+	protected SequenceReader<C> createSequenceStorage() {
+		if (ByteArraySequenceReader.canStore(this.getCompoundSet())) {
+			return new ByteArraySequenceReader<C>();
+		}
+		return new ArrayListSequenceReader<C>();
+	}
+
 	/**
 	 * A ProxySequenceReader allows abstraction of both the storage of the sequence data and the location
 	 * of the sequence data. A variety of use cases are possible. A ProxySequenceReader that knows the offset and of the sequence in
@@ -334,6 +351,7 @@ public abstract class AbstractSequence<C extends Compound> implements Sequence<C
 	 * @return the list of {@link AbstractReference}
 	 */
 	public List<AbstractReference> getReferences() {
+		loadFeatures();
 		return references;
 	}
 
@@ -343,6 +361,7 @@ public abstract class AbstractSequence<C extends Compound> implements Sequence<C
 	 * @param references
 	 */
 	public void setReferences(List<AbstractReference> references) {
+		loadFeatures();
 		this.references = references;
 	}
 
@@ -374,6 +393,7 @@ public abstract class AbstractSequence<C extends Compound> implements Sequence<C
 	public List<FeatureInterface<AbstractSequence<C>, C>> getFeatures(int bioSequencePosition) {
 		ArrayList<FeatureInterface<AbstractSequence<C>, C>> featureHits =
 				new ArrayList<FeatureInterface<AbstractSequence<C>, C>>();
+		loadFeatures();
 		if (features != null) {
 			for (FeatureInterface<AbstractSequence<C>, C> feature : features) {
 				if (bioSequencePosition >= feature.getLocations().getStart().getPosition() && bioSequencePosition <= feature.getLocations().getEnd().getPosition()) {
@@ -389,6 +409,7 @@ public abstract class AbstractSequence<C extends Compound> implements Sequence<C
 	 * @return
 	 */
 	public List<FeatureInterface<AbstractSequence<C>, C>> getFeatures() {
+		loadFeatures();
 		return features;
 	}
 
@@ -413,6 +434,7 @@ public abstract class AbstractSequence<C extends Compound> implements Sequence<C
 	 * @param feature
 	 */
 	public void addFeature(FeatureInterface<AbstractSequence<C>, C> feature) {
+		loadFeatures();
 		features.add(feature);
 		ArrayList<FeatureInterface<AbstractSequence<C>, C>> featureList = groupedFeatures.get(feature.getType());
 		if (featureList == null) {
@@ -429,6 +451,7 @@ public abstract class AbstractSequence<C extends Compound> implements Sequence<C
 	 * @param feature
 	 */
 	public void removeFeature(FeatureInterface<AbstractSequence<C>, C> feature) {
+		loadFeatures();
 		features.remove(feature);
 		ArrayList<FeatureInterface<AbstractSequence<C>, C>> featureList = groupedFeatures.get(feature.getType());
 		if (featureList != null) {
@@ -445,6 +468,7 @@ public abstract class AbstractSequence<C extends Compound> implements Sequence<C
 	 * @return
 	 */
 	public List<FeatureInterface<AbstractSequence<C>, C>> getFeaturesByType(String type) {
+		loadFeatures();
 		List<FeatureInterface<AbstractSequence<C>, C>> features = groupedFeatures.get(type);
 		if (features == null) {
 			features = new ArrayList<FeatureInterface<AbstractSequence<C>, C>>();
@@ -504,6 +528,46 @@ public abstract class AbstractSequence<C extends Compound> implements Sequence<C
 		this.featureRetriever = featureRetriever;
 	}
 
+	/**
+	 * Defers the features, references and taxonomy of this sequence to the
+	 * given loader, which is run the first time any of them is read or
+	 * changed; until then it holds just the unparsed annotation. Loading is
+	 * synchronized so a sequence can be shared between threads before its
+	 * features have been read.
+	 *
+	 * @param featureLoader Loader to run, or null to drop a loader not yet run
+	 */
+	public void setFeatureLoader(FeatureLoader<C> featureLoader) {
+		this.featureLoader = featureLoader;
+	}
+
+	/**
+	 * Returns true if a loader set through
+	 * {@link #setFeatureLoader(FeatureLoader)} has not run yet
+	 */
+	public boolean isFeatureLoaderPending() {
+		return featureLoader != null;
+	}
+
+	private void loadFeatures() {
+		if (featureLoader == null) {
+			return;
+		}
+		synchronized (this) {
+			// the loader adds the features through the methods calling this
+			if (featureLoader == null || loadingFeatures) {
+				return;
+			}
+			loadingFeatures = true;
+			try {
+				featureLoader.loadFeatures(this);
+			} finally {
+				featureLoader = null;
+				loadingFeatures = false;
+			}
+		}
+	}
+
 
 
 	public enum AnnotationType {
@@ -530,6 +594,7 @@ public abstract class AbstractSequence<C extends Compound> implements Sequence<C
 	 * @return the species
 	 */
 	public TaxonomyID getTaxonomy() {
+		loadFeatures();
 		return taxonomy;
 	}
 
@@ -537,6 +602,7 @@ public abstract class AbstractSequence<C extends Compound> implements Sequence<C
 	 * @param taxonomy the species to set
 	 */
 	public void setTaxonomy(TaxonomyID taxonomy) {
+		loadFeatures();
 		this.taxonomy = taxonomy;
 	}
 
@@ -609,7 +675,7 @@ public abstract class AbstractSequence<C extends Compound> implements Sequence<C
 			//return parentSequence.getSequenceStorage();
 
 			if ( this.compoundSet.equals(parentSequence.getCompoundSet())){
-				sequenceStorage = new ArrayListSequenceReader<C>();
+				sequenceStorage = createSequenceStorage();
 				sequenceStorage.setCompoundSet(this.getCompoundSet());
 				try {
 					sequenceStorage.setContents(parentSequence.getSequenceAsString());
@@ -718,6 +784,30 @@ public abstract class AbstractSequence<C extends Compound> implements Sequence<C
 		return getSequenceStorage().iterator();
 	}
 
+	/**
+	 * Delegates to the backing storage
+	 */
+	@Override
+	public void getOrdinals(int start, int end, int[] dest, int destOffset) {
+		getSequenceStorage().getOrdinals(start, end, dest, destOffset);
+	}
+
+	/**
+	 * Delegates to the backing storage
+	 */
+	@Override
+	public void getOrdinals(int start, int end, byte[] dest, int destOffset) {
+		getSequenceStorage().getOrdinals(start, end, dest, destOffset);
+	}
+
+	/**
+	 * Delegates to the backing storage
+	 */
+	@Override
+	public void forEachOrdinal(IntConsumer consumer) {
+		getSequenceStorage().forEachOrdinal(consumer);
+	}
+
 	/**
 	 *
 	 * @param compounds
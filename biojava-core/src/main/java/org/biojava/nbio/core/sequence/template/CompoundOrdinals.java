@@ -0,0 +1,214 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.template;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Assigns every {@link Compound} of a {@link CompoundSet} a small integer
+ * (its ordinal) so storage engines can hold sequences as primitive arrays
+ * rather than lists of objects. Ordinals are assigned by sorting the
+ * compounds lexicographically on their String representation so the same
+ * CompoundSet always gives the same encoding.
+ *
+ * Instances are immutable and shared; use {@link #forCompoundSet(CompoundSet)}
+ * to get one. If a CompoundSet has compounds added after its ordinals were
+ * generated call {@link #refresh(CompoundSet)} to pick these up.
+ *
+ * @param <C> The type of compound
+ */
+public class CompoundOrdinals<C extends Compound> {
+
+	private static final int ASCII = 128;
+
+	private static final Map<CompoundSet<?>, CompoundOrdinals<?>> CACHE =
+			Collections.synchronizedMap(new WeakHashMap<CompoundSet<?>, CompoundOrdinals<?>>());
+
+	/**
+	 * Most callers only ever use a single CompoundSet instance; checking it
+	 * by identity avoids hashing the CompoundSet on every lookup
+	 */
+	private static volatile CompoundOrdinals<?> last = null;
+
+	private final WeakReference<CompoundSet<C>> compoundSet;
+	private final List<C> compounds;
+	private final String[] strings;
+	private final Map<C, Integer> compoundToOrdinal;
+	private final int[] charToOrdinal;
+	private final boolean singleCharCompounds;
+	private volatile int[] asciiLookup = null;
+
+	private CompoundOrdinals(final CompoundSet<C> compoundSet) {
+		this.compoundSet = new WeakReference<CompoundSet<C>>(compoundSet);
+		List<C> sorted = new ArrayList<C>(compoundSet.getAllCompounds());
+		Collections.sort(sorted, new Comparator<C>() {
+			@Override
+			public int compare(C o1, C o2) {
+				return compoundSet.getStringForCompound(o1).compareTo(compoundSet.getStringForCompound(o2));
+			}
+		});
+		this.compounds = Collections.unmodifiableList(sorted);
+		this.strings = new String[sorted.size()];
+		this.compoundToOrdinal = new HashMap<C, Integer>();
+		this.charToOrdinal = new int[ASCII];
+		Arrays.fill(charToOrdinal, -1);
+
+		boolean singleChar = true;
+		for (int i = 0; i < sorted.size(); i++) {
+			C compound = sorted.get(i);
+			String s = compoundSet.getStringForCompound(compound);
+			strings[i] = s;
+			compoundToOrdinal.put(compound, i);
+			if (s.length() == 1 && s.charAt(0) < ASCII) {
+				charToOrdinal[s.charAt(0)] = i;
+			} else {
+				singleChar = false;
+			}
+		}
+		this.singleCharCompounds = singleChar;
+	}
+
+	/**
+	 * Returns the shared ordinals for the given CompoundSet
+	 */
+	@SuppressWarnings("unchecked")
+	public static <C extends Compound> CompoundOrdinals<C> forCompoundSet(CompoundSet<C> compoundSet) {
+		CompoundOrdinals<?> current = last;
+		if (current != null && current.compoundSet.get() == compoundSet) {
+			return (CompoundOrdinals<C>) current;
+		}
+		CompoundOrdinals<C> ordinals = (CompoundOrdinals<C>) CACHE.get(compoundSet);
+		if (ordinals == null || ordinals.compoundSet.get() != compoundSet) {
+			ordinals = new CompoundOrdinals<C>(compoundSet);
+			CACHE.put(compoundSet, ordinals);
+		}
+		last = ordinals;
+		return ordinals;
+	}
+
+	/**
+	 * Regenerates the ordinals for a CompoundSet which has changed since
+	 * they were first requested. Existing instances are not modified.
+	 */
+	public static <C extends Compound> CompoundOrdinals<C> refresh(CompoundSet<C> compoundSet) {
+		CompoundOrdinals<C> ordinals = new CompoundOrdinals<C>(compoundSet);
+		CACHE.put(compoundSet, ordinals);
+		last = ordinals;
+		return ordinals;
+	}
+
+	/**
+	 * Returns the CompoundSet these ordinals were generated from. Only a
+	 * weak reference is held so the cache does not keep CompoundSets alive.
+	 */
+	public CompoundSet<C> getCompoundSet() {
+		return compoundSet.get();
+	}
+
+	/**
+	 * Number of ordinals i.e. the number of compounds in the CompoundSet
+	 */
+	public int size() {
+		return compounds.size();
+	}
+
+	/**
+	 * Returns the compound encoded by the given ordinal
+	 */
+	public C getCompound(int ordinal) {
+		return compounds.get(ordinal);
+	}
+
+	/**
+	 * Returns the String form of the compound encoded by the given ordinal
+	 */
+	public String getString(int ordinal) {
+		return strings[ordinal];
+	}
+
+	/**
+	 * Returns the ordinal of the given compound or -1 if it is not part of
+	 * the CompoundSet
+	 */
+	public int getOrdinal(C compound) {
+		Integer ordinal = compoundToOrdinal.get(compound);
+		return (ordinal == null) ? -1 : ordinal;
+	}
+
+	/**
+	 * Returns the ordinal of the compound whose String form is the given
+	 * single character or -1 if there is no such compound
+	 */
+	public int getOrdinal(char c) {
+		return (c < ASCII) ? charToOrdinal[c] : -1;
+	}
+
+	/**
+	 * Returns a table of 256 entries giving the ordinal of the compound the
+	 * CompoundSet resolves each byte to when read as an ASCII character, or
+	 * -1. Unlike {@link #getOrdinal(char)} this includes characters the
+	 * CompoundSet maps onto another compound (e.g. lower case bases in a
+	 * case-insensitive set). Built on first use; this is not a copy so must
+	 * not be modified.
+	 */
+	public int[] getAsciiLookup() {
+		int[] lookup = asciiLookup;
+		if (lookup == null) {
+			lookup = new int[256];
+			Arrays.fill(lookup, -1);
+			CompoundSet<C> set = compoundSet.get();
+			for (int c = 0; c < ASCII; c++) {
+				lookup[c] = charToOrdinal[c];
+				if (lookup[c] == -1 && set != null) {
+					C compound = set.getCompoundForString(Character.toString((char) c));
+					if (compound != null) {
+						lookup[c] = getOrdinal(compound);
+					}
+				}
+			}
+			asciiLookup = lookup;
+		}
+		return lookup;
+	}
+
+	/**
+	 * Returns true if every compound is represented by a single ASCII
+	 * character; allows callers to take faster char based code paths
+	 */
+	public boolean isSingleCharCompounds() {
+		return singleCharCompounds;
+	}
+
+	/**
+	 * Returns the compounds in ordinal order
+	 */
+	public List<C> getCompounds() {
+		return compounds;
+	}
+}
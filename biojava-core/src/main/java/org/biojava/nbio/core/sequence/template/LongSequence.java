@@ -0,0 +1,64 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.template;
+
+/**
+ * A parallel to {@link Sequence} for sequences which may hold more than
+ * {@link Integer#MAX_VALUE} compounds e.g. concatenated assemblies or large
+ * metagenomic contigs. All positions are biological indexes (1 to n) held as
+ * longs. Use {@link LongSequenceMixin#asLongSequence(Sequence)} to view an
+ * existing Sequence through this interface and
+ * {@link LongSequenceMixin#asSequence(LongSequence, long, long)} to expose a
+ * window of up to {@link Integer#MAX_VALUE} compounds to code which works
+ * with {@link Sequence} (including {@link org.biojava.nbio.core.sequence.location.template.Location}s).
+ *
+ * @param <C> Compound a Sequence holds
+ */
+public interface LongSequence<C extends Compound> extends Iterable<C>, Accessioned {
+
+	/**
+	 * Returns the length of the Sequence
+	 */
+	public long getLongLength();
+
+	/**
+	 * Returns the Compound at the given biological index
+	 *
+	 * @param position Biological index (1 to n)
+	 * @return Compound at the specified position
+	 */
+	public C getCompoundAt(long position);
+
+	/**
+	 * Gets the compound set used to back this Sequence
+	 */
+	public CompoundSet<C> getCompoundSet();
+
+	/**
+	 * Returns a portion of the sequence from the different positions. This is
+	 * indexed from 1
+	 *
+	 * @param start Biological index start; must be greater than 0
+	 * @param end Biological end; must be less than length + 1
+	 * @return A LongSequenceView of the offset
+	 */
+	public LongSequenceView<C> getLongSubSequence(long start, long end);
+}
@@ -0,0 +1,331 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.template;
+
+import org.biojava.nbio.core.sequence.AccessionID;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * The {@link LongSequence} counterpart of {@link SequenceMixin}. As well as
+ * generic implementations of common operations this class holds the
+ * adapters used to move between the int and long addressed APIs:
+ *
+ * <ul>
+ * <li>{@link #asLongSequence(Sequence)} views any {@link Sequence} as a
+ * {@link LongSequence}</li>
+ * <li>{@link #asSequence(LongSequence, long, long)} exposes a window of a
+ * {@link LongSequence} as a {@link Sequence}. Positions in the window are
+ * relative to its start so any int based code (views, edits,
+ * {@link org.biojava.nbio.core.sequence.location.template.Location}s) can
+ * be used on a region of a sequence longer than {@link Integer#MAX_VALUE}</li>
+ * </ul>
+ */
+public class LongSequenceMixin {
+
+	/**
+	 * Checks the given biological index is within the bounds of a sequence
+	 * of the given length
+	 *
+	 * @throws IllegalArgumentException If the position cannot be accessed
+	 */
+	public static void checkPosition(long position, long length) {
+		if (position > length) {
+			throw new IllegalArgumentException(position + " is greater than length. Cannot access this position");
+		}
+		if (position < 1) {
+			throw new IllegalArgumentException(position + " is less than 1; you must use biological indexing (indexing from 1)");
+		}
+	}
+
+	/**
+	 * Returns the given Sequence as a {@link LongSequence}. If the Sequence
+	 * already implements the interface it is returned as is.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <C extends Compound> LongSequence<C> asLongSequence(Sequence<C> sequence) {
+		if (sequence instanceof LongSequence) {
+			return (LongSequence<C>) sequence;
+		}
+		return new SequenceBackedLongSequence<C>(sequence);
+	}
+
+	/**
+	 * Returns a {@link Sequence} covering the given inclusive biological
+	 * range of a {@link LongSequence}.
+	 *
+	 * @throws IllegalArgumentException If the range is invalid or holds more
+	 * than {@link Integer#MAX_VALUE} compounds
+	 */
+	public static <C extends Compound> Sequence<C> asSequence(LongSequence<C> sequence, long start, long end) {
+		return new LongSequenceWindow<C>(sequence, start, end);
+	}
+
+	/**
+	 * Shortcut to {@link #asSequence(LongSequence, long, long)} for the
+	 * whole sequence
+	 */
+	public static <C extends Compound> Sequence<C> asSequence(LongSequence<C> sequence) {
+		return asSequence(sequence, 1, sequence.getLongLength());
+	}
+
+	/**
+	 * Creates a simple sub sequence view delimited by the given start and end.
+	 */
+	public static <C extends Compound> LongSequenceView<C> createSubSequence(LongSequence<C> sequence, long start, long end) {
+		return new LongSequenceProxyView<C>(sequence, start, end);
+	}
+
+	/**
+	 * Creates a simple iterator which moves through a sequence going from 1
+	 * to the length of the Sequence.
+	 */
+	public static <C extends Compound> Iterator<C> createIterator(LongSequence<C> sequence) {
+		return new LongSequenceIterator<C>(sequence);
+	}
+
+	/**
+	 * Returns the compounds between the given inclusive biological indexes
+	 * as a String.
+	 *
+	 * @throws IllegalArgumentException If the range holds more compounds than
+	 * a String can
+	 */
+	public static <C extends Compound> String toString(LongSequence<C> sequence, long start, long end) {
+		long length = (end - start) + 1;
+		if (length > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Cannot convert " + length + " compounds into a String");
+		}
+		StringBuilder sb = new StringBuilder((int) Math.max(length, 0));
+		for (long i = start; i <= end; i++) {
+			sb.append(sequence.getCompoundAt(i).toString());
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Counts the given compounds between the given inclusive biological
+	 * indexes
+	 */
+	@SafeVarargs
+	public static <C extends Compound> long countCompounds(LongSequence<C> sequence, long start, long end, C... compounds) {
+		long count = 0;
+		for (long i = start; i <= end; i++) {
+			C current = sequence.getCompoundAt(i);
+			for (C compound : compounds) {
+				if (current.equals(compound)) {
+					count++;
+					break;
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Iterates through a {@link LongSequence} using
+	 * {@link LongSequence#getCompoundAt(long)}
+	 */
+	public static class LongSequenceIterator<C extends Compound> implements Iterator<C> {
+
+		private final LongSequence<C> sequence;
+		private final long length;
+		private long currentPosition = 0;
+
+		public LongSequenceIterator(LongSequence<C> sequence) {
+			this.sequence = sequence;
+			this.length = sequence.getLongLength();
+		}
+
+		@Override
+		public boolean hasNext() {
+			return (currentPosition < length);
+		}
+
+		@Override
+		public C next() {
+			if(!hasNext()) {
+				throw new NoSuchElementException("Exhausted sequence of elements");
+			}
+			return sequence.getCompoundAt(++currentPosition);
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException("Cannot remove() on a LongSequenceIterator");
+		}
+	}
+
+	/**
+	 * Adapts an int addressed {@link Sequence} to the {@link LongSequence}
+	 * interface
+	 */
+	public static class SequenceBackedLongSequence<C extends Compound> implements LongSequence<C> {
+
+		private final Sequence<C> sequence;
+
+		public SequenceBackedLongSequence(Sequence<C> sequence) {
+			this.sequence = sequence;
+		}
+
+		public Sequence<C> getSequence() {
+			return sequence;
+		}
+
+		@Override
+		public long getLongLength() {
+			return sequence.getLength();
+		}
+
+		@Override
+		public C getCompoundAt(long position) {
+			checkPosition(position, getLongLength());
+			return sequence.getCompoundAt((int) position);
+		}
+
+		@Override
+		public CompoundSet<C> getCompoundSet() {
+			return sequence.getCompoundSet();
+		}
+
+		@Override
+		public LongSequenceView<C> getLongSubSequence(long start, long end) {
+			return createSubSequence(this, start, end);
+		}
+
+		@Override
+		public AccessionID getAccession() {
+			return sequence.getAccession();
+		}
+
+		@Override
+		public Iterator<C> iterator() {
+			return sequence.iterator();
+		}
+	}
+
+	/**
+	 * Exposes a range of up to {@link Integer#MAX_VALUE} compounds of a
+	 * {@link LongSequence} as a {@link Sequence}. Position 1 of this
+	 * Sequence is the start of the window.
+	 */
+	public static class LongSequenceWindow<C extends Compound> implements Sequence<C> {
+
+		private final LongSequence<C> sequence;
+		private final long offset;
+		private final int length;
+
+		public LongSequenceWindow(LongSequence<C> sequence, long start, long end) {
+			if (start < 1) {
+				throw new IllegalArgumentException("The given start " + start + " is less than 1; cannot index less than 1");
+			}
+			if (end > sequence.getLongLength()) {
+				throw new IllegalArgumentException("The given end " + end + " is greater than sequence length " + sequence.getLongLength());
+			}
+			long windowLength = (end - start) + 1;
+			if (windowLength > Integer.MAX_VALUE) {
+				throw new IllegalArgumentException("Cannot view " + windowLength + " compounds through the int addressed Sequence API");
+			}
+			this.sequence = sequence;
+			this.offset = start - 1;
+			this.length = (int) Math.max(windowLength, 0);
+		}
+
+		/**
+		 * Returns the sequence this window is over
+		 */
+		public LongSequence<C> getViewedSequence() {
+			return sequence;
+		}
+
+		/**
+		 * Converts a position in this window into a position in the
+		 * viewed sequence
+		 */
+		public long toViewedPosition(int position) {
+			return offset + position;
+		}
+
+		@Override
+		public int getLength() {
+			return length;
+		}
+
+		@Override
+		public C getCompoundAt(int position) {
+			checkPosition(position, length);
+			return sequence.getCompoundAt(offset + position);
+		}
+
+		@Override
+		public int getIndexOf(C compound) {
+			return SequenceMixin.indexOf(this, compound);
+		}
+
+		@Override
+		public int getLastIndexOf(C compound) {
+			return SequenceMixin.lastIndexOf(this, compound);
+		}
+
+		@Override
+		public String getSequenceAsString() {
+			return LongSequenceMixin.toString(sequence, offset + 1, offset + length);
+		}
+
+		@Override
+		public List<C> getAsList() {
+			return SequenceMixin.toList(this);
+		}
+
+		@Override
+		public SequenceView<C> getSubSequence(Integer start, Integer end) {
+			return new SequenceProxyView<C>(this, start, end);
+		}
+
+		@Override
+		public CompoundSet<C> getCompoundSet() {
+			return sequence.getCompoundSet();
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public int countCompounds(C... compounds) {
+			return (int) LongSequenceMixin.countCompounds(sequence, offset + 1, offset + length, compounds);
+		}
+
+		@Override
+		public SequenceView<C> getInverse() {
+			return SequenceMixin.inverse(this);
+		}
+
+		@Override
+		public AccessionID getAccession() {
+			return sequence.getAccession();
+		}
+
+		@Override
+		public Iterator<C> iterator() {
+			return new SimpleSequenceIterator.SequenceIterator<C>(this);
+		}
+	}
+}
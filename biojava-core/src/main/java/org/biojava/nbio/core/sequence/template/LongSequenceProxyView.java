@@ -0,0 +1,120 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.template;
+
+import org.biojava.nbio.core.sequence.AccessionID;
+
+import java.util.Iterator;
+
+/**
+ * The {@link LongSequence} counterpart of {@link SequenceProxyView}; offsets
+ * all requests by the start of the view.
+ *
+ * @param <C> Compound a Sequence holds
+ */
+public class LongSequenceProxyView<C extends Compound> implements LongSequenceView<C> {
+
+	private final LongSequence<C> sequence;
+	private final long bioStart;
+	private final long bioEnd;
+
+	/**
+	 * Main constructor for working with LongSequenceProxyViews
+	 *
+	 * @param sequence Sequence to proxy
+	 * @param bioStart Start; cannot be less than 1
+	 * @param bioEnd End; cannot be greater than the sequence length
+	 */
+	public LongSequenceProxyView(LongSequence<C> sequence, long bioStart, long bioEnd) {
+		if (bioStart < 1) {
+			throw new IllegalArgumentException("The given start "
+					+ bioStart + " is less than 1; cannot index less than 1");
+		}
+		if (bioEnd > sequence.getLongLength()) {
+			throw new IllegalArgumentException("The given end "
+					+ bioEnd + " is greater than sequence length " + sequence.getLongLength());
+		}
+		this.sequence = sequence;
+		this.bioStart = bioStart;
+		this.bioEnd = bioEnd;
+	}
+
+	@Override
+	public LongSequence<C> getViewedSequence() {
+		return sequence;
+	}
+
+	@Override
+	public long getBioStart() {
+		return bioStart;
+	}
+
+	@Override
+	public long getBioEnd() {
+		return bioEnd;
+	}
+
+	@Override
+	public long getLongLength() {
+		return (bioEnd - bioStart) + 1;
+	}
+
+	@Override
+	public C getCompoundAt(long position) {
+		LongSequenceMixin.checkPosition(position, getLongLength());
+		return sequence.getCompoundAt((bioStart + position) - 1);
+	}
+
+	@Override
+	public CompoundSet<C> getCompoundSet() {
+		return sequence.getCompoundSet();
+	}
+
+	@Override
+	public LongSequenceView<C> getLongSubSequence(long start, long end) {
+		return new LongSequenceProxyView<C>(this, start, end);
+	}
+
+	/**
+	 * Returns this view through the int addressed {@link Sequence} API
+	 *
+	 * @throws IllegalArgumentException If the view is longer than
+	 * {@link Integer#MAX_VALUE}
+	 */
+	public Sequence<C> asSequence() {
+		return LongSequenceMixin.asSequence(sequence, bioStart, bioEnd);
+	}
+
+	@Override
+	public AccessionID getAccession() {
+		return sequence.getAccession();
+	}
+
+	@Override
+	public Iterator<C> iterator() {
+		return LongSequenceMixin.createIterator(this);
+	}
+
+	@Override
+	public String toString() {
+		return LongSequenceMixin.toString(this, 1, getLongLength());
+	}
+}
@@ -0,0 +1,42 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.template;
+
+/**
+ * A view over a {@link LongSequence}; the long-addressed counterpart
+ * of {@link SequenceView}.
+ *
+ * @param <C> Compound a Sequence holds
+ */
+public interface LongSequenceView<C extends Compound> extends LongSequence<C> {
+
+	public LongSequence<C> getViewedSequence();
+
+	/**
+	 * 1-indexed, inclusive.
+	 */
+	public long getBioStart();
+
+	/**
+	 * 1-indexed, inclusive.
+	 */
+	public long getBioEnd();
+}
@@ -26,6 +26,7 @@
 package org.biojava.nbio.core.sequence.template;
 
 import java.util.List;
+import java.util.function.IntConsumer;
 
 /**
  * Main interface for defining a collection of Compounds and accessing them
@@ -108,4 +109,42 @@ public interface Sequence<C extends Compound> extends Iterable<C>, Accessioned {
 	 * complementing the Sequence.
 	 */
 	public SequenceView<C> getInverse();
+
+	/**
+	 * Writes the ordinals of the compounds between the given biological
+	 * positions (inclusive) into the given array. Ordinals are those handed
+	 * out by {@link CompoundOrdinals#forCompoundSet(CompoundSet)} for this
+	 * Sequence's CompoundSet; compounds not in the set are reported as -1.
+	 * Storage implementations override this to avoid creating compounds.
+	 *
+	 * @param start Biological index start; must be greater than 0
+	 * @param end Biological end; must be less than length + 1
+	 * @param dest Array to write the ordinals to
+	 * @param destOffset Index in dest the first ordinal is written to
+	 */
+	default void getOrdinals(int start, int end, int[] dest, int destOffset) {
+		SequenceMixin.getOrdinals(this, start, end, dest, destOffset);
+	}
+
+	/**
+	 * As {@link #getOrdinals(int, int, int[], int)} but writes each ordinal
+	 * as a byte; read them back with {@code dest[i] & 0xFF}. Compounds not in
+	 * the set are written as {@code (byte) -1}.
+	 *
+	 * @throws IllegalStateException if the CompoundSet has more than 255
+	 * compounds
+	 */
+	default void getOrdinals(int start, int end, byte[] dest, int destOffset) {
+		SequenceMixin.getOrdinals(this, start, end, dest, destOffset);
+	}
+
+	/**
+	 * Hands the ordinal of every compound in the Sequence, in order, to the
+	 * given consumer
+	 *
+	 * @see #getOrdinals(int, int, int[], int)
+	 */
+	default void forEachOrdinal(IntConsumer consumer) {
+		SequenceMixin.forEachOrdinal(this, consumer);
+	}
 }
@@ -22,6 +22,9 @@ package org.biojava.nbio.core.sequence.template;
 
 import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
 import org.biojava.nbio.core.sequence.storage.ArrayListSequenceReader;
+import org.biojava.nbio.core.sequence.storage.BitSequenceReader;
+import org.biojava.nbio.core.sequence.storage.ByteArraySequenceReader;
+import org.biojava.nbio.core.sequence.storage.MappedTwoBitSequenceReader;
 import org.biojava.nbio.core.sequence.views.ComplementSequenceView;
 import org.biojava.nbio.core.sequence.views.ReversedSequenceView;
 import org.biojava.nbio.core.sequence.views.WindowedSequence;
@@ -29,6 +32,7 @@ import org.biojava.nbio.core.util.CRC64Checksum;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.function.IntConsumer;
 
 /**
  * Provides a set of static methods to be used as static imports when needed
@@ -128,11 +132,20 @@ public class SequenceMixin {
 	 * times each base appears. The returned map will return 0 if a compound
 	 * is asked for and the Map has no record of it.
 	 *
+	 * If the Sequence is (or is backed by) a bit packed store the counts
+	 * are taken from the packed data a whole int at a time; see
+	 * {@link BitSequenceReader.BitArrayWorker#countEncodedValues()}.
+	 *
 	 * @param <C> The type of compound to look for
 	 * @param sequence The type of sequence to look over
 	 * @return Counts for the instances of all compounds in the sequence
 	 */
 	public static <C extends Compound> Map<C, Integer> getComposition(Sequence<C> sequence) {
+		Map<C, Integer> packed = getPackedComposition(sequence);
+		if (packed != null) {
+			return packed;
+		}
+
 		Map<C, Integer> results = new HashMap<C, Integer>();
 
 		for (C currentCompound : sequence) {
@@ -145,6 +158,26 @@ public class SequenceMixin {
 		return results;
 	}
 
+	/**
+	 * Returns the composition straight from the packed data if the given
+	 * Sequence is, or is backed by, a bit packed store. Returns null
+	 * otherwise.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static <C extends Compound> Map<C, Integer> getPackedComposition(Sequence<C> sequence) {
+		Sequence<C> storage = sequence;
+		if (sequence instanceof AbstractSequence) {
+			storage = ((AbstractSequence<C>) sequence).getProxySequenceReader();
+		}
+		if (storage instanceof BitSequenceReader) {
+			return ((BitSequenceReader<C>) storage).getComposition();
+		}
+		if (storage instanceof MappedTwoBitSequenceReader) {
+			return ((MappedTwoBitSequenceReader) storage).getComposition();
+		}
+		return null;
+	}
+
 	/**
 	 * Used as a way of sending a Sequence to a writer without the cost of
 	 * converting to a full length String and then writing the data out
@@ -333,6 +366,90 @@ public class SequenceMixin {
 		return baseSequenceEquality(source, target, false);
 	}
 
+	/**
+	 * Writes the ordinals of the compounds between start and end (inclusive)
+	 * into dest by going through each compound. Storage which can read its
+	 * ordinals directly should not use this
+	 *
+	 * @see Sequence#getOrdinals(int, int, int[], int)
+	 */
+	public static <C extends Compound> void getOrdinals(Sequence<C> sequence,
+			int start, int end, int[] dest, int destOffset) {
+		checkOrdinalRange(sequence, start, end, dest.length, destOffset);
+		CompoundOrdinals<C> ordinals = CompoundOrdinals.forCompoundSet(sequence.getCompoundSet());
+		for (int i = start; i <= end; i++) {
+			dest[destOffset++] = ordinals.getOrdinal(sequence.getCompoundAt(i));
+		}
+	}
+
+	/**
+	 * Byte version of {@link #getOrdinals(Sequence, int, int, int[], int)}
+	 *
+	 * @see Sequence#getOrdinals(int, int, byte[], int)
+	 */
+	public static <C extends Compound> void getOrdinals(Sequence<C> sequence,
+			int start, int end, byte[] dest, int destOffset) {
+		checkOrdinalRange(sequence, start, end, dest.length, destOffset);
+		CompoundOrdinals<C> ordinals = CompoundOrdinals.forCompoundSet(sequence.getCompoundSet());
+		checkByteOrdinals(ordinals);
+		for (int i = start; i <= end; i++) {
+			dest[destOffset++] = (byte) ordinals.getOrdinal(sequence.getCompoundAt(i));
+		}
+	}
+
+	/**
+	 * Hands the ordinal of each compound to the consumer by iterating
+	 * through the Sequence
+	 *
+	 * @see Sequence#forEachOrdinal(IntConsumer)
+	 */
+	public static <C extends Compound> void forEachOrdinal(Sequence<C> sequence, IntConsumer consumer) {
+		CompoundOrdinals<C> ordinals = CompoundOrdinals.forCompoundSet(sequence.getCompoundSet());
+		for (C compound : sequence) {
+			consumer.accept(ordinals.getOrdinal(compound));
+		}
+	}
+
+	/**
+	 * Validates the arguments given to one of the getOrdinals methods
+	 *
+	 * @param sequence Sequence being read
+	 * @param start Biological start
+	 * @param end Biological end
+	 * @param destLength Length of the destination array
+	 * @param destOffset Offset into the destination array
+	 */
+	public static void checkOrdinalRange(Sequence<?> sequence, int start, int end, int destLength, int destOffset) {
+		if (start < 1) {
+			throw new IndexOutOfBoundsException("Start " + start
+					+ " is less than 1; you must use biological indexing (indexing from 1)");
+		}
+		if (end > sequence.getLength()) {
+			throw new IndexOutOfBoundsException("End " + end
+					+ " is greater than length. Cannot access this position");
+		}
+		if (end < start - 1) {
+			throw new IllegalArgumentException("End " + end + " is before start " + start);
+		}
+		if (destOffset < 0 || destOffset + (end - start + 1) > destLength) {
+			throw new IndexOutOfBoundsException("Cannot write " + (end - start + 1)
+					+ " ordinals from offset " + destOffset + " into an array of length " + destLength);
+		}
+	}
+
+	/**
+	 * Ensures every ordinal of the given set fits into an unsigned byte
+	 * without clashing with the {@code (byte) -1} of compounds not in the set
+	 *
+	 * @see ByteArraySequenceReader#MAX_COMPOUNDS
+	 */
+	public static void checkByteOrdinals(CompoundOrdinals<?> ordinals) {
+		if (ordinals.size() > ByteArraySequenceReader.MAX_COMPOUNDS) {
+			throw new IllegalStateException("CompoundSet has " + ordinals.size()
+					+ " compounds; too many to write ordinals as bytes");
+		}
+	}
+
 	private static <C extends Compound> boolean baseSequenceEquality(Sequence<C> source, Sequence<C> target, boolean ignoreCase) {
 		boolean equal = true;
 		if(
@@ -125,6 +125,23 @@ public class SequenceProxyView<C extends Compound> implements SequenceView<C> {
 		return new SimpleSequenceIterator.SequenceIterator<C>(this);
 	}
 
+	/**
+	 * Offsets the region into the viewed sequence
+	 */
+	@Override
+	public void getOrdinals(int start, int end, int[] dest, int destOffset) {
+		SequenceMixin.checkOrdinalRange(this, start, end, dest.length, destOffset);
+		int offset = getBioStart() - 1;
+		getViewedSequence().getOrdinals(start + offset, end + offset, dest, destOffset);
+	}
+
+	@Override
+	public void getOrdinals(int start, int end, byte[] dest, int destOffset) {
+		SequenceMixin.checkOrdinalRange(this, start, end, dest.length, destOffset);
+		int offset = getBioStart() - 1;
+		getViewedSequence().getOrdinals(start + offset, end + offset, dest, destOffset);
+	}
+
 	@Override
 	public AccessionID getAccession() {
 		return getViewedSequence().getAccession();
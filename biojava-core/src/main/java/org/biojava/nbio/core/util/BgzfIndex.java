@@ -0,0 +1,189 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * The index of a BGZF file in the <code>.gzi</code> format written by
+ * <code>bgzip -i</code>: for every block the offset it starts at in the
+ * compressed file and the offset of its first byte in the uncompressed
+ * data. This turns an offset into the uncompressed data (such as those of a
+ * FASTA <code>.fai</code> index) into a virtual offset for
+ * {@link BgzfInputStream#seek(long)}.
+ *
+ * The file holds the number of entries followed by the pairs of offsets,
+ * all little endian unsigned 64 bit integers; the first block, at offset 0
+ * in both, is implied.
+ */
+public class BgzfIndex {
+
+	private final long[] compressedOffsets;
+	private final long[] uncompressedOffsets;
+
+	/**
+	 * @param compressedOffsets Offset of each block in the compressed file
+	 * starting with the first at 0
+	 * @param uncompressedOffsets Offset of the first byte of each block in
+	 * the uncompressed data
+	 */
+	BgzfIndex(long[] compressedOffsets, long[] uncompressedOffsets) {
+		this.compressedOffsets = compressedOffsets;
+		this.uncompressedOffsets = uncompressedOffsets;
+	}
+
+	/**
+	 * Returns the file <code>bgzip</code> writes the index of the given file
+	 * to, i.e. the name with <code>.gzi</code> appended
+	 */
+	public static File getIndexFile(File bgzf) {
+		return new File(bgzf.getPath() + ".gzi");
+	}
+
+	/**
+	 * Indexes a BGZF file. Only the header and the size field of each block
+	 * are read; nothing is inflated.
+	 *
+	 * @throws IOException if the file cannot be read or is not BGZF
+	 */
+	public static BgzfIndex build(File bgzf) throws IOException {
+		long[] compressed = new long[16];
+		long[] uncompressed = new long[16];
+		int count = 0;
+		long offset = 0;
+		long uncompressedOffset = 0;
+		try (FileChannel channel = FileChannel.open(bgzf.toPath(), StandardOpenOption.READ)) {
+			long size = channel.size();
+			while (offset < size) {
+				if (count == compressed.length) {
+					compressed = Arrays.copyOf(compressed, count * 2);
+					uncompressed = Arrays.copyOf(uncompressed, count * 2);
+				}
+				compressed[count] = offset;
+				uncompressed[count] = uncompressedOffset;
+				count++;
+				int blockSize = BgzfInputStream.readBlockSize(channel, offset);
+				uncompressedOffset += BgzfInputStream.readInflatedSize(channel, offset, blockSize) & 0xFFFFFFFFL;
+				offset += blockSize;
+			}
+		}
+		// end the index with the end of the data, as the empty block bgzip
+		// writes last does, should that block be missing
+		if (count == 0 || uncompressed[count - 1] != uncompressedOffset) {
+			if (count == compressed.length) {
+				compressed = Arrays.copyOf(compressed, count + 1);
+				uncompressed = Arrays.copyOf(uncompressed, count + 1);
+			}
+			compressed[count] = offset;
+			uncompressed[count] = uncompressedOffset;
+			count++;
+		}
+		return new BgzfIndex(Arrays.copyOf(compressed, count), Arrays.copyOf(uncompressed, count));
+	}
+
+	/**
+	 * Reads a <code>.gzi</code> file
+	 *
+	 * @throws IOException if the file cannot be read or is truncated
+	 */
+	public static BgzfIndex read(File gzi) throws IOException {
+		ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(gzi.toPath())).order(ByteOrder.LITTLE_ENDIAN);
+		if (buffer.remaining() < 8) {
+			throw new IOException("Truncated BGZF index " + gzi);
+		}
+		long entries = buffer.getLong();
+		if (entries < 0 || entries > (buffer.remaining() / 16)) {
+			throw new IOException("BGZF index " + gzi + " claims " + entries + " entries but holds "
+					+ (buffer.remaining() / 16));
+		}
+		long[] compressed = new long[(int) entries + 1];
+		long[] uncompressed = new long[(int) entries + 1];
+		for (int i = 1; i <= entries; i++) {
+			compressed[i] = buffer.getLong();
+			uncompressed[i] = buffer.getLong();
+		}
+		return new BgzfIndex(compressed, uncompressed);
+	}
+
+	/**
+	 * Writes the index in the <code>.gzi</code> format
+	 *
+	 * @throws IOException if the file cannot be written
+	 */
+	public void write(File gzi) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(8 + (compressedOffsets.length - 1) * 16).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putLong(compressedOffsets.length - 1);
+		for (int i = 1; i < compressedOffsets.length; i++) {
+			buffer.putLong(compressedOffsets[i]);
+			buffer.putLong(uncompressedOffsets[i]);
+		}
+		Files.write(gzi.toPath(), buffer.array());
+	}
+
+	/**
+	 * Number of blocks indexed
+	 */
+	public int size() {
+		return compressedOffsets.length;
+	}
+
+	/**
+	 * Returns the virtual offset of the given offset into the uncompressed
+	 * data
+	 *
+	 * @throws IllegalArgumentException if the offset is negative or past the
+	 * end of the data, the offset of the last block indexed (the empty block
+	 * ending a BGZF file), or if no block is indexed
+	 */
+	public long getVirtualOffset(long uncompressedOffset) {
+		if (uncompressedOffset < 0) {
+			throw new IllegalArgumentException("Offset " + uncompressedOffset + " is negative");
+		}
+		if (uncompressedOffsets.length == 0) {
+			throw new IllegalArgumentException("No blocks are indexed");
+		}
+		long end = uncompressedOffsets[uncompressedOffsets.length - 1];
+		if (uncompressedOffset > end) {
+			throw new IllegalArgumentException("Offset " + uncompressedOffset + " is past the end of the data at " + end);
+		}
+		int block = Arrays.binarySearch(uncompressedOffsets, uncompressedOffset);
+		if (block < 0) {
+			block = -block - 2;
+		} else {
+			// empty blocks share their uncompressed offset with the next one
+			while (block + 1 < uncompressedOffsets.length && uncompressedOffsets[block + 1] == uncompressedOffset) {
+				block++;
+			}
+		}
+		long withinBlock = uncompressedOffset - uncompressedOffsets[block];
+		if (withinBlock >= BgzfInputStream.MAX_BLOCK_SIZE) {
+			throw new IllegalArgumentException("Offset " + uncompressedOffset + " is beyond the indexed blocks");
+		}
+		return compressedOffsets[block] << 16 | withinBlock;
+	}
+}
@@ -0,0 +1,399 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.util;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads files compressed in the BGZF format written by <code>bgzip</code>:
+ * a series of gzip members ("blocks") each holding at most 64KB of data and
+ * recording its compressed size in a header field. As every block can be
+ * inflated on its own the stream can
+ * <ul>
+ * <li>{@link #seek(long)} to a <em>virtual offset</em>, the offset of a
+ * block in the compressed file shifted left 16 bits or'ed with an offset
+ * into the inflated block</li>
+ * <li>{@link #seekUncompressed(long)} to an offset into the uncompressed
+ * data given a {@link BgzfIndex} (a <code>.gzi</code> file)</li>
+ * <li>inflate the next blocks on other threads while the current one is
+ * being read, which speeds up sequential scans</li>
+ * </ul>
+ *
+ * Compressed blocks are read on the calling thread; only inflating is
+ * handed to the executor. The stream itself is not thread safe.
+ *
+ * @see BgzfIndex
+ */
+public class BgzfInputStream extends InputStream {
+
+	/**
+	 * Largest size of a block, compressed or not
+	 */
+	public static final int MAX_BLOCK_SIZE = 1 << 16;
+
+	private static final int HEADER_SIZE = 18;
+
+	private final FileChannel channel;
+	private final long size;
+	private final BgzfIndex index;
+	private final ExecutorService executor;
+	private final int readAhead;
+	private final Deque<Future<Block>> pending = new ArrayDeque<Future<Block>>();
+
+	// offset in the compressed file of the next block to be read from disk
+	private long nextBlockOffset = 0;
+	private Block current = null;
+	private int position = 0;
+
+	/**
+	 * Opens the file, inflating blocks on the calling thread
+	 *
+	 * @throws IOException if the file cannot be opened
+	 */
+	public BgzfInputStream(File file) throws IOException {
+		this(file, null, null, 0);
+	}
+
+	/**
+	 * Opens the file, inflating up to <code>readAhead</code> blocks ahead of
+	 * the reader on the pool of {@link ConcurrencyTools}
+	 *
+	 * @throws IOException if the file cannot be opened
+	 */
+	public BgzfInputStream(File file, int readAhead) throws IOException {
+		this(file, null, (readAhead > 0) ? ConcurrencyTools.getThreadPool() : null, readAhead);
+	}
+
+	/**
+	 * @param file BGZF file
+	 * @param index Index of the file needed by {@link #seekUncompressed(long)};
+	 * may be null
+	 * @param executor Inflates blocks read ahead; null to inflate on the
+	 * calling thread
+	 * @param readAhead Number of blocks inflated ahead of the reader
+	 * @throws IOException if the file cannot be opened
+	 */
+	public BgzfInputStream(File file, BgzfIndex index, ExecutorService executor, int readAhead) throws IOException {
+		this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		this.size = channel.size();
+		this.index = index;
+		this.executor = executor;
+		this.readAhead = (executor == null) ? 0 : readAhead;
+	}
+
+	/**
+	 * Returns true if the file starts with a BGZF block header
+	 *
+	 * @throws IOException if the file cannot be read
+	 */
+	public static boolean isBgzf(File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+				// keep reading
+			}
+			return !header.hasRemaining() && blockSize(header) > 0;
+		}
+	}
+
+	/**
+	 * Returns the size of the block whose first 18 bytes are given or -1 if
+	 * they are not a BGZF header
+	 */
+	private static int blockSize(ByteBuffer header) {
+		if ((header.get(0) & 0xFF) != 31 || (header.get(1) & 0xFF) != 139 || header.get(2) != 8
+				|| (header.get(3) & 4) == 0) {
+			return -1;
+		}
+		int extraLength = header.getShort(10) & 0xFFFF;
+		// the BC subfield comes first in files written by bgzip
+		if (extraLength >= 6 && header.get(12) == 'B' && header.get(13) == 'C' && header.getShort(14) == 2) {
+			return (header.getShort(16) & 0xFFFF) + 1;
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the compressed size of the block starting at the given offset
+	 */
+	static int readBlockSize(FileChannel channel, long offset) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		readFully(channel, header, offset);
+		int blockSize = blockSize(header);
+		if (blockSize < 0) {
+			throw new IOException("No BGZF block header at offset " + offset);
+		}
+		return blockSize;
+	}
+
+	/**
+	 * Returns the number of bytes the block of the given compressed size
+	 * starting at the given offset inflates to
+	 */
+	static int readInflatedSize(FileChannel channel, long offset, int blockSize) throws IOException {
+		ByteBuffer footer = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+		readFully(channel, footer, offset + blockSize - 4);
+		return footer.getInt(0);
+	}
+
+	private static byte[] readBlock(FileChannel channel, long offset) throws IOException {
+		byte[] block = new byte[readBlockSize(channel, offset)];
+		readFully(channel, ByteBuffer.wrap(block), offset);
+		return block;
+	}
+
+	private static void readFully(FileChannel channel, ByteBuffer buffer, long offset) throws IOException {
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, offset + buffer.position()) < 0) {
+				throw new EOFException("Truncated BGZF block at offset " + offset);
+			}
+		}
+	}
+
+	private static Block inflate(long offset, byte[] compressed) throws IOException {
+		int extraLength = (compressed[10] & 0xFF) | (compressed[11] & 0xFF) << 8;
+		int dataStart = 12 + extraLength;
+		int dataLength = compressed.length - dataStart - 8;
+		int length = ByteBuffer.wrap(compressed, compressed.length - 4, 4).order(ByteOrder.LITTLE_ENDIAN).getInt();
+		if (length < 0 || length > MAX_BLOCK_SIZE || dataLength < 0) {
+			throw new IOException("Corrupt BGZF block at offset " + offset);
+		}
+		byte[] data = new byte[length];
+		Inflater inflater = new Inflater(true);
+		try {
+			inflater.setInput(compressed, dataStart, dataLength);
+			int inflated = 0;
+			while (inflated < length) {
+				int n = inflater.inflate(data, inflated, length - inflated);
+				if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+					break;
+				}
+				inflated += n;
+			}
+			if (inflated != length) {
+				throw new IOException("BGZF block at offset " + offset + " inflated to " + inflated
+						+ " bytes rather than " + length);
+			}
+		} catch (DataFormatException e) {
+			throw new IOException("Corrupt BGZF block at offset " + offset, e);
+		} finally {
+			inflater.end();
+		}
+		CRC32 crc = new CRC32();
+		crc.update(data, 0, length);
+		int expected = ByteBuffer.wrap(compressed, compressed.length - 8, 4).order(ByteOrder.LITTLE_ENDIAN).getInt();
+		if ((int) crc.getValue() != expected) {
+			throw new IOException("CRC mismatch in BGZF block at offset " + offset);
+		}
+		return new Block(offset, data);
+	}
+
+	/**
+	 * Makes the next block (possibly empty) current
+	 *
+	 * @return false at the end of the file
+	 */
+	private boolean nextBlock() throws IOException {
+		while (pending.size() < Math.max(1, readAhead) && nextBlockOffset < size) {
+			final long offset = nextBlockOffset;
+			final byte[] compressed = readBlock(channel, offset);
+			nextBlockOffset += compressed.length;
+			if (readAhead > 0) {
+				pending.add(executor.submit(() -> inflate(offset, compressed)));
+			} else {
+				pending.add(CompletableFuture.completedFuture(inflate(offset, compressed)));
+			}
+		}
+		Future<Block> next = pending.poll();
+		if (next == null) {
+			current = null;
+			position = 0;
+			return false;
+		}
+		try {
+			current = next.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while inflating BGZF block", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new IOException(e.getCause());
+		}
+		position = 0;
+		return true;
+	}
+
+	/**
+	 * Makes sure there is a byte left in the current block
+	 *
+	 * @return false at the end of the file
+	 */
+	private boolean available(boolean skipEmpty) throws IOException {
+		while (current == null || position >= current.data.length) {
+			if (!nextBlock()) {
+				return false;
+			}
+			if (!skipEmpty) {
+				break;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (!available(true)) {
+			return -1;
+		}
+		return current.data[position++] & 0xFF;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (len == 0) {
+			return 0;
+		}
+		if (!available(true)) {
+			return -1;
+		}
+		int n = Math.min(len, current.data.length - position);
+		System.arraycopy(current.data, position, b, off, n);
+		position += n;
+		return n;
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		long skipped = 0;
+		while (skipped < n && available(true)) {
+			int step = (int) Math.min(n - skipped, current.data.length - position);
+			position += step;
+			skipped += step;
+		}
+		return skipped;
+	}
+
+	@Override
+	public int available() {
+		return (current == null) ? 0 : current.data.length - position;
+	}
+
+	/**
+	 * Returns the virtual offset of the next byte to be read
+	 */
+	public long getVirtualOffset() {
+		if (current == null) {
+			return nextBlockOffset << 16;
+		}
+		return current.offset << 16 | position;
+	}
+
+	/**
+	 * Moves to the given virtual offset
+	 *
+	 * @param virtualOffset Offset of a block in the compressed file shifted
+	 * left 16 bits or'ed with an offset into the inflated block
+	 * @throws IOException if there is no block at the offset or the block is
+	 * shorter than the offset into it
+	 */
+	public void seek(long virtualOffset) throws IOException {
+		long blockOffset = virtualOffset >>> 16;
+		int withinBlock = (int) (virtualOffset & 0xFFFF);
+		if (current != null && current.offset == blockOffset) {
+			if (withinBlock > current.data.length) {
+				throw new IOException("Virtual offset " + virtualOffset + " is beyond the end of its block");
+			}
+			position = withinBlock;
+			return;
+		}
+		cancelPending();
+		nextBlockOffset = blockOffset;
+		current = null;
+		if (!available(false)) {
+			if (withinBlock > 0) {
+				throw new EOFException("Virtual offset " + virtualOffset + " is beyond the end of the file");
+			}
+			return;
+		}
+		if (withinBlock > current.data.length) {
+			throw new IOException("Virtual offset " + virtualOffset + " is beyond the end of its block");
+		}
+		position = withinBlock;
+	}
+
+	/**
+	 * Moves to the given offset into the uncompressed data
+	 *
+	 * @throws IllegalStateException if the stream was opened without an index
+	 * @throws IOException if the offset is beyond the end of the file
+	 */
+	public void seekUncompressed(long offset) throws IOException {
+		if (index == null) {
+			throw new IllegalStateException("Seeking into the uncompressed data needs a BgzfIndex");
+		}
+		seek(index.getVirtualOffset(offset));
+	}
+
+	private void cancelPending() {
+		for (Future<Block> future : pending) {
+			future.cancel(false);
+		}
+		pending.clear();
+	}
+
+	@Override
+	public void close() throws IOException {
+		cancelPending();
+		current = null;
+		channel.close();
+	}
+
+	/**
+	 * An inflated block
+	 */
+	private static class Block {
+		private final long offset;
+		private final byte[] data;
+
+		Block(long offset, byte[] data) {
+			this.offset = offset;
+			this.data = data;
+		}
+	}
+}
@@ -0,0 +1,324 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.util;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Compresses to the BGZF format read by {@link BgzfInputStream},
+ * <code>bgzip</code> and samtools: the data is cut into blocks of at most
+ * {@link #BLOCK_DATA_SIZE} bytes which are deflated independently and
+ * written as gzip members, followed by the empty block marking the end of
+ * the file. The output can be read by any gzip reader.
+ *
+ * Blocks may be deflated on an executor; up to <code>maxPending</code>
+ * blocks are in flight at once and they are always written in order. Any
+ * of the writers in <code>sequence.io</code> can write through it:
+ *
+ * <pre>
+ * try (BgzfOutputStream out = new BgzfOutputStream(new File("out.fa.gz"), 8, true)) {
+ *   FastaWriter&lt;DNASequence, NucleotideCompound&gt; writer = new FastaWriter&lt;DNASequence, NucleotideCompound&gt;(
+ *       out, new GenericFastaHeaderFormat&lt;DNASequence, NucleotideCompound&gt;(), 60);
+ *   writer.write(sequences);
+ *   writer.flush();
+ * }
+ * </pre>
+ *
+ * The stream is not thread safe.
+ *
+ * @see BgzfIndex
+ */
+public class BgzfOutputStream extends OutputStream {
+
+	/**
+	 * Most bytes of data held by a block. As used by htslib, this is small
+	 * enough for the block to fit in 64KB even if the data does not
+	 * compress.
+	 */
+	public static final int BLOCK_DATA_SIZE = 0xff00;
+
+	/**
+	 * The empty block which ends every BGZF file
+	 */
+	private static final byte[] EOF_BLOCK = { 31, (byte) 139, 8, 4, 0, 0, 0, 0, 0, (byte) 255, 6, 0, 'B', 'C', 2, 0,
+			27, 0, 3, 0, 0, 0, 0, 0, 0, 0, 0, 0 };
+
+	private static final int HEADER_SIZE = 18;
+	private static final int FOOTER_SIZE = 8;
+
+	private final OutputStream out;
+	private final ExecutorService executor;
+	private final int maxPending;
+	private final int level;
+	private final File indexFile;
+	private final Deque<Future<byte[]>> pending = new ArrayDeque<Future<byte[]>>();
+
+	private byte[] buffer = new byte[BLOCK_DATA_SIZE];
+	private int length = 0;
+
+	private long compressedOffset = 0;
+	private long uncompressedOffset = 0;
+	private long[] compressedOffsets = new long[16];
+	private long[] uncompressedOffsets = new long[16];
+	// blocks handed over to be deflated and blocks written
+	private int blocks = 0;
+	private int written = 0;
+	private boolean closed = false;
+
+	/**
+	 * Deflates blocks on the calling thread
+	 */
+	public BgzfOutputStream(OutputStream out) {
+		this(out, null, 0, Deflater.DEFAULT_COMPRESSION);
+	}
+
+	/**
+	 * Deflates up to <code>maxPending</code> blocks at once on the pool of
+	 * {@link ConcurrencyTools}
+	 */
+	public BgzfOutputStream(OutputStream out, int maxPending) {
+		this(out, (maxPending > 0) ? ConcurrencyTools.getThreadPool() : null, maxPending, Deflater.DEFAULT_COMPRESSION);
+	}
+
+	/**
+	 * @param out Stream the compressed blocks are written to
+	 * @param executor Deflates the blocks; null to deflate on the calling
+	 * thread
+	 * @param maxPending Most blocks handed to the executor but not yet
+	 * written; the writer waits for the oldest once this is reached
+	 * @param level Compression level as for {@link Deflater#setLevel(int)}
+	 */
+	public BgzfOutputStream(OutputStream out, ExecutorService executor, int maxPending, int level) {
+		this(out, executor, maxPending, level, null);
+	}
+
+	/**
+	 * Writes to a file on the pool of {@link ConcurrencyTools}, optionally
+	 * writing its <code>.gzi</code> index next to it once closed
+	 *
+	 * @param file File to create
+	 * @param maxPending Most blocks deflated at once; 0 to deflate on the
+	 * calling thread
+	 * @param writeIndex true to write the index to
+	 * {@link BgzfIndex#getIndexFile(File)}
+	 * @throws IOException if the file cannot be created
+	 */
+	public BgzfOutputStream(File file, int maxPending, boolean writeIndex) throws IOException {
+		this(new BufferedOutputStream(new FileOutputStream(file)),
+				(maxPending > 0) ? ConcurrencyTools.getThreadPool() : null, maxPending, Deflater.DEFAULT_COMPRESSION,
+				writeIndex ? BgzfIndex.getIndexFile(file) : null);
+	}
+
+	private BgzfOutputStream(OutputStream out, ExecutorService executor, int maxPending, int level, File indexFile) {
+		this.out = out;
+		this.executor = executor;
+		this.maxPending = (executor == null) ? 0 : Math.max(1, maxPending);
+		this.level = level;
+		this.indexFile = indexFile;
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		if (closed) {
+			throw new IOException("Stream closed");
+		}
+		if (length == buffer.length) {
+			endBlock();
+		}
+		buffer[length++] = (byte) b;
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		if (closed) {
+			throw new IOException("Stream closed");
+		}
+		while (len > 0) {
+			if (length == buffer.length) {
+				endBlock();
+			}
+			int n = Math.min(len, buffer.length - length);
+			System.arraycopy(b, off, buffer, length, n);
+			length += n;
+			off += n;
+			len -= n;
+		}
+	}
+
+	/**
+	 * Hands the buffered data over to be deflated as a block
+	 */
+	private void endBlock() throws IOException {
+		if (length == 0) {
+			return;
+		}
+		final byte[] data = buffer;
+		final int dataLength = length;
+		addIndexEntry(dataLength);
+		if (executor == null) {
+			writeBlock(deflate(data, dataLength, level));
+		} else {
+			while (pending.size() >= maxPending) {
+				writeOldest();
+			}
+			pending.add(executor.submit(() -> deflate(data, dataLength, level)));
+			buffer = new byte[BLOCK_DATA_SIZE];
+		}
+		length = 0;
+	}
+
+	private void addIndexEntry(int dataLength) {
+		if (blocks == compressedOffsets.length) {
+			compressedOffsets = Arrays.copyOf(compressedOffsets, blocks * 2);
+			uncompressedOffsets = Arrays.copyOf(uncompressedOffsets, blocks * 2);
+		}
+		// the compressed offset is filled in once the block is written
+		uncompressedOffsets[blocks++] = uncompressedOffset;
+		uncompressedOffset += dataLength;
+	}
+
+	private void writeOldest() throws IOException {
+		Future<byte[]> oldest = pending.poll();
+		try {
+			writeBlock(oldest.get());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while deflating BGZF block", e);
+		} catch (ExecutionException e) {
+			throw new IOException("Failed to deflate BGZF block", e.getCause());
+		}
+	}
+
+	private void writeBlock(byte[] block) throws IOException {
+		compressedOffsets[written++] = compressedOffset;
+		out.write(block);
+		compressedOffset += block.length;
+	}
+
+	/**
+	 * Deflates data into a complete block, storing it uncompressed should
+	 * deflating not make it small enough
+	 */
+	private static byte[] deflate(byte[] data, int length, int level) {
+		byte[] block = deflate(data, length, level, new byte[BgzfInputStream.MAX_BLOCK_SIZE]);
+		if (block == null) {
+			block = deflate(data, length, Deflater.NO_COMPRESSION, new byte[BgzfInputStream.MAX_BLOCK_SIZE]);
+		}
+		return block;
+	}
+
+	/**
+	 * @return the block or null if it does not fit
+	 */
+	private static byte[] deflate(byte[] data, int length, int level, byte[] block) {
+		Deflater deflater = new Deflater(level, true);
+		int compressed;
+		try {
+			deflater.setInput(data, 0, length);
+			deflater.finish();
+			int limit = block.length - HEADER_SIZE - FOOTER_SIZE;
+			compressed = 0;
+			while (!deflater.finished()) {
+				if (compressed == limit) {
+					return null;
+				}
+				compressed += deflater.deflate(block, HEADER_SIZE + compressed, limit - compressed);
+			}
+		} finally {
+			deflater.end();
+		}
+		int blockSize = HEADER_SIZE + compressed + FOOTER_SIZE;
+		CRC32 crc = new CRC32();
+		crc.update(data, 0, length);
+		ByteBuffer bb = ByteBuffer.wrap(block).order(ByteOrder.LITTLE_ENDIAN);
+		bb.put(EOF_BLOCK, 0, 16);
+		bb.putShort((short) (blockSize - 1));
+		bb.position(HEADER_SIZE + compressed);
+		bb.putInt((int) crc.getValue());
+		bb.putInt(length);
+		return Arrays.copyOf(block, blockSize);
+	}
+
+	/**
+	 * Ends the current block and writes every block deflated so far.
+	 * Flushing often leads to small blocks and so poor compression.
+	 */
+	@Override
+	public void flush() throws IOException {
+		endBlock();
+		while (!pending.isEmpty()) {
+			writeOldest();
+		}
+		out.flush();
+	}
+
+	/**
+	 * Returns the index of the blocks written so far; complete once the
+	 * stream is closed. Before any block is written it holds just the first
+	 * block, at offset 0 in both, as a <code>.gzi</code> file implies.
+	 */
+	public BgzfIndex getIndex() {
+		if (written == 0) {
+			return new BgzfIndex(new long[1], new long[1]);
+		}
+		return new BgzfIndex(Arrays.copyOf(compressedOffsets, written), Arrays.copyOf(uncompressedOffsets, written));
+	}
+
+	/**
+	 * Writes any remaining data and the end of file block, closes the
+	 * underlying stream and writes the index if asked to
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		try {
+			flush();
+			addIndexEntry(0);
+			writeBlock(EOF_BLOCK);
+			out.close();
+		} finally {
+			for (Future<byte[]> future : pending) {
+				future.cancel(false);
+			}
+			pending.clear();
+			closed = true;
+		}
+		if (indexFile != null) {
+			getIndex().write(indexFile);
+		}
+	}
+}
@@ -24,7 +24,12 @@ import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
 import org.biojava.nbio.core.sequence.compound.AmbiguityDNACompoundSet;
 import org.biojava.nbio.core.sequence.compound.DNACompoundSet;
 import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
+import org.biojava.nbio.core.sequence.storage.ArrayListSequenceReader;
+import org.biojava.nbio.core.sequence.storage.ByteArraySequenceReader;
 import org.biojava.nbio.core.sequence.storage.FourBitSequenceReader;
+import org.biojava.nbio.core.sequence.storage.JoiningSequenceReader;
+import org.biojava.nbio.core.sequence.storage.MappedTwoBitSequenceReader;
+import org.biojava.nbio.core.sequence.storage.RopeSequenceReader;
 import org.biojava.nbio.core.sequence.storage.SingleCompoundSequenceReader;
 import org.biojava.nbio.core.sequence.storage.TwoBitSequenceReader;
 import org.biojava.nbio.core.sequence.template.*;
@@ -34,6 +39,8 @@ import org.biojava.nbio.core.sequence.views.ReversedSequenceView;
 import org.hamcrest.MatcherAssert;
 import org.junit.Test;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -194,6 +201,104 @@ public class DNATest {
 		assertThat("FourBit from String not as expected", bitFromString.getSequenceAsString(), is(expected));
 	}
 
+	@Test
+	public void mappedTwoBit() throws CompoundNotFoundException, IOException {
+		String expected = "ATGCAACTGAGGCATTTACG";
+		File file = File.createTempFile("mappedTwoBit", ".2bj");
+		file.deleteOnExit();
+		MappedTwoBitSequenceReader.write(getSeq(expected), file);
+
+		MappedTwoBitSequenceReader<NucleotideCompound> reader =
+				new MappedTwoBitSequenceReader<NucleotideCompound>(file, set);
+		DNASequence seq = new DNASequence(reader);
+
+		assertThat("Mapped TwoBit length not as expected", seq.getLength(), is(expected.length()));
+		assertThat("Mapped TwoBit sequence not as expected", seq.getSequenceAsString(), is(expected));
+		assertThat("Base at 17 not right", seq.getCompoundAt(17).toString(), is("T"));
+		assertThat("GC content not as expected", seq.getGCCount(), is(9));
+	}
+
+	@Test
+	public void packedComposition() throws CompoundNotFoundException {
+		String expected = "ATGCAACTGAGGCATTTACGGGCCATAGCATTAGCAAAT";
+		DNASequence plain = getSeq(expected);
+		Map<NucleotideCompound, Integer> composition = SequenceMixin.getComposition(plain);
+
+		DNASequence twoBit = new DNASequence(new TwoBitSequenceReader<NucleotideCompound>(expected, set));
+		DNASequence fourBit = new DNASequence(new FourBitSequenceReader<NucleotideCompound>(expected, set));
+		assertThat("TwoBit composition not as expected", SequenceMixin.getComposition(twoBit), is(composition));
+		assertThat("FourBit composition not as expected", SequenceMixin.getComposition(fourBit), is(composition));
+		assertThat("TwoBit GC not as expected", twoBit.getGCCount(), is(SequenceMixin.countGC(plain)));
+		assertThat("FourBit AT not as expected", SequenceMixin.countAT(fourBit), is(SequenceMixin.countAT(plain)));
+		assertThat("TwoBit count not as expected",
+				twoBit.getProxySequenceReader().countCompounds(set.getCompoundForString("A")), is(13));
+	}
+
+	@Test
+	public void bulkDecode() {
+		String expected = "ATGCAACTGAGGCATTTACGGGCCATAGCATTAGCAAATNNAC";
+		String twoBitSource = expected.replace('N', 'A');
+		TwoBitSequenceReader<NucleotideCompound> twoBit = new TwoBitSequenceReader<NucleotideCompound>(twoBitSource, set);
+		FourBitSequenceReader<NucleotideCompound> fourBit = new FourBitSequenceReader<NucleotideCompound>(expected, set);
+		assertThat("TwoBit String not as expected", twoBit.getSequenceAsString(), is(twoBitSource));
+		assertThat("FourBit String not as expected", fourBit.getSequenceAsString(), is(expected));
+		assertThat("TwoBit List not as expected", twoBit.getAsList(), is(SequenceMixin.toList(twoBit)));
+		assertThat("FourBit List not as expected", fourBit.getAsList(), is(SequenceMixin.toList(fourBit)));
+
+		for (int start = 1; start <= 6; start++) {
+			for (int end = start; end <= expected.length(); end += 7) {
+				char[] chars = new char[end - start + 1];
+				new TwoBitSequenceReader.TwoBitArrayWorker<NucleotideCompound>(twoBitSource, set).getChars(start, end, chars, 0);
+				assertThat("TwoBit region not as expected", new String(chars), is(twoBitSource.substring(start - 1, end)));
+			}
+		}
+	}
+
+	@Test
+	public void ordinals() throws CompoundNotFoundException {
+		String expected = "ATGCAACTGAGGCATTTACGGGCCATAGCATTAGCAAATNNAC";
+		List<Sequence<NucleotideCompound>> stores = new ArrayList<Sequence<NucleotideCompound>>();
+		stores.add(new ArrayListSequenceReader<NucleotideCompound>(expected, set));
+		stores.add(new ByteArraySequenceReader<NucleotideCompound>(expected, set));
+		stores.add(new FourBitSequenceReader<NucleotideCompound>(expected, set));
+		stores.add(new RopeSequenceReader<NucleotideCompound>(expected, set));
+		stores.add(new JoiningSequenceReader<NucleotideCompound>(
+				new DNASequence(expected.substring(0, 10)), new DNASequence(expected.substring(10))));
+		stores.add(new DNASequence(expected).getSubSequence(1, expected.length()));
+
+		CompoundOrdinals<NucleotideCompound> ordinals = CompoundOrdinals.forCompoundSet(set);
+		int[] reference = new int[expected.length()];
+		for (int i = 0; i < reference.length; i++) {
+			reference[i] = ordinals.getOrdinal(set.getCompoundForString(expected.substring(i, i + 1)));
+		}
+		for (Sequence<NucleotideCompound> store : stores) {
+			String name = store.getClass().getSimpleName();
+			for (int start = 1; start <= 6; start++) {
+				for (int end = start - 1; end <= expected.length(); end += 7) {
+					int[] ints = new int[end - start + 3];
+					byte[] bytes = new byte[end - start + 3];
+					store.getOrdinals(start, end, ints, 2);
+					store.getOrdinals(start, end, bytes, 2);
+					for (int i = start; i <= end; i++) {
+						assertThat(name + " ordinal not as expected", ints[i - start + 2], is(reference[i - 1]));
+						assertThat(name + " byte ordinal not as expected", bytes[i - start + 2] & 0xFF, is(reference[i - 1]));
+					}
+				}
+			}
+			final List<Integer> visited = new ArrayList<Integer>();
+			store.forEachOrdinal(visited::add);
+			assertThat(name + " forEachOrdinal count not as expected", visited.size(), is(expected.length()));
+			for (int i = 0; i < reference.length; i++) {
+				assertThat(name + " forEachOrdinal not as expected", visited.get(i), is(reference[i]));
+			}
+		}
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void ordinalsOutOfRange() throws CompoundNotFoundException {
+		new ByteArraySequenceReader<NucleotideCompound>("ATGC", set).getOrdinals(2, 5, new int[4], 0);
+	}
+
 	@Test(expected = IllegalStateException.class)
 	public void badTwoBit() throws CompoundNotFoundException {
 		DNASequence seq = getSeq();
@@ -22,12 +22,17 @@ package org.biojava.nbio.core.sequence;
 
 import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
 import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
+import org.biojava.nbio.core.sequence.compound.DNACompoundSet;
 import org.biojava.nbio.core.sequence.edits.Edit;
+import org.biojava.nbio.core.sequence.storage.RopeSequenceReader;
 import org.biojava.nbio.core.sequence.template.Compound;
 import org.biojava.nbio.core.sequence.template.Sequence;
 import org.junit.Test;
 
+import java.util.Random;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class EditSequenceTest {
 
@@ -71,6 +76,50 @@ public class EditSequenceTest {
 		);
 	}
 
+	@Test
+	public void ropeEdits() throws CompoundNotFoundException {
+		RopeSequenceReader<NucleotideCompound> seq =
+				new RopeSequenceReader<NucleotideCompound>("ACGT", DNACompoundSet.getDNACompoundSet());
+		assertSeq(new Edit.Substitute<NucleotideCompound>("TT", 2).edit(seq), "ATTT");
+		assertSeq(new Edit.Delete<NucleotideCompound>(2,3).edit(seq), "AT");
+		assertSeq(new Edit.Delete<NucleotideCompound>(1,4).edit(seq), "");
+		assertSeq(new Edit.Insert<NucleotideCompound>("TT", 1).edit(seq), "TTACGT");
+		assertSeq(new Edit.Insert<NucleotideCompound>("TT", 2,3).edit(seq), "ACTTGT");
+		assertSeq(new Edit.Insert<NucleotideCompound>("A", 4).edit(seq), "ACGTA");
+		assertTrue(new Edit.Insert<NucleotideCompound>("A", 4).edit(seq) instanceof RopeSequenceReader);
+		assertSeq(seq, "ACGT");
+	}
+
+	@Test
+	public void ropeEditChain() throws CompoundNotFoundException {
+		Random random = new Random(7);
+		StringBuilder expected = new StringBuilder();
+		for (int i = 0; i < 20000; i++) {
+			expected.append("ACGT".charAt(random.nextInt(4)));
+		}
+		Sequence<NucleotideCompound> seq =
+				new RopeSequenceReader<NucleotideCompound>(expected.toString(), DNACompoundSet.getDNACompoundSet());
+		for (int i = 0; i < 2000; i++) {
+			int position = random.nextInt(expected.length() - 10) + 2;
+			switch (i % 3) {
+			case 0:
+				seq = new Edit.Insert<NucleotideCompound>("GATTACA", position, position + 1).edit(seq);
+				expected.insert(position, "GATTACA");
+				break;
+			case 1:
+				seq = new Edit.Delete<NucleotideCompound>(position, position + 3).edit(seq);
+				expected.delete(position - 1, position + 3);
+				break;
+			default:
+				seq = new Edit.Substitute<NucleotideCompound>("CC", position).edit(seq);
+				expected.replace(position - 1, position + 1, "CC");
+			}
+		}
+		assertSeq(seq, expected.toString());
+		assertEquals(expected.charAt(1234), seq.getCompoundAt(1235).getShortName().charAt(0));
+		assertTrue("Rope is not balanced", ((RopeSequenceReader<NucleotideCompound>) seq).getDepth() < 20);
+	}
+
 	private void assertSeq(Sequence<? extends Compound> seq, String expected) {
 		assertEquals("Asserting sequence "+expected, expected, seq.getSequenceAsString());
 	}
@@ -21,8 +21,10 @@
 package org.biojava.nbio.core.sequence;
 
 import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
+import org.biojava.nbio.core.sequence.compound.DNACompoundSet;
 import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
 import org.biojava.nbio.core.sequence.storage.JoiningSequenceReader;
+import org.biojava.nbio.core.sequence.storage.TwoBitSequenceReader;
 import org.biojava.nbio.core.sequence.template.SequenceMixin;
 import org.junit.Test;
 
@@ -67,4 +69,30 @@ public class JoiningSequenceReaderTest {
 			);
 		assertEquals("Testing empty sequences", "A", seq.getSequenceAsString());
 	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void bulkAccess() throws CompoundNotFoundException {
+		DNACompoundSet cs = DNACompoundSet.getDNACompoundSet();
+		JoiningSequenceReader<NucleotideCompound> seq =
+			new JoiningSequenceReader<NucleotideCompound>(
+					new DNASequence("AAAA"),
+					new DNASequence(new TwoBitSequenceReader<NucleotideCompound>("GGGTCA", cs)),
+					new DNASequence("TT"),
+					new DNASequence("C")
+		);
+		String expected = "AAAAGGGTCATTC";
+
+		assertEquals("Whole sequence", expected, seq.getSequenceAsString());
+		assertEquals("Region across segments", expected.substring(2, 11), seq.getSequenceAsString(3, 11));
+		assertEquals("Region in one segment", "GTC", seq.getSequenceAsString(7, 9));
+		StringBuilder fromList = new StringBuilder();
+		for (NucleotideCompound compound : seq.getAsList()) {
+			fromList.append(compound);
+		}
+		assertEquals("As list", expected, fromList.toString());
+		assertEquals("Count", 3, seq.countCompounds(cs.getCompoundForString("T")));
+		assertEquals("Lookup after region", "C", seq.getCompoundAt(13).toString());
+		assertEquals("Lookup going backwards", "A", seq.getCompoundAt(1).toString());
+	}
 }
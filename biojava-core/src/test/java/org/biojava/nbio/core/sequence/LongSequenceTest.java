@@ -0,0 +1,71 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence;
+
+import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
+import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
+import org.biojava.nbio.core.sequence.location.SimpleLocation;
+import org.biojava.nbio.core.sequence.storage.LongTwoBitSequenceReader;
+import org.biojava.nbio.core.sequence.template.LongSequence;
+import org.biojava.nbio.core.sequence.template.LongSequenceMixin;
+import org.biojava.nbio.core.sequence.template.LongSequenceView;
+import org.biojava.nbio.core.sequence.template.Sequence;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+
+public class LongSequenceTest {
+
+	@Test
+	public void testConcatenate() throws CompoundNotFoundException {
+		LongTwoBitSequenceReader<NucleotideCompound> reader = LongTwoBitSequenceReader.concatenate(
+				Arrays.asList(new DNASequence("ACGTACGTACGTACGTAC"), new DNASequence("ggcc")),
+				new AccessionID("assembly"));
+		assertEquals("Length", 22L, reader.getLongLength());
+		assertEquals("Compound @ 17", "A", reader.getCompoundAt(17L).toString());
+		assertEquals("Compound @ 19", "G", reader.getCompoundAt(19L).toString());
+		assertEquals("Whole sequence", "ACGTACGTACGTACGTACGGCC", LongSequenceMixin.asSequence(reader).getSequenceAsString());
+	}
+
+	@Test
+	public void testViews() throws CompoundNotFoundException {
+		LongSequence<NucleotideCompound> seq = LongSequenceMixin.asLongSequence(new DNASequence("ATGCATGCAA"));
+		LongSequenceView<NucleotideCompound> view = seq.getLongSubSequence(3, 8);
+		assertEquals("View length", 6L, view.getLongLength());
+		assertEquals("Compound @ 1", "G", view.getCompoundAt(1L).toString());
+		assertEquals("Nested view", "CA", view.getLongSubSequence(2, 3).toString());
+	}
+
+	@Test
+	public void testLocationOnWindow() throws CompoundNotFoundException {
+		LongSequence<NucleotideCompound> seq = LongSequenceMixin.asLongSequence(new DNASequence("AAAAATTGCCAAAAA"));
+		Sequence<NucleotideCompound> window = LongSequenceMixin.asSequence(seq, 6, 10);
+		Sequence<NucleotideCompound> sub = new SimpleLocation(2, 4, Strand.POSITIVE).getSubSequence(window);
+		assertEquals("Location resolved against window", "TGC", sub.getSequenceAsString());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testOutOfBounds() throws CompoundNotFoundException {
+		LongSequenceMixin.asLongSequence(new DNASequence("ATGC")).getCompoundAt(5L);
+	}
+}
@@ -22,10 +22,13 @@ package org.biojava.nbio.core.sequence;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.biojava.nbio.core.sequence.compound.AminoAcidCompound;
 import org.biojava.nbio.core.sequence.compound.AminoAcidCompoundSet;
 import org.biojava.nbio.core.sequence.loader.StringProxySequenceReader;
+import org.biojava.nbio.core.sequence.storage.ByteArraySequenceReader;
+import org.biojava.nbio.core.sequence.storage.FiveBitSequenceReader;
 import org.junit.jupiter.api.Test;
 
 public class ProteinSequenceTest {
@@ -42,4 +45,26 @@ public class ProteinSequenceTest {
         assertNotNull(proteinSequenceFromProxy.toString());
         assertEquals(24, proteinSequence.getLength());
     }
+
+    @Test
+    void byteArrayStorageByDefault() throws Exception {
+        ProteinSequence proteinSequence = new ProteinSequence("arndMKWY");
+        AminoAcidCompoundSet cs = AminoAcidCompoundSet.getAminoAcidCompoundSet();
+        assertTrue(proteinSequence.getProxySequenceReader() instanceof ByteArraySequenceReader);
+        assertEquals("ARNDMKWY", proteinSequence.getSequenceAsString());
+        assertEquals(cs.getCompoundForString("W"), proteinSequence.getCompoundAt(7));
+        assertEquals(2, proteinSequence.countCompounds(cs.getCompoundForString("R"), cs.getCompoundForString("W")));
+        assertEquals(6, proteinSequence.getIndexOf(cs.getCompoundForString("K")));
+    }
+
+    @Test
+    void fiveBitStorage() throws Exception {
+        String residues = "ARNDCEQGHILKMFPSTWYVBZJXUO*-._";
+        AminoAcidCompoundSet cs = AminoAcidCompoundSet.getAminoAcidCompoundSet();
+        ProteinSequence proteinSequence = new ProteinSequence(new FiveBitSequenceReader<AminoAcidCompound>(residues, cs));
+        assertEquals(residues, proteinSequence.getSequenceAsString());
+        assertEquals(cs.getCompoundForString("O"), proteinSequence.getCompoundAt(26));
+        assertEquals(1, proteinSequence.countCompounds(cs.getCompoundForString("W")));
+        assertEquals("WYVB", proteinSequence.getSubSequence(18, 21).getSequenceAsString());
+    }
 }
@@ -0,0 +1,80 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
+import org.biojava.nbio.core.sequence.template.AbstractSequence;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ABITraceBatchReaderTest {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	public void testReadDirectory() throws Exception {
+		File trace = new File(getClass().getResource("/3730.ab1").toURI());
+		Files.copy(trace.toPath(), directory.resolve("b.ab1"));
+		Files.copy(trace.toPath(), directory.resolve("a.AB1"));
+		Files.write(directory.resolve("notes.txt"), "not a trace".getBytes());
+
+		ABITrace expected = new ABITrace(trace);
+		List<AbstractSequence<NucleotideCompound>> sequences = ABITraceBatchReader.readDirectory(directory.toFile());
+		assertEquals(2, sequences.size());
+		assertEquals("a", sequences.get(0).getAccession().getID());
+		assertEquals("b", sequences.get(1).getAccession().getID());
+		for (AbstractSequence<NucleotideCompound> sequence : sequences) {
+			assertEquals(expected.getSequence().getSequenceAsString(), sequence.getSequenceAsString());
+			byte[] scores = FastqReader.getScores(sequence);
+			assertEquals(expected.getSequenceLength(), scores.length);
+			for (int i = 0; i < scores.length; i++) {
+				assertEquals(expected.getQcalls()[i], scores[i]);
+			}
+		}
+	}
+
+	@Test
+	public void testInvalidTrace() throws Exception {
+		File trace = new File(getClass().getResource("/3730.ab1").toURI());
+		Files.copy(trace.toPath(), directory.resolve("a.ab1"));
+		Files.write(directory.resolve("b.ab1"), new byte[200]);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			List<File> files = ABITraceBatchReader.listTraces(directory.toFile());
+			assertEquals(2, files.size());
+			assertThrows(IOException.class, () -> ABITraceBatchReader.read(files, executor));
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
@@ -30,6 +30,9 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 
 import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
@@ -217,4 +220,41 @@ public class ABITracerTest {
 	void testGetTrace(String base) throws Exception {
 		assertEquals(EXPECTED_TRACE_LENGTH, tracer.getTrace(base).length);
 	}
+
+	@DisplayName("Constructor rejects an illegal base order")
+	@Test
+	void testIllegalBaseOrder() throws Exception {
+		byte[] data = readTrace();
+		data[findRecord(data, "FWO_", 1) + 20] = 'X';
+		assertThrows(IllegalArgumentException.class, () -> new ABITrace(data));
+	}
+
+	@DisplayName("Constructor rejects a trace channel beyond the data")
+	@Test
+	void testTruncatedTrace() throws Exception {
+		byte[] data = readTrace();
+		ByteBuffer.wrap(data).putInt(findRecord(data, "DATA", 12) + 20, data.length - 10);
+		assertThrows(IllegalArgumentException.class, () -> new ABITrace(data));
+	}
+
+	private byte[] readTrace() throws Exception {
+		return Files.readAllBytes(new File(getClass().getResource("/3730.ab1").toURI()).toPath());
+	}
+
+	/**
+	 * Returns the offset of the given occurrence of a record of the index
+	 */
+	private static int findRecord(byte[] data, String name, int occurrence) {
+		byte[] key = name.getBytes(StandardCharsets.US_ASCII);
+		ByteBuffer buffer = ByteBuffer.wrap(data);
+		int indexBase = buffer.getInt(26);
+		for (int record = 0; record < buffer.getInt(18); record++) {
+			int offset = indexBase + record * 28;
+			if (data[offset] == key[0] && data[offset + 1] == key[1] && data[offset + 2] == key[2]
+					&& data[offset + 3] == key[3] && --occurrence == 0) {
+				return offset;
+			}
+		}
+		throw new AssertionError(name + " not found");
+	}
 }
@@ -0,0 +1,185 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Scanner;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
+import org.biojava.nbio.core.exceptions.ParserException;
+import org.biojava.nbio.core.sequence.DNASequence;
+import org.biojava.nbio.core.sequence.DataSource;
+import org.biojava.nbio.core.sequence.compound.DNACompoundSet;
+import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
+import org.biojava.nbio.core.sequence.features.FeatureInterface;
+import org.biojava.nbio.core.sequence.features.Qualifier;
+import org.biojava.nbio.core.sequence.reference.AbstractReference;
+import org.biojava.nbio.core.sequence.template.AbstractSequence;
+import org.junit.jupiter.api.Test;
+
+public class EmblReaderTest {
+
+	private static String record() {
+		InputStream in = EmblReaderTest.class.getResourceAsStream("/test.embl");
+		try (Scanner scanner = new Scanner(in, "UTF-8")) {
+			return scanner.useDelimiter("\\A").next();
+		}
+	}
+
+	/**
+	 * test.embl followed by a circular copy under another accession
+	 */
+	private static String twoRecords() {
+		String record = record();
+		return record + "\n" + record.replace("X56734; SV 1; linear", "X99999; SV 2; circular")
+				.replace("AC   X56734;", "AC   X99999;");
+	}
+
+	private static EmblReader<DNASequence, NucleotideCompound> reader(String embl) {
+		return new EmblReader<DNASequence, NucleotideCompound>(
+				new ByteArrayInputStream(embl.getBytes(StandardCharsets.UTF_8)),
+				new DNASequenceCreator(DNACompoundSet.getDNACompoundSet()));
+	}
+
+	@Test
+	public void testProcess() throws IOException, CompoundNotFoundException {
+		LinkedHashMap<String, DNASequence> sequences = reader(record()).process();
+		assertEquals(1, sequences.size());
+		DNASequence sequence = sequences.get("X56734");
+		assertEquals("X56734", sequence.getAccession().getID());
+		assertEquals(DataSource.ENA, sequence.getAccession().getDataSource());
+		assertEquals(Integer.valueOf(1), sequence.getAccession().getVersion());
+		assertEquals("Trifolium repens mRNA for non-cyanogenic beta-glucosidase", sequence.getDescription());
+		assertEquals(1859, sequence.getLength());
+		assertTrue(sequence.getSequenceAsString().startsWith("AAACAAACCAAATATGGATT"));
+		assertTrue(sequence.getSequenceAsString().endsWith("AAAAAAAAA"));
+
+		assertEquals(3, sequence.getFeatures().size());
+		assertEquals(1, sequence.getFeaturesByType("source").size());
+		FeatureInterface<AbstractSequence<NucleotideCompound>, NucleotideCompound> cds = sequence.getFeaturesByType("CDS").get(0);
+		assertEquals(14, cds.getLocations().getStart().getPosition().intValue());
+		assertEquals(1495, cds.getLocations().getEnd().getPosition().intValue());
+		assertEquals("beta-glucosidase", cds.getQualifiers().get("product").get(0).getValue());
+		assertEquals(6, cds.getQualifiers().get("db_xref").size());
+		assertEquals("experimental evidence, no additional details recorded",
+				sequence.getFeaturesByType("mRNA").get(0).getQualifiers().get("experiment").get(0).getValue());
+		assertEquals("taxon:3899", sequence.getTaxonomy().getID());
+
+		List<AbstractReference> references = sequence.getReferences();
+		assertEquals(2, references.size());
+		assertEquals("Oxtoby E., Dunn M.A., Pancoro A., Hughes M.A.", references.get(0).getAuthors());
+		assertEquals("Nucleotide and derived amino acid sequence of the cyanogenic beta-glucosidase "
+				+ "(linamarase) from white clover (Trifolium repens L.)", references.get(0).getTitle());
+		assertEquals("Plant Mol. Biol. 17(2):209-219(1991).", references.get(0).getJournal());
+		assertEquals("", references.get(1).getTitle());
+	}
+
+	@Test
+	public void testMaxRecords() throws IOException, CompoundNotFoundException {
+		EmblReader<DNASequence, NucleotideCompound> reader = reader(twoRecords());
+		LinkedHashMap<String, DNASequence> first = reader.process(1);
+		assertEquals(1, first.size());
+		assertTrue(first.containsKey("X56734"));
+		LinkedHashMap<String, DNASequence> second = reader.process(1);
+		assertEquals(1, second.size());
+		DNASequence circular = second.get("X99999");
+		assertEquals(Integer.valueOf(2), circular.getAccession().getVersion());
+		assertEquals(3, circular.getFeatures().size());
+		assertTrue(reader.process(1).isEmpty());
+		reader.close();
+		assertTrue(reader.isClosed());
+		assertThrows(IOException.class, () -> reader.process(1));
+	}
+
+	@Test
+	public void testLazyFeatures() throws IOException, CompoundNotFoundException {
+		List<DNASequence> eager = new ArrayList<>(reader(twoRecords()).process().values());
+		EmblReader<DNASequence, NucleotideCompound> lazyReader = reader(twoRecords());
+		lazyReader.setLazyFeatures(true);
+		Iterator<DNASequence> it = lazyReader.iterator();
+		for (DNASequence e : eager) {
+			assertTrue(it.hasNext());
+			DNASequence a = it.next();
+			assertTrue(a.isFeatureLoaderPending());
+			assertEquals(e.getAccession().getID(), a.getAccession().getID());
+			assertEquals(e.getSequenceAsString(), a.getSequenceAsString());
+			assertTrue(a.isFeatureLoaderPending());
+			assertEquals(describe(e.getFeatures()), describe(a.getFeatures()));
+			assertFalse(a.isFeatureLoaderPending());
+			assertEquals(e.getTaxonomy().getID(), a.getTaxonomy().getID());
+			assertEquals(e.getReferences().size(), a.getReferences().size());
+		}
+		assertFalse(it.hasNext());
+		lazyReader.close();
+	}
+
+	@Test
+	public void testStream() throws IOException {
+		File file = File.createTempFile("EmblReaderTest", ".embl");
+		file.deleteOnExit();
+		Files.write(file.toPath(), twoRecords().getBytes(StandardCharsets.UTF_8));
+		EmblReader<DNASequence, NucleotideCompound> reader = new EmblReader<DNASequence, NucleotideCompound>(file,
+				new DNASequenceCreator(DNACompoundSet.getDNACompoundSet()));
+		try (Stream<DNASequence> stream = reader.stream()) {
+			List<String> accessions = stream.parallel().map(s -> s.getAccession().getID()).collect(Collectors.toList());
+			assertEquals(2, accessions.size());
+			assertEquals("X56734", accessions.get(0));
+			assertEquals("X99999", accessions.get(1));
+		}
+	}
+
+	@Test
+	public void testMalformed() {
+		assertThrows(ParserException.class, () -> reader("XX\nID   X1; SV 1; linear; DNA; STD; PLN; 4 BP.\n").process());
+		String truncated = record();
+		assertThrows(ParserException.class, () -> reader(truncated.substring(0, truncated.indexOf("//"))).process());
+	}
+
+	private static List<String> describe(List<FeatureInterface<AbstractSequence<NucleotideCompound>, NucleotideCompound>> features) {
+		List<String> described = new ArrayList<>();
+		for (FeatureInterface<AbstractSequence<NucleotideCompound>, NucleotideCompound> feature : features) {
+			StringBuilder sb = new StringBuilder(feature.getType()).append(' ').append(feature.getLocations());
+			for (List<Qualifier> qualifiers : feature.getQualifiers().values()) {
+				for (Qualifier qualifier : qualifiers) {
+					sb.append(' ').append(qualifier.getName()).append('=').append(qualifier.getValue());
+				}
+			}
+			described.add(sb.toString());
+		}
+		return described;
+	}
+}
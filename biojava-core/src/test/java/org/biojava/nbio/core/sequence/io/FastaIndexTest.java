@@ -0,0 +1,90 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.io;
+
+import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
+import org.biojava.nbio.core.exceptions.ParserException;
+import org.biojava.nbio.core.sequence.compound.DNACompoundSet;
+import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class FastaIndexTest {
+
+	private static final String FASTA = ">chr1 first\nACGTA\nCCGGT\nTT\n>chr2:x\r\nGGGG\r\nAA\r\n\r\n>empty\n";
+
+	private static File write(String content) throws IOException {
+		File file = File.createTempFile("indexed", ".fa");
+		file.deleteOnExit();
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.US_ASCII));
+		return file;
+	}
+
+	@Test
+	public void buildWriteRead() throws IOException {
+		File fasta = write(FASTA);
+		FastaIndex index = FastaIndex.build(fasta);
+		assertEquals(Arrays.asList("chr1", "chr2:x", "empty"), index.getSequenceNames());
+		// the same as samtools faidx
+		assertEquals("chr1\t12\t12\t5\t6", index.getEntry("chr1").toString());
+		assertEquals("chr2:x\t6\t36\t4\t6", index.getEntry("chr2:x").toString());
+		assertEquals("empty\t0\t55\t0\t0", index.getEntry("empty").toString());
+
+		File fai = FastaIndex.getIndexFile(fasta);
+		fai.deleteOnExit();
+		index.write(fai);
+		FastaIndex read = FastaIndex.read(fai);
+		for (String name : index.getSequenceNames()) {
+			assertEquals(index.getEntry(name), read.getEntry(name));
+		}
+
+		assertThrows(ParserException.class, () -> FastaIndex.build(write(">bad\nACGT\nAC\nACGT\n")));
+		assertThrows(ParserException.class, () -> FastaIndex.build(write(">bad\nACGT\nACGTA\n")));
+	}
+
+	@Test
+	public void regions() throws IOException, CompoundNotFoundException {
+		File fasta = write(FASTA);
+		try (IndexedFastaReader<NucleotideCompound> reader = new IndexedFastaReader<NucleotideCompound>(fasta,
+				new DNASequenceCreator(DNACompoundSet.getDNACompoundSet()))) {
+			assertEquals("ACGTACCGGTTT", reader.getSequence("chr1").getSequenceAsString());
+			assertEquals("chr1", reader.getSequence("chr1").getAccession().getID());
+			assertEquals("TACCGGT", reader.getSubSequence("chr1", 4, 10).getSequenceAsString());
+			assertEquals("A", reader.getSubSequence("chr1", 5, 5).getSequenceAsString());
+			assertEquals("GGGGAA", reader.getRegion("chr2:x").getSequenceAsString());
+			assertEquals("GAA", reader.getRegion("chr2:x:4-100").getSequenceAsString());
+			assertEquals("CCGGTTT", reader.getRegion("chr1:6").getSequenceAsString());
+			assertEquals("GTAC", reader.getRegion("chr1:0,003-6").getSequenceAsString());
+			assertEquals("", reader.getSequence("empty").getSequenceAsString());
+			assertThrows(IllegalArgumentException.class, () -> reader.getSubSequence("chr1", 0, 3));
+			assertThrows(IllegalArgumentException.class, () -> reader.getSubSequence("chr1", 3, 13));
+			assertThrows(IllegalArgumentException.class, () -> reader.getRegion("chr3:1-2"));
+		}
+	}
+}
@@ -23,13 +23,30 @@ package org.biojava.nbio.core.sequence.io;
 import org.biojava.nbio.core.sequence.ProteinSequence;
 import org.biojava.nbio.core.sequence.compound.AminoAcidCompound;
 import org.biojava.nbio.core.sequence.compound.AminoAcidCompoundSet;
+import org.biojava.nbio.core.sequence.compound.DNACompoundSet;
+import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
+import org.biojava.nbio.core.sequence.compound.RNACompoundSet;
+import org.biojava.nbio.core.sequence.storage.SequenceReaderPool;
+import org.biojava.nbio.core.sequence.template.AbstractSequence;
 import org.junit.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.logging.Level;
 
 /**
@@ -210,4 +227,114 @@ public class FastaReaderTest {
 
 
 	}
+
+	@Test
+	public void deduplicatedProcess() throws Exception {
+		String fasta = ">a\nMKWVTFISLL\nLLFSSAYS\n>b\nMKWVTFISLLLLFSSAYS\n>c\nMKWVTF\n>d\nMKWVTFISLLLLFSSAYS\n";
+		SequenceReaderPool<AminoAcidCompound> pool = new SequenceReaderPool<AminoAcidCompound>();
+		FastaReader<ProteinSequence,AminoAcidCompound> fastaReader = new FastaReader<ProteinSequence,AminoAcidCompound>(
+				new ByteArrayInputStream(fasta.getBytes()),
+				new GenericFastaHeaderParser<ProteinSequence,AminoAcidCompound>(),
+				new DeduplicatingSequenceCreator<AminoAcidCompound>(
+						new ProteinSequenceCreator(AminoAcidCompoundSet.getAminoAcidCompoundSet()), pool));
+		LinkedHashMap<String,ProteinSequence> proteinSequences = fastaReader.process();
+
+		Assert.assertEquals(4, proteinSequences.size());
+		ProteinSequence a = proteinSequences.get("a");
+		ProteinSequence d = proteinSequences.get("d");
+		Assert.assertEquals("d", d.getAccession().getID());
+		Assert.assertEquals("MKWVTFISLLLLFSSAYS", d.getSequenceAsString());
+		Assert.assertSame(a.getProxySequenceReader(), d.getProxySequenceReader());
+		Assert.assertSame(a.getProxySequenceReader(), proteinSequences.get("b").getProxySequenceReader());
+		Assert.assertNotSame(a.getProxySequenceReader(), proteinSequences.get("c").getProxySequenceReader());
+		Assert.assertEquals(2, pool.getUniqueCount());
+		Assert.assertEquals(2, pool.getDeduplicatedCount());
+		Assert.assertEquals(36, pool.getBytesDeduplicated());
+	}
+
+	@Test
+	public void deduplicatedBytes() throws Exception {
+		SequenceReaderPool<AminoAcidCompound> pool = new SequenceReaderPool<AminoAcidCompound>();
+		DeduplicatingSequenceCreator<AminoAcidCompound> creator = new DeduplicatingSequenceCreator<AminoAcidCompound>(
+				new ProteinSequenceCreator(AminoAcidCompoundSet.getAminoAcidCompoundSet()), pool);
+		byte[] residues = "xxMKWVTFxxMKWVTFxxMKWVTA".getBytes(StandardCharsets.US_ASCII);
+		AbstractSequence<AminoAcidCompound> first = creator.getSequence(residues, 2, 6, 0);
+		AbstractSequence<AminoAcidCompound> second = creator.getSequence(residues, 10, 6, 0);
+		AbstractSequence<AminoAcidCompound> other = creator.getSequence(residues, 18, 6, 0);
+		AbstractSequence<AminoAcidCompound> fromString = creator.getSequence("MKWVTF", 0);
+		Assert.assertEquals("MKWVTF", second.getSequenceAsString());
+		Assert.assertSame(first.getProxySequenceReader(), second.getProxySequenceReader());
+		Assert.assertSame(first.getProxySequenceReader(), fromString.getProxySequenceReader());
+		Assert.assertNotSame(first.getProxySequenceReader(), other.getProxySequenceReader());
+		Assert.assertEquals(2, pool.getUniqueCount());
+		Assert.assertEquals(2, pool.getDeduplicatedCount());
+		Assert.assertEquals(12, pool.getBytesDeduplicated());
+	}
+
+	@Test
+	public void deduplicatedBytesKeepCompoundSets() throws Exception {
+		SequenceReaderPool<NucleotideCompound> pool = new SequenceReaderPool<NucleotideCompound>();
+		DeduplicatingSequenceCreator<NucleotideCompound> dna = new DeduplicatingSequenceCreator<NucleotideCompound>(
+				new DNASequenceCreator(DNACompoundSet.getDNACompoundSet()), pool);
+		DeduplicatingSequenceCreator<NucleotideCompound> rna = new DeduplicatingSequenceCreator<NucleotideCompound>(
+				new RNASequenceCreator(RNACompoundSet.getRNACompoundSet()), pool);
+		byte[] residues = "ACGA".getBytes(StandardCharsets.US_ASCII);
+		AbstractSequence<NucleotideCompound> fromDna = dna.getSequence(residues, 0, 4, 0);
+		rna.getSequence("ACGA", 0);
+		AbstractSequence<NucleotideCompound> fromRna = rna.getSequence(residues, 0, 4, 0);
+		Assert.assertEquals(RNACompoundSet.getRNACompoundSet(), fromRna.getCompoundSet());
+		Assert.assertEquals(RNACompoundSet.getRNACompoundSet(),
+				fromRna.getProxySequenceReader().getCompoundSet());
+		Assert.assertNotSame(fromDna.getProxySequenceReader(), fromRna.getProxySequenceReader());
+		Assert.assertEquals(2, pool.getUniqueCount());
+	}
+
+	@Test
+	public void stream() throws Exception {
+		File file = File.createTempFile("stream", ".fasta");
+		file.deleteOnExit();
+		try (InputStream in = this.getClass().getResourceAsStream("/PF00104_small.fasta")) {
+			Files.copy(in, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		List<String> expected = new ArrayList<String>();
+		for (ProteinSequence s : proteinReader(new FileInputStream(file)).process().values()) {
+			expected.add(s.getAccession().getID() + s.getSequenceAsString());
+		}
+
+		// one record at a time from a stream
+		List<String> sequential = new ArrayList<String>();
+		Iterator<ProteinSequence> it = proteinReader(new FileInputStream(file)).iterator();
+		while (it.hasNext()) {
+			ProteinSequence s = it.next();
+			sequential.add(s.getAccession().getID() + s.getSequenceAsString());
+		}
+		Assert.assertEquals(expected, sequential);
+
+		// split at record boundaries when backed by a file
+		FastaReader<ProteinSequence,AminoAcidCompound> fileReader = new FastaReader<ProteinSequence,AminoAcidCompound>(file,
+				new GenericFastaHeaderParser<ProteinSequence,AminoAcidCompound>(),
+				new ProteinSequenceCreator(AminoAcidCompoundSet.getAminoAcidCompoundSet()));
+		try (Stream<ProteinSequence> stream = fileReader.stream()) {
+			Spliterator<ProteinSequence> spliterator = stream.spliterator();
+			Assert.assertEquals(283, spliterator.estimateSize());
+			Spliterator<ProteinSequence> prefix = spliterator.trySplit();
+			Assert.assertNotNull(prefix);
+			Assert.assertEquals(283, prefix.estimateSize() + spliterator.estimateSize());
+		}
+		fileReader = new FastaReader<ProteinSequence,AminoAcidCompound>(file,
+				new GenericFastaHeaderParser<ProteinSequence,AminoAcidCompound>(),
+				new ProteinSequenceCreator(AminoAcidCompoundSet.getAminoAcidCompoundSet()));
+		try (Stream<ProteinSequence> stream = fileReader.stream()) {
+			List<String> parallel = stream.parallel()
+					.map(s -> s.getAccession().getID() + s.getSequenceAsString())
+					.collect(Collectors.toList());
+			Assert.assertEquals(expected, parallel);
+		}
+	}
+
+	private static FastaReader<ProteinSequence,AminoAcidCompound> proteinReader(InputStream in) {
+		return new FastaReader<ProteinSequence,AminoAcidCompound>(in,
+				new GenericFastaHeaderParser<ProteinSequence,AminoAcidCompound>(),
+				new ProteinSequenceCreator(AminoAcidCompoundSet.getAminoAcidCompoundSet()));
+	}
 }
@@ -0,0 +1,87 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.io;
+
+import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
+import org.biojava.nbio.core.sequence.DNASequence;
+import org.biojava.nbio.core.sequence.ProteinSequence;
+import org.biojava.nbio.core.sequence.compound.AminoAcidCompound;
+import org.biojava.nbio.core.sequence.compound.AminoAcidCompoundSet;
+import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+
+import static org.junit.Assert.assertEquals;
+
+public class FastaWriterTest {
+
+	@Test
+	public void roundTrip() throws IOException {
+		LinkedHashMap<String, ProteinSequence> sequences = new FastaReader<ProteinSequence, AminoAcidCompound>(
+				getClass().getResourceAsStream("/PF00104_small.fasta"),
+				new GenericFastaHeaderParser<ProteinSequence, AminoAcidCompound>(),
+				new ProteinSequenceCreator(AminoAcidCompoundSet.getAminoAcidCompoundSet())).process();
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (FastaWriter<ProteinSequence, AminoAcidCompound> writer = new FastaWriter<ProteinSequence, AminoAcidCompound>(
+				Channels.newChannel(out), new GenericFastaHeaderFormat<ProteinSequence, AminoAcidCompound>())) {
+			writer.write(sequences.values().stream());
+		}
+
+		StringBuilder expected = new StringBuilder();
+		for (ProteinSequence sequence : sequences.values()) {
+			expected.append('>').append(sequence.getOriginalHeader()).append('\n');
+			String residues = sequence.getSequenceAsString();
+			for (int i = 0; i < residues.length(); i += 60) {
+				expected.append(residues, i, Math.min(residues.length(), i + 60)).append('\n');
+			}
+		}
+		assertEquals(expected.toString(), out.toString());
+
+		LinkedHashMap<String, ProteinSequence> read = new FastaReader<ProteinSequence, AminoAcidCompound>(
+				new ByteArrayInputStream(out.toByteArray()),
+				new GenericFastaHeaderParser<ProteinSequence, AminoAcidCompound>(),
+				new ProteinSequenceCreator(AminoAcidCompoundSet.getAminoAcidCompoundSet())).process();
+		assertEquals(new ArrayList<String>(sequences.keySet()), new ArrayList<String>(read.keySet()));
+	}
+
+	@Test
+	public void lineLength() throws IOException, CompoundNotFoundException {
+		DNASequence first = new DNASequence("ACGTACGTAC");
+		first.setOriginalHeader("first sequence");
+		DNASequence second = new DNASequence("acgtnn");
+		second.setOriginalHeader("second");
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		FastaWriter<DNASequence, NucleotideCompound> writer = new FastaWriter<DNASequence, NucleotideCompound>(out,
+				new GenericFastaHeaderFormat<DNASequence, NucleotideCompound>(), 5);
+		writer.write(Arrays.asList(first, second));
+		writer.flush();
+		assertEquals(">first sequence\nACGTA\nCGTAC\n>second\nacgtn\nn\n", out.toString());
+	}
+}
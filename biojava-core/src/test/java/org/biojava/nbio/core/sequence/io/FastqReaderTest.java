@@ -0,0 +1,158 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.io;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
+import org.biojava.nbio.core.exceptions.ParserException;
+import org.biojava.nbio.core.sequence.DNASequence;
+import org.biojava.nbio.core.sequence.compound.DNACompoundSet;
+import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
+import org.biojava.nbio.core.sequence.features.ByteQualityFeature;
+import org.biojava.nbio.core.sequence.features.QualityFeature;
+import org.junit.jupiter.api.Test;
+
+public class FastqReaderTest {
+
+	private static final String FASTQ = "@read1 length=8\n" + "ACGTNACG\n" + "+\n" + "II5#!~AB\n"
+			+ "\r\n"
+			+ "@read2\r\n" + "TTTT\r\n" + "+read2\r\n" + "!!!!\r\n";
+
+	private FastqReader<DNASequence, NucleotideCompound> reader(String fastq, QualityEncoding encoding) {
+		return new FastqReader<DNASequence, NucleotideCompound>(
+				new ByteArrayInputStream(fastq.getBytes(StandardCharsets.US_ASCII)),
+				new DNASequenceCreator(DNACompoundSet.getDNACompoundSet()), encoding);
+	}
+
+	@Test
+	public void testRead() throws IOException, CompoundNotFoundException {
+		FastqReader<DNASequence, NucleotideCompound> reader = reader(FASTQ, QualityEncoding.PHRED_33);
+		DNASequence read = reader.read();
+		assertEquals("read1", read.getAccession().getID());
+		assertEquals("read1 length=8", read.getOriginalHeader());
+		assertEquals("ACGTNACG", read.getSequenceAsString());
+		assertArrayEquals(new byte[] { 40, 40, 20, 2, 0, 93, 32, 33 }, FastqReader.getScores(read));
+		QualityFeature<?, ?> quality = (QualityFeature<?, ?>) read.getFeaturesByType(FastqReader.QUALITY_FEATURE_TYPE).get(0);
+		assertEquals(Arrays.<Number>asList(40, 40, 20, 2, 0, 93, 32, 33), quality.getQualities());
+		assertEquals(20, quality.getQualityAt(3).intValue());
+		assertEquals(8, quality.getLocations().getEnd().getPosition().intValue());
+
+		read = reader.read();
+		assertEquals("read2", read.getAccession().getID());
+		assertEquals("TTTT", read.getSequenceAsString());
+		assertArrayEquals(new byte[4], FastqReader.getScores(read));
+		assertNull(reader.read());
+		reader.close();
+
+		Iterator<DNASequence> it = reader("@a\nAC\n+\nAB\n", QualityEncoding.PHRED_64).iterator();
+		assertArrayEquals(new byte[] { 1, 2 }, FastqReader.getScores(it.next()));
+		assertFalse(it.hasNext());
+	}
+
+	@Test
+	public void testMalformed() {
+		assertThrows(ParserException.class, () -> reader(">a\nAC\n+\nII\n", QualityEncoding.PHRED_33).read());
+		assertThrows(ParserException.class, () -> reader("@a\nAC\n-\nII\n", QualityEncoding.PHRED_33).read());
+		assertThrows(ParserException.class, () -> reader("@a\nAC\n+\nIII\n", QualityEncoding.PHRED_33).read());
+		assertThrows(ParserException.class, () -> reader("@a\nAC\n+\n", QualityEncoding.PHRED_33).read());
+		assertThrows(ParserException.class, () -> reader("@a\nAC\n+\nI?\n", QualityEncoding.PHRED_64).read());
+	}
+
+	@Test
+	public void testRoundTrip() throws IOException, CompoundNotFoundException {
+		// reads longer than the buffer of the reader and the blocks of the writer
+		Random random = new Random(7);
+		StringBuilder fastq = new StringBuilder();
+		List<byte[]> expected = new ArrayList<byte[]>();
+		for (int r = 0; r < 5; r++) {
+			int length = (r == 2) ? 200000 : random.nextInt(300);
+			StringBuilder bases = new StringBuilder();
+			StringBuilder qualities = new StringBuilder();
+			byte[] scores = new byte[length];
+			for (int i = 0; i < length; i++) {
+				bases.append("ACGT".charAt(random.nextInt(4)));
+				scores[i] = (byte) random.nextInt(42);
+				qualities.append((char) (scores[i] + 33));
+			}
+			expected.add(scores);
+			fastq.append("@r").append(r).append(" sample\n").append(bases).append("\n+\n").append(qualities).append('\n');
+		}
+
+		List<DNASequence> reads = new ArrayList<DNASequence>();
+		try (FastqReader<DNASequence, NucleotideCompound> reader = reader(fastq.toString(), QualityEncoding.PHRED_33)) {
+			reader.stream().forEach(reads::add);
+		}
+		assertEquals(5, reads.size());
+		for (int r = 0; r < 5; r++) {
+			assertArrayEquals(expected.get(r), FastqReader.getScores(reads.get(r)));
+		}
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (FastqWriter<DNASequence, NucleotideCompound> writer = new FastqWriter<DNASequence, NucleotideCompound>(out,
+				new GenericFastaHeaderFormat<DNASequence, NucleotideCompound>(), QualityEncoding.PHRED_33)) {
+			writer.write(reads);
+		}
+		assertEquals(fastq.toString(), new String(out.toByteArray(), StandardCharsets.US_ASCII));
+
+		// boxed qualities are written too, and must fit the encoding
+		DNASequence read = reads.get(0);
+		ByteQualityFeature<?, ?> feature = (ByteQualityFeature<?, ?>) read.getFeaturesByType(FastqReader.QUALITY_FEATURE_TYPE).get(0);
+		feature.setQualities(new ArrayList<Number>(feature.getQualities()));
+		assertArrayEquals(expected.get(0), feature.getScores());
+		feature.getScores()[0] = 63;
+		FastqWriter<DNASequence, NucleotideCompound> writer = new FastqWriter<DNASequence, NucleotideCompound>(
+				new ByteArrayOutputStream(), new GenericFastaHeaderFormat<DNASequence, NucleotideCompound>(),
+				QualityEncoding.PHRED_64);
+		assertThrows(IllegalArgumentException.class, () -> writer.write(read));
+	}
+
+	@Test
+	public void testHeaderBytesRoundTrip() throws IOException, CompoundNotFoundException {
+		byte[] fastq = { '@', 'r', (byte) 0xE9, 'a', 'd', ' ', (byte) 0xB5, 'm', '\n', 'A', 'C', '\n', '+', '\n', 'I', 'I', '\n' };
+		List<DNASequence> reads = new ArrayList<DNASequence>();
+		try (FastqReader<DNASequence, NucleotideCompound> reader = new FastqReader<DNASequence, NucleotideCompound>(
+				new ByteArrayInputStream(fastq), new DNASequenceCreator(DNACompoundSet.getDNACompoundSet()),
+				QualityEncoding.PHRED_33)) {
+			reader.stream().forEach(reads::add);
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (FastqWriter<DNASequence, NucleotideCompound> writer = new FastqWriter<DNASequence, NucleotideCompound>(out,
+				new GenericFastaHeaderFormat<DNASequence, NucleotideCompound>(), QualityEncoding.PHRED_33)) {
+			writer.write(reads);
+		}
+		assertArrayEquals(fastq, out.toByteArray());
+	}
+}
@@ -164,6 +164,114 @@ public class GenbankReaderTest {
 		assertTrue(inStream.isclosed());
 	}
 
+	@Test
+	public void testStream() throws IOException, CompoundNotFoundException {
+		File file = File.createTempFile("stream", ".gb");
+		file.deleteOnExit();
+		try (OutputStream out = new FileOutputStream(file)) {
+			for (int i = 0; i < 3; i++) {
+				try (InputStream in = this.getClass().getResourceAsStream("/two-dnaseqs.gb")) {
+					byte[] buffer = new byte[4096];
+					for (int read; (read = in.read(buffer)) != -1;) {
+						out.write(buffer, 0, read);
+					}
+				}
+			}
+		}
+
+		GenbankReader<DNASequence, NucleotideCompound> reader = new GenbankReader<>(file,
+				new GenericGenbankHeaderParser<>(), new DNASequenceCreator(DNACompoundSet.getDNACompoundSet()));
+		List<String> records = new ArrayList<>();
+		try (java.util.stream.Stream<DNASequence> stream = reader.stream()) {
+			assertEquals(6, stream.spliterator().estimateSize());
+		}
+		assertTrue(reader.isClosed());
+
+		reader = new GenbankReader<>(file,
+				new GenericGenbankHeaderParser<>(), new DNASequenceCreator(DNACompoundSet.getDNACompoundSet()));
+		try (java.util.stream.Stream<DNASequence> stream = reader.stream()) {
+			stream.parallel().map(s -> s.getAccession().getID() + s.getLength()).forEachOrdered(records::add);
+		}
+		assertEquals(Arrays.asList("vPetite2217", "sbFDR3018", "vPetite2217", "sbFDR3018", "vPetite2217", "sbFDR3018"), records);
+
+		Iterator<DNASequence> it = new GenbankReader<DNASequence, NucleotideCompound>(this.getClass().getResourceAsStream("/two-dnaseqs.gb"),
+				new GenericGenbankHeaderParser<>(), new DNASequenceCreator(DNACompoundSet.getDNACompoundSet())).iterator();
+		assertEquals("vPetite", it.next().getAccession().getID());
+		assertEquals("sbFDR", it.next().getAccession().getID());
+		assertFalse(it.hasNext());
+	}
+
+	@Test
+	public void testLazyFeatures() throws IOException, CompoundNotFoundException {
+		for (String resource : new String[] { "/NM_000266.gb", "/two-dnaseqs.gb" }) {
+			GenbankReader<DNASequence, NucleotideCompound> eager = new GenbankReader<>(
+					this.getClass().getResourceAsStream(resource), new GenericGenbankHeaderParser<>(),
+					new DNASequenceCreator(DNACompoundSet.getDNACompoundSet()));
+			GenbankReader<DNASequence, NucleotideCompound> lazy = new GenbankReader<>(
+					this.getClass().getResourceAsStream(resource), new GenericGenbankHeaderParser<>(),
+					new DNASequenceCreator(DNACompoundSet.getDNACompoundSet()));
+			lazy.setLazyFeatures(true);
+			assertTrue(lazy.isLazyFeatures());
+			List<DNASequence> expected = new ArrayList<>(eager.process().values());
+			List<DNASequence> actual = new ArrayList<>(lazy.process().values());
+			assertEquals(expected.size(), actual.size());
+			for (int i = 0; i < expected.size(); i++) {
+				DNASequence e = expected.get(i);
+				DNASequence a = actual.get(i);
+				assertEquals(e.getAccession(), a.getAccession());
+				assertEquals(e.getSequenceAsString(), a.getSequenceAsString());
+				assertTrue(a.isFeatureLoaderPending());
+
+				assertEquals(describe(e.getFeaturesByType("CDS")), describe(a.getFeaturesByType("CDS")));
+				assertFalse(a.isFeatureLoaderPending());
+				assertEquals(describe(e.getFeatures()), describe(a.getFeatures()));
+				assertEquals(e.getTaxonomy() == null, a.getTaxonomy() == null);
+				if (e.getTaxonomy() != null) {
+					assertEquals(e.getTaxonomy().getID(), a.getTaxonomy().getID());
+				}
+				assertEquals(e.getReferences().size(), a.getReferences().size());
+				for (int j = 0; j < e.getReferences().size(); j++) {
+					assertEquals(e.getReferences().get(j).getTitle(), a.getReferences().get(j).getTitle());
+					assertEquals(e.getReferences().get(j).getAuthors(), a.getReferences().get(j).getAuthors());
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testLocationCache() throws IOException, CompoundNotFoundException {
+		GenbankReader<DNASequence, NucleotideCompound> uncached = new GenbankReader<>(
+				this.getClass().getResourceAsStream("/NC_018080.gb"), new GenericGenbankHeaderParser<>(),
+				new DNASequenceCreator(DNACompoundSet.getDNACompoundSet()));
+		GenbankReader<DNASequence, NucleotideCompound> cached = new GenbankReader<>(
+				this.getClass().getResourceAsStream("/NC_018080.gb"), new GenericGenbankHeaderParser<>(),
+				new DNASequenceCreator(DNACompoundSet.getDNACompoundSet()));
+		cached.setLocationCacheSize(1024);
+		DNASequence expected = uncached.process().values().iterator().next();
+		DNASequence actual = cached.process().values().iterator().next();
+		assertEquals(describe(expected.getFeatures()), describe(actual.getFeatures()));
+
+		// a gene and its tRNA share the location parsed once
+		FeatureInterface<AbstractSequence<NucleotideCompound>, NucleotideCompound> trna = actual.getFeaturesByType("tRNA").get(0);
+		FeatureInterface<AbstractSequence<NucleotideCompound>, NucleotideCompound> gene = actual.getFeaturesByType("gene").get(0);
+		assertEquals(gene.getLocations(), trna.getLocations());
+		assertSame(gene.getLocations(), trna.getLocations());
+	}
+
+	private static List<String> describe(List<FeatureInterface<AbstractSequence<NucleotideCompound>, NucleotideCompound>> features) {
+		List<String> described = new ArrayList<>();
+		for (FeatureInterface<AbstractSequence<NucleotideCompound>, NucleotideCompound> feature : features) {
+			StringBuilder sb = new StringBuilder(feature.getType()).append(' ').append(feature.getLocations());
+			for (List<Qualifier> qualifiers : feature.getQualifiers().values()) {
+				for (Qualifier qualifier : qualifiers) {
+					sb.append(' ').append(qualifier.getName()).append('=').append(qualifier.getValue());
+				}
+			}
+			described.add(sb.toString());
+		}
+		return described;
+	}
+
 	@Test
 	public void CDStest() throws Exception {
 		logger.info("CDS Test");
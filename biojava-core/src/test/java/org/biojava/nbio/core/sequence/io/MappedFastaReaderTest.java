@@ -0,0 +1,109 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.io;
+
+import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
+import org.biojava.nbio.core.sequence.DNASequence;
+import org.biojava.nbio.core.sequence.ProteinSequence;
+import org.biojava.nbio.core.sequence.compound.AminoAcidCompound;
+import org.biojava.nbio.core.sequence.compound.AminoAcidCompoundSet;
+import org.biojava.nbio.core.sequence.compound.DNACompoundSet;
+import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
+import org.biojava.nbio.core.sequence.template.AbstractSequence;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class MappedFastaReaderTest {
+
+	@Test
+	public void matchesFastaReader() throws IOException {
+		File file = File.createTempFile("mapped", ".fasta");
+		file.deleteOnExit();
+		try (InputStream in = getClass().getResourceAsStream("/PF00104_small.fasta")) {
+			Files.copy(in, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+
+		LinkedHashMap<String, ProteinSequence> expected = new FastaReader<ProteinSequence, AminoAcidCompound>(file,
+				new GenericFastaHeaderParser<ProteinSequence, AminoAcidCompound>(),
+				new ProteinSequenceCreator(AminoAcidCompoundSet.getAminoAcidCompoundSet())).process();
+		assertEquals(283, expected.size());
+
+		// A tiny window forces records and lines to span mappings
+		for (int windowSize : new int[] { 7, 1 << 30 }) {
+			LinkedHashMap<String, ProteinSequence> actual = new MappedFastaReader<ProteinSequence, AminoAcidCompound>(file,
+					new GenericFastaHeaderParser<ProteinSequence, AminoAcidCompound>(),
+					new ProteinSequenceCreator(AminoAcidCompoundSet.getAminoAcidCompoundSet()), windowSize).process();
+			assertEquals(new ArrayList<String>(expected.keySet()), new ArrayList<String>(actual.keySet()));
+			for (String id : expected.keySet()) {
+				assertEquals(expected.get(id).getSequenceAsString(), actual.get(id).getSequenceAsString());
+				assertEquals(expected.get(id).getOriginalHeader(), actual.get(id).getOriginalHeader());
+			}
+		}
+	}
+
+	@Test
+	public void offsetsAndLineHandling() throws IOException {
+		String fasta = "; comment\r\n>one\r\nACGT\r\n  acgt  \r\n\r\n;inner\r\nNN\r\n"
+				+ ">empty\n>two\nGGGG\nCC";
+		File file = File.createTempFile("mapped", ".fasta");
+		file.deleteOnExit();
+		try (OutputStream out = new FileOutputStream(file)) {
+			out.write(fasta.getBytes(StandardCharsets.US_ASCII));
+		}
+
+		final List<Long> indexes = new ArrayList<Long>();
+		DNASequenceCreator creator = new DNASequenceCreator(DNACompoundSet.getDNACompoundSet()) {
+			@Override
+			public AbstractSequence<NucleotideCompound> getSequence(byte[] residues, int offset, int length, long index)
+					throws CompoundNotFoundException {
+				indexes.add(index);
+				return super.getSequence(residues, offset, length, index);
+			}
+		};
+		MappedFastaReader<DNASequence, NucleotideCompound> reader = new MappedFastaReader<DNASequence, NucleotideCompound>(
+				file, new GenericFastaHeaderParser<DNASequence, NucleotideCompound>(), creator, 5);
+		LinkedHashMap<String, DNASequence> first = reader.process(1);
+		assertEquals(Arrays.asList("one"), new ArrayList<String>(first.keySet()));
+		assertEquals("ACGTacgtNN", first.get("one").getSequenceAsString());
+		LinkedHashMap<String, DNASequence> rest = reader.process(5);
+		assertEquals(Arrays.asList("two"), new ArrayList<String>(rest.keySet()));
+		assertEquals("GGGGCC", rest.get("two").getSequenceAsString());
+		assertNull(reader.process(1));
+		reader.close();
+
+		assertEquals(Arrays.asList((long) fasta.indexOf("ACGT"), (long) fasta.indexOf("GGGG")), indexes);
+	}
+}
@@ -0,0 +1,83 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.io;
+
+import org.biojava.nbio.core.sequence.ProteinSequence;
+import org.biojava.nbio.core.sequence.compound.AminoAcidCompound;
+import org.biojava.nbio.core.sequence.compound.AminoAcidCompoundSet;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ParallelFastaReaderTest {
+
+	@Test
+	public void matchesFastaReader() throws IOException {
+		File file = File.createTempFile("parallel", ".fasta");
+		file.deleteOnExit();
+		try (InputStream in = getClass().getResourceAsStream("/PF00104_small.fasta")) {
+			Files.copy(in, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		LinkedHashMap<String, ProteinSequence> expected = new FastaReader<ProteinSequence, AminoAcidCompound>(file,
+				new GenericFastaHeaderParser<ProteinSequence, AminoAcidCompound>(),
+				new ProteinSequenceCreator(AminoAcidCompoundSet.getAminoAcidCompoundSet())).process();
+
+		ParallelFastaReader<ProteinSequence, AminoAcidCompound> reader = new ParallelFastaReader<ProteinSequence, AminoAcidCompound>(
+				file, new GenericFastaHeaderParser<ProteinSequence, AminoAcidCompound>(),
+				new ProteinSequenceCreator(AminoAcidCompoundSet.getAminoAcidCompoundSet()), 1000);
+
+		long[] boundaries = reader.chunkBoundaries(4);
+		assertTrue(boundaries.length > 10);
+		assertEquals(file.length(), boundaries[boundaries.length - 1]);
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+			for (int i = 1; i < boundaries.length - 1; i++) {
+				raf.seek(boundaries[i] - 1);
+				assertEquals('\n', raf.read());
+				assertEquals('>', raf.read());
+			}
+		}
+
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			Map<String, ProteinSequence> ordered = reader.process(pool, true);
+			assertEquals(new ArrayList<String>(expected.keySet()), new ArrayList<String>(ordered.keySet()));
+			for (String id : expected.keySet()) {
+				assertEquals(expected.get(id).getSequenceAsString(), ordered.get(id).getSequenceAsString());
+			}
+			Map<String, ProteinSequence> unordered = reader.process(pool, false);
+			assertEquals(expected.keySet(), unordered.keySet());
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
@@ -0,0 +1,117 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.io;
+
+import org.biojava.nbio.core.sequence.DNASequence;
+import org.biojava.nbio.core.sequence.compound.DNACompoundSet;
+import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ParallelGenbankReaderTest {
+
+	private byte[] records() throws IOException {
+		String nm = resource("/NM_000266.gb");
+		StringBuilder sb = new StringBuilder(resource("/two-dnaseqs.gb"));
+		for (int i = 0; i < 20; i++) {
+			sb.append('\n').append(nm.replace("NM_000266", "NM_" + (100000 + i)));
+		}
+		return sb.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	private String resource(String name) throws IOException {
+		try (InputStream in = getClass().getResourceAsStream(name)) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[4096];
+			for (int read; (read = in.read(buffer)) != -1;) {
+				out.write(buffer, 0, read);
+			}
+			return new String(out.toByteArray(), StandardCharsets.UTF_8);
+		}
+	}
+
+	@Test
+	public void matchesGenbankReader() throws Exception {
+		byte[] records = records();
+		LinkedHashMap<String, DNASequence> expected = new GenbankReader<DNASequence, NucleotideCompound>(
+				new ByteArrayInputStream(records), new GenericGenbankHeaderParser<DNASequence, NucleotideCompound>(),
+				new DNASequenceCreator(DNACompoundSet.getDNACompoundSet())).process();
+		assertEquals(22, expected.size());
+
+		File file = File.createTempFile("parallel", ".gb");
+		file.deleteOnExit();
+		Files.write(file.toPath(), records);
+		LinkedHashMap<String, DNASequence> ordered = new ParallelGenbankReader<DNASequence, NucleotideCompound>(file,
+				new DNASequenceCreator(DNACompoundSet.getDNACompoundSet())).process();
+		assertEquals(new ArrayList<String>(expected.keySet()), new ArrayList<String>(ordered.keySet()));
+		for (String id : expected.keySet()) {
+			DNASequence e = expected.get(id);
+			DNASequence a = ordered.get(id);
+			assertEquals(e.getSequenceAsString(), a.getSequenceAsString());
+			assertEquals(e.getFeatures().size(), a.getFeatures().size());
+			assertEquals(e.getReferences().size(), a.getReferences().size());
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		try {
+			LinkedHashMap<String, DNASequence> unordered = new ParallelGenbankReader<DNASequence, NucleotideCompound>(
+					new ByteArrayInputStream(records), new DNASequenceCreator(DNACompoundSet.getDNACompoundSet()))
+					.process(executor, 5, false);
+			assertEquals(expected.keySet(), new HashSet<String>(unordered.keySet()));
+
+			ParallelGenbankReader<DNASequence, NucleotideCompound> reader = new ParallelGenbankReader<DNASequence, NucleotideCompound>(
+					new ByteArrayInputStream(records), new DNASequenceCreator(DNACompoundSet.getDNACompoundSet()));
+			reader.setLazyFeatures(true);
+			List<String> ids = new ArrayList<String>();
+			Iterator<DNASequence> it = reader.iterator(executor, 1, true);
+			while (it.hasNext()) {
+				DNASequence sequence = it.next();
+				assertTrue(sequence.isFeatureLoaderPending());
+				assertEquals(expected.get(sequence.getAccession().getID()).getFeatures().size(),
+						sequence.getFeatures().size());
+				ids.add(sequence.getAccession().getID());
+			}
+			reader.close();
+			assertEquals(new ArrayList<String>(expected.keySet()), ids);
+			assertFalse(it.hasNext());
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
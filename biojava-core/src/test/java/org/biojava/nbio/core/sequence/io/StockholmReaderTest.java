@@ -0,0 +1,146 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.io;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.biojava.nbio.core.alignment.template.Profile;
+import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
+import org.biojava.nbio.core.exceptions.ParserException;
+import org.biojava.nbio.core.sequence.MultipleSequenceAlignment;
+import org.biojava.nbio.core.sequence.compound.AminoAcidCompound;
+import org.biojava.nbio.core.sequence.compound.AminoAcidCompoundSet;
+import org.biojava.nbio.core.sequence.template.AbstractSequence;
+import org.junit.jupiter.api.Test;
+
+public class StockholmReaderTest {
+
+	private static final String TWO_FAMILIES = "# STOCKHOLM 1.0\n"
+			+ "#=GF ID   first\n"
+			+ "#=GF AC   PF99999.1\n"
+			+ "#=GF CC\n"
+			+ "#=GS a/1-6  AC Q00001.1\n"
+			+ "\n"
+			+ "a/1-6    AC-DE\n"
+			+ "#=GR a/1-6 SS HH-HH\n"
+			+ "b/3-9    ACGDE\n"
+			+ "#=GC SS_cons HHHHH\n"
+			+ "\n"
+			+ "a/1-6    FG.\n"
+			+ "#=GR a/1-6 SS HH.\n"
+			+ "b/3-9    F.H\n"
+			+ "#=GC SS_cons HH-\n"
+			+ "//\n"
+			+ "# STOCKHOLM 1.0\n"
+			+ "#=GF ID   second\n"
+			+ "c  MK\n"
+			+ "//\n";
+
+	private static StockholmReader reader(String text) {
+		return new StockholmReader(new ByteArrayInputStream(text.getBytes(StandardCharsets.US_ASCII)));
+	}
+
+	@Test
+	public void testInterleavedBlocks() throws IOException {
+		StockholmReader reader = reader(TWO_FAMILIES);
+		StockholmAlignment family = reader.read();
+		assertEquals("first", family.getName());
+		assertEquals("PF99999.1", family.getAccession());
+		assertEquals(Arrays.asList(""), family.getFileAnnotations().get("CC"));
+		assertEquals(Arrays.asList("a/1-6", "b/3-9"), family.getSequenceNames());
+		assertEquals(2, family.getSize());
+		assertEquals(8, family.getLength());
+		assertEquals("AC-DEFG.", new String(family.getAlignedResidues(0), StandardCharsets.US_ASCII));
+		assertEquals("ACGDEF.H", new String(family.getAlignedResidues(family.getRow("b/3-9")), StandardCharsets.US_ASCII));
+		assertArrayEquals(new byte[] { '-', 'G' }, family.getColumn(2));
+		assertEquals('H', family.getResidue(1, 7));
+		assertEquals(-1, family.getRow("z"));
+		assertEquals("HHHHHHH-", family.getColumnAnnotations().get("SS_cons"));
+		assertEquals("HH-HHHH.", family.getResidueAnnotations("a/1-6").get("SS"));
+		assertEquals(Arrays.asList("Q00001.1"), family.getSequenceAnnotations("a/1-6").get("AC"));
+		assertTrue(family.getSequenceAnnotations("b/3-9").isEmpty());
+		assertThrows(IndexOutOfBoundsException.class, () -> family.getColumn(8));
+
+		assertEquals("second", reader.read().getName());
+		assertNull(reader.read());
+		reader.close();
+	}
+
+	@Test
+	public void testPfam() throws IOException, CompoundNotFoundException {
+		List<StockholmAlignment> families;
+		try (StockholmReader reader = new StockholmReader(getClass().getResourceAsStream("/PF00070.selex"))) {
+			families = reader.stream().collect(Collectors.toList());
+		}
+		assertEquals(1, families.size());
+		StockholmAlignment family = families.get(0);
+		assertEquals(130, family.getSize());
+		assertEquals(117, family.getLength());
+		assertEquals("P73059_SYNY3/208-290", family.getSequenceNames().get(0));
+		assertEquals(117, family.getColumnAnnotations().get("SS_cons").length());
+		assertEquals(Arrays.asList("P73059.1"), family.getSequenceAnnotations("P73059_SYNY3/208-290").get("AC"));
+		assertEquals(18, family.getSequenceAnnotations("TRXR1_RAT/192-277").get("DR").size());
+		assertEquals("PDB; 1ebd B; 178-260;", family.getSequenceAnnotations("DLDH1_BACST/178-260").get("DR").get(0));
+
+		AminoAcidCompoundSet aminoAcids = AminoAcidCompoundSet.getAminoAcidCompoundSet();
+		MultipleSequenceAlignment<AbstractSequence<AminoAcidCompound>, AminoAcidCompound> msa = family
+				.toMultipleSequenceAlignment(new ProteinSequenceCreator(aminoAcids));
+		assertEquals(130, msa.getSize());
+		assertEquals(117, msa.getLength());
+		assertEquals("MERA_BACCE/336-418", msa.getAlignedSequence(2).getAccession().getID());
+
+		Profile<AbstractSequence<AminoAcidCompound>, AminoAcidCompound> profile = family
+				.toProfile(new ProteinSequenceCreator(aminoAcids));
+		assertEquals(130, profile.getSize());
+		assertEquals(117, profile.getLength());
+		// P73059_SYNY3/208-290 covers residues 208 to 290
+		assertEquals(83, profile.getAlignedSequence(1).getOriginalSequence().getLength());
+		assertEquals(msa.getAlignedSequence(1).getSequenceAsString().replace(".", "-"),
+				profile.getAlignedSequence(1).getSequenceAsString());
+	}
+
+	@Test
+	public void testSelex() throws IOException {
+		StockholmReader reader = reader("# a comment\nseq1 AC.D\nseq2 A-CD\n\nseq1 EF\nseq2 E~\n");
+		StockholmAlignment family = reader.read();
+		assertNull(family.getName());
+		assertEquals(6, family.getLength());
+		assertEquals("A-CDE~", new String(family.getAlignedResidues(1), StandardCharsets.US_ASCII));
+		assertNull(reader.read());
+	}
+
+	@Test
+	public void testMalformed() {
+		assertThrows(ParserException.class, () -> reader("# STOCKHOLM 1.0\na ACD\nb AC\n//\n").read());
+		assertThrows(ParserException.class, () -> reader("# STOCKHOLM 1.0\n#=GS a\na ACD\n//\n").read());
+	}
+}
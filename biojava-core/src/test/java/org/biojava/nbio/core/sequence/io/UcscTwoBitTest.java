@@ -0,0 +1,96 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.io;
+
+import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
+import org.biojava.nbio.core.sequence.AccessionID;
+import org.biojava.nbio.core.sequence.DNASequence;
+import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
+import org.biojava.nbio.core.sequence.location.SimpleLocation;
+import org.biojava.nbio.core.sequence.storage.UcscTwoBitSequenceReader;
+import org.biojava.nbio.core.sequence.template.CompoundOrdinals;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class UcscTwoBitTest {
+
+	private static DNASequence seq(String name, String bases) throws CompoundNotFoundException {
+		DNASequence seq = new DNASequence(bases);
+		seq.setAccession(new AccessionID(name));
+		return seq;
+	}
+
+	@Test
+	public void roundTrip() throws CompoundNotFoundException, IOException {
+		String first = "NNNNACGTacgtNNnnGGCCTTAAgattaca";
+		String second = "ACGTA";
+		File file = File.createTempFile("ucsc", ".2bit");
+		file.deleteOnExit();
+		UcscTwoBitWriter.write(file, Arrays.asList(seq("chrA", first), seq("chrB", second)));
+
+		try (UcscTwoBitReader reader = new UcscTwoBitReader(file)) {
+			assertEquals(Arrays.asList("chrA", "chrB"), reader.getSequenceNames());
+			DNASequence chrA = reader.getSequence("chrA");
+			assertEquals("chrA", chrA.getAccession().getID());
+			assertEquals(first.length(), chrA.getLength());
+			assertEquals(first, chrA.getSequenceAsString());
+			assertEquals("n", chrA.getCompoundAt(15).toString());
+			assertEquals("t", chrA.getCompoundAt(12).toString());
+			assertEquals(first.substring(9, 20), chrA.getSubSequence(10, 20).getSequenceAsString());
+
+			@SuppressWarnings("unchecked")
+			UcscTwoBitSequenceReader<NucleotideCompound> store =
+					(UcscTwoBitSequenceReader<NucleotideCompound>) chrA.getProxySequenceReader();
+			assertEquals(Arrays.asList(new SimpleLocation(1, 4), new SimpleLocation(13, 16)), store.getNBlocks());
+			assertEquals(Arrays.asList(new SimpleLocation(9, 12), new SimpleLocation(15, 16),
+					new SimpleLocation(25, 31)), store.getMaskBlocks());
+			assertEquals(first.substring(2, 14), store.getSequenceAsString(3, 14));
+			assertTrue(store.isMasked(25));
+			assertFalse(store.isMasked(24));
+
+			CompoundOrdinals<NucleotideCompound> ordinals = CompoundOrdinals.forCompoundSet(chrA.getCompoundSet());
+			int[] dest = new int[first.length()];
+			chrA.getOrdinals(1, first.length(), dest, 0);
+			for (int i = 0; i < dest.length; i++) {
+				assertEquals(ordinals.getOrdinal(chrA.getCompoundAt(i + 1)), dest[i]);
+			}
+		}
+
+		LinkedHashMap<String, DNASequence> all = new UcscTwoBitReader(file).process();
+		assertEquals(second, all.get("chrB").getSequenceAsString());
+	}
+
+	@Test(expected = IOException.class)
+	public void badSignature() throws IOException {
+		File file = File.createTempFile("ucsc", ".2bit");
+		file.deleteOnExit();
+		java.nio.file.Files.write(file.toPath(), new byte[16]);
+		new UcscTwoBitReader(file);
+	}
+}
@@ -21,11 +21,16 @@
 package org.biojava.nbio.core.sequence.location;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 
 import org.biojava.nbio.core.sequence.DataSource;
 import org.biojava.nbio.core.sequence.location.InsdcParser.complexFeaturesAppendEnum;
+import org.biojava.nbio.core.sequence.location.template.AbstractLocation;
 import org.biojava.nbio.core.sequence.location.template.Location;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.slf4j.Logger;
@@ -71,4 +76,48 @@ public class InsdcParserTest {
 		p.setComplexFeaturesAppendMode(complexFeaturesAppendEnum.HIERARCHICAL);
 		assertEquals(parsedLocation, p.parse(header).toString());
 	}
+
+	@ParameterizedTest
+	@CsvSource(delimiterString = "|", value = { "43..129", "7", "<1..206", "1..>206", "<1..>206",
+			"complement(43..129)", "complement(<5..>2000)", "complement(12)", "123456789..123456790" })
+	void testSimpleLocationMatchesParser(String location) {
+		InsdcParser p = new InsdcParser(DataSource.GENBANK);
+		AbstractLocation simple = (AbstractLocation) p.parseSimpleLocation(location);
+		AbstractLocation complex = (AbstractLocation) p.parseComplexLocation(location);
+		assertEquals(complex, simple);
+		assertEquals(complex.isPartialOn5prime(), simple.isPartialOn5prime());
+		assertEquals(complex.isPartialOn3prime(), simple.isPartialOn3prime());
+		assertEquals(complex.toString(), p.parse(location).toString());
+	}
+
+	@ParameterizedTest
+	@CsvSource(delimiterString = "|", value = { "join(1..5,9..12)", "J00194.1:100..202", "55^56", "10..5",
+			"complement(1..5", "1..", "1234567890..1234567891", "complement(join(1..5,9..12))" })
+	void testSimpleLocationFallsBack(String location) {
+		assertNull(new InsdcParser(DataSource.GENBANK).parseSimpleLocation(location));
+	}
+
+	@Test
+	void testCache() {
+		InsdcParser p = new InsdcParser(DataSource.GENBANK);
+		p.setCacheSize(2);
+		Location first = p.parse("join(1..5,9..12)");
+		assertSame(first, p.parse("join(1..5,9..12)"));
+		p.parse("20..30");
+		p.parse("40..50");
+		// the least recently used is dropped
+		assertNotSame(first, p.parse("join(1..5,9..12)"));
+
+		// locations of several parts are kept by topology
+		p.setSequenceCircular(true);
+		Location circular = p.parse("join(1..5,9..12)");
+		assertNotSame(first, circular);
+		assertSame(circular, p.parse("join(1..5,9..12)"));
+
+		// spanning the origin depends on the sequence length
+		p.setSequenceLength(100);
+		Location origin = p.parse("90..10");
+		assertNotSame(origin, p.parse("90..10"));
+		assertEquals(origin, p.parse("90..10"));
+	}
 }
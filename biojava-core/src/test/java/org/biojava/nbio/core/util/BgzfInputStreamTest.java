@@ -0,0 +1,184 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.util;
+
+import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
+import org.biojava.nbio.core.sequence.compound.DNACompoundSet;
+import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
+import org.biojava.nbio.core.sequence.io.DNASequenceCreator;
+import org.biojava.nbio.core.sequence.io.IndexedFastaReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BgzfInputStreamTest {
+
+	/**
+	 * Compresses data as bgzip does: blocks of at most blockSize bytes
+	 * followed by an empty end of file block
+	 */
+	static File bgzip(byte[] data, int blockSize) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		for (int offset = 0; offset < data.length; offset += blockSize) {
+			writeBlock(out, data, offset, Math.min(blockSize, data.length - offset));
+		}
+		writeBlock(out, data, 0, 0);
+		File file = File.createTempFile("bgzf", ".gz");
+		file.deleteOnExit();
+		Files.write(file.toPath(), out.toByteArray());
+		return file;
+	}
+
+	private static void writeBlock(ByteArrayOutputStream out, byte[] data, int offset, int length) {
+		Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+		deflater.setInput(data, offset, length);
+		deflater.finish();
+		byte[] compressed = new byte[length + 1024];
+		int compressedLength = deflater.deflate(compressed);
+		deflater.end();
+		CRC32 crc = new CRC32();
+		crc.update(data, offset, length);
+		ByteBuffer block = ByteBuffer.allocate(18 + compressedLength + 8).order(ByteOrder.LITTLE_ENDIAN);
+		block.put(new byte[] { 31, (byte) 139, 8, 4, 0, 0, 0, 0, 0, (byte) 255, 6, 0, 'B', 'C', 2, 0 });
+		block.putShort((short) (block.capacity() - 1));
+		block.put(compressed, 0, compressedLength);
+		block.putInt((int) crc.getValue());
+		block.putInt(length);
+		out.write(block.array(), 0, block.capacity());
+	}
+
+	private static byte[] readAll(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[1000];
+		int read;
+		while ((read = in.read(buffer)) != -1) {
+			out.write(buffer, 0, read);
+		}
+		return out.toByteArray();
+	}
+
+	@Test
+	public void readSeekAndIndex() throws IOException {
+		byte[] data = new byte[300000];
+		Random random = new Random(7);
+		for (int i = 0; i < data.length; i++) {
+			data[i] = (byte) "ACGT\n".charAt(random.nextInt(5));
+		}
+		File file = bgzip(data, 10000);
+		assertTrue(BgzfInputStream.isBgzf(file));
+		assertFalse(BgzfInputStream.isBgzf(File.createTempFile("plain", ".txt")));
+
+		try (BgzfInputStream in = new BgzfInputStream(file)) {
+			assertArrayEquals(data, readAll(in));
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		try (BgzfInputStream in = new BgzfInputStream(file, null, executor, 4)) {
+			assertArrayEquals(data, readAll(in));
+		} finally {
+			executor.shutdown();
+		}
+
+		BgzfIndex index = BgzfIndex.build(file);
+		assertEquals(31, index.size());
+		File gzi = BgzfIndex.getIndexFile(file);
+		gzi.deleteOnExit();
+		index.write(gzi);
+		BgzfIndex read = BgzfIndex.read(gzi);
+		assertEquals(0, read.getVirtualOffset(data.length) & 0xFFFF);
+		assertThrows(IllegalArgumentException.class, () -> read.getVirtualOffset(data.length + 1));
+		try (BgzfInputStream in = new BgzfInputStream(file, read, null, 0)) {
+			for (long offset : new long[] { 0, 9999, 10000, 123456, 295000, 300000 }) {
+				assertEquals(index.getVirtualOffset(offset), read.getVirtualOffset(offset));
+				in.seekUncompressed(offset);
+				byte[] slice = new byte[(int) Math.min(5000, data.length - offset)];
+				int n = 0;
+				while (n < slice.length) {
+					n += in.read(slice, n, slice.length - n);
+				}
+				assertArrayEquals(Arrays.copyOfRange(data, (int) offset, (int) offset + slice.length), slice);
+			}
+			in.seekUncompressed(123456);
+			long virtualOffset = in.getVirtualOffset();
+			int expected = in.read();
+			in.seekUncompressed(0);
+			in.seek(virtualOffset);
+			assertEquals(expected, in.read());
+			assertEquals(data[123456] & 0xFF, expected);
+		}
+	}
+
+	@Test
+	public void offsetBeyondBlock() {
+		BgzfIndex index = new BgzfIndex(new long[] { 0, 1000 }, new long[] { 0, 70000 });
+		assertEquals(65535, index.getVirtualOffset(65535));
+		assertThrows(IllegalArgumentException.class, () -> index.getVirtualOffset(65536));
+		assertEquals(1000L << 16, index.getVirtualOffset(70000));
+		assertThrows(IllegalArgumentException.class, () -> index.getVirtualOffset(70001));
+	}
+
+	@Test
+	public void indexedFasta() throws IOException, CompoundNotFoundException {
+		StringBuilder fasta = new StringBuilder();
+		Random random = new Random(3);
+		for (int record = 0; record < 3; record++) {
+			fasta.append(">chr").append(record + 1).append('\n');
+			for (int line = 0; line < 500; line++) {
+				for (int i = 0; i < 60; i++) {
+					fasta.append("ACGT".charAt(random.nextInt(4)));
+				}
+				fasta.append('\n');
+			}
+		}
+		byte[] bytes = fasta.toString().getBytes(StandardCharsets.US_ASCII);
+		File plain = File.createTempFile("plain", ".fa");
+		plain.deleteOnExit();
+		Files.write(plain.toPath(), bytes);
+		File compressed = bgzip(bytes, 4096);
+
+		DNASequenceCreator creator = new DNASequenceCreator(DNACompoundSet.getDNACompoundSet());
+		try (IndexedFastaReader<NucleotideCompound> expected = new IndexedFastaReader<NucleotideCompound>(plain, creator);
+				IndexedFastaReader<NucleotideCompound> actual = new IndexedFastaReader<NucleotideCompound>(compressed, creator)) {
+			assertEquals(expected.getIndex().getEntry("chr2"), actual.getIndex().getEntry("chr2"));
+			for (String region : new String[] { "chr1:1-100", "chr2:4000-9000", "chr3:29950-30000", "chr2" }) {
+				assertEquals(expected.getRegion(region).getSequenceAsString(), actual.getRegion(region).getSequenceAsString());
+			}
+		}
+	}
+}
@@ -0,0 +1,120 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.util;
+
+import org.biojava.nbio.core.sequence.DNASequence;
+import org.biojava.nbio.core.sequence.io.GenbankWriterHelper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BgzfOutputStreamTest {
+
+	private static byte[] readAll(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[4096];
+		int read;
+		while ((read = in.read(buffer)) != -1) {
+			out.write(buffer, 0, read);
+		}
+		in.close();
+		return out.toByteArray();
+	}
+
+	@Test
+	public void roundTrip() throws IOException {
+		Random random = new Random(11);
+		byte[] text = new byte[500000];
+		for (int i = 0; i < text.length; i++) {
+			text[i] = (byte) "ACGT\n".charAt(random.nextInt(5));
+		}
+		// random bytes do not compress so have to be stored
+		byte[] noise = new byte[200000];
+		random.nextBytes(noise);
+
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		try {
+			for (byte[] data : Arrays.asList(text, noise)) {
+				File file = File.createTempFile("bgzf", ".gz");
+				file.deleteOnExit();
+				BgzfOutputStream out = new BgzfOutputStream(new FileOutputStream(file), executor, 4,
+						Deflater.DEFAULT_COMPRESSION);
+				out.write(data, 0, 1000);
+				out.write(data[1000]);
+				out.write(data, 1001, data.length - 1001);
+				out.close();
+
+				assertTrue(BgzfInputStream.isBgzf(file));
+				assertArrayEquals(data, readAll(new GZIPInputStream(new FileInputStream(file))));
+				assertArrayEquals(data, readAll(new BgzfInputStream(file)));
+
+				BgzfIndex built = BgzfIndex.build(file);
+				BgzfIndex written = out.getIndex();
+				assertEquals(built.size(), written.size());
+				for (long offset = 0; offset <= data.length; offset += 9999) {
+					assertEquals(built.getVirtualOffset(offset), written.getVirtualOffset(offset));
+				}
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void indexBeforeAnyBlock() throws IOException {
+		BgzfOutputStream out = new BgzfOutputStream(new ByteArrayOutputStream());
+		BgzfIndex index = out.getIndex();
+		assertEquals(1, index.size());
+		assertEquals(0, index.getVirtualOffset(0));
+		assertThrows(IllegalArgumentException.class, () -> index.getVirtualOffset(1));
+		assertThrows(IllegalArgumentException.class, () -> new BgzfIndex(new long[0], new long[0]).getVirtualOffset(0));
+		out.close();
+	}
+
+	@Test
+	public void genbankHelper() throws Exception {
+		File file = File.createTempFile("bgzf", ".gb.gz");
+		file.deleteOnExit();
+		BgzfIndex.getIndexFile(file).deleteOnExit();
+		GenbankWriterHelper.writeNucleotideSequenceBgzf(file, Arrays.asList(new DNASequence("ACGTACGTTT")), 0);
+		assertTrue(BgzfIndex.getIndexFile(file).exists());
+		String written = new String(readAll(new BgzfInputStream(file)));
+		assertTrue(written.startsWith("LOCUS"));
+		assertTrue(written.contains("acgtacgttt"));
+		assertEquals(BgzfIndex.build(file).size(), BgzfIndex.read(BgzfIndex.getIndexFile(file)).size());
+	}
+}